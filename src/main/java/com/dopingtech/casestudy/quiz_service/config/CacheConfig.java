@@ -0,0 +1,133 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import com.dopingtech.casestudy.quiz_service.service.CacheInvalidationLog;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.CaffeineCacheMeterBinderProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+/**
+ * Caffeine caches bounded by estimated size in bytes, with statistics recorded for the cache
+ * metrics. Evictions and puts made inside a transaction are applied after it commits. With the
+ * cache invalidation log enabled, evictions are replicated to the other nodes. Caches with a
+ * refresh interval serve older entries while reloading them in the background, on a small bounded
+ * pool; a reload that finds the pool full is skipped and the next stale read tries again.
+ */
+@Configuration
+@EnableConfigurationProperties(QuizCacheProperties.class)
+// Transactions wrap the caching advice, so evictions are logged in the transaction they belong to
+@EnableTransactionManagement(order = 0)
+public class CacheConfig {
+
+  // Not a bean, so it does not replace the executor Spring Boot configures for the application
+  private ThreadPoolExecutor refreshExecutor;
+
+  @Bean
+  public CacheManager cacheManager(QuizCacheProperties properties,
+                                   ObjectProvider<CacheInvalidationLog> invalidationLog) {
+    // RefreshingCache handles the rejection, so a full pool discards the reload
+    refreshExecutor = new ThreadPoolExecutor(properties.getRefreshThreads(),
+        properties.getRefreshThreads(), 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(properties.getRefreshQueueCapacity()),
+        new CustomizableThreadFactory("cache-refresh-"));
+    CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+      @Override
+      protected Cache adaptCaffeineCache(String name,
+          com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        Cache caffeineCache = super.adaptCaffeineCache(name, cache);
+        Duration refreshAfterWrite = properties.specOf(name).getRefreshAfterWrite();
+        return refreshAfterWrite == null ? caffeineCache
+            : new RefreshingCache(caffeineCache, cache, refreshAfterWrite, refreshExecutor);
+      }
+    };
+    cacheManager.setCaffeine(builder(properties.getDefaults()));
+    for (String cacheName : properties.getCaches().keySet()) {
+      cacheManager.registerCustomCache(cacheName,
+          builder(properties.specOf(cacheName)).build());
+    }
+    CacheManager localCacheManager = new TransactionAwareCacheManagerProxy(cacheManager);
+    CacheInvalidationLog log = invalidationLog.getIfAvailable();
+    return log == null ? localCacheManager : new ReplicatedCacheManager(localCacheManager, log);
+  }
+
+  @PreDestroy
+  void stopRefreshExecutor() throws InterruptedException {
+    if (refreshExecutor != null) {
+      refreshExecutor.shutdown();
+      refreshExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+  }
+
+  @Bean
+  public CacheMeterBinderProvider<ReplicatedCache> replicatedCacheMeterBinderProvider() {
+    return new CaffeineTargetMeterBinderProvider<ReplicatedCache>() {
+    };
+  }
+
+  @Bean
+  public CacheMeterBinderProvider<RefreshingCache> refreshingCacheMeterBinderProvider() {
+    return new CaffeineTargetMeterBinderProvider<RefreshingCache>() {
+    };
+  }
+
+  static Cache targetOf(Cache cache) {
+    while (true) {
+      if (cache instanceof ReplicatedCache replicatedCache) {
+        cache = replicatedCache.getLocalCache();
+      } else if (cache instanceof TransactionAwareCacheDecorator decorator) {
+        cache = decorator.getTargetCache();
+      } else if (cache instanceof RefreshingCache refreshingCache) {
+        cache = refreshingCache.getTargetCache();
+      } else {
+        return cache;
+      }
+    }
+  }
+
+  static Caffeine<Object, Object> builder(QuizCacheProperties.Spec spec) {
+    Caffeine<Object, Object> builder = Caffeine.newBuilder()
+        .maximumWeight(spec.getMaximumWeight().toBytes())
+        .weigher(CacheEntryWeigher::weigh)
+        .recordStats();
+    if (spec.getExpireAfterWrite() != null) {
+      builder.expireAfterWrite(spec.getExpireAfterWrite());
+    }
+    if (spec.getExpireAfterAccess() != null) {
+      builder.expireAfterAccess(spec.getExpireAfterAccess());
+    }
+    return builder;
+  }
+
+  // Binds the Caffeine statistics of the cache wrapped by one of our decorators. Subclassed per
+  // decorator so the cache type can be resolved from the type argument
+  private abstract static class CaffeineTargetMeterBinderProvider<C extends Cache>
+      implements CacheMeterBinderProvider<C> {
+
+    private final CaffeineCacheMeterBinderProvider caffeineProvider =
+        new CaffeineCacheMeterBinderProvider();
+
+    @Override
+    public MeterBinder getMeterBinder(C cache, Iterable<Tag> tags) {
+      return targetOf(cache) instanceof CaffeineCache caffeineCache
+          ? caffeineProvider.getMeterBinder(caffeineCache, tags) : null;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.Hibernate;
+
+/**
+ * Estimates the heap size of a cache entry in bytes by walking its object graph. Only classes of
+ * this application are descended into; unloaded Hibernate proxies and collections weigh a
+ * reference.
+ */
+public final class CacheEntryWeigher {
+
+  private static final String APPLICATION_PACKAGE = "com.dopingtech.casestudy.quiz_service.";
+
+  private static final int HEADER = 16;
+
+  private static final int REFERENCE = 8;
+
+  private static final ClassValue<List<Field>> FIELDS = new ClassValue<>() {
+    @Override
+    protected List<Field> computeValue(Class<?> type) {
+      List<Field> fields = new ArrayList<>();
+      for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+        for (Field field : current.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers())) {
+            field.setAccessible(true);
+            fields.add(field);
+          }
+        }
+      }
+      return fields;
+    }
+  };
+
+  private CacheEntryWeigher() {
+  }
+
+  public static int weigh(Object key, Object value) {
+    return (int) Math.min(estimate(key) + estimate(value), Integer.MAX_VALUE);
+  }
+
+  public static long estimate(Object root) {
+    Map<Object, Boolean> visited = new IdentityHashMap<>();
+    Deque<Object> pending = new ArrayDeque<>();
+    long bytes = 0;
+    push(pending, root);
+    while (!pending.isEmpty()) {
+      Object object = pending.pop();
+      if (visited.put(object, Boolean.TRUE) == null) {
+        bytes += shallowSize(object, pending);
+      }
+    }
+    return bytes;
+  }
+
+  private static long shallowSize(Object object, Deque<Object> pending) {
+    if (!Hibernate.isInitialized(object)) {
+      return REFERENCE;
+    }
+    if (object instanceof String string) {
+      return HEADER * 2L + string.length();
+    }
+    if (object instanceof Number || object instanceof Boolean || object instanceof Character) {
+      return HEADER + REFERENCE;
+    }
+    if (object instanceof Enum<?>) {
+      return 0;
+    }
+    if (object instanceof byte[] bytes) {
+      return HEADER + bytes.length;
+    }
+    if (object instanceof Object[] array) {
+      for (Object element : array) {
+        push(pending, element);
+      }
+      return HEADER + (long) REFERENCE * array.length;
+    }
+    if (object instanceof Collection<?> collection) {
+      collection.forEach(element -> push(pending, element));
+      return HEADER * 2L + (long) REFERENCE * 2 * collection.size();
+    }
+    if (object instanceof Map<?, ?> map) {
+      map.forEach((key, value) -> {
+        push(pending, key);
+        push(pending, value);
+      });
+      return HEADER * 2L + (long) HEADER * 2 * map.size();
+    }
+    if (!object.getClass().getName().startsWith(APPLICATION_PACKAGE)) {
+      return HEADER * 2L;
+    }
+    long size = HEADER;
+    for (Field field : FIELDS.get(object.getClass())) {
+      Class<?> type = field.getType();
+      if (type.isPrimitive()) {
+        size += type == long.class || type == double.class ? 8 : 4;
+      } else {
+        size += REFERENCE;
+        try {
+          push(pending, field.get(object));
+        } catch (IllegalAccessException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    }
+    return size;
+  }
+
+  private static void push(Deque<Object> pending, Object object) {
+    if (object != null) {
+      pending.push(object);
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import com.dopingtech.casestudy.quiz_service.service.AggregateVersions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Answers conditional GETs of frequently polled resources from the aggregate version counters,
+ * before the request reaches a controller. The ETag joins the counters the resource depends on; a
+ * resource with a missing counter gets no ETag and is passed on unchanged.
+ */
+@Component
+public class ConditionalGetFilter extends OncePerRequestFilter {
+
+  private static final Pattern QUIZ_LIST = Pattern.compile("/quizzes");
+
+  private static final Pattern QUIZ_ASSIGNMENT = Pattern.compile("/quiz-assignments/(\\d{1,18})");
+
+  private static final Pattern COMPLETED_QUIZZES =
+      Pattern.compile("/students/(\\d{1,18})/completed-quizzes");
+
+  @Autowired
+  private AggregateVersions aggregateVersions;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private Counter notModified;
+
+  private Counter modified;
+
+  @PostConstruct
+  void registerMetrics() {
+    notModified = Counter.builder("quiz.conditional-get.requests")
+        .tag("outcome", "not-modified")
+        .description("Conditional GETs of versioned resources")
+        .register(meterRegistry);
+    modified = Counter.builder("quiz.conditional-get.requests")
+        .tag("outcome", "modified")
+        .description("Conditional GETs of versioned resources")
+        .register(meterRegistry);
+    Gauge.builder("quiz.conditional-get.not-modified.ratio", this, filter -> filter.ratio())
+        .description("Share of conditional GETs answered with 304 Not Modified")
+        .register(meterRegistry);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !"GET".equals(request.getMethod()) || keysOf(request.getServletPath()).isEmpty();
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+    List<AggregateVersions.Snapshot> snapshots = new ArrayList<>();
+    for (String key : keysOf(request.getServletPath())) {
+      AggregateVersions.Snapshot snapshot = aggregateVersions.current(key);
+      if (snapshot == null) {
+        filterChain.doFilter(request, response);
+        return;
+      }
+      snapshots.add(snapshot);
+    }
+    String etag = snapshots.stream()
+        .map(snapshot -> Long.toString(snapshot.version(), 36))
+        .collect(Collectors.joining(".", "\"", "\""));
+    Instant lastModified = snapshots.stream()
+        .map(AggregateVersions.Snapshot::updatedAt)
+        .max(Instant::compareTo)
+        .orElseThrow();
+
+    response.setHeader(HttpHeaders.ETAG, etag);
+    response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified.toEpochMilli());
+
+    String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+    long ifModifiedSince = ifNoneMatch == null
+        ? request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE) : -1;
+    if (ifNoneMatch != null || ifModifiedSince != -1) {
+      boolean unchanged = ifNoneMatch != null
+          ? matches(ifNoneMatch, etag)
+          // Header dates have second precision
+          : lastModified.toEpochMilli() / 1000 <= ifModifiedSince / 1000;
+      if (unchanged) {
+        notModified.increment();
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        return;
+      }
+      modified.increment();
+    }
+    filterChain.doFilter(request, response);
+  }
+
+  static List<String> keysOf(String path) {
+    if (QUIZ_LIST.matcher(path).matches()) {
+      return List.of(AggregateVersions.QUIZ_LIST);
+    }
+    Matcher matcher = QUIZ_ASSIGNMENT.matcher(path);
+    if (matcher.matches()) {
+      Long id = Long.valueOf(matcher.group(1));
+      return List.of(AggregateVersions.key(AggregateVersions.QUIZ_ASSIGNMENT, id));
+    }
+    matcher = COMPLETED_QUIZZES.matcher(path);
+    if (matcher.matches()) {
+      Long id = Long.valueOf(matcher.group(1));
+      // Completed quizzes show quiz names, so renaming a quiz changes them too
+      return List.of(AggregateVersions.key(AggregateVersions.COMPLETED_QUIZZES, id),
+          AggregateVersions.QUIZ_LIST);
+    }
+    return List.of();
+  }
+
+  private static boolean matches(String ifNoneMatch, String etag) {
+    for (String tag : ifNoneMatch.split(",")) {
+      String trimmed = tag.trim();
+      if (trimmed.startsWith("W/")) {
+        trimmed = trimmed.substring(2);
+      }
+      if (trimmed.equals("*") || trimmed.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private double ratio() {
+    double total = notModified.count() + modified.count();
+    return total == 0 ? 0 : notModified.count() / total;
+  }
+}
@@ -0,0 +1,66 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConflictRetryAspect {
+
+  // H2 reports a row changed by another transaction as CONCURRENT_UPDATE_1
+  private static final int H2_CONCURRENT_UPDATE = 90131;
+
+  private static final String SERIALIZATION_FAILURE = "40001";
+
+  @Value("${quiz.retry.max-attempts:5}")
+  private int maxAttempts;
+
+  @Value("${quiz.retry.initial-backoff:10}")
+  private long initialBackoff;
+
+  @Value("${quiz.retry.max-backoff:200}")
+  private long maxBackoff;
+
+  @Around("@annotation(com.dopingtech.casestudy.quiz_service.config.RetryOnConflict)")
+  public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+    long backoff = initialBackoff;
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return joinPoint.proceed();
+      } catch (RuntimeException e) {
+        if (attempt >= maxAttempts || !isConflict(e)) {
+          throw e;
+        }
+        log.debug("Conflict in {} on attempt {}, retrying", joinPoint.getSignature().toShortString(),
+            attempt);
+        Thread.sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+        backoff = Math.min(backoff * 2, maxBackoff);
+      }
+    }
+  }
+
+  static boolean isConflict(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConcurrencyFailureException) {
+        return true;
+      }
+      if (cause instanceof SQLException sqlException
+          && (sqlException.getErrorCode() == H2_CONCURRENT_UPDATE
+          || SERIALIZATION_FAILURE.equals(sqlException.getSQLState()))) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,64 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Cache limits bound from {@code quiz.cache}. Each named cache may override any default.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "quiz.cache")
+public class QuizCacheProperties {
+
+  private Spec defaults = new Spec(DataSize.ofMegabytes(16), Duration.ofMinutes(10), null);
+
+  private Map<String, Spec> caches = new LinkedHashMap<>();
+
+  // Threads and queued reloads of refresh-after-write caches; reloads beyond them are skipped
+  private int refreshThreads = 2;
+
+  private int refreshQueueCapacity = 100;
+
+  public Spec specOf(String cacheName) {
+    Spec spec = caches.get(cacheName);
+    if (spec == null) {
+      return defaults;
+    }
+    return new Spec(
+        spec.getMaximumWeight() != null ? spec.getMaximumWeight() : defaults.getMaximumWeight(),
+        spec.getExpireAfterWrite() != null
+            ? spec.getExpireAfterWrite() : defaults.getExpireAfterWrite(),
+        spec.getExpireAfterAccess() != null
+            ? spec.getExpireAfterAccess() : defaults.getExpireAfterAccess(),
+        spec.getRefreshAfterWrite() != null
+            ? spec.getRefreshAfterWrite() : defaults.getRefreshAfterWrite());
+  }
+
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Spec {
+
+    private DataSize maximumWeight;
+
+    private Duration expireAfterWrite;
+
+    private Duration expireAfterAccess;
+
+    // Entries older than this are served while they are reloaded in the background
+    private Duration refreshAfterWrite;
+
+    public Spec(DataSize maximumWeight, Duration expireAfterWrite, Duration expireAfterAccess) {
+      this(maximumWeight, expireAfterWrite, expireAfterAccess, null);
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+
+/**
+ * Caffeine-backed cache that serves entries older than the refresh interval while reloading them
+ * in the background. Concurrent misses for a key share one load; so do concurrent refreshes. A
+ * refresh whose entry was evicted or replaced in the meantime is discarded, so it cannot bring
+ * back a value an eviction removed.
+ */
+@Slf4j
+public class RefreshingCache implements Cache {
+
+  private final Cache targetCache;
+
+  private final com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache;
+
+  private final Duration refreshAfterWrite;
+
+  private final Executor executor;
+
+  private final Map<Object, Boolean> refreshing = new ConcurrentHashMap<>();
+
+  public RefreshingCache(Cache targetCache,
+                         com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache,
+                         Duration refreshAfterWrite, Executor executor) {
+    if (nativeCache.policy().expireAfterWrite().isEmpty()) {
+      throw new IllegalStateException(
+          "Cache " + targetCache.getName() + " needs expire-after-write to be refreshed");
+    }
+    this.targetCache = targetCache;
+    this.nativeCache = nativeCache;
+    this.refreshAfterWrite = refreshAfterWrite;
+    this.executor = executor;
+  }
+
+  public Cache getTargetCache() {
+    return targetCache;
+  }
+
+  @Override
+  public String getName() {
+    return targetCache.getName();
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return nativeCache;
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    return targetCache.get(key);
+  }
+
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    return targetCache.get(key, type);
+  }
+
+  @Override
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    AtomicBoolean loaded = new AtomicBoolean();
+    T value = targetCache.get(key, () -> {
+      loaded.set(true);
+      return valueLoader.call();
+    });
+    if (!loaded.get() && isStale(key)) {
+      refresh(key, valueLoader);
+    }
+    return value;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    targetCache.put(key, value);
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    return targetCache.putIfAbsent(key, value);
+  }
+
+  @Override
+  public void evict(Object key) {
+    targetCache.evict(key);
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    return targetCache.evictIfPresent(key);
+  }
+
+  @Override
+  public void clear() {
+    targetCache.clear();
+  }
+
+  @Override
+  public boolean invalidate() {
+    return targetCache.invalidate();
+  }
+
+  private boolean isStale(Object key) {
+    return nativeCache.policy().expireAfterWrite()
+        .flatMap(expiration -> expiration.ageOf(key))
+        .map(age -> age.compareTo(refreshAfterWrite) >= 0)
+        .orElse(false);
+  }
+
+  private void refresh(Object key, Callable<?> valueLoader) {
+    Object current = nativeCache.policy().getIfPresentQuietly(key);
+    if (current == null || refreshing.putIfAbsent(key, Boolean.TRUE) != null) {
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          Object value = valueLoader.call();
+          Object storeValue = value != null ? value : NullValue.INSTANCE;
+          nativeCache.asMap().computeIfPresent(key,
+              (k, present) -> present == current ? storeValue : present);
+        } catch (Exception e) {
+          // The stale entry stays until it expires or the next refresh succeeds
+          log.debug("Refreshing {} in cache {} failed", key, getName(), e);
+        } finally {
+          refreshing.remove(key);
+        }
+      });
+    } catch (RuntimeException e) {
+      refreshing.remove(key);
+      log.debug("Refresh of {} in cache {} was rejected", key, getName(), e);
+    }
+  }
+}
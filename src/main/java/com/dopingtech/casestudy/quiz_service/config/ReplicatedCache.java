@@ -0,0 +1,92 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import com.dopingtech.casestudy.quiz_service.service.CacheInvalidationLog;
+import java.util.concurrent.Callable;
+import org.springframework.cache.Cache;
+
+/**
+ * Node-local cache whose evictions are also written to the cache invalidation log, so that other
+ * nodes evict the same keys.
+ */
+public class ReplicatedCache implements Cache {
+
+  private final Cache localCache;
+
+  private final CacheInvalidationLog invalidationLog;
+
+  public ReplicatedCache(Cache localCache, CacheInvalidationLog invalidationLog) {
+    this.localCache = localCache;
+    this.invalidationLog = invalidationLog;
+  }
+
+  public Cache getLocalCache() {
+    return localCache;
+  }
+
+  @Override
+  public String getName() {
+    return localCache.getName();
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return localCache.getNativeCache();
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    return localCache.get(key);
+  }
+
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    return localCache.get(key, type);
+  }
+
+  @Override
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    return localCache.get(key, valueLoader);
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    localCache.put(key, value);
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    return localCache.putIfAbsent(key, value);
+  }
+
+  @Override
+  public void evict(Object key) {
+    invalidationLog.record(getName(), key);
+    localCache.evict(key);
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    invalidationLog.record(getName(), key);
+    return localCache.evictIfPresent(key);
+  }
+
+  @Override
+  public void clear() {
+    invalidationLog.record(getName(), null);
+    localCache.clear();
+  }
+
+  @Override
+  public boolean invalidate() {
+    invalidationLog.record(getName(), null);
+    return localCache.invalidate();
+  }
+
+  public void evictLocally(Object key) {
+    localCache.evict(key);
+  }
+
+  public void clearLocally() {
+    localCache.clear();
+  }
+}
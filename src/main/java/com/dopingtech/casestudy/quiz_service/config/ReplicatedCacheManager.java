@@ -0,0 +1,41 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import com.dopingtech.casestudy.quiz_service.service.CacheInvalidationLog;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Wraps every cache of the local cache manager in a {@link ReplicatedCache}.
+ */
+public class ReplicatedCacheManager implements CacheManager {
+
+  private final CacheManager localCacheManager;
+
+  private final CacheInvalidationLog invalidationLog;
+
+  private final ConcurrentMap<String, ReplicatedCache> caches = new ConcurrentHashMap<>();
+
+  public ReplicatedCacheManager(CacheManager localCacheManager,
+                                CacheInvalidationLog invalidationLog) {
+    this.localCacheManager = localCacheManager;
+    this.invalidationLog = invalidationLog;
+  }
+
+  @Override
+  public Cache getCache(String name) {
+    Cache localCache = localCacheManager.getCache(name);
+    if (localCache == null) {
+      return null;
+    }
+    return caches.computeIfAbsent(name, cacheName -> new ReplicatedCache(localCache,
+        invalidationLog));
+  }
+
+  @Override
+  public Collection<String> getCacheNames() {
+    return localCacheManager.getCacheNames();
+  }
+}
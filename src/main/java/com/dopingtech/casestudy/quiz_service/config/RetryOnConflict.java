@@ -0,0 +1,15 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Retries the annotated method with bounded backoff when it fails on a concurrent update. The
+ * retry wraps the method's transaction, so every attempt starts from fresh state.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
@@ -0,0 +1,62 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Regions of the Hibernate second-level cache, created up front in a Caffeine JCache cache manager
+ * with a maximum size and an expiry each. Hibernate is configured to fail on a region that is not
+ * created here, so no region can grow without a bound or keep an entry forever.
+ */
+@Configuration
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+  public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+
+  // Holds one timestamp per table; evicting one would make cached queries look current
+  public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+  @Bean
+  public javax.cache.CacheManager secondLevelCacheManager(SecondLevelCacheProperties properties) {
+    CachingProvider provider =
+        Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+    // One cache manager per application context, so test contexts do not share regions
+    javax.cache.CacheManager cacheManager = provider.getCacheManager(
+        URI.create("quiz-second-level-cache-" + UUID.randomUUID()),
+        SecondLevelCacheConfig.class.getClassLoader());
+    OptionalLong expireAfterWrite =
+        OptionalLong.of(properties.getExpireAfterWrite().toNanos());
+    properties.getRegions().forEach((region, maximumSize) -> cacheManager.createCache(region,
+        configuration(OptionalLong.of(maximumSize), expireAfterWrite)));
+    cacheManager.createCache(UPDATE_TIMESTAMPS_REGION,
+        configuration(OptionalLong.empty(), OptionalLong.empty()));
+    return cacheManager;
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer secondLevelCacheCustomizer(
+      javax.cache.CacheManager secondLevelCacheManager) {
+    return hibernateProperties ->
+        hibernateProperties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+  }
+
+  private static CaffeineConfiguration<Object, Object> configuration(OptionalLong maximumSize,
+      OptionalLong expireAfterWrite) {
+    CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+    configuration.setMaximumSize(maximumSize);
+    configuration.setExpireAfterWrite(expireAfterWrite);
+    configuration.setStatisticsEnabled(true);
+    return configuration;
+  }
+}
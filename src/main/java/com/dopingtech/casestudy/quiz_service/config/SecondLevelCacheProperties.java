@@ -0,0 +1,30 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Maximum number of entries in each Hibernate second-level cache region, and the age at which
+ * entries expire, bound from {@code quiz.second-level-cache}. Every region named on an entity or
+ * collection must be listed.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "quiz.second-level-cache")
+public class SecondLevelCacheProperties {
+
+  private Map<String, Long> regions = new LinkedHashMap<>(Map.of(
+      "quiz", 1_000L,
+      "quiz.questions", 1_000L,
+      "question", 20_000L,
+      "question.options", 20_000L,
+      "option", 100_000L,
+      SecondLevelCacheConfig.QUERY_RESULTS_REGION, 5_000L));
+
+  // Regions are not invalidated across nodes, so this bounds how stale another node's copy can be
+  private Duration expireAfterWrite = Duration.ofMinutes(5);
+}
@@ -0,0 +1,46 @@
+package com.dopingtech.casestudy.quiz_service.controller;
+
+import com.dopingtech.casestudy.quiz_service.model.dto.ExportFilterDTO;
+import com.dopingtech.casestudy.quiz_service.service.ExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/exports")
+@Tag(name = "Export API")
+public class ExportController {
+
+  @Autowired
+  private ExportService exportService;
+
+  @GetMapping(value = "/quiz-assignments", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(summary = "Export quiz assignments", description = "Streams the quiz assignments matching the given quiz, status and completion dates as newline-delimited JSON")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully started the export")
+  })
+  public ResponseEntity<StreamingResponseBody> exportQuizAssignments(ExportFilterDTO filter) {
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(out -> exportService.writeQuizAssignments(filter, out));
+  }
+
+  @GetMapping(value = "/answers", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(summary = "Export answers", description = "Streams the answers of the quiz assignments matching the given quiz, status and completion dates as newline-delimited JSON")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully started the export")
+  })
+  public ResponseEntity<StreamingResponseBody> exportAnswers(ExportFilterDTO filter) {
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(out -> exportService.writeAnswers(filter, out));
+  }
+}
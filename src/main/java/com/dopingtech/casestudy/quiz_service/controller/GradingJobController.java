@@ -0,0 +1,34 @@
+package com.dopingtech.casestudy.quiz_service.controller;
+
+import com.dopingtech.casestudy.quiz_service.model.dto.GradingJobDTO;
+import com.dopingtech.casestudy.quiz_service.service.GradingJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/grading-jobs")
+@Tag(name = "Grading Job API")
+public class GradingJobController {
+
+  @Autowired
+  private GradingJobService gradingJobService;
+
+  @GetMapping("/{id}")
+  @Operation(summary = "Get grading job by id", description = "Returns the status of the grading job corresponding to the given id")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved the grading job"),
+      @ApiResponse(responseCode = "404", description = "Not found - The grading job was not found")
+  })
+  public ResponseEntity<GradingJobDTO> getGradingJobById(@PathVariable String id) {
+    GradingJobDTO gradingJob = gradingJobService.findById(id);
+    return ResponseEntity.ok(gradingJob);
+  }
+}
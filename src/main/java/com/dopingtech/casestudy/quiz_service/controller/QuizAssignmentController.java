@@ -1,9 +1,15 @@
 package com.dopingtech.casestudy.quiz_service.controller;
 
 import com.dopingtech.casestudy.quiz_service.model.dto.AnswerDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.AnswerResultDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.AnswerSheetDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.CursorPageDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.GradingJobDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.QuizAssignmentDTO;
 import com.dopingtech.casestudy.quiz_service.model.entity.Answer;
 import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizAssignmentView;
+import com.dopingtech.casestudy.quiz_service.service.GradingJobService;
 import com.dopingtech.casestudy.quiz_service.service.QuizAssignmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -21,6 +27,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -32,13 +39,19 @@ public class QuizAssignmentController {
   @Autowired
   private QuizAssignmentService quizAssignmentService;
 
+  @Autowired
+  private GradingJobService gradingJobService;
+
   @GetMapping
-  @Operation(summary = "Get all quiz assignments", description = "Returns a list of all quiz assignments")
+  @Operation(summary = "Get all quiz assignments", description = "Returns a page of quiz assignments ordered by id, with the cursor of the next page")
   @ApiResponses(value = {
-      @ApiResponse(responseCode = "200", description = "Successfully retrieved quiz assignments")
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved quiz assignments"),
+      @ApiResponse(responseCode = "400", description = "Bad request - The page cursor is not valid")
   })
-  public ResponseEntity<List<QuizAssignment>> getAllQuizAssignments() {
-    List<QuizAssignment> quizAssignments = quizAssignmentService.findAll();
+  public ResponseEntity<CursorPageDTO<QuizAssignment>> getAllQuizAssignments(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer size) {
+    CursorPageDTO<QuizAssignment> quizAssignments = quizAssignmentService.findPage(cursor, size);
     return ResponseEntity.ok(quizAssignments);
   }
 
@@ -60,8 +73,8 @@ public class QuizAssignmentController {
       @ApiResponse(responseCode = "200", description = "Successfully retrieved the quiz assignment"),
       @ApiResponse(responseCode = "404", description = "Not found - The quiz assignment was not found")
   })
-  public ResponseEntity<QuizAssignment> getQuizAssignmentById(@PathVariable Long id) {
-    QuizAssignment quizAssignment = quizAssignmentService.findById(id);
+  public ResponseEntity<QuizAssignmentView> getQuizAssignmentById(@PathVariable Long id) {
+    QuizAssignmentView quizAssignment = quizAssignmentService.findById(id);
     return ResponseEntity.ok(quizAssignment);
   }
 
@@ -103,13 +116,34 @@ public class QuizAssignmentController {
     return ResponseEntity.ok("Question answered successfully.");
   }
 
+  @PatchMapping("/{quizAssignmentId}/answers")
+  @Operation(summary = "Submit an answer sheet", description = "Submits answers for many questions of the quiz at once and returns a result per question")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully processed the answer sheet"),
+      @ApiResponse(responseCode = "400", description = "Bad request - Invalid input data or quiz is not in progress"),
+      @ApiResponse(responseCode = "404", description = "Not found - The quiz assignment was not found")
+  })
+  public ResponseEntity<List<AnswerResultDTO>> answerQuestions(
+      @PathVariable Long quizAssignmentId, @Valid @RequestBody AnswerSheetDTO answerSheetDTO) {
+    List<AnswerResultDTO> results =
+        quizAssignmentService.answerQuestions(quizAssignmentId, answerSheetDTO);
+    return ResponseEntity.ok(results);
+  }
+
   @PatchMapping("/{quizAssignmentId}/complete")
-  @Operation(summary = "Complete the quiz", description = "Updates the status of the quiz assignment to completed")
+  @Operation(summary = "Complete the quiz", description = "Updates the status of the quiz assignment to completed. When asynchronous grading is enabled, queues a grading job and returns it instead")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Successfully completed the quiz"),
-      @ApiResponse(responseCode = "404", description = "Not found - The quiz assignment was not found")
+      @ApiResponse(responseCode = "202", description = "Grading job queued"),
+      @ApiResponse(responseCode = "400", description = "Bad request - Quiz has already been completed"),
+      @ApiResponse(responseCode = "404", description = "Not found - The quiz assignment was not found"),
+      @ApiResponse(responseCode = "503", description = "Service unavailable - The grading queue is full")
   })
-  public ResponseEntity<String> completeQuiz(@PathVariable Long quizAssignmentId) {
+  public ResponseEntity<?> completeQuiz(@PathVariable Long quizAssignmentId) {
+    if (gradingJobService.isEnabled()) {
+      GradingJobDTO gradingJob = gradingJobService.submit(quizAssignmentId);
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(gradingJob);
+    }
     quizAssignmentService.completeQuiz(quizAssignmentId);
     return ResponseEntity.ok("Quiz completed successfully.");
   }
@@ -1,20 +1,31 @@
 package com.dopingtech.casestudy.quiz_service.controller;
 
+import com.dopingtech.casestudy.quiz_service.model.dto.CursorPageDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizCloseResultDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.QuizDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizImportResultDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.QuizInfoDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.StudentInfoDTO;
-import com.dopingtech.casestudy.quiz_service.model.entity.Question;
 import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
 import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuestionView;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizView;
+import com.dopingtech.casestudy.quiz_service.service.QuizImportService;
+import com.dopingtech.casestudy.quiz_service.service.QuizPaper;
 import com.dopingtech.casestudy.quiz_service.service.QuizService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -23,7 +34,9 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -35,13 +48,19 @@ public class QuizController {
   @Autowired
   private QuizService quizService;
 
+  @Autowired
+  private QuizImportService quizImportService;
+
   @GetMapping
-  @Operation(summary = "Get all quizzes", description = "Returns a list of all quizzes")
+  @Operation(summary = "Get all quizzes", description = "Returns a page of quizzes ordered by id, with the cursor of the next page")
   @ApiResponses(value = {
-      @ApiResponse(responseCode = "200", description = "Successfully retrieved quizzes")
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved quizzes"),
+      @ApiResponse(responseCode = "400", description = "Bad request - The page cursor is not valid")
   })
-  public ResponseEntity<List<QuizInfoDTO>> getAllQuizzes() {
-    List<QuizInfoDTO> quizzes = quizService.findAll();
+  public ResponseEntity<CursorPageDTO<QuizInfoDTO>> getAllQuizzes(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer size) {
+    CursorPageDTO<QuizInfoDTO> quizzes = quizService.findPage(cursor, size);
     return ResponseEntity.ok(quizzes);
   }
 
@@ -51,8 +70,8 @@ public class QuizController {
       @ApiResponse(responseCode = "200", description = "Successfully retrieved the quiz"),
       @ApiResponse(responseCode = "404", description = "Not found - The quiz was not found")
   })
-  public ResponseEntity<Quiz> getQuizById(@PathVariable Long id) {
-    Quiz quiz = quizService.findById(id);
+  public ResponseEntity<QuizView> getQuizById(@PathVariable Long id) {
+    QuizView quiz = quizService.findById(id);
     return ResponseEntity.ok(quiz);
   }
 
@@ -84,11 +103,40 @@ public class QuizController {
       @ApiResponse(responseCode = "200", description = "Successfully retrieved questions"),
       @ApiResponse(responseCode = "404", description = "Not found - The quiz was not found")
   })
-  public ResponseEntity<List<Question>> getQuestionsByQuizId(@PathVariable Long id) {
-    List<Question> questions = quizService.findQuestionsByQuizId(id);
+  public ResponseEntity<List<QuestionView>> getQuestionsByQuizId(@PathVariable Long id) {
+    List<QuestionView> questions = quizService.findQuestionsByQuizId(id);
     return ResponseEntity.ok(questions);
   }
 
+  @GetMapping(value = "/{id}/paper", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Get quiz paper by quiz id", description = "Returns the questions and options of the given quiz id without correct answers, with an ETag")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved the quiz paper"),
+      @ApiResponse(responseCode = "304", description = "Not modified - The quiz paper matches the given ETag"),
+      @ApiResponse(responseCode = "404", description = "Not found - The quiz was not found")
+  })
+  public ResponseEntity<byte[]> getQuizPaper(
+      @PathVariable Long id,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    QuizPaper paper = quizService.findPaperByQuizId(id);
+    boolean gzip = paper.servesGzip(acceptEncoding);
+    if (paper.matches(ifNoneMatch, gzip)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(paper.getEtag(gzip))
+          .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+          .build();
+    }
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .eTag(paper.getEtag(gzip))
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+        .contentType(MediaType.APPLICATION_JSON);
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.body(paper.getBody(gzip));
+  }
+
   @PostMapping
   @Operation(summary = "Create a new quiz", description = "Creates a new quiz based on the provided details")
   @ApiResponses(value = {
@@ -100,6 +148,27 @@ public class QuizController {
     return ResponseEntity.status(HttpStatus.CREATED).body(createdQuiz);
   }
 
+  @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Import a whole quiz", description = "Creates a quiz with all of its questions, options and correct answers from one document")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "201", description = "Successfully created the quiz"),
+      @ApiResponse(responseCode = "400", description = "Bad request - Invalid quiz document, with every problem listed")
+  })
+  public ResponseEntity<Quiz> importQuiz(@RequestBody QuizDocumentDTO quizDocumentDTO) {
+    Quiz importedQuiz = quizService.importQuiz(quizDocumentDTO);
+    return ResponseEntity.status(HttpStatus.CREATED).body(importedQuiz);
+  }
+
+  @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(summary = "Import quizzes from a file", description = "Imports a newline-delimited JSON file of quiz documents, each quiz in its own transaction, and reports the result of every line")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully read the file")
+  })
+  public ResponseEntity<List<QuizImportResultDTO>> importQuizzes(InputStream body)
+      throws IOException {
+    return ResponseEntity.ok(quizImportService.importQuizzes(body));
+  }
+
   @PatchMapping("/{id}")
   @Operation(summary = "Update a quiz", description = "Updates the existing quiz identified by the given id")
   @ApiResponses(value = {
@@ -113,6 +182,17 @@ public class QuizController {
     return ResponseEntity.ok(updatedQuiz);
   }
 
+  @PatchMapping("/{id}/close")
+  @Operation(summary = "Close a quiz", description = "Completes and scores every assigned or in progress quiz assignment of the quiz identified by the given id")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successfully closed the quiz"),
+      @ApiResponse(responseCode = "404", description = "Not found - The quiz was not found")
+  })
+  public ResponseEntity<QuizCloseResultDTO> closeQuiz(@PathVariable Long id) {
+    QuizCloseResultDTO result = quizService.closeQuiz(id);
+    return ResponseEntity.ok(result);
+  }
+
   @DeleteMapping("/{id}")
   @Operation(summary = "Delete a quiz", description = "Deletes the quiz identified by the given id")
   @ApiResponses(value = {
@@ -1,11 +1,13 @@
 package com.dopingtech.casestudy.quiz_service.controller;
 
 import com.dopingtech.casestudy.quiz_service.model.dto.CompletedQuizDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.CursorPageDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.QuizInfoDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.StudentDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.StudentInfoDTO;
 import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
 import com.dopingtech.casestudy.quiz_service.model.entity.Student;
+import com.dopingtech.casestudy.quiz_service.model.projection.StudentView;
 import com.dopingtech.casestudy.quiz_service.service.StudentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -24,6 +26,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -36,12 +39,15 @@ public class StudentController {
   private StudentService studentService;
 
   @GetMapping
-  @Operation(summary = "Get all students", description = "Returns a list of all students without quiz assignments")
+  @Operation(summary = "Get all students", description = "Returns a page of students without quiz assignments, ordered by id, with the cursor of the next page")
   @ApiResponses(value = {
-      @ApiResponse(responseCode = "200", description = "Successfully retrieved students")
+      @ApiResponse(responseCode = "200", description = "Successfully retrieved students"),
+      @ApiResponse(responseCode = "400", description = "Bad request - The page cursor is not valid")
   })
-  public ResponseEntity<List<StudentInfoDTO>> getAllStudents() {
-    List<StudentInfoDTO> students = studentService.findAll();
+  public ResponseEntity<CursorPageDTO<StudentInfoDTO>> getAllStudents(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer size) {
+    CursorPageDTO<StudentInfoDTO> students = studentService.findPage(cursor, size);
     return ResponseEntity.ok(students);
   }
 
@@ -51,8 +57,8 @@ public class StudentController {
       @ApiResponse(responseCode = "200", description = "Successfully retrieved the student"),
       @ApiResponse(responseCode = "404", description = "Not found - The student was not found")
   })
-  public ResponseEntity<Student> getStudentById(@PathVariable Long id) {
-    Student student = studentService.findById(id);
+  public ResponseEntity<StudentView> getStudentById(@PathVariable Long id) {
+    StudentView student = studentService.findById(id);
     return ResponseEntity.ok(student);
   }
 
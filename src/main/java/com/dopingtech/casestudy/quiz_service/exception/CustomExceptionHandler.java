@@ -3,6 +3,7 @@ package com.dopingtech.casestudy.quiz_service.exception;
 import java.util.HashMap;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -37,6 +38,16 @@ public class CustomExceptionHandler {
     return ResponseEntity.badRequest().body(response);
   }
 
+  @ExceptionHandler(InvalidQuizDocumentException.class)
+  public ResponseEntity<Map<String, Object>> handleInvalidQuizDocumentException(
+      InvalidQuizDocumentException e) {
+    log.error("Message : {}", e.getMessage(), e);
+    Map<String, Object> response = new HashMap<>();
+    response.put("code", e.getErrorCode().getCode());
+    response.put("errors", e.getErrors());
+    return ResponseEntity.badRequest().body(response);
+  }
+
   @ExceptionHandler(DataIntegrityViolationException.class)
   public ResponseEntity<Map<String, Object>> handleDataIntegrityViolationException(
       DataIntegrityViolationException e) {
@@ -48,6 +59,16 @@ public class CustomExceptionHandler {
     return ResponseEntity.status(HttpStatus.CONFLICT).body(response); // 409 Conflict
   }
 
+  @ExceptionHandler(ConcurrencyFailureException.class)
+  public ResponseEntity<Map<String, Object>> handleConcurrencyFailureException(
+      ConcurrencyFailureException e) {
+    log.warn("Concurrent update could not be resolved by retrying: {}", e.getMessage());
+    Map<String, Object> response = new HashMap<>();
+    response.put("code", ErrorCode.CONCURRENT_UPDATE.getCode());
+    response.put("error", ErrorCode.CONCURRENT_UPDATE.getMessage());
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<Map<String, Object>> handleGenericException(Exception e) {
     log.error("An unexpected error occurred : {}", e.getMessage(), e);
@@ -14,7 +14,13 @@ public enum ErrorCode {
   QUIZ_COMPLETED_ALREADY(1006, "The quiz has already been completed"),
   QUIZ_NOT_IN_PROGRESS(1007, "The quiz is not currently in progress"),
   VALIDATION_ERROR(1008, "Validation error"),
-  DATA_INTEGRITY_VIOLATION(1009, "A data integrity violation occurred.");
+  DATA_INTEGRITY_VIOLATION(1009, "A data integrity violation occurred."),
+  GRADING_JOB_NOT_FOUND(1010, "Grading job not found"),
+  GRADING_QUEUE_FULL(1011, "The grading queue is full"),
+  CONCURRENT_UPDATE(1012, "The resource was changed concurrently, please retry"),
+  INVALID_CURSOR(1013, "Invalid page cursor"),
+  INVALID_QUIZ_DOCUMENT(1014, "Invalid quiz document"),
+  QUESTION_NOT_IN_QUIZ(1015, "The question does not belong to the quiz");
 
   private final int code;
   private final String message;
@@ -0,0 +1,10 @@
+package com.dopingtech.casestudy.quiz_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class GradingJobNotFoundException extends CustomException {
+  public GradingJobNotFoundException(String id) {
+    super(ErrorCode.GRADING_JOB_NOT_FOUND, HttpStatus.NOT_FOUND,
+        String.format("Grading job with id %s not found", id));
+  }
+}
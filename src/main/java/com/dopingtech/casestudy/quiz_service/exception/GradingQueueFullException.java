@@ -0,0 +1,10 @@
+package com.dopingtech.casestudy.quiz_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class GradingQueueFullException extends CustomException {
+  public GradingQueueFullException(Long quizId) {
+    super(ErrorCode.GRADING_QUEUE_FULL, HttpStatus.SERVICE_UNAVAILABLE,
+        String.format("Grading job for quiz with id %d could not be queued", quizId));
+  }
+}
@@ -0,0 +1,10 @@
+package com.dopingtech.casestudy.quiz_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidCursorException extends CustomException {
+  public InvalidCursorException(String cursor) {
+    super(ErrorCode.INVALID_CURSOR, HttpStatus.BAD_REQUEST,
+        String.format("Page cursor %s is not valid", cursor));
+  }
+}
@@ -0,0 +1,19 @@
+package com.dopingtech.casestudy.quiz_service.exception;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class InvalidQuizDocumentException extends CustomException {
+
+  private final Map<String, String> errors;
+
+  public InvalidQuizDocumentException(Map<String, String> errors) {
+    super(ErrorCode.INVALID_QUIZ_DOCUMENT, HttpStatus.BAD_REQUEST, errors.entrySet().stream()
+        .map(error -> error.getKey() + ": " + error.getValue())
+        .collect(Collectors.joining("; ")));
+    this.errors = errors;
+  }
+}
@@ -0,0 +1,11 @@
+package com.dopingtech.casestudy.quiz_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class QuestionNotInQuizException extends CustomException {
+  public QuestionNotInQuizException(Long questionId, Long quizId) {
+    super(ErrorCode.QUESTION_NOT_IN_QUIZ, HttpStatus.BAD_REQUEST,
+        String.format("Question with id %d does not belong to quiz with id %d.", questionId,
+            quizId));
+  }
+}
@@ -0,0 +1,17 @@
+package com.dopingtech.casestudy.quiz_service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerResultDTO {
+  private Long questionId;
+  private boolean saved;
+  private Integer code;
+  private String error;
+}
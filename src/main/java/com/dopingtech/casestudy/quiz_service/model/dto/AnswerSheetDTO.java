@@ -0,0 +1,15 @@
+package com.dopingtech.casestudy.quiz_service.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class AnswerSheetDTO {
+
+  @NotEmpty(message = "Answers cannot be empty")
+  private List<@Valid AnswerSheetItemDTO> answers;
+}
@@ -0,0 +1,21 @@
+package com.dopingtech.casestudy.quiz_service.model.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerSheetItemDTO {
+
+  @NotNull(message = "Question id cannot be null")
+  private Long questionId;
+
+  @Pattern(regexp = "^[A-E]$|^$", message = "Selected option must be one of: A, B, C, D, E or left blank")
+  private String selectedOption;
+}
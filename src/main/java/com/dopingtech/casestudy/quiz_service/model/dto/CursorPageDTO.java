@@ -0,0 +1,16 @@
+package com.dopingtech.casestudy.quiz_service.model.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+  private List<T> items;
+  private String nextCursor;
+}
@@ -0,0 +1,22 @@
+package com.dopingtech.casestudy.quiz_service.model.dto;
+
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportFilterDTO {
+  private Long quizId;
+  private QuizAssignmentStatus status;
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate completedFrom;
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate completedTo;
+}
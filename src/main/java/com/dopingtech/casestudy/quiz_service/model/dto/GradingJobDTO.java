@@ -0,0 +1,25 @@
+package com.dopingtech.casestudy.quiz_service.model.dto;
+
+import com.dopingtech.casestudy.quiz_service.model.enums.GradingJobStatus;
+import java.time.Instant;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GradingJobDTO {
+  private String id;
+  private Long quizId;
+  private GradingJobStatus status;
+  private List<Long> quizAssignmentIds;
+  private String error;
+  private Instant submittedAt;
+  private Instant finishedAt;
+}
@@ -0,0 +1,22 @@
+package com.dopingtech.casestudy.quiz_service.model.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OptionDocumentDTO {
+
+  @NotBlank(message = "Option text is required")
+  private String text;
+
+  @NotBlank(message = "Option letter is required")
+  @Pattern(regexp = "[A-E]", message = "Option letter must be one of A, B, C, D, E")
+  private String letter;
+}
@@ -0,0 +1,29 @@
+package com.dopingtech.casestudy.quiz_service.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionDocumentDTO {
+
+  @NotBlank(message = "Question text is required")
+  private String text;
+
+  @NotBlank(message = "Correct answer is required")
+  @Pattern(regexp = "[A-E]", message = "Correct answer must be one of A, B, C, D, E")
+  private String correctAnswer;
+
+  @Size(max = 5, message = "A question can have at most 5 options")
+  private List<@Valid @NotNull(message = "Option is required") OptionDocumentDTO> options;
+}
@@ -0,0 +1,18 @@
+package com.dopingtech.casestudy.quiz_service.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizCloseResultDTO {
+  private Long quizId;
+  private int completedCount;
+  private int chunkCount;
+  private long elapsedMillis;
+  private double assignmentsPerSecond;
+}
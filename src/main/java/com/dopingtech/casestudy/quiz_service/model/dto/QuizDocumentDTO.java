@@ -0,0 +1,28 @@
+package com.dopingtech.casestudy.quiz_service.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A whole quiz with its questions and their options, created in one request.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizDocumentDTO {
+
+  @NotBlank(message = "Quiz name is required")
+  private String name;
+
+  @NotNull(message = "Questions are required")
+  @Size(min = 1, max = 1000, message = "A quiz must have between 1 and 1000 questions")
+  private List<@Valid @NotNull(message = "Question is required") QuestionDocumentDTO> questions;
+}
@@ -0,0 +1,37 @@
+package com.dopingtech.casestudy.quiz_service.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Change counter of an aggregate, or of every aggregate of a kind when the key has no id. New
+ * counters start at the current time in milliseconds, so a recreated database does not reuse old
+ * values.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "aggregate_versions")
+public class AggregateVersion {
+
+  @Id
+  @Column(name = "aggregate_key", length = 64)
+  private String aggregateKey;
+
+  @Column(nullable = false)
+  private long version;
+
+  @Column(name = "updated_at", nullable = false)
+  private Instant updatedAt;
+}
@@ -1,13 +1,16 @@
 package com.dopingtech.casestudy.quiz_service.model.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
@@ -22,11 +25,16 @@ import lombok.Setter;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "answers")
+@Table(name = "answers", uniqueConstraints = @UniqueConstraint(columnNames = {
+    "quiz_assignment_id", "question_id"}))
 public class Answer {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "answers_seq")
+  @SequenceGenerator(name = "answers_seq", sequenceName = "answers_seq",
+      allocationSize = IdGeneration.ALLOCATION_SIZE)
+  // Also the default of the native upserts, which insert without an id
+  @Column(columnDefinition = "bigint default next value for answers_seq")
   private Long id;
 
   @JsonBackReference
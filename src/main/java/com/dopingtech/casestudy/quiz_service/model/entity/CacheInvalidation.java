@@ -0,0 +1,49 @@
+package com.dopingtech.casestudy.quiz_service.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Change-log row telling other nodes which cache keys one transaction evicted. Each line of
+ * {@code entries} is a cache name and a key separated by a tab; an empty key clears the cache.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "cache_invalidations", indexes = @Index(columnList = "created_at"))
+public class CacheInvalidation {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cache_invalidations_seq")
+  @SequenceGenerator(name = "cache_invalidations_seq", sequenceName = "cache_invalidations_seq",
+      allocationSize = IdGeneration.ALLOCATION_SIZE)
+  private Long id;
+
+  @Lob
+  @Column(nullable = false)
+  private String entries;
+
+  @Column(nullable = false)
+  private String origin;
+
+  // Taken from the database clock, which every node shares
+  @Column(name = "created_at", insertable = false, updatable = false,
+      columnDefinition = "timestamp(6) with time zone default current_timestamp not null")
+  private Instant createdAt;
+}
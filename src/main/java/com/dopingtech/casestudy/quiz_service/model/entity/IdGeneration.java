@@ -0,0 +1,18 @@
+package com.dopingtech.casestudy.quiz_service.model.entity;
+
+/**
+ * Identifier generation shared by the entities. Every table draws its ids from its own
+ * sequence, and Hibernate reserves {@link #ALLOCATION_SIZE} ids per sequence call, so inserts
+ * do not wait for a generated key and can be sent to the database in JDBC batches.
+ */
+public final class IdGeneration {
+
+  /**
+   * Ids reserved per sequence call. The schema creates each sequence with this increment, so a
+   * different value also needs the existing sequences altered to match.
+   */
+  public static final int ALLOCATION_SIZE = 50;
+
+  private IdGeneration() {
+  }
+}
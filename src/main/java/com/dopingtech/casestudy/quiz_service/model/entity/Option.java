@@ -1,12 +1,14 @@
 package com.dopingtech.casestudy.quiz_service.model.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.NotBlank;
@@ -16,6 +18,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Getter
 @Setter
@@ -23,6 +27,8 @@ import lombok.Setter;
 @AllArgsConstructor
 @Builder
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "option")
 @Table(name = "option", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"question_id", "letter"}),
     @UniqueConstraint(columnNames = {"question_id", "text"})
@@ -30,7 +36,9 @@ import lombok.Setter;
 public class Option {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "option_seq")
+  @SequenceGenerator(name = "option_seq", sequenceName = "option_seq",
+      allocationSize = IdGeneration.ALLOCATION_SIZE)
   private Long id;
 
   @JsonBackReference
@@ -2,7 +2,9 @@ package com.dopingtech.casestudy.quiz_service.model.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -10,6 +12,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.NotBlank;
@@ -20,6 +23,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Getter
 @Setter
@@ -27,13 +32,18 @@ import lombok.Setter;
 @AllArgsConstructor
 @Builder
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "question")
 @Table(name = "question", uniqueConstraints = {
-    @UniqueConstraint(columnNames = {"quiz_id", "text"})
+    @UniqueConstraint(columnNames = {"quiz_id", "text"}),
+    @UniqueConstraint(columnNames = {"quiz_id", "position_index"})
 })
 public class Question {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "question_seq")
+  @SequenceGenerator(name = "question_seq", sequenceName = "question_seq",
+      allocationSize = IdGeneration.ALLOCATION_SIZE)
   private Long id;
 
   @NotBlank(message = "Question text is required")
@@ -41,6 +51,7 @@ public class Question {
 
   @JsonManagedReference
   @OneToMany(mappedBy = "question", cascade = CascadeType.ALL)
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "question.options")
   private List<Option> options;
 
   @NotBlank(message = "Correct answer is required")
@@ -51,4 +62,7 @@ public class Question {
   @ManyToOne
   @JoinColumn(name = "quiz_id", nullable = false)
   private Quiz quiz;
+
+  @Column(name = "position_index")
+  private int position;
 }
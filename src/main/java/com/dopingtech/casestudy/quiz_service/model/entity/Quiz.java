@@ -1,6 +1,7 @@
 package com.dopingtech.casestudy.quiz_service.model.entity;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -8,6 +9,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import java.util.List;
@@ -16,6 +18,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Getter
 @Setter
@@ -23,19 +27,30 @@ import lombok.Setter;
 @AllArgsConstructor
 @Builder
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "quiz")
 @Table(name = "quiz")
 public class Quiz {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quiz_seq")
+  @SequenceGenerator(name = "quiz_seq", sequenceName = "quiz_seq",
+      allocationSize = IdGeneration.ALLOCATION_SIZE)
   private Long id;
 
   @NotBlank(message = "Quiz name is required")
   @Column(unique = true)
   private String name;
 
+  private int questionCount;
+
+  // Next free question position; only moved forward, so a deleted question's slot is never reused
+  @Column(name = "next_question_position", updatable = false)
+  private int nextQuestionPosition;
+
   @JsonManagedReference
   @OneToMany(mappedBy = "quiz", cascade = CascadeType.ALL)
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "quiz.questions")
   private List<Question> questions;
 
   @JsonManagedReference
@@ -2,8 +2,10 @@ package com.dopingtech.casestudy.quiz_service.model.entity;
 
 import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -12,10 +14,16 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -29,12 +37,24 @@ import lombok.Setter;
 @AllArgsConstructor
 @Builder
 @Entity
+// Everything an assignment listing reads, including eager associations, in one statement
+@NamedEntityGraph(name = QuizAssignment.LISTING_GRAPH,
+    attributeNodes = {
+        @NamedAttributeNode("student"),
+        @NamedAttributeNode("quiz"),
+        @NamedAttributeNode(value = "answers", subgraph = "answers")
+    },
+    subgraphs = @NamedSubgraph(name = "answers", attributeNodes = @NamedAttributeNode("question")))
 @Table(name = "quiz_assignments", uniqueConstraints = @UniqueConstraint(columnNames = {"student_id",
     "quiz_id"}))
 public class QuizAssignment {
 
+  public static final String LISTING_GRAPH = "QuizAssignment.listing";
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quiz_assignments_seq")
+  @SequenceGenerator(name = "quiz_assignments_seq", sequenceName = "quiz_assignments_seq",
+      allocationSize = IdGeneration.ALLOCATION_SIZE)
   private Long id;
 
   @JsonBackReference
@@ -50,12 +70,36 @@ public class QuizAssignment {
   @Enumerated(EnumType.STRING)
   private QuizAssignmentStatus status;
 
+  @Version
+  private Long version;
+
+  @NotNull
+  private int answeredCount;
+
   @NotNull
   private int correctAnswerCount;
 
   @NotNull
   private double score;
 
+  private LocalDateTime completedAt;
+
+  // Status the assignment is returned to if its grading job fails or is lost
+  @JsonIgnore
+  @Enumerated(EnumType.STRING)
+  private QuizAssignmentStatus statusBeforeGrading;
+
+  @JsonIgnore
+  private LocalDateTime gradingStartedAt;
+
+  @JsonIgnore
+  @Column(name = "packed_answers", length = 4096)
+  private byte[] packedAnswers;
+
+  @JsonIgnore
+  @Column(name = "packed_correct", length = 1536)
+  private byte[] packedCorrect;
+
   @JsonManagedReference
   @OneToMany(mappedBy = "quizAssignment", cascade = CascadeType.ALL, orphanRemoval = true)
   private List<Answer> answers;
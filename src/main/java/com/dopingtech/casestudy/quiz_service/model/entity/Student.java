@@ -8,6 +8,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
@@ -28,7 +29,9 @@ import lombok.Setter;
 public class Student {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_seq")
+  @SequenceGenerator(name = "student_seq", sequenceName = "student_seq",
+      allocationSize = IdGeneration.ALLOCATION_SIZE)
   private Long id;
 
   @NotBlank(message = "First name is required")
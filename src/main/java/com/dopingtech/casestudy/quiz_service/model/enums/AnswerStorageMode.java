@@ -0,0 +1,6 @@
+package com.dopingtech.casestudy.quiz_service.model.enums;
+
+public enum AnswerStorageMode {
+  ROWS,
+  PACKED
+}
@@ -0,0 +1,8 @@
+package com.dopingtech.casestudy.quiz_service.model.enums;
+
+public enum GradingJobStatus {
+  QUEUED,
+  RUNNING,
+  COMPLETED,
+  FAILED
+}
@@ -3,5 +3,6 @@ package com.dopingtech.casestudy.quiz_service.model.enums;
 public enum QuizAssignmentStatus {
   ASSIGNED,
   IN_PROGRESS,
+  GRADING,
   COMPLETED
 }
@@ -0,0 +1,8 @@
+package com.dopingtech.casestudy.quiz_service.model.projection;
+
+/**
+ * One line of the answer export.
+ */
+public record AnswerExportRow(Long id, Long quizAssignmentId, Long questionId,
+                              String selectedOption, boolean correct) {
+}
@@ -0,0 +1,12 @@
+package com.dopingtech.casestudy.quiz_service.model.projection;
+
+public interface AnswerKeyView {
+
+  Long getId();
+
+  Long getQuizId();
+
+  int getPosition();
+
+  String getCorrectAnswer();
+}
@@ -0,0 +1,5 @@
+package com.dopingtech.casestudy.quiz_service.model.projection;
+
+public record GradedAnswer(Long quizAssignmentId, Long questionId, String selectedOption,
+                           boolean correct) {
+}
@@ -0,0 +1,4 @@
+package com.dopingtech.casestudy.quiz_service.model.projection;
+
+public record OptionView(Long id, Long questionId, String letter, String text) {
+}
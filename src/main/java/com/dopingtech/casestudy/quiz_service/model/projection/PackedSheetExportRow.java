@@ -0,0 +1,8 @@
+package com.dopingtech.casestudy.quiz_service.model.projection;
+
+/**
+ * Packed answer sheet of one assignment, read by the answer export in packed storage mode.
+ */
+public record PackedSheetExportRow(Long quizAssignmentId, Long quizId, byte[] packedAnswers,
+                                   byte[] packedCorrect) {
+}
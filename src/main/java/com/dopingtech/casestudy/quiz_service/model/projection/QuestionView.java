@@ -0,0 +1,23 @@
+package com.dopingtech.casestudy.quiz_service.model.projection;
+
+import java.util.List;
+
+/**
+ * Cached read model of a question with its options. Built from two projection queries: the
+ * questions of a quiz, then their options.
+ */
+public record QuestionView(Long id, String text, String correctAnswer, int position,
+                           List<OptionView> options) {
+
+  public QuestionView(Long id, String text, String correctAnswer, int position) {
+    this(id, text, correctAnswer, position, List.of());
+  }
+
+  public QuestionView {
+    options = List.copyOf(options);
+  }
+
+  public QuestionView withOptions(List<OptionView> options) {
+    return new QuestionView(id, text, correctAnswer, position, options);
+  }
+}
@@ -0,0 +1,13 @@
+package com.dopingtech.casestudy.quiz_service.model.projection;
+
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import java.time.LocalDateTime;
+
+/**
+ * One line of the quiz assignment export.
+ */
+public record QuizAssignmentExportRow(Long id, Long studentId, Long quizId,
+                                      QuizAssignmentStatus status, int answeredCount,
+                                      int correctAnswerCount, double score,
+                                      LocalDateTime completedAt) {
+}
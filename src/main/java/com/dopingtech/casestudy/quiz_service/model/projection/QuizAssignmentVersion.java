@@ -0,0 +1,8 @@
+package com.dopingtech.casestudy.quiz_service.model.projection;
+
+public interface QuizAssignmentVersion {
+
+  Long getId();
+
+  Long getVersion();
+}
@@ -0,0 +1,12 @@
+package com.dopingtech.casestudy.quiz_service.model.projection;
+
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Cached read model of a quiz assignment, without its answers.
+ */
+public record QuizAssignmentView(Long id, Long studentId, Long quizId, QuizAssignmentStatus status,
+                                 Long version, int answeredCount, int correctAnswerCount,
+                                 double score, LocalDateTime completedAt) {
+}
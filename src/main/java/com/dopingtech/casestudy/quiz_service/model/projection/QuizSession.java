@@ -0,0 +1,10 @@
+package com.dopingtech.casestudy.quiz_service.model.projection;
+
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+
+/**
+ * Cached state of a quiz assignment that answers are checked against: its quiz, which never
+ * changes, and its status with the version it was read at.
+ */
+public record QuizSession(Long quizId, QuizAssignmentStatus status, long version) {
+}
@@ -0,0 +1,7 @@
+package com.dopingtech.casestudy.quiz_service.model.projection;
+
+/**
+ * Cached read model of a quiz, without its questions and assignments.
+ */
+public record QuizView(Long id, String name, int questionCount) {
+}
@@ -0,0 +1,7 @@
+package com.dopingtech.casestudy.quiz_service.model.projection;
+
+/**
+ * Cached read model of a student, without their quiz assignments.
+ */
+public record StudentView(Long id, String firstName, String lastName, String number) {
+}
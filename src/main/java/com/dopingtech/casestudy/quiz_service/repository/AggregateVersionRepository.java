@@ -0,0 +1,52 @@
+package com.dopingtech.casestudy.quiz_service.repository;
+
+import com.dopingtech.casestudy.quiz_service.model.entity.AggregateVersion;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface AggregateVersionRepository extends JpaRepository<AggregateVersion, String> {
+
+  @Transactional
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "aggregate_versions"))
+  @Query(value = "merge into aggregate_versions t "
+      + "using (select cast(:key as varchar(64)) as aggregate_key) s "
+      + "on t.aggregate_key = s.aggregate_key "
+      + "when matched then update set version = t.version + 1, updated_at = :now "
+      + "when not matched then insert (aggregate_key, version, updated_at) "
+      + "values (:key, :initial, :now)", nativeQuery = true)
+  int increment(@Param("key") String key, @Param("initial") long initial,
+                @Param("now") Instant now);
+
+  @Transactional
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "aggregate_versions"))
+  @Query(value = "merge into aggregate_versions t "
+      + "using (select cast(:key as varchar(64)) as aggregate_key) s "
+      + "on t.aggregate_key = s.aggregate_key "
+      + "when matched then update set version = t.version + :increments, updated_at = :now "
+      + "when not matched then insert (aggregate_key, version, updated_at) "
+      + "values (:key, :initial, :now)", nativeQuery = true)
+  int incrementBy(@Param("key") String key, @Param("increments") int increments,
+                  @Param("initial") long initial, @Param("now") Instant now);
+
+  @Transactional
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "aggregate_versions"))
+  @Query(value = "merge into aggregate_versions t "
+      + "using (select cast(:key as varchar(64)) as aggregate_key) s "
+      + "on t.aggregate_key = s.aggregate_key "
+      + "when not matched then insert (aggregate_key, version, updated_at) "
+      + "values (:key, :initial, :now)", nativeQuery = true)
+  int createIfAbsent(@Param("key") String key, @Param("initial") long initial,
+                     @Param("now") Instant now);
+}
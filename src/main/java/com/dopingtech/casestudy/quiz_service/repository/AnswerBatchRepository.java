@@ -0,0 +1,59 @@
+package com.dopingtech.casestudy.quiz_service.repository;
+
+import com.dopingtech.casestudy.quiz_service.model.projection.GradedAnswer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class AnswerBatchRepository {
+
+  private static final String UPSERT_SQL =
+      "MERGE INTO answers (quiz_assignment_id, question_id, selected_option, is_correct) "
+          + "KEY (quiz_assignment_id, question_id) VALUES (?, ?, ?, ?)";
+
+  private static final String UPSERT_RETURNING_PREVIOUS_SQL =
+      "SELECT is_correct FROM OLD TABLE (MERGE INTO answers a USING (VALUES %s) "
+          + "s (quiz_assignment_id, question_id, selected_option, is_correct) "
+          + "ON a.quiz_assignment_id = s.quiz_assignment_id AND a.question_id = s.question_id "
+          + "WHEN MATCHED THEN UPDATE SET selected_option = s.selected_option, "
+          + "is_correct = s.is_correct "
+          + "WHEN NOT MATCHED THEN INSERT (quiz_assignment_id, question_id, selected_option, "
+          + "is_correct) VALUES (s.quiz_assignment_id, s.question_id, s.selected_option, "
+          + "s.is_correct))";
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  public void upsertAll(Collection<GradedAnswer> answers) {
+    if (answers.isEmpty()) {
+      return;
+    }
+    List<Object[]> batchArgs = answers.stream()
+        .map(answer -> new Object[] {answer.quizAssignmentId(), answer.questionId(),
+            answer.selectedOption(), answer.correct()})
+        .toList();
+    jdbcTemplate.batchUpdate(UPSERT_SQL, batchArgs);
+  }
+
+  /**
+   * Inserts or replaces the answers in one statement and returns the correctness of every answer
+   * it replaced. Answers to questions not answered before return nothing.
+   */
+  public List<Boolean> upsertReturningPrevious(Collection<GradedAnswer> answers) {
+    if (answers.isEmpty()) {
+      return List.of();
+    }
+    String sql = String.format(UPSERT_RETURNING_PREVIOUS_SQL,
+        String.join(", ", Collections.nCopies(answers.size(), "(?, ?, ?, ?)")));
+    Object[] args = answers.stream()
+        .flatMap(answer -> Stream.of(answer.quizAssignmentId(), answer.questionId(),
+            answer.selectedOption(), answer.correct()))
+        .toArray();
+    return jdbcTemplate.queryForList(sql, Boolean.class, args);
+  }
+}
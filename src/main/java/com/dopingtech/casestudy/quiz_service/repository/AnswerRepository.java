@@ -1,14 +1,51 @@
 package com.dopingtech.casestudy.quiz_service.repository;
 
 import com.dopingtech.casestudy.quiz_service.model.entity.Answer;
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.model.projection.AnswerExportRow;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface AnswerRepository extends JpaRepository<Answer, Long> {
 
   List<Answer> findByQuizAssignmentId(Long quizAssignmentId);
 
-  Answer findByQuizAssignmentIdAndQuestionId(Long quizAssignmentId, Long questionId);
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("select new com.dopingtech.casestudy.quiz_service.model.projection.AnswerExportRow("
+      + "a.id, qa.id, a.question.id, a.selectedOption, a.isCorrect) "
+      + "from Answer a join a.quizAssignment qa "
+      + "where (:quizId is null or qa.quiz.id = :quizId) "
+      + "and (:status is null or qa.status = :status) "
+      + "and (:completedFrom is null or qa.completedAt >= :completedFrom) "
+      + "and (:completedBefore is null or qa.completedAt < :completedBefore) order by a.id")
+  Stream<AnswerExportRow> streamForExport(
+      @Param("quizId") Long quizId, @Param("status") QuizAssignmentStatus status,
+      @Param("completedFrom") LocalDateTime completedFrom,
+      @Param("completedBefore") LocalDateTime completedBefore);
+
+  /**
+   * Inserts or replaces the answer in one statement and returns the correctness of the answer it
+   * replaced, or nothing if the question had not been answered yet.
+   */
+  @Transactional
+  // Declares the table written, so Hibernate only flushes pending answers before the statement
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "answers"))
+  @Query(value = "SELECT is_correct FROM OLD TABLE (MERGE INTO answers "
+      + "(quiz_assignment_id, question_id, selected_option, is_correct) "
+      + "KEY (quiz_assignment_id, question_id) "
+      + "VALUES (:quizAssignmentId, :questionId, :selectedOption, :correct))", nativeQuery = true)
+  List<Boolean> upsert(@Param("quizAssignmentId") Long quizAssignmentId,
+                       @Param("questionId") Long questionId,
+                       @Param("selectedOption") String selectedOption,
+                       @Param("correct") boolean correct);
 }
@@ -0,0 +1,41 @@
+package com.dopingtech.casestudy.quiz_service.repository;
+
+import com.dopingtech.casestudy.quiz_service.model.entity.CacheInvalidation;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+
+  @Query("select coalesce(max(ci.id), 0) from CacheInvalidation ci")
+  long findMaxId();
+
+  @Query("select current_instant")
+  Instant findDatabaseTime();
+
+  @Transactional
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cache_invalidations"))
+  @Query(value = "INSERT INTO cache_invalidations (id, entries, origin) "
+      + "VALUES (NEXT VALUE FOR cache_invalidations_seq, :entries, :origin)", nativeQuery = true)
+  void insert(@Param("entries") String entries, @Param("origin") String origin);
+
+  @Query("select ci from CacheInvalidation ci where ci.id > :afterId or ci.createdAt >= :since "
+      + "order by ci.id")
+  List<CacheInvalidation> findNewerThan(@Param("afterId") long afterId,
+                                        @Param("since") Instant since);
+
+  @Transactional
+  @Modifying
+  @Query("delete from CacheInvalidation ci where ci.createdAt < :before")
+  int deleteCreatedBefore(@Param("before") Instant before);
+}
@@ -1,10 +1,14 @@
 package com.dopingtech.casestudy.quiz_service.repository;
 
 import com.dopingtech.casestudy.quiz_service.model.entity.Option;
+import jakarta.persistence.QueryHint;
 import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface OptionRepository extends JpaRepository<Option, Long> {
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<Option> findByQuestionId(Long questionId);
 }
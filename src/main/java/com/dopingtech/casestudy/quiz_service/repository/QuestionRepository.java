@@ -1,10 +1,47 @@
 package com.dopingtech.casestudy.quiz_service.repository;
 
 import com.dopingtech.casestudy.quiz_service.model.entity.Question;
+import com.dopingtech.casestudy.quiz_service.model.projection.AnswerKeyView;
+import com.dopingtech.casestudy.quiz_service.model.projection.OptionView;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuestionView;
+import jakarta.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface QuestionRepository extends JpaRepository<Question, Long> {
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   List<Question> findByQuizId(Long quizId);
+
+  @Query("select q.id from Question q")
+  List<Long> findAllIds();
+
+  @Query("select q.id from Question q where q.quiz.id = :quizId")
+  List<Long> findIdsByQuizId(Long quizId);
+
+  @Query("select distinct q from Question q left join fetch q.options where q.quiz.id = :quizId "
+      + "order by q.position")
+  List<Question> findWithOptionsByQuizId(Long quizId);
+
+  @Query("select new com.dopingtech.casestudy.quiz_service.model.projection.QuestionView("
+      + "q.id, q.text, q.correctAnswer, q.position) from Question q where q.quiz.id = :quizId "
+      + "order by q.position")
+  List<QuestionView> findViewsByQuizId(Long quizId);
+
+  @Query("select new com.dopingtech.casestudy.quiz_service.model.projection.OptionView("
+      + "o.id, o.question.id, o.letter, o.text) from Option o where o.question.quiz.id = :quizId "
+      + "order by o.letter")
+  List<OptionView> findOptionViewsByQuizId(Long quizId);
+
+  @Query("select q.id as id, q.quiz.id as quizId, q.position as position, "
+      + "q.correctAnswer as correctAnswer from Question q where q.quiz.id = :quizId")
+  List<AnswerKeyView> findAnswerKeysByQuizId(Long quizId);
+
+  @Query("select q.id as id, q.quiz.id as quizId, q.position as position, "
+      + "q.correctAnswer as correctAnswer from Question q where q.id = :id")
+  Optional<AnswerKeyView> findAnswerKeyById(Long id);
 }
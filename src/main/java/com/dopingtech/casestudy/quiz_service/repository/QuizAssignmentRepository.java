@@ -1,14 +1,181 @@
 package com.dopingtech.casestudy.quiz_service.repository;
 
+import com.dopingtech.casestudy.quiz_service.model.dto.CompletedQuizDTO;
 import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.model.projection.PackedSheetExportRow;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizAssignmentExportRow;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizAssignmentVersion;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizAssignmentView;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizSession;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface QuizAssignmentRepository extends JpaRepository<QuizAssignment, Long> {
 
+  @EntityGraph(QuizAssignment.LISTING_GRAPH)
   List<QuizAssignment> findByStudentId(Long studentId);
 
+  @EntityGraph(QuizAssignment.LISTING_GRAPH)
   List<QuizAssignment> findByQuizId(Long quizId);
+
+  @Query("select new com.dopingtech.casestudy.quiz_service.model.dto.CompletedQuizDTO("
+      + "q.name, qa.correctAnswerCount, qa.score) from QuizAssignment qa join qa.quiz q "
+      + "where qa.student.id = :studentId and qa.status = :status order by qa.id")
+  List<CompletedQuizDTO> findQuizResultsByStudentId(@Param("studentId") Long studentId,
+                                                    @Param("status") QuizAssignmentStatus status);
+
+  @Query("select qa.id from QuizAssignment qa")
+  List<Long> findAllIds();
+
+  @Query("select qa.id from QuizAssignment qa where qa.quiz.id = :quizId")
+  List<Long> findIdsByQuizId(@Param("quizId") Long quizId);
+
+  @Query("select qa.id from QuizAssignment qa where qa.student.id = :studentId")
+  List<Long> findIdsByStudentId(@Param("studentId") Long studentId);
+
+  @Query("select distinct qa.student.id from QuizAssignment qa where qa.id in :ids")
+  List<Long> findStudentIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+  // Write-locks the rows, so their versions hold until the caller's transaction ends
+  @Query(value = "SELECT id AS id, version AS version FROM quiz_assignments "
+      + "WHERE id IN (:ids) FOR UPDATE", nativeQuery = true)
+  List<QuizAssignmentVersion> lockVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Query("select new com.dopingtech.casestudy.quiz_service.model.projection.QuizAssignmentView("
+      + "qa.id, qa.student.id, qa.quiz.id, qa.status, qa.version, qa.answeredCount, "
+      + "qa.correctAnswerCount, qa.score, qa.completedAt) from QuizAssignment qa where qa.id = :id")
+  Optional<QuizAssignmentView> findViewById(@Param("id") Long id);
+
+  // The listing graph fetches a collection, which cannot be limited in SQL, so a page is read
+  // as its ids first
+  @Query("select qa.id from QuizAssignment qa where qa.id > :afterId order by qa.id")
+  List<Long> findIdPage(@Param("afterId") long afterId, Limit limit);
+
+  @EntityGraph(QuizAssignment.LISTING_GRAPH)
+  List<QuizAssignment> findByIdInOrderById(Collection<Long> ids);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("select new com.dopingtech.casestudy.quiz_service.model.projection."
+      + "QuizAssignmentExportRow(qa.id, qa.student.id, qa.quiz.id, qa.status, qa.answeredCount, "
+      + "qa.correctAnswerCount, qa.score, qa.completedAt) from QuizAssignment qa "
+      + "where (:quizId is null or qa.quiz.id = :quizId) "
+      + "and (:status is null or qa.status = :status) "
+      + "and (:completedFrom is null or qa.completedAt >= :completedFrom) "
+      + "and (:completedBefore is null or qa.completedAt < :completedBefore) order by qa.id")
+  Stream<QuizAssignmentExportRow> streamForExport(
+      @Param("quizId") Long quizId, @Param("status") QuizAssignmentStatus status,
+      @Param("completedFrom") LocalDateTime completedFrom,
+      @Param("completedBefore") LocalDateTime completedBefore);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+  @Query("select new com.dopingtech.casestudy.quiz_service.model.projection."
+      + "PackedSheetExportRow(qa.id, qa.quiz.id, qa.packedAnswers, qa.packedCorrect) "
+      + "from QuizAssignment qa where qa.packedAnswers is not null "
+      + "and (:quizId is null or qa.quiz.id = :quizId) "
+      + "and (:status is null or qa.status = :status) "
+      + "and (:completedFrom is null or qa.completedAt >= :completedFrom) "
+      + "and (:completedBefore is null or qa.completedAt < :completedBefore) order by qa.id")
+  Stream<PackedSheetExportRow> streamPackedSheetsForExport(
+      @Param("quizId") Long quizId, @Param("status") QuizAssignmentStatus status,
+      @Param("completedFrom") LocalDateTime completedFrom,
+      @Param("completedBefore") LocalDateTime completedBefore);
+
+  // A transition ends any grading the rows were in, so its bookkeeping is cleared with the status
+  @Transactional
+  @Modifying
+  @Query("update QuizAssignment qa set qa.status = :to, qa.statusBeforeGrading = null, "
+      + "qa.gradingStartedAt = null, qa.version = qa.version + 1 "
+      + "where qa.id in :ids and qa.status in :from")
+  int transition(@Param("ids") Collection<Long> ids,
+                 @Param("from") Collection<QuizAssignmentStatus> from,
+                 @Param("to") QuizAssignmentStatus to);
+
+  // Claims the assignment like transition and applies the counter changes of its new answers
+  @Transactional
+  @Modifying
+  @Query("update QuizAssignment qa set qa.answeredCount = qa.answeredCount + :answered, "
+      + "qa.correctAnswerCount = qa.correctAnswerCount + :correct, qa.version = qa.version + 1 "
+      + "where qa.id = :id and qa.status = :status")
+  int addAnswerCounts(@Param("id") Long id, @Param("status") QuizAssignmentStatus status,
+                      @Param("answered") int answered, @Param("correct") int correct);
+
+  @Transactional
+  @Modifying
+  @Query("update QuizAssignment qa set qa.statusBeforeGrading = qa.status, qa.status = :grading, "
+      + "qa.gradingStartedAt = :now, qa.version = qa.version + 1 "
+      + "where qa.id in :ids and qa.status in :from")
+  int beginGrading(@Param("ids") Collection<Long> ids,
+                   @Param("from") Collection<QuizAssignmentStatus> from,
+                   @Param("grading") QuizAssignmentStatus grading,
+                   @Param("now") LocalDateTime now);
+
+  // Assignments that entered grading before the previous status was recorded are reopened with
+  // the fallback status
+  @Transactional
+  @Modifying
+  @Query("update QuizAssignment qa set qa.status = coalesce(qa.statusBeforeGrading, :fallback), "
+      + "qa.statusBeforeGrading = null, qa.gradingStartedAt = null, qa.version = qa.version + 1 "
+      + "where qa.id in :ids and qa.status = :grading")
+  int restoreStatusBeforeGrading(@Param("ids") Collection<Long> ids,
+                                 @Param("grading") QuizAssignmentStatus grading,
+                                 @Param("fallback") QuizAssignmentStatus fallback);
+
+  @Query("select new com.dopingtech.casestudy.quiz_service.model.projection.QuizSession("
+      + "qa.quiz.id, qa.status, qa.version) from QuizAssignment qa where qa.id = :id")
+  Optional<QuizSession> findSessionById(@Param("id") Long id);
+
+  @Query("select qa.id from QuizAssignment qa where qa.status = :grading "
+      + "and (qa.gradingStartedAt is null or qa.gradingStartedAt < :startedBefore) order by qa.id")
+  List<Long> findGradingIdsStartedBefore(@Param("grading") QuizAssignmentStatus grading,
+                                         @Param("startedBefore") LocalDateTime startedBefore);
+
+  @Transactional
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "quiz_assignments"))
+  @Query(value = "UPDATE quiz_assignments qa SET "
+      + "answered_count = (SELECT COUNT(*) FROM answers a WHERE a.quiz_assignment_id = qa.id), "
+      + "correct_answer_count = (SELECT COUNT(*) FROM answers a "
+      + "WHERE a.quiz_assignment_id = qa.id AND a.is_correct) "
+      + "WHERE qa.id IN (:ids)", nativeQuery = true)
+  void recountAnswers(@Param("ids") Collection<Long> ids);
+
+  @Query(value = "SELECT qa.id FROM quiz_assignments qa LEFT JOIN ("
+      + "SELECT quiz_assignment_id, COUNT(*) AS answered, "
+      + "SUM(CASE WHEN is_correct THEN 1 ELSE 0 END) AS correct "
+      + "FROM answers GROUP BY quiz_assignment_id) a ON a.quiz_assignment_id = qa.id "
+      + "WHERE qa.packed_answers IS NULL AND (qa.answered_count <> COALESCE(a.answered, 0) "
+      + "OR qa.correct_answer_count <> COALESCE(a.correct, 0))", nativeQuery = true)
+  List<Long> findIdsWithInconsistentAnswerCounts();
+
+  @Query(value = "SELECT id FROM quiz_assignments WHERE quiz_id = :quizId AND id > :afterId "
+      + "AND status IN ('ASSIGNED', 'IN_PROGRESS') ORDER BY id LIMIT :limit", nativeQuery = true)
+  List<Long> findOpenIdsByQuizId(@Param("quizId") Long quizId, @Param("afterId") long afterId,
+                                 @Param("limit") int limit);
+
+  @Transactional
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "quiz_assignments"))
+  @Query(value = "UPDATE quiz_assignments SET score = "
+      + "CASE WHEN :questionCount = 0 THEN 0 "
+      + "ELSE CAST(correct_answer_count AS DOUBLE PRECISION) * 100 / :questionCount END, "
+      + "completed_at = COALESCE(completed_at, CURRENT_TIMESTAMP) "
+      + "WHERE id IN (:ids) AND status = 'COMPLETED'", nativeQuery = true)
+  void scoreCompleted(@Param("ids") Collection<Long> ids,
+                      @Param("questionCount") int questionCount);
 }
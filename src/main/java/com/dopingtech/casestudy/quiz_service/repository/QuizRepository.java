@@ -1,12 +1,70 @@
 package com.dopingtech.casestudy.quiz_service.repository;
 
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizInfoDTO;
 import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizView;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface QuizRepository extends JpaRepository<Quiz, Long> {
 
   List<Quiz> findByQuizAssignmentsStudentId(Long studentId);
+
+  boolean existsByName(String name);
+
+  @Query("select q.id from Quiz q")
+  List<Long> findAllIds();
+
+  @Query("select new com.dopingtech.casestudy.quiz_service.model.projection.QuizView("
+      + "q.id, q.name, q.questionCount) from Quiz q where q.id = :id")
+  Optional<QuizView> findViewById(@Param("id") Long id);
+
+  @Query("select new com.dopingtech.casestudy.quiz_service.model.dto.QuizInfoDTO(q.id, q.name) "
+      + "from Quiz q where q.id > :afterId order by q.id")
+  List<QuizInfoDTO> findInfoPage(@Param("afterId") long afterId, Limit limit);
+
+  @Query("select distinct qa.quiz.id from QuizAssignment qa where qa.status in :statuses")
+  List<Long> findIdsWithAssignmentsIn(
+      @Param("statuses") Collection<QuizAssignmentStatus> statuses);
+
+  @Transactional
+  @Modifying
+  @Query("update Quiz q set q.questionCount = q.questionCount + :delta where q.id = :quizId")
+  void addToQuestionCount(@Param("quizId") Long quizId, @Param("delta") int delta);
+
+  /**
+   * Takes the next question position of the quiz. Positions are never handed out twice, even after
+   * the question holding one is deleted or moved.
+   */
+  @Transactional
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "quiz"))
+  @Query(value = "SELECT next_question_position FROM OLD TABLE (UPDATE quiz "
+      + "SET next_question_position = next_question_position + 1 WHERE id = :quizId)",
+      nativeQuery = true)
+  int allocateQuestionPosition(@Param("quizId") Long quizId);
+
+  @Query(value = "SELECT q.id FROM quiz q WHERE q.question_count <> "
+      + "(SELECT COUNT(*) FROM question qu WHERE qu.quiz_id = q.id)", nativeQuery = true)
+  List<Long> findIdsWithInconsistentQuestionCount();
+
+  @Transactional
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "quiz"))
+  @Query(value = "UPDATE quiz q SET question_count = "
+      + "(SELECT COUNT(*) FROM question qu WHERE qu.quiz_id = q.id) WHERE q.id IN (:quizIds)",
+      nativeQuery = true)
+  void recountQuestions(@Param("quizIds") List<Long> quizIds);
 }
@@ -1,10 +1,28 @@
 package com.dopingtech.casestudy.quiz_service.repository;
 
+import com.dopingtech.casestudy.quiz_service.model.dto.StudentInfoDTO;
 import com.dopingtech.casestudy.quiz_service.model.entity.Student;
+import com.dopingtech.casestudy.quiz_service.model.projection.StudentView;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface StudentRepository extends JpaRepository<Student, Long> {
 
   List<Student> findByQuizAssignmentsQuizId(Long quizId);
+
+  @Query("select s.id from Student s")
+  List<Long> findAllIds();
+
+  @Query("select new com.dopingtech.casestudy.quiz_service.model.projection.StudentView("
+      + "s.id, s.firstName, s.lastName, s.number) from Student s where s.id = :id")
+  Optional<StudentView> findViewById(@Param("id") Long id);
+
+  @Query("select new com.dopingtech.casestudy.quiz_service.model.dto.StudentInfoDTO("
+      + "s.id, s.firstName, s.lastName, s.number) from Student s where s.id > :afterId "
+      + "order by s.id")
+  List<StudentInfoDTO> findInfoPage(@Param("afterId") long afterId, Limit limit);
 }
@@ -0,0 +1,185 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import com.dopingtech.casestudy.quiz_service.model.entity.AggregateVersion;
+import com.dopingtech.casestudy.quiz_service.repository.AggregateVersionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Persisted change counters of the aggregates served with conditional GET, read through an
+ * in-memory copy. Counters are incremented in the transaction of the change; the copy is dropped
+ * after it commits and refreshed periodically to pick up changes made by other nodes. Only the
+ * quiz list counter is created up front; an aggregate gets its counter on its first change, and
+ * until then it has no version.
+ *
+ * <p>Answers change their assignment too often to write its counter with every answer. Their
+ * increments are collected in memory after commit and written by a periodic flush and on
+ * shutdown. Until then this node folds them into the version it serves, while other nodes serve
+ * the written version for up to a flush and a refresh interval. Increments of a node that dies
+ * without flushing are lost, and its answers stay behind the written version until the
+ * assignment's next counted change.
+ */
+@Slf4j
+@Component
+public class AggregateVersions {
+
+  public static final String QUIZ_LIST = "quizList";
+
+  public static final String QUIZ_ASSIGNMENT = "quizAssignment";
+
+  public static final String COMPLETED_QUIZZES = "completedQuizzes";
+
+  private Cache<String, Snapshot> versions;
+
+  // Increments committed but not yet written, by key
+  private final ConcurrentHashMap<String, Pending> pending = new ConcurrentHashMap<>();
+
+  @Value("${quiz.conditional-get.refresh-interval:1000}")
+  private long refreshInterval;
+
+  @Value("${quiz.conditional-get.max-versions:100000}")
+  private long maxVersions;
+
+  @Autowired
+  private AggregateVersionRepository aggregateVersionRepository;
+
+  @PostConstruct
+  void init() {
+    versions = Caffeine.newBuilder()
+        .maximumSize(maxVersions)
+        .expireAfterWrite(Duration.ofMillis(refreshInterval))
+        .build();
+    Instant now = Instant.now();
+    aggregateVersionRepository.createIfAbsent(QUIZ_LIST, now.toEpochMilli(), now);
+  }
+
+  public static String key(String aggregate, Long id) {
+    return aggregate + ":" + id;
+  }
+
+  /**
+   * Returns the counter of the key, or {@code null} if it has never changed. Missing counters are
+   * neither created nor remembered, so requests for ids that do not exist write nothing.
+   * Increments of this node not written yet are included.
+   */
+  public Snapshot current(String key) {
+    Snapshot snapshot = written(key);
+    Pending unwritten = pending.get(key);
+    if (unwritten == null) {
+      return snapshot;
+    }
+    // A counter the flush creates starts at the time of its first increment, like others
+    long version = snapshot == null ? unwritten.since().toEpochMilli() : snapshot.version();
+    return new Snapshot(version + unwritten.increments(), unwritten.updatedAt());
+  }
+
+  private Snapshot written(String key) {
+    Snapshot snapshot = versions.getIfPresent(key);
+    if (snapshot != null) {
+      return snapshot;
+    }
+    AggregateVersion version = aggregateVersionRepository.findById(key).orElse(null);
+    if (version == null) {
+      return null;
+    }
+    snapshot = new Snapshot(version.getVersion(), version.getUpdatedAt());
+    versions.put(key, snapshot);
+    return snapshot;
+  }
+
+  public void increment(String aggregate) {
+    incrementKey(aggregate);
+  }
+
+  public void increment(String aggregate, Long id) {
+    incrementKey(key(aggregate, id));
+  }
+
+  public void increment(String aggregate, Collection<Long> ids) {
+    for (Long id : ids) {
+      incrementKey(key(aggregate, id));
+    }
+  }
+
+  public void incrementLater(String aggregate, Long id) {
+    incrementLater(aggregate, List.of(id));
+  }
+
+  public void incrementLater(String aggregate, Collection<Long> ids) {
+    afterCommit(() -> {
+      Instant now = Instant.now();
+      ids.forEach(id -> pending.merge(key(aggregate, id), new Pending(1, now, now), Pending::plus));
+    });
+  }
+
+  // A counter is marked written only after the write, so it never reads as an older version
+  @Scheduled(fixedDelayString = "${quiz.conditional-get.flush-interval:500}")
+  @PreDestroy
+  public synchronized void flush() {
+    for (Map.Entry<String, Pending> entry : pending.entrySet()) {
+      String key = entry.getKey();
+      Pending written = entry.getValue();
+      try {
+        aggregateVersionRepository.incrementBy(key, written.increments(),
+            written.since().toEpochMilli() + written.increments(), written.updatedAt());
+      } catch (RuntimeException e) {
+        log.warn("Writing the version of {} failed, retrying with the next flush", key, e);
+        continue;
+      }
+      versions.invalidate(key);
+      pending.computeIfPresent(key, (k, unwritten) -> unwritten.minus(written));
+    }
+  }
+
+  private void incrementKey(String key) {
+    Instant now = Instant.now();
+    aggregateVersionRepository.increment(key, now.toEpochMilli(), now);
+    afterCommit(() -> versions.invalidate(key));
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  public record Snapshot(long version, Instant updatedAt) {
+  }
+
+  private record Pending(int increments, Instant since, Instant updatedAt) {
+
+    private Pending plus(Pending other) {
+      return new Pending(increments + other.increments, since,
+          updatedAt.isAfter(other.updatedAt) ? updatedAt : other.updatedAt);
+    }
+
+    // Null once everything collected is written, which removes the key
+    private Pending minus(Pending written) {
+      return increments == written.increments
+          ? null
+          : new Pending(increments - written.increments, written.updatedAt, updatedAt);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
+import com.dopingtech.casestudy.quiz_service.repository.QuizRepository;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies the denormalized answer and question counters against the answers and question
+ * tables, repairing drifted rows when enabled.
+ */
+@Slf4j
+@Component
+public class AnswerCounterConsistencyChecker {
+
+  @Value("${quiz.counters.consistency-check.repair:true}")
+  private boolean repair;
+
+  @Autowired
+  private QuizAssignmentRepository quizAssignmentRepository;
+
+  @Autowired
+  private QuizRepository quizRepository;
+
+  @Autowired
+  private AggregateVersions aggregateVersions;
+
+  @Scheduled(fixedDelayString = "${quiz.counters.consistency-check.interval:300000}",
+      initialDelayString = "${quiz.counters.consistency-check.interval:300000}")
+  public int check() {
+    List<Long> quizAssignmentIds = quizAssignmentRepository.findIdsWithInconsistentAnswerCounts();
+    List<Long> quizIds = quizRepository.findIdsWithInconsistentQuestionCount();
+
+    if (!quizAssignmentIds.isEmpty()) {
+      log.warn("Answer counters of quiz assignments {} do not match the answers table",
+          quizAssignmentIds);
+      if (repair) {
+        quizAssignmentRepository.recountAnswers(quizAssignmentIds);
+        aggregateVersions.increment(AggregateVersions.QUIZ_ASSIGNMENT, quizAssignmentIds);
+      }
+    }
+    if (!quizIds.isEmpty()) {
+      log.warn("Question counters of quizzes {} do not match the question table", quizIds);
+      if (repair) {
+        quizRepository.recountQuestions(quizIds);
+      }
+    }
+    return quizAssignmentIds.size() + quizIds.size();
+  }
+}
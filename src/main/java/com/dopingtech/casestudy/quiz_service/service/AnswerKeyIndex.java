@@ -0,0 +1,362 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import com.dopingtech.casestudy.quiz_service.exception.QuestionNotFoundException;
+import com.dopingtech.casestudy.quiz_service.model.projection.AnswerKeyView;
+import com.dopingtech.casestudy.quiz_service.repository.QuestionRepository;
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory answer key used for grading. Letters are packed as {@code A=1 .. E=5}, {@code 0} is
+ * blank; each entry also carries the question's slot position within its quiz. The quiz of each
+ * question is kept beside it, so answers can be checked against the assignment's quiz.
+ *
+ * <p>Writes are applied after their transaction commits, so a rolled back change never grades.
+ * Changed and removed questions are also written to the cache invalidation log, when enabled, so
+ * other nodes drop their copies and load the committed key again on the next lookup. A load that
+ * overlapped such a change is used for its lookup but not kept.
+ */
+@Component
+public class AnswerKeyIndex {
+
+  static final String INVALIDATION_NAME = "answerKeys";
+
+  private static final String LETTERS = "ABCDE";
+
+  private final LongLongMap keys = new LongLongMap(1024);
+
+  private final LongLongMap quizIds = new LongLongMap(1024);
+
+  private final Set<Long> loadedQuizIds = ConcurrentHashMap.newKeySet();
+
+  // Advanced by every committed or replicated change, so a load that read the database before
+  // one of them finished is not stored over it
+  private volatile long writeGeneration;
+
+  @Autowired
+  private QuestionRepository questionRepository;
+
+  @Autowired(required = false)
+  private CacheInvalidationLog invalidationLog;
+
+  @PostConstruct
+  void init() {
+    if (invalidationLog != null) {
+      invalidationLog.register(INVALIDATION_NAME, this::evictLocally);
+    }
+  }
+
+  public static byte encode(String letter) {
+    if (letter == null || letter.length() != 1) {
+      return 0;
+    }
+    return (byte) (LETTERS.indexOf(letter.charAt(0)) + 1);
+  }
+
+  public static String decode(byte code) {
+    return code == 0 ? "" : String.valueOf(LETTERS.charAt(code - 1));
+  }
+
+  public boolean isCorrect(Long questionId, String selectedOption) {
+    return correctAnswerCode(questionId) == encode(selectedOption);
+  }
+
+  public byte correctAnswerCode(Long questionId) {
+    return (byte) (entry(questionId) & 0x7);
+  }
+
+  public int positionOf(Long questionId) {
+    return entry(questionId) >>> 3;
+  }
+
+  public boolean belongsTo(Long questionId, Long quizId) {
+    entry(questionId);
+    return quizIds.get(questionId) == quizId;
+  }
+
+  private int entry(Long questionId) {
+    int entry = (int) keys.get(questionId);
+    if (entry == 0) {
+      long generation = writeGeneration;
+      AnswerKeyView answerKey = questionRepository.findAnswerKeyById(questionId)
+          .orElseThrow(() -> new QuestionNotFoundException(questionId));
+      entry = pack(answerKey.getPosition(), answerKey.getCorrectAnswer());
+      storeLoaded(generation, List.of(answerKey), null);
+    }
+    return entry;
+  }
+
+  public void loadQuiz(Long quizId) {
+    if (loadedQuizIds.contains(quizId)) {
+      return;
+    }
+    long generation = writeGeneration;
+    storeLoaded(generation, questionRepository.findAnswerKeysByQuizId(quizId), quizId);
+  }
+
+  // A new question is unknown to other nodes, which load it on their first lookup
+  public void added(Long questionId, Long quizId, int position, String correctAnswer) {
+    afterCommit(() -> write(() -> store(questionId, quizId, position, correctAnswer)));
+  }
+
+  public void put(Long questionId, Long quizId, int position, String correctAnswer) {
+    replicate(questionId);
+    afterCommit(() -> write(() -> store(questionId, quizId, position, correctAnswer)));
+  }
+
+  public void remove(Long questionId) {
+    replicate(questionId);
+    afterCommit(() -> write(() -> evict(questionId)));
+  }
+
+  public void removeQuiz(Long quizId, List<Long> questionIds) {
+    questionIds.forEach(this::replicate);
+    afterCommit(() -> write(() -> {
+      loadedQuizIds.remove(quizId);
+      questionIds.forEach(this::evict);
+    }));
+  }
+
+  private synchronized void write(Runnable change) {
+    writeGeneration++;
+    change.run();
+  }
+
+  // Loads that raced a change are served but not kept; the next lookup reads the key again
+  private synchronized void storeLoaded(long generation, List<AnswerKeyView> answerKeys,
+                                        Long quizId) {
+    if (generation != writeGeneration) {
+      return;
+    }
+    answerKeys.forEach(answerKey -> store(answerKey.getId(), answerKey.getQuizId(),
+        answerKey.getPosition(), answerKey.getCorrectAnswer()));
+    if (quizId != null) {
+      loadedQuizIds.add(quizId);
+    }
+  }
+
+  // The quiz is written first and removed last, so a question in the key always has its quiz
+  private void store(Long questionId, Long quizId, int position, String correctAnswer) {
+    quizIds.put(questionId, quizId);
+    keys.put(questionId, pack(position, correctAnswer));
+  }
+
+  private void evict(Long questionId) {
+    keys.remove(questionId);
+    quizIds.remove(questionId);
+  }
+
+  // Applies an invalidation written by another node; a null id drops the whole key
+  private void evictLocally(Long questionId) {
+    if (questionId == null) {
+      clear();
+    } else {
+      write(() -> evict(questionId));
+    }
+  }
+
+  private void replicate(Long questionId) {
+    if (invalidationLog != null) {
+      invalidationLog.record(INVALIDATION_NAME, questionId);
+    }
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  private static int pack(int position, String correctAnswer) {
+    return position << 3 | encode(correctAnswer);
+  }
+
+  public void clear() {
+    write(() -> {
+      loadedQuizIds.clear();
+      keys.clear();
+      quizIds.clear();
+    });
+  }
+
+  public int size() {
+    return keys.size();
+  }
+
+  // Linear-probing long -> long map; a zero value marks a free slot.
+  static final class LongLongMap {
+
+    private final StampedLock lock = new StampedLock();
+
+    private volatile Table table;
+
+    private int size;
+
+    LongLongMap(int initialCapacity) {
+      this.table = new Table(Integer.highestOneBit(Math.max(initialCapacity, 16) - 1) << 1);
+    }
+
+    long get(long key) {
+      long stamp = lock.tryOptimisticRead();
+      long value = table.find(key);
+      if (!lock.validate(stamp)) {
+        stamp = lock.readLock();
+        try {
+          value = table.find(key);
+        } finally {
+          lock.unlockRead(stamp);
+        }
+      }
+      return value;
+    }
+
+    void put(long key, long value) {
+      if (value == 0) {
+        remove(key);
+        return;
+      }
+      long stamp = lock.writeLock();
+      try {
+        if ((size + 1) * 2 > table.keys.length) {
+          table = table.resize(table.keys.length << 1);
+        }
+        if (table.insert(key, value)) {
+          size++;
+        }
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    void remove(long key) {
+      long stamp = lock.writeLock();
+      try {
+        if (table.delete(key)) {
+          size--;
+        }
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    void clear() {
+      long stamp = lock.writeLock();
+      try {
+        table = new Table(table.keys.length);
+        size = 0;
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    int size() {
+      long stamp = lock.readLock();
+      try {
+        return size;
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+
+    private static final class Table {
+
+      private final long[] keys;
+
+      private final long[] values;
+
+      private Table(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+      }
+
+      private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+      }
+
+      private long find(long key) {
+        int mask = keys.length - 1;
+        int index = slot(key);
+        for (int probes = 0; probes <= mask; probes++) {
+          long value = values[index];
+          if (value == 0) {
+            return 0;
+          }
+          if (keys[index] == key) {
+            return value;
+          }
+          index = (index + 1) & mask;
+        }
+        return 0;
+      }
+
+      private boolean insert(long key, long value) {
+        int mask = keys.length - 1;
+        int index = slot(key);
+        while (values[index] != 0) {
+          if (keys[index] == key) {
+            values[index] = value;
+            return false;
+          }
+          index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        return true;
+      }
+
+      private boolean delete(long key) {
+        int mask = keys.length - 1;
+        int index = slot(key);
+        while (values[index] != 0 && keys[index] != key) {
+          index = (index + 1) & mask;
+        }
+        if (values[index] == 0) {
+          return false;
+        }
+        values[index] = 0;
+        int next = index;
+        while (true) {
+          next = (next + 1) & mask;
+          if (values[next] == 0) {
+            return true;
+          }
+          int home = slot(keys[next]);
+          boolean reachable = index <= next
+              ? index < home && home <= next
+              : index < home || home <= next;
+          if (!reachable) {
+            keys[index] = keys[next];
+            values[index] = values[next];
+            values[next] = 0;
+            index = next;
+          }
+        }
+      }
+
+      private Table resize(int capacity) {
+        Table resized = new Table(capacity);
+        for (int i = 0; i < keys.length; i++) {
+          if (values[i] != 0) {
+            resized.insert(keys[i], values[i]);
+          }
+        }
+        return resized;
+      }
+    }
+  }
+}
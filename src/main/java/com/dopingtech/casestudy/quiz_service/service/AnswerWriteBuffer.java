@@ -0,0 +1,361 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import com.dopingtech.casestudy.quiz_service.model.projection.GradedAnswer;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizAssignmentVersion;
+import com.dopingtech.casestudy.quiz_service.repository.AnswerBatchRepository;
+import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Optional write-behind buffer for answers. Only the latest answer per (assignment, question) is
+ * kept until the next flush. Answers are accepted against the session version of their
+ * assignment and written in a transaction of their own, only to assignments still at that
+ * version, so an answer accepted before a status change on another node is dropped instead of
+ * changing a completed assignment.
+ *
+ * <p>Each assignment's answers are taken out of the buffer atomically and written without holding
+ * any lock in this JVM; one assignment is written by one flush at a time. Completions close the
+ * assignment's answers, write them and only then change its status, so nothing they score can be
+ * lost with a rolled back transaction. A closed assignment rejects answers until the completing
+ * transaction ends.
+ */
+@Slf4j
+@Component
+public class AnswerWriteBuffer {
+
+  private final ConcurrentHashMap<Long, Sheet> sheets = new ConcurrentHashMap<>();
+
+  private final AtomicInteger depth = new AtomicInteger();
+
+  @Value("${quiz.answers.write-behind.enabled:false}")
+  private boolean enabled;
+
+  @Value("${quiz.answers.write-behind.max-size:5000}")
+  private int maxSize;
+
+  @Autowired
+  private AnswerBatchRepository answerBatchRepository;
+
+  @Autowired
+  private QuizAssignmentRepository quizAssignmentRepository;
+
+  @Autowired
+  private AggregateVersions aggregateVersions;
+
+  @Autowired
+  private QuizSessionRegistry sessionRegistry;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private TransactionTemplate writeTransaction;
+
+  private Timer flushTimer;
+
+  private Counter flushedAnswers;
+
+  private Counter droppedAnswers;
+
+  private ThreadPoolExecutor flushExecutor;
+
+  // One flush drains every assignment, so overflows arriving while one is queued are dropped
+  @PostConstruct
+  void startExecutor() {
+    flushExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(1), new CustomizableThreadFactory("answer-flush-"),
+        new ThreadPoolExecutor.DiscardPolicy());
+  }
+
+  // Writes never join the caller's transaction, so its rollback cannot take buffered answers
+  @PostConstruct
+  void createWriteTransaction() {
+    writeTransaction = new TransactionTemplate(transactionManager);
+    writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  @PostConstruct
+  void registerMetrics() {
+    Gauge.builder("quiz.answers.buffer.depth", depth, AtomicInteger::get)
+        .description("Answers waiting to be written to the database")
+        .register(meterRegistry);
+    flushTimer = Timer.builder("quiz.answers.buffer.flush")
+        .description("Time spent writing buffered answers")
+        .register(meterRegistry);
+    flushedAnswers = Counter.builder("quiz.answers.buffer.flushed")
+        .description("Answers written by buffer flushes")
+        .register(meterRegistry);
+    droppedAnswers = Counter.builder("quiz.answers.buffer.dropped")
+        .description("Buffered answers dropped because their assignment changed status")
+        .register(meterRegistry);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public int depth() {
+    return depth.get();
+  }
+
+  /**
+   * Buffers answers of one assignment accepted against the given session version. Returns
+   * {@code false}, buffering nothing, if the assignment is closed by a completion in progress or
+   * its buffered answers belong to a newer version.
+   */
+  public boolean add(Long quizAssignmentId, long version, List<GradedAnswer> answers) {
+    boolean[] accepted = new boolean[1];
+    sheets.compute(quizAssignmentId, (id, present) -> {
+      Sheet sheet = present == null ? new Sheet(version) : present;
+      if (sheet.closers > 0 || sheet.version > version) {
+        return present;
+      }
+      if (sheet.version < version) {
+        // Answers of an older version would be dropped by the write anyway
+        depth.addAndGet(-sheet.answers.size());
+        sheet.answers.clear();
+        sheet.version = version;
+      }
+      for (GradedAnswer answer : answers) {
+        if (sheet.answers.put(answer.questionId(), answer) == null) {
+          depth.incrementAndGet();
+        }
+      }
+      accepted[0] = true;
+      return sheet;
+    });
+    if (depth.get() >= maxSize) {
+      flushExecutor.execute(this::flushOverflow);
+    }
+    return accepted[0];
+  }
+
+  @Scheduled(fixedDelayString = "${quiz.answers.write-behind.flush-interval:1000}")
+  public void flush() {
+    List<Batch> batches = new ArrayList<>();
+    for (Long quizAssignmentId : sheets.keySet()) {
+      Batch batch = take(quizAssignmentId, false);
+      if (batch != null && batch.waitFor == null) {
+        batches.add(batch);
+      }
+    }
+    write(batches);
+  }
+
+  /**
+   * Writes the buffered answers of the assignment, waiting for a flush already writing them.
+   */
+  public void flush(Long quizAssignmentId) {
+    drain(quizAssignmentId, false);
+  }
+
+  /**
+   * Writes the buffered answers of the assignments and rejects their new answers until the
+   * surrounding transaction ends. Called by status changes before they are made, so every answer
+   * accepted before the change is written and none is accepted after it.
+   */
+  public void close(Collection<Long> quizAssignmentIds) {
+    if (!enabled) {
+      return;
+    }
+    quizAssignmentIds.forEach(quizAssignmentId -> sheets.compute(quizAssignmentId,
+        (id, present) -> {
+          Sheet sheet = present == null ? new Sheet(0) : present;
+          sheet.closers++;
+          return sheet;
+        }));
+    boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+    if (inTransaction) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          quizAssignmentIds.forEach(AnswerWriteBuffer.this::reopen);
+        }
+      });
+    }
+    try {
+      quizAssignmentIds.forEach(quizAssignmentId -> drain(quizAssignmentId, true));
+    } finally {
+      if (!inTransaction) {
+        quizAssignmentIds.forEach(this::reopen);
+      }
+    }
+  }
+
+  @PreDestroy
+  void flushOnShutdown() throws InterruptedException {
+    stopExecutor();
+    flush();
+  }
+
+  void stopExecutor() throws InterruptedException {
+    flushExecutor.shutdown();
+    flushExecutor.awaitTermination(30, TimeUnit.SECONDS);
+  }
+
+  private void flushOverflow() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      // Already logged by the write, and the answers are kept for the next flush
+    }
+  }
+
+  private void drain(Long quizAssignmentId, boolean closed) {
+    while (true) {
+      Batch batch = take(quizAssignmentId, closed);
+      if (batch == null) {
+        return;
+      }
+      if (batch.waitFor == null) {
+        write(List.of(batch));
+        return;
+      }
+      batch.waitFor.join();
+    }
+  }
+
+  // Takes the answers of an assignment that no flush is writing, or returns the write to wait
+  // for. Answers of a closed assignment are only taken by the completion that closed it
+  private Batch take(Long quizAssignmentId, boolean closed) {
+    Batch[] taken = new Batch[1];
+    sheets.computeIfPresent(quizAssignmentId, (id, sheet) -> {
+      if (sheet.writing != null) {
+        taken[0] = new Batch(id, sheet.version, List.of(), sheet.writing);
+      } else if (!sheet.answers.isEmpty() && (closed || sheet.closers == 0)) {
+        taken[0] = new Batch(id, sheet.version, List.copyOf(sheet.answers.values()), null);
+        depth.addAndGet(-sheet.answers.size());
+        sheet.answers.clear();
+        sheet.writing = new CompletableFuture<>();
+      }
+      return sheet;
+    });
+    return taken[0];
+  }
+
+  private void write(List<Batch> batches) {
+    if (batches.isEmpty()) {
+      return;
+    }
+    List<GradedAnswer> answers = batches.stream()
+        .flatMap(batch -> batch.answers.stream())
+        .toList();
+    try {
+      flushTimer.record(() -> writeTransaction.executeWithoutResult(status -> {
+        Map<Long, Long> versions = quizAssignmentRepository.lockVersionsByIdIn(
+            batches.stream().map(Batch::quizAssignmentId).toList()).stream()
+            .collect(Collectors.toMap(QuizAssignmentVersion::getId,
+                QuizAssignmentVersion::getVersion));
+        List<GradedAnswer> current = new ArrayList<>();
+        List<Long> changed = new ArrayList<>();
+        for (Batch batch : batches) {
+          if (Long.valueOf(batch.version).equals(versions.get(batch.quizAssignmentId))) {
+            current.addAll(batch.answers);
+          } else {
+            changed.add(batch.quizAssignmentId);
+          }
+        }
+        if (!changed.isEmpty()) {
+          log.warn("Dropping {} buffered answers of quiz assignments {}, whose status changed "
+              + "after they were accepted", answers.size() - current.size(), changed);
+          droppedAnswers.increment(answers.size() - current.size());
+          sessionRegistry.close(changed);
+        }
+        if (!current.isEmpty()) {
+          Set<Long> quizAssignmentIds = current.stream()
+              .map(GradedAnswer::quizAssignmentId)
+              .collect(Collectors.toSet());
+          answerBatchRepository.upsertAll(current);
+          quizAssignmentRepository.recountAnswers(quizAssignmentIds);
+          aggregateVersions.incrementLater(AggregateVersions.QUIZ_ASSIGNMENT, quizAssignmentIds);
+          flushedAnswers.increment(current.size());
+        }
+      }));
+    } catch (RuntimeException e) {
+      log.error("Flushing {} buffered answers failed, keeping them for the next flush",
+          answers.size(), e);
+      batches.forEach(batch -> finish(batch, true));
+      throw e;
+    }
+    batches.forEach(batch -> finish(batch, false));
+  }
+
+  // Failed answers go back unless the assignment got newer answers for the same question
+  private void finish(Batch batch, boolean failed) {
+    sheets.computeIfPresent(batch.quizAssignmentId, (id, sheet) -> {
+      if (failed && sheet.version == batch.version) {
+        for (GradedAnswer answer : batch.answers) {
+          if (sheet.answers.putIfAbsent(answer.questionId(), answer) == null) {
+            depth.incrementAndGet();
+          }
+        }
+      }
+      CompletableFuture<Void> writing = sheet.writing;
+      sheet.writing = null;
+      writing.complete(null);
+      return sheet.isIdle() ? null : sheet;
+    });
+  }
+
+  private void reopen(Long quizAssignmentId) {
+    sheets.computeIfPresent(quizAssignmentId, (id, sheet) -> {
+      sheet.closers--;
+      return sheet.isIdle() ? null : sheet;
+    });
+  }
+
+  // Guarded by the map entry of its assignment
+  private static final class Sheet {
+
+    private final Map<Long, GradedAnswer> answers = new HashMap<>();
+
+    private long version;
+
+    private int closers;
+
+    private CompletableFuture<Void> writing;
+
+    private Sheet(long version) {
+      this.version = version;
+    }
+
+    private boolean isIdle() {
+      return answers.isEmpty() && closers == 0 && writing == null;
+    }
+  }
+
+  private record Batch(Long quizAssignmentId, long version, List<GradedAnswer> answers,
+                       CompletableFuture<Void> waitFor) {
+  }
+}
@@ -0,0 +1,260 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import com.dopingtech.casestudy.quiz_service.config.ReplicatedCache;
+import com.dopingtech.casestudy.quiz_service.model.entity.CacheInvalidation;
+import com.dopingtech.casestudy.quiz_service.repository.CacheInvalidationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Carries cache evictions between nodes through the {@code cache_invalidations} table. The
+ * evictions of a transaction are collected and written as one row just before it commits; every
+ * node polls the table and evicts its own copies.
+ *
+ * <p>Row ids come from per-node sequence blocks, so they do not follow commit order. A poll
+ * therefore also re-reads the rows created within the overlap window. Creation times and the
+ * window both come from the database clock, so clock skew between nodes does not matter; the
+ * bound is that a transaction writing evictions commits within the overlap after it starts.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "quiz.cache.invalidation.enabled", havingValue = "true")
+public class CacheInvalidationLog {
+
+  // Beyond this many keys of one cache in a transaction, the whole cache is cleared instead
+  static final int MAX_KEYS_PER_CACHE = 256;
+
+  private final String nodeId = UUID.randomUUID().toString();
+
+  // Node-local indexes kept outside the cache manager, evicted by id; a null id clears them
+  private final Map<String, Consumer<Long>> indexes = new ConcurrentHashMap<>();
+
+  // Invalidations applied within the overlap window, re-read to catch late commits
+  private final Map<Long, Instant> recentlyApplied = new HashMap<>();
+
+  private long lastSeenId;
+
+  // Caches start empty, so invalidations written before this node started are never applied
+  private Instant startedAt;
+
+  @Value("${quiz.cache.invalidation.overlap:10000}")
+  private long overlap;
+
+  @Value("${quiz.cache.invalidation.retention:3600000}")
+  private long retention;
+
+  @Autowired
+  private CacheInvalidationRepository cacheInvalidationRepository;
+
+  @Lazy
+  @Autowired
+  private CacheManager cacheManager;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Timer lag;
+
+  @PostConstruct
+  void init() {
+    lag = Timer.builder("quiz.cache.invalidation.lag")
+        .description("Time from an eviction on one node until another node applies it")
+        .register(meterRegistry);
+    startedAt = cacheInvalidationRepository.findDatabaseTime();
+    lastSeenId = cacheInvalidationRepository.findMaxId();
+  }
+
+  public void register(String name, Consumer<Long> evictor) {
+    indexes.put(name, evictor);
+  }
+
+  public void record(String cacheName, Object key) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      write(new Batch().add(cacheName, encode(key)));
+      return;
+    }
+    Batch batch = (Batch) TransactionSynchronizationManager.getResource(this);
+    if (batch == null) {
+      batch = new Batch();
+      TransactionSynchronizationManager.bindResource(this, batch);
+      TransactionSynchronizationManager.registerSynchronization(new BatchWriter(batch));
+    } else if (batch.written) {
+      // Evicted by a synchronization that ran after the batch was written
+      write(new Batch().add(cacheName, encode(key)));
+      return;
+    }
+    batch.add(cacheName, encode(key));
+  }
+
+  // Adds to the evictions of the running transaction, unless there are none or they are written
+  boolean join(String cacheName, Object key) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return false;
+    }
+    Batch batch = (Batch) TransactionSynchronizationManager.getResource(this);
+    if (batch == null || batch.written) {
+      return false;
+    }
+    batch.add(cacheName, encode(key));
+    return true;
+  }
+
+  @Scheduled(fixedDelayString = "${quiz.cache.invalidation.poll-interval:1000}",
+      initialDelayString = "${quiz.cache.invalidation.poll-interval:1000}")
+  public synchronized int poll() {
+    Instant now = cacheInvalidationRepository.findDatabaseTime();
+    Instant windowStart = now.minusMillis(overlap);
+    Instant since = windowStart.isBefore(startedAt) ? startedAt : windowStart;
+    List<CacheInvalidation> invalidations =
+        cacheInvalidationRepository.findNewerThan(lastSeenId, since);
+
+    int applied = 0;
+    for (CacheInvalidation invalidation : invalidations) {
+      lastSeenId = Math.max(lastSeenId, invalidation.getId());
+      boolean own = nodeId.equals(invalidation.getOrigin());
+      if (own || recentlyApplied.putIfAbsent(invalidation.getId(),
+          invalidation.getCreatedAt()) != null) {
+        continue;
+      }
+      apply(invalidation);
+      lag.record(Duration.between(invalidation.getCreatedAt(), now));
+      applied++;
+    }
+    recentlyApplied.values().removeIf(createdAt -> createdAt.isBefore(since));
+    return applied;
+  }
+
+  @Scheduled(fixedDelayString = "${quiz.cache.invalidation.retention:3600000}")
+  public void purge() {
+    int purged = cacheInvalidationRepository.deleteCreatedBefore(
+        cacheInvalidationRepository.findDatabaseTime().minusMillis(retention));
+    if (purged > 0) {
+      log.debug("Purged {} cache invalidations", purged);
+    }
+  }
+
+  void write(Batch batch) {
+    batch.written = true;
+    cacheInvalidationRepository.insert(batch.encode(), nodeId);
+  }
+
+  private void apply(CacheInvalidation invalidation) {
+    for (String entry : invalidation.getEntries().split("\n")) {
+      int tab = entry.indexOf('\t');
+      String name = entry.substring(0, tab);
+      Object key = decode(tab == entry.length() - 1 ? null : entry.substring(tab + 1));
+      Consumer<Long> index = indexes.get(name);
+      if (index != null) {
+        index.accept((Long) key);
+        continue;
+      }
+      Cache cache = cacheManager.getCache(name);
+      if (cache instanceof ReplicatedCache replicatedCache) {
+        if (key == null) {
+          replicatedCache.clearLocally();
+        } else {
+          replicatedCache.evictLocally(key);
+        }
+      }
+    }
+  }
+
+  // Only id keys are replicated one by one; any other key clears the whole cache on other nodes
+  static String encode(Object key) {
+    return key instanceof Long id ? id.toString() : null;
+  }
+
+  static Object decode(String cacheKey) {
+    return cacheKey == null ? null : Long.valueOf(cacheKey);
+  }
+
+  /**
+   * Distinct evictions of one transaction, by cache. A {@code null} key set clears the cache.
+   */
+  static final class Batch {
+
+    private final Map<String, Set<String>> keysByCache = new LinkedHashMap<>();
+
+    private boolean written;
+
+    Batch add(String cacheName, String cacheKey) {
+      if (keysByCache.containsKey(cacheName) && keysByCache.get(cacheName) == null) {
+        return this;
+      }
+      if (cacheKey == null) {
+        keysByCache.put(cacheName, null);
+        return this;
+      }
+      Set<String> keys = keysByCache.computeIfAbsent(cacheName, name -> new LinkedHashSet<>());
+      keys.add(cacheKey);
+      if (keys.size() > MAX_KEYS_PER_CACHE) {
+        keysByCache.put(cacheName, null);
+      }
+      return this;
+    }
+
+    String encode() {
+      StringBuilder entries = new StringBuilder();
+      keysByCache.forEach((cacheName, keys) -> {
+        if (keys == null) {
+          entries.append(cacheName).append('\t').append('\n');
+        } else {
+          keys.forEach(key -> entries.append(cacheName).append('\t').append(key).append('\n'));
+        }
+      });
+      return entries.toString();
+    }
+  }
+
+  private final class BatchWriter implements TransactionSynchronization {
+
+    private final Batch batch;
+
+    private BatchWriter(Batch batch) {
+      this.batch = batch;
+    }
+
+    // Flushed first, so entity changes found by the flush join this batch
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      if (!readOnly && TransactionSynchronizationManager.getResource(entityManagerFactory)
+          instanceof EntityManagerHolder holder) {
+        holder.getEntityManager().flush();
+      }
+      write(batch);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationLog.this);
+    }
+  }
+}
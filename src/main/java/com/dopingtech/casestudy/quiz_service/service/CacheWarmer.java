@@ -0,0 +1,129 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.repository.QuizRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Preloads the caches of quizzes with open assignments before the application reports ready.
+ * Runs as an application runner, so the readiness state stays {@code REFUSING_TRAFFIC} until the
+ * warm-up finishes or its time budget runs out.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "quiz.cache.warm-up.enabled", havingValue = "true",
+    matchIfMissing = true)
+public class CacheWarmer implements ApplicationRunner {
+
+  @Value("${quiz.cache.warm-up.threads:4}")
+  private int threads;
+
+  @Value("${quiz.cache.warm-up.time-budget:30000}")
+  private long timeBudget;
+
+  @Autowired
+  private QuizRepository quizRepository;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private StudentService studentService;
+
+  @Autowired
+  private AnswerKeyIndex answerKeyIndex;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private final AtomicInteger loadedEntries = new AtomicInteger();
+
+  private final AtomicLong duration = new AtomicLong();
+
+  @PostConstruct
+  void registerMetrics() {
+    Gauge.builder("quiz.cache.warm-up.entries", loadedEntries, AtomicInteger::get)
+        .description("Cache entries loaded by the last warm-up")
+        .register(meterRegistry);
+    Gauge.builder("quiz.cache.warm-up.duration", duration, AtomicLong::get)
+        .description("Milliseconds the last warm-up took")
+        .baseUnit("milliseconds")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    warmUp();
+  }
+
+  public int warmUp() {
+    long startedAt = System.nanoTime();
+    AtomicInteger loaded = new AtomicInteger();
+
+    List<Callable<Void>> tasks = new ArrayList<>();
+    tasks.add(task(loaded, () -> quizService.findPage(null, null)));
+    tasks.add(task(loaded, () -> studentService.findPage(null, null)));
+    List<Long> quizIds = quizRepository.findIdsWithAssignmentsIn(
+        EnumSet.of(QuizAssignmentStatus.ASSIGNED, QuizAssignmentStatus.IN_PROGRESS));
+    for (Long quizId : quizIds) {
+      tasks.add(task(loaded, () -> quizService.findById(quizId)));
+      tasks.add(task(loaded, () -> quizService.findQuestionsByQuizId(quizId)));
+      tasks.add(task(loaded, () -> quizService.findPaperByQuizId(quizId)));
+      tasks.add(task(loaded, () -> answerKeyIndex.loadQuiz(quizId)));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads,
+        new CustomizableThreadFactory("cache-warm-up-"));
+    try {
+      // Tasks still running when the budget is spent are cancelled
+      executor.invokeAll(tasks, timeBudget, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    long took = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    loadedEntries.set(loaded.get());
+    duration.set(took);
+    if (loaded.get() < tasks.size()) {
+      log.warn("Cache warm-up loaded {} of {} entries for {} quizzes in {} ms", loaded.get(),
+          tasks.size(), quizIds.size(), took);
+    } else {
+      log.info("Cache warm-up loaded {} entries for {} quizzes in {} ms", loaded.get(),
+          quizIds.size(), took);
+    }
+    return loaded.get();
+  }
+
+  private static Callable<Void> task(AtomicInteger loaded, Runnable load) {
+    return () -> {
+      try {
+        load.run();
+        loaded.incrementAndGet();
+      } catch (RuntimeException e) {
+        log.warn("Cache warm-up entry failed to load", e);
+      }
+      return null;
+    };
+  }
+}
@@ -0,0 +1,65 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import com.dopingtech.casestudy.quiz_service.exception.InvalidCursorException;
+import com.dopingtech.casestudy.quiz_service.model.dto.CursorPageDTO;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keyset pagination over id-ordered lists. A cursor is the opaque encoding of the last id of a
+ * page; the next page is read with {@code id > lastId order by id}, so reading a deep page costs
+ * the same as reading the first one.
+ */
+@Component
+public class CursorPagination {
+
+  @Value("${quiz.pagination.default-size:50}")
+  private int defaultSize;
+
+  @Value("${quiz.pagination.max-size:500}")
+  private int maxSize;
+
+  public int pageSize(Integer requested) {
+    if (requested == null) {
+      return defaultSize;
+    }
+    return Math.max(1, Math.min(requested, maxSize));
+  }
+
+  public long afterId(String cursor) {
+    if (cursor == null || cursor.isEmpty()) {
+      return 0;
+    }
+    try {
+      long id = Long.parseLong(
+          new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+      if (id < 0) {
+        throw new InvalidCursorException(cursor);
+      }
+      return id;
+    } catch (IllegalArgumentException e) {
+      throw new InvalidCursorException(cursor);
+    }
+  }
+
+  public String cursorOf(long id) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /**
+   * Builds a page from rows read with a limit of {@code pageSize + 1}; the extra row only tells
+   * whether there is a next page.
+   */
+  public <T> CursorPageDTO<T> page(List<T> rows, int pageSize, Function<T, Long> idOf) {
+    if (rows.size() <= pageSize) {
+      return new CursorPageDTO<>(rows, null);
+    }
+    List<T> items = rows.subList(0, pageSize);
+    return new CursorPageDTO<>(List.copyOf(items), cursorOf(idOf.apply(items.get(pageSize - 1))));
+  }
+}
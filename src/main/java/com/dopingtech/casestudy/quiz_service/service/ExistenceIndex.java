@@ -0,0 +1,308 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import com.dopingtech.casestudy.quiz_service.repository.QuestionRepository;
+import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
+import com.dopingtech.casestudy.quiz_service.repository.QuizRepository;
+import com.dopingtech.casestudy.quiz_service.repository.StudentRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory index of existing student, quiz, question and assignment ids, answering existence
+ * checks without a query. Ids are kept in a bitmap. A clear bit proves nothing: ids are drawn in
+ * blocks per node, and other nodes and late commits fill gaps below the highest id seen, so an id
+ * without a bit is checked in the database once, and an absent one is remembered for a short
+ * time. A set bit only means "maybe": ids deleted on other nodes stay set until the next refresh,
+ * and the query that follows the check finds them missing.
+ *
+ * <p>Lookups read a published bitmap without locking. Writes and reloads are serialized per kind,
+ * and a reload replays the ids added and removed on this node while its query ran.
+ */
+@Component
+public class ExistenceIndex {
+
+  public enum Kind {
+    STUDENT, QUIZ, QUESTION, QUIZ_ASSIGNMENT
+  }
+
+  private final Map<Kind, IdSet> idSets = new EnumMap<>(Kind.class);
+
+  @Value("${quiz.existence.negative-ttl:5000}")
+  private long negativeTtl;
+
+  @Value("${quiz.existence.negative-max-size:100000}")
+  private long negativeMaxSize;
+
+  @Autowired
+  private StudentRepository studentRepository;
+
+  @Autowired
+  private QuizRepository quizRepository;
+
+  @Autowired
+  private QuestionRepository questionRepository;
+
+  @Autowired
+  private QuizAssignmentRepository quizAssignmentRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private Counter rejected;
+
+  private Counter queried;
+
+  @PostConstruct
+  void init() {
+    for (Kind kind : Kind.values()) {
+      idSets.put(kind, new IdSet(Caffeine.newBuilder()
+          .maximumSize(negativeMaxSize)
+          .expireAfterWrite(Duration.ofMillis(negativeTtl))
+          .build()));
+    }
+    rejected = Counter.builder("quiz.existence.lookups")
+        .tag("outcome", "rejected")
+        .description("Existence checks answered by the in-memory index")
+        .register(meterRegistry);
+    queried = Counter.builder("quiz.existence.lookups")
+        .tag("outcome", "queried")
+        .description("Existence checks answered by the in-memory index")
+        .register(meterRegistry);
+  }
+
+  public boolean exists(Kind kind, Long id) {
+    if (id == null || id < 0) {
+      return false;
+    }
+    IdSet ids = loaded(kind);
+    Boolean known = ids.lookup(id);
+    if (known != null) {
+      if (!known) {
+        rejected.increment();
+      }
+      return known;
+    }
+    queried.increment();
+    boolean exists = repositoryOf(kind).existsById(id);
+    if (exists) {
+      ids.add(id);
+    } else {
+      ids.markAbsent(id);
+    }
+    return exists;
+  }
+
+  // Set only after commit: a rolled back create must not leave the id looking present
+  public void added(Kind kind, Long id) {
+    if (id == null) {
+      return;
+    }
+    IdSet ids = loaded(kind);
+    afterCommit(() -> ids.add(id));
+  }
+
+  // Cleared only after commit: a rolled back delete must not leave the id looking absent
+  public void removed(Kind kind, Long id) {
+    if (id != null) {
+      removed(kind, List.of(id));
+    }
+  }
+
+  public void removed(Kind kind, Collection<Long> removedIds) {
+    if (removedIds.isEmpty()) {
+      return;
+    }
+    IdSet ids = loaded(kind);
+    afterCommit(() -> removedIds.forEach(ids::remove));
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  // Picks up ids committed on other nodes, so checks for them no longer need a query
+  @Scheduled(fixedDelayString = "${quiz.existence.refresh-interval:600000}",
+      initialDelayString = "${quiz.existence.refresh-interval:600000}")
+  public void refresh() {
+    idSets.forEach((kind, ids) -> {
+      if (ids.isLoaded()) {
+        ids.load(() -> findAllIds(kind));
+      }
+    });
+  }
+
+  private IdSet loaded(Kind kind) {
+    IdSet ids = idSets.get(kind);
+    if (!ids.isLoaded()) {
+      ids.loadOnce(() -> findAllIds(kind));
+    }
+    return ids;
+  }
+
+  private List<Long> findAllIds(Kind kind) {
+    return switch (kind) {
+      case STUDENT -> studentRepository.findAllIds();
+      case QUIZ -> quizRepository.findAllIds();
+      case QUESTION -> questionRepository.findAllIds();
+      case QUIZ_ASSIGNMENT -> quizAssignmentRepository.findAllIds();
+    };
+  }
+
+  private JpaRepository<?, Long> repositoryOf(Kind kind) {
+    return switch (kind) {
+      case STUDENT -> studentRepository;
+      case QUIZ -> quizRepository;
+      case QUESTION -> questionRepository;
+      case QUIZ_ASSIGNMENT -> quizAssignmentRepository;
+    };
+  }
+
+  static final class IdSet {
+
+    private final Cache<Long, Boolean> absent;
+
+    private final Object loadLock = new Object();
+
+    // Replaced, never shrunk in place, when a write needs more words or a load completes
+    private volatile AtomicLongArray words = new AtomicLongArray(0);
+
+    private volatile boolean loaded;
+
+    // Ids added (true) and removed (false) while a load queries the database, guarded by this
+    private Map<Long, Boolean> changedWhileLoading;
+
+    IdSet(Cache<Long, Boolean> absent) {
+      this.absent = absent;
+    }
+
+    boolean isLoaded() {
+      return loaded;
+    }
+
+    void loadOnce(Supplier<List<Long>> existingIds) {
+      synchronized (loadLock) {
+        if (!loaded) {
+          load(existingIds);
+        }
+      }
+    }
+
+    // The query result replaces the bitmap, so ids deleted on other nodes are cleared. Changes
+    // made here while it ran may be missing from it and are replayed onto the new bitmap
+    void load(Supplier<List<Long>> existingIds) {
+      synchronized (loadLock) {
+        synchronized (this) {
+          changedWhileLoading = new LinkedHashMap<>();
+        }
+        List<Long> loadedIds;
+        try {
+          loadedIds = existingIds.get();
+        } catch (RuntimeException e) {
+          synchronized (this) {
+            changedWhileLoading = null;
+          }
+          throw e;
+        }
+        AtomicLongArray fresh = new AtomicLongArray(0);
+        for (Long id : loadedIds) {
+          fresh = set(fresh, id);
+        }
+        synchronized (this) {
+          for (Map.Entry<Long, Boolean> change : changedWhileLoading.entrySet()) {
+            fresh = change.getValue()
+                ? set(fresh, change.getKey())
+                : clear(fresh, change.getKey());
+          }
+          changedWhileLoading = null;
+          words = fresh;
+          absent.invalidateAll();
+        }
+        loaded = true;
+      }
+    }
+
+    Boolean lookup(long id) {
+      AtomicLongArray snapshot = words;
+      if (id <= Integer.MAX_VALUE && (id >>> 6) < snapshot.length()
+          && (snapshot.get((int) (id >>> 6)) & (1L << id)) != 0) {
+        return Boolean.TRUE;
+      }
+      if (absent.getIfPresent(id) != null) {
+        return Boolean.FALSE;
+      }
+      return null;
+    }
+
+    synchronized void add(long id) {
+      words = set(words, id);
+      if (changedWhileLoading != null) {
+        changedWhileLoading.put(id, Boolean.TRUE);
+      }
+      absent.invalidate(id);
+    }
+
+    synchronized void remove(long id) {
+      words = clear(words, id);
+      if (changedWhileLoading != null) {
+        changedWhileLoading.put(id, Boolean.FALSE);
+      }
+      absent.put(id, Boolean.TRUE);
+    }
+
+    void markAbsent(long id) {
+      absent.put(id, Boolean.TRUE);
+    }
+
+    // Writers are serialized, so a read-modify-write needs no CAS; readers see whole words
+    private static AtomicLongArray set(AtomicLongArray bits, long id) {
+      if (id < 0 || id > Integer.MAX_VALUE) {
+        return bits;
+      }
+      int word = (int) (id >>> 6);
+      if (word >= bits.length()) {
+        AtomicLongArray grown = new AtomicLongArray(Math.max(word + 1, bits.length() * 2));
+        for (int i = 0; i < bits.length(); i++) {
+          grown.set(i, bits.get(i));
+        }
+        bits = grown;
+      }
+      bits.set(word, bits.get(word) | (1L << id));
+      return bits;
+    }
+
+    private static AtomicLongArray clear(AtomicLongArray bits, long id) {
+      if (id >= 0 && id <= Integer.MAX_VALUE && (id >>> 6) < bits.length()) {
+        int word = (int) (id >>> 6);
+        bits.set(word, bits.get(word) & ~(1L << id));
+      }
+      return bits;
+    }
+  }
+}
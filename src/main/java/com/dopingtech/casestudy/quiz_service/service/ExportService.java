@@ -0,0 +1,122 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import com.dopingtech.casestudy.quiz_service.model.dto.ExportFilterDTO;
+import com.dopingtech.casestudy.quiz_service.model.enums.AnswerStorageMode;
+import com.dopingtech.casestudy.quiz_service.model.projection.AnswerExportRow;
+import com.dopingtech.casestudy.quiz_service.model.projection.AnswerKeyView;
+import com.dopingtech.casestudy.quiz_service.model.projection.PackedSheetExportRow;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizAssignmentExportRow;
+import com.dopingtech.casestudy.quiz_service.repository.AnswerRepository;
+import com.dopingtech.casestudy.quiz_service.repository.QuestionRepository;
+import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes quiz assignments and answers as newline-delimited JSON. Rows are read through a
+ * database cursor as projections that never enter the persistence context, and each row is
+ * written as soon as it is read, so memory use does not depend on the number of rows. In packed
+ * answer storage, answers are expanded from each assignment's sheet, one sheet at a time, and
+ * carry no answer id.
+ */
+@Service
+public class ExportService {
+
+  @Autowired
+  private QuizAssignmentRepository quizAssignmentRepository;
+
+  @Autowired
+  private AnswerRepository answerRepository;
+
+  @Autowired
+  private QuestionRepository questionRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Value("${quiz.answers.storage:ROWS}")
+  private AnswerStorageMode answerStorage;
+
+  @Transactional(readOnly = true)
+  public long writeQuizAssignments(ExportFilterDTO filter, OutputStream out) throws IOException {
+    try (Stream<QuizAssignmentExportRow> rows = quizAssignmentRepository.streamForExport(
+        filter.getQuizId(), filter.getStatus(), startOf(filter.getCompletedFrom()),
+        startOf(dayAfter(filter.getCompletedTo())))) {
+      return write(rows, objectMapper.writerFor(QuizAssignmentExportRow.class), out);
+    }
+  }
+
+  @Transactional(readOnly = true)
+  public long writeAnswers(ExportFilterDTO filter, OutputStream out) throws IOException {
+    if (answerStorage == AnswerStorageMode.PACKED) {
+      return writePackedAnswers(filter, out);
+    }
+    try (Stream<AnswerExportRow> rows = answerRepository.streamForExport(
+        filter.getQuizId(), filter.getStatus(), startOf(filter.getCompletedFrom()),
+        startOf(dayAfter(filter.getCompletedTo())))) {
+      return write(rows, objectMapper.writerFor(AnswerExportRow.class), out);
+    }
+  }
+
+  private long writePackedAnswers(ExportFilterDTO filter, OutputStream out) throws IOException {
+    Map<Long, List<AnswerKeyView>> questionsByQuizId = new HashMap<>();
+    try (Stream<PackedSheetExportRow> sheets =
+             quizAssignmentRepository.streamPackedSheetsForExport(filter.getQuizId(),
+                 filter.getStatus(), startOf(filter.getCompletedFrom()),
+                 startOf(dayAfter(filter.getCompletedTo())))) {
+      Stream<AnswerExportRow> rows = sheets.flatMap(sheet -> unpack(sheet,
+          questionsByQuizId.computeIfAbsent(sheet.quizId(),
+              questionRepository::findAnswerKeysByQuizId)));
+      return write(rows, objectMapper.writerFor(AnswerExportRow.class), out);
+    }
+  }
+
+  private static Stream<AnswerExportRow> unpack(PackedSheetExportRow row,
+                                                List<AnswerKeyView> questions) {
+    PackedAnswerSheet sheet = PackedAnswerSheet.of(row.packedAnswers(), row.packedCorrect());
+    List<AnswerExportRow> answers = new ArrayList<>();
+    for (AnswerKeyView question : questions) {
+      byte code = sheet.get(question.getPosition());
+      if (code != PackedAnswerSheet.UNANSWERED) {
+        answers.add(new AnswerExportRow(null, row.quizAssignmentId(), question.getId(),
+            PackedAnswerSheet.decode(code), sheet.isCorrect(question.getPosition())));
+      }
+    }
+    return answers.stream();
+  }
+
+  private static long write(Stream<?> rows, ObjectWriter writer, OutputStream out)
+      throws IOException {
+    long written = 0;
+    Iterator<?> iterator = rows.iterator();
+    while (iterator.hasNext()) {
+      out.write(writer.writeValueAsBytes(iterator.next()));
+      out.write('\n');
+      written++;
+    }
+    out.flush();
+    return written;
+  }
+
+  private static LocalDate dayAfter(LocalDate date) {
+    return date != null ? date.plusDays(1) : null;
+  }
+
+  private static LocalDateTime startOf(LocalDate date) {
+    return date != null ? date.atStartOfDay() : null;
+  }
+}
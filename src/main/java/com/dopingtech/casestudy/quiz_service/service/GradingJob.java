@@ -0,0 +1,79 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import com.dopingtech.casestudy.quiz_service.model.dto.GradingJobDTO;
+import com.dopingtech.casestudy.quiz_service.model.enums.GradingJobStatus;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Grades the completed assignments of one quiz together. Assignments can join the job until it
+ * starts running.
+ */
+@Getter
+class GradingJob {
+
+  private final String id;
+
+  private final Long quizId;
+
+  private final Instant submittedAt = Instant.now();
+
+  private final List<Long> quizAssignmentIds = new ArrayList<>();
+
+  private GradingJobStatus status = GradingJobStatus.QUEUED;
+
+  private String error;
+
+  private Instant finishedAt;
+
+  GradingJob(String id, Long quizId) {
+    this.id = id;
+    this.quizId = quizId;
+  }
+
+  synchronized boolean add(Long quizAssignmentId) {
+    if (status != GradingJobStatus.QUEUED) {
+      return false;
+    }
+    quizAssignmentIds.add(quizAssignmentId);
+    return true;
+  }
+
+  synchronized List<Long> start() {
+    status = GradingJobStatus.RUNNING;
+    return List.copyOf(quizAssignmentIds);
+  }
+
+  synchronized void complete() {
+    status = GradingJobStatus.COMPLETED;
+    finishedAt = Instant.now();
+  }
+
+  synchronized void fail(String error) {
+    status = GradingJobStatus.FAILED;
+    this.error = error;
+    finishedAt = Instant.now();
+  }
+
+  synchronized List<Long> unfinishedAssignmentIds() {
+    return finishedAt == null ? List.copyOf(quizAssignmentIds) : List.of();
+  }
+
+  synchronized boolean isFinishedBefore(Instant instant) {
+    return finishedAt != null && finishedAt.isBefore(instant);
+  }
+
+  synchronized GradingJobDTO toDTO() {
+    return GradingJobDTO.builder()
+        .id(id)
+        .quizId(quizId)
+        .status(status)
+        .quizAssignmentIds(List.copyOf(quizAssignmentIds))
+        .error(error)
+        .submittedAt(submittedAt)
+        .finishedAt(finishedAt)
+        .build();
+  }
+}
@@ -0,0 +1,149 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import com.dopingtech.casestudy.quiz_service.exception.GradingJobNotFoundException;
+import com.dopingtech.casestudy.quiz_service.exception.GradingQueueFullException;
+import com.dopingtech.casestudy.quiz_service.model.dto.GradingJobDTO;
+import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Completes quizzes off the request thread. Completions of the same quiz that arrive while a job is
+ * queued are graded by that job. Jobs are held in memory only; assignments whose job was lost with
+ * its node are returned to their previous status by a periodic sweep.
+ */
+@Slf4j
+@Service
+public class GradingJobService {
+
+  private final Map<String, GradingJob> jobs = new ConcurrentHashMap<>();
+
+  private final Map<Long, GradingJob> queuedJobs = new ConcurrentHashMap<>();
+
+  @Value("${quiz.grading.async.enabled:false}")
+  private boolean enabled;
+
+  @Value("${quiz.grading.pool-size:2}")
+  private int poolSize;
+
+  @Value("${quiz.grading.queue-capacity:100}")
+  private int queueCapacity;
+
+  @Value("${quiz.grading.job-retention:3600000}")
+  private long jobRetention;
+
+  @Value("${quiz.grading.stale-after:600000}")
+  private long staleAfter;
+
+  @Autowired
+  private QuizAssignmentService quizAssignmentService;
+
+  private ThreadPoolExecutor executor;
+
+  @PostConstruct
+  void startExecutor() {
+    executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("grading-"));
+  }
+
+  @PreDestroy
+  void stopExecutor() throws InterruptedException {
+    executor.shutdown();
+    executor.awaitTermination(30, TimeUnit.SECONDS);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public GradingJobDTO submit(Long quizAssignmentId) {
+    QuizAssignment quizAssignment = quizAssignmentService.beginGrading(quizAssignmentId);
+    Long quizId = quizAssignment.getQuiz().getId();
+    GradingJob job = queuedJobs.get(quizId);
+    while (job != null) {
+      if (job.add(quizAssignmentId)) {
+        return job.toDTO();
+      }
+      // Started before it was published, or while this request was joining
+      queuedJobs.remove(quizId, job);
+      job = queuedJobs.get(quizId);
+    }
+    GradingJob newJob = new GradingJob(UUID.randomUUID().toString(), quizId);
+    newJob.add(quizAssignmentId);
+    // Queued before other requests can join it, so a full queue only rejects this one
+    enqueue(newJob, quizAssignmentId);
+    jobs.put(newJob.getId(), newJob);
+    queuedJobs.putIfAbsent(quizId, newJob);
+    return newJob.toDTO();
+  }
+
+  public GradingJobDTO findById(String id) {
+    return Optional.ofNullable(jobs.get(id))
+        .map(GradingJob::toDTO)
+        .orElseThrow(() -> new GradingJobNotFoundException(id));
+  }
+
+  @Scheduled(fixedDelayString = "${quiz.grading.job-retention:3600000}")
+  public void evictFinishedJobs() {
+    Instant threshold = Instant.now().minusMillis(jobRetention);
+    jobs.values().removeIf(job -> job.isFinishedBefore(threshold));
+  }
+
+  // Any node may sweep, so stale-after must exceed the longest a job waits and runs on any node
+  @Scheduled(fixedDelayString = "${quiz.grading.sweep-interval:60000}",
+      initialDelayString = "${quiz.grading.sweep-interval:60000}")
+  public int releaseStaleAssignments() {
+    List<Long> quizAssignmentIds = new ArrayList<>(quizAssignmentService
+        .findGradingIdsStartedBefore(LocalDateTime.now().minus(staleAfter, ChronoUnit.MILLIS)));
+    for (GradingJob job : jobs.values()) {
+      quizAssignmentIds.removeAll(job.unfinishedAssignmentIds());
+    }
+    if (!quizAssignmentIds.isEmpty()) {
+      log.warn("Quiz assignments {} were left in grading by a lost job, restoring their status",
+          quizAssignmentIds);
+      quizAssignmentService.cancelGrading(quizAssignmentIds);
+    }
+    return quizAssignmentIds.size();
+  }
+
+  private void enqueue(GradingJob job, Long quizAssignmentId) {
+    try {
+      executor.execute(() -> run(job));
+    } catch (RejectedExecutionException e) {
+      quizAssignmentService.cancelGrading(List.of(quizAssignmentId));
+      throw new GradingQueueFullException(job.getQuizId());
+    }
+  }
+
+  private void run(GradingJob job) {
+    List<Long> quizAssignmentIds = job.start();
+    queuedJobs.remove(job.getQuizId(), job);
+    try {
+      quizAssignmentService.gradeQuizAssignments(job.getQuizId(), quizAssignmentIds);
+      job.complete();
+    } catch (RuntimeException e) {
+      log.error("Grading job {} for quiz {} failed", job.getId(), job.getQuizId(), e);
+      job.fail(e.getMessage());
+      quizAssignmentService.cancelGrading(quizAssignmentIds);
+    }
+  }
+}
@@ -9,6 +9,7 @@ import com.dopingtech.casestudy.quiz_service.repository.OptionRepository;
 import com.dopingtech.casestudy.quiz_service.repository.QuestionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class OptionService {
@@ -19,11 +20,15 @@ public class OptionService {
   @Autowired
   private QuestionRepository questionRepository;
 
+  @Autowired
+  private QuizCacheEvictor quizCacheEvictor;
+
   public Option findById(Long id) {
     return optionRepository.findById(id)
         .orElseThrow(() -> new OptionNotFoundException(id));
   }
 
+  @Transactional
   public Option createOption(OptionDTO optionDTO) {
     Question question = questionRepository.findById(optionDTO.getQuestionId())
         .orElseThrow(() -> new QuestionNotFoundException(optionDTO.getQuestionId()));
@@ -33,21 +38,25 @@ public class OptionService {
     option.setLetter(optionDTO.getLetter());
     option.setQuestion(question);
 
+    quizCacheEvictor.evictContent(question.getQuiz().getId());
     return optionRepository.save(option);
   }
 
+  @Transactional
   public Option updateOption(Long id, OptionDTO optionDTO) {
     Option option = optionRepository.findById(id)
         .orElseThrow(() -> new OptionNotFoundException(id));
     option.setText(optionDTO.getText());
     option.setLetter(optionDTO.getLetter());
+    quizCacheEvictor.evictContent(option.getQuestion().getQuiz().getId());
     return optionRepository.save(option);
   }
 
+  @Transactional
   public void deleteOption(Long id) {
-    if (!optionRepository.existsById(id)) {
-      throw new OptionNotFoundException(id);
-    }
+    Option option = optionRepository.findById(id)
+        .orElseThrow(() -> new OptionNotFoundException(id));
     optionRepository.deleteById(id);
+    quizCacheEvictor.evictContent(option.getQuestion().getQuiz().getId());
   }
 }
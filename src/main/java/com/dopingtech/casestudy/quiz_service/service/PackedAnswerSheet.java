@@ -0,0 +1,114 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import java.util.Arrays;
+
+/**
+ * Answer sheet packed into 3 bits per question position ({@code 0} unanswered, {@code 1..5} A..E,
+ * {@code 6} blank) plus one correctness bit per position.
+ */
+public final class PackedAnswerSheet {
+
+  public static final byte UNANSWERED = 0;
+
+  public static final byte BLANK = 6;
+
+  private static final int BITS_PER_ANSWER = 3;
+
+  private byte[] answers;
+
+  private byte[] correct;
+
+  private PackedAnswerSheet(byte[] answers, byte[] correct) {
+    this.answers = answers;
+    this.correct = correct;
+  }
+
+  public static PackedAnswerSheet of(byte[] answers, byte[] correct) {
+    return new PackedAnswerSheet(answers == null ? new byte[0] : answers.clone(),
+        correct == null ? new byte[0] : correct.clone());
+  }
+
+  public static byte encode(String selectedOption) {
+    return selectedOption == null || selectedOption.isEmpty()
+        ? BLANK : AnswerKeyIndex.encode(selectedOption);
+  }
+
+  public static String decode(byte code) {
+    return code == BLANK ? "" : AnswerKeyIndex.decode(code);
+  }
+
+  public int capacity() {
+    return answers.length * Byte.SIZE / BITS_PER_ANSWER;
+  }
+
+  public byte get(int position) {
+    if (position >= capacity()) {
+      return UNANSWERED;
+    }
+    int code = 0;
+    int offset = position * BITS_PER_ANSWER;
+    for (int i = 0; i < BITS_PER_ANSWER; i++) {
+      if (bit(answers, offset + i)) {
+        code |= 1 << i;
+      }
+    }
+    return (byte) code;
+  }
+
+  public boolean isCorrect(int position) {
+    return position < correct.length * Byte.SIZE && bit(correct, position);
+  }
+
+  public void set(int position, byte code, boolean isCorrect) {
+    int offset = position * BITS_PER_ANSWER;
+    int answerBytes = (offset + BITS_PER_ANSWER + Byte.SIZE - 1) / Byte.SIZE;
+    if (answerBytes > answers.length) {
+      answers = Arrays.copyOf(answers, answerBytes);
+    }
+    if (position / Byte.SIZE >= correct.length) {
+      correct = Arrays.copyOf(correct, position / Byte.SIZE + 1);
+    }
+    for (int i = 0; i < BITS_PER_ANSWER; i++) {
+      setBit(answers, offset + i, (code >> i & 1) != 0);
+    }
+    setBit(correct, position, isCorrect && code != UNANSWERED);
+  }
+
+  public int answeredCount() {
+    int count = 0;
+    for (int position = 0; position < capacity(); position++) {
+      if (get(position) != UNANSWERED) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public int correctCount() {
+    int count = 0;
+    for (byte b : correct) {
+      count += Integer.bitCount(b & 0xFF);
+    }
+    return count;
+  }
+
+  public byte[] answers() {
+    return answers.clone();
+  }
+
+  public byte[] correct() {
+    return correct.clone();
+  }
+
+  private static boolean bit(byte[] bits, int index) {
+    return (bits[index / Byte.SIZE] & 1 << index % Byte.SIZE) != 0;
+  }
+
+  private static void setBit(byte[] bits, int index, boolean value) {
+    if (value) {
+      bits[index / Byte.SIZE] |= (byte) (1 << index % Byte.SIZE);
+    } else {
+      bits[index / Byte.SIZE] &= (byte) ~(1 << index % Byte.SIZE);
+    }
+  }
+}
@@ -14,6 +14,7 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class QuestionService {
@@ -27,6 +28,15 @@ public class QuestionService {
   @Autowired
   private OptionRepository optionRepository;
 
+  @Autowired
+  private AnswerKeyIndex answerKeyIndex;
+
+  @Autowired
+  private QuizCacheEvictor quizCacheEvictor;
+
+  @Autowired
+  private ExistenceIndex existenceIndex;
+
   public Question findById(Long id) {
     return questionRepository.findById(id)
         .orElseThrow(() -> new QuestionNotFoundException(id));
@@ -45,13 +55,14 @@ public class QuestionService {
   }
 
   public List<Option> findOptionsByQuestionId(Long questionId) {
-    if (!questionRepository.existsById(questionId)) {
+    if (!existenceIndex.exists(ExistenceIndex.Kind.QUESTION, questionId)) {
       throw new QuestionNotFoundException(questionId);
     }
     return optionRepository.findByQuestionId(questionId);
   }
 
-  @CacheEvict(value = "quizQuestions", allEntries = true)
+  @Transactional
+  @CacheEvict(value = {"quizQuestions", "quizzes", "quizPapers"}, key = "#questionDTO.quizId")
   public Question createQuestion(QuestionDTO questionDTO) {
     Quiz quiz = quizRepository.findById(questionDTO.getQuizId())
         .orElseThrow(() -> new QuizNotFoundException(questionDTO.getQuizId()));
@@ -61,11 +72,17 @@ public class QuestionService {
     question.setCorrectAnswer(questionDTO.getCorrectAnswer());
 
     question.setQuiz(quiz);
-
-    return questionRepository.save(question);
+    question.setPosition(quizRepository.allocateQuestionPosition(quiz.getId()));
+
+    Question savedQuestion = questionRepository.save(question);
+    existenceIndex.added(ExistenceIndex.Kind.QUESTION, savedQuestion.getId());
+    quizRepository.addToQuestionCount(quiz.getId(), 1);
+    answerKeyIndex.added(savedQuestion.getId(), quiz.getId(), savedQuestion.getPosition(),
+        savedQuestion.getCorrectAnswer());
+    return savedQuestion;
   }
 
-  @CacheEvict(value = "quizQuestions", allEntries = true)
+  @Transactional
   public Question updateQuestion(Long id, QuestionDTO questionDTO) {
     Quiz quiz = quizRepository.findById(questionDTO.getQuizId())
         .orElseThrow(() -> new QuizNotFoundException(questionDTO.getQuizId()));
@@ -75,18 +92,36 @@ public class QuestionService {
           existingQuestion.setText(questionDTO.getText());
           existingQuestion.setCorrectAnswer(questionDTO.getCorrectAnswer());
 
+          Long previousQuizId = existingQuestion.getQuiz().getId();
+          if (!previousQuizId.equals(quiz.getId())) {
+            quizRepository.addToQuestionCount(previousQuizId, -1);
+            quizRepository.addToQuestionCount(quiz.getId(), 1);
+            existingQuestion.setPosition(
+                quizRepository.allocateQuestionPosition(quiz.getId()));
+            quizCacheEvictor.evictContent(previousQuizId);
+            quizCacheEvictor.evictView(previousQuizId);
+            quizCacheEvictor.evictView(quiz.getId());
+          }
           existingQuestion.setQuiz(quiz);
+          quizCacheEvictor.evictContent(quiz.getId());
 
-          return questionRepository.save(existingQuestion);
+          Question savedQuestion = questionRepository.save(existingQuestion);
+          answerKeyIndex.put(savedQuestion.getId(), quiz.getId(),
+              savedQuestion.getPosition(), savedQuestion.getCorrectAnswer());
+          return savedQuestion;
         })
         .orElseThrow(() -> new QuestionNotFoundException(id));
   }
 
-  @CacheEvict(value = "quizQuestions", allEntries = true)
+  @Transactional
   public void deleteQuestion(Long id) {
-    if (!questionRepository.existsById(id)) {
-      throw new QuestionNotFoundException(id);
-    }
+    Question question = questionRepository.findById(id)
+        .orElseThrow(() -> new QuestionNotFoundException(id));
     questionRepository.deleteById(id);
+    existenceIndex.removed(ExistenceIndex.Kind.QUESTION, id);
+    quizRepository.addToQuestionCount(question.getQuiz().getId(), -1);
+    answerKeyIndex.remove(id);
+    quizCacheEvictor.evictContent(question.getQuiz().getId());
+    quizCacheEvictor.evictView(question.getQuiz().getId());
   }
 }
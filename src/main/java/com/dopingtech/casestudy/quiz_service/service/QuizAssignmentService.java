@@ -1,33 +1,58 @@
 package com.dopingtech.casestudy.quiz_service.service;
 
-import com.dopingtech.casestudy.quiz_service.exception.QuestionNotFoundException;
+import com.dopingtech.casestudy.quiz_service.config.RetryOnConflict;
+import com.dopingtech.casestudy.quiz_service.exception.CustomException;
+import com.dopingtech.casestudy.quiz_service.exception.QuestionNotInQuizException;
 import com.dopingtech.casestudy.quiz_service.exception.QuizAssignmentNotFoundException;
 import com.dopingtech.casestudy.quiz_service.exception.QuizCompletedAlreadyException;
 import com.dopingtech.casestudy.quiz_service.exception.QuizNotFoundException;
 import com.dopingtech.casestudy.quiz_service.exception.QuizNotInProgressException;
 import com.dopingtech.casestudy.quiz_service.exception.StudentNotFoundException;
 import com.dopingtech.casestudy.quiz_service.model.dto.AnswerDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.AnswerResultDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.AnswerSheetDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.AnswerSheetItemDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.CursorPageDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.QuizAssignmentDTO;
 import com.dopingtech.casestudy.quiz_service.model.entity.Answer;
 import com.dopingtech.casestudy.quiz_service.model.entity.Question;
 import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
 import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
 import com.dopingtech.casestudy.quiz_service.model.entity.Student;
+import com.dopingtech.casestudy.quiz_service.model.enums.AnswerStorageMode;
 import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.model.projection.GradedAnswer;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizAssignmentView;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizSession;
+import com.dopingtech.casestudy.quiz_service.repository.AnswerBatchRepository;
 import com.dopingtech.casestudy.quiz_service.repository.AnswerRepository;
 import com.dopingtech.casestudy.quiz_service.repository.QuestionRepository;
 import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
 import com.dopingtech.casestudy.quiz_service.repository.QuizRepository;
 import com.dopingtech.casestudy.quiz_service.repository.StudentRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class QuizAssignmentService {
 
+  private static final Set<QuizAssignmentStatus> OPEN_STATUSES =
+      EnumSet.of(QuizAssignmentStatus.ASSIGNED, QuizAssignmentStatus.IN_PROGRESS);
+
   @Autowired
   private QuizAssignmentRepository quizAssignmentRepository;
 
@@ -35,7 +60,16 @@ public class QuizAssignmentService {
   private AnswerRepository answerRepository;
 
   @Autowired
-  private QuestionRepository questionRepository;
+  private AnswerBatchRepository answerBatchRepository;
+
+  @Autowired
+  private AnswerWriteBuffer answerWriteBuffer;
+
+  @Autowired
+  private AnswerKeyIndex answerKeyIndex;
+
+  @Autowired
+  private QuizSessionRegistry sessionRegistry;
 
   @Autowired
   private StudentRepository studentRepository;
@@ -43,32 +77,61 @@ public class QuizAssignmentService {
   @Autowired
   private QuizRepository quizRepository;
 
-  @Cacheable(value = "quizAssignments")
-  public List<QuizAssignment> findAll() {
-    return quizAssignmentRepository.findAll();
+  @Autowired
+  private QuestionRepository questionRepository;
+
+  @Autowired
+  private AggregateVersions aggregateVersions;
+
+  @Autowired
+  private ExistenceIndex existenceIndex;
+
+  @Autowired
+  private CursorPagination cursorPagination;
+
+  @Value("${quiz.answers.storage:ROWS}")
+  private AnswerStorageMode answerStorage;
+
+  public CursorPageDTO<QuizAssignment> findPage(String cursor, Integer size) {
+    int pageSize = cursorPagination.pageSize(size);
+    CursorPageDTO<Long> ids = cursorPagination.page(quizAssignmentRepository.findIdPage(
+        cursorPagination.afterId(cursor), Limit.of(pageSize + 1)), pageSize, Function.identity());
+    if (ids.getItems().isEmpty()) {
+      return new CursorPageDTO<>(List.of(), null);
+    }
+    return new CursorPageDTO<>(quizAssignmentRepository.findByIdInOrderById(ids.getItems()),
+        ids.getNextCursor());
   }
 
   public List<Answer> findAnswersByQuizAssignmentId(Long quizAssignmentId) {
-    if (!quizAssignmentRepository.existsById(quizAssignmentId)) {
+    if (answerStorage == AnswerStorageMode.PACKED) {
+      return unpackAnswers(load(quizAssignmentId));
+    }
+    if (!existenceIndex.exists(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, quizAssignmentId)) {
       throw new QuizAssignmentNotFoundException(quizAssignmentId);
     }
+    answerWriteBuffer.flush(quizAssignmentId);
     return answerRepository.findByQuizAssignmentId(quizAssignmentId);
   }
 
-  public QuizAssignment findById(Long id) {
-    return quizAssignmentRepository.findById(id)
+  @Cacheable(value = "quizAssignments", key = "#id", sync = true)
+  public QuizAssignmentView findById(Long id) {
+    return quizAssignmentRepository.findViewById(id)
         .orElseThrow(() -> new QuizAssignmentNotFoundException(id));
   }
 
-  @CacheEvict(value = "quizAssignments", allEntries = true)
+  @Caching(evict = {
+      @CacheEvict(value = "quizzes", key = "#quizAssignmentDTO.quizId"),
+      @CacheEvict(value = "studentQuizzes", key = "#quizAssignmentDTO.studentId")
+  })
   public QuizAssignment createQuizAssignment(QuizAssignmentDTO quizAssignmentDTO) {
     QuizAssignment quizAssignment = new QuizAssignment();
 
-    if (!studentRepository.existsById(quizAssignmentDTO.getStudentId())) {
+    if (!existenceIndex.exists(ExistenceIndex.Kind.STUDENT, quizAssignmentDTO.getStudentId())) {
       throw new StudentNotFoundException(quizAssignmentDTO.getStudentId());
     }
 
-    if (!quizRepository.existsById(quizAssignmentDTO.getQuizId())) {
+    if (!existenceIndex.exists(ExistenceIndex.Kind.QUIZ, quizAssignmentDTO.getQuizId())) {
       throw new QuizNotFoundException(quizAssignmentDTO.getQuizId());
     }
 
@@ -82,73 +145,263 @@ public class QuizAssignmentService {
 
     quizAssignment.setStatus(QuizAssignmentStatus.ASSIGNED);
     quizAssignment.setScore(0);
-    return quizAssignmentRepository.save(quizAssignment);
+    QuizAssignment savedQuizAssignment = quizAssignmentRepository.save(quizAssignment);
+    existenceIndex.added(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, savedQuizAssignment.getId());
+    return savedQuizAssignment;
   }
 
-  @CacheEvict(value = "quizAssignments", allEntries = true)
+  @RetryOnConflict
+  @Transactional
+  @CacheEvict(value = "quizAssignments", key = "#quizAssignmentId")
   public void startQuiz(Long quizAssignmentId) {
     QuizAssignment quizAssignment = quizAssignmentRepository.findById(quizAssignmentId)
         .orElseThrow(() -> new QuizAssignmentNotFoundException(quizAssignmentId));
 
-    if (quizAssignment.getStatus() == QuizAssignmentStatus.COMPLETED) {
+    if (quizAssignmentRepository.transition(List.of(quizAssignmentId), OPEN_STATUSES,
+        QuizAssignmentStatus.IN_PROGRESS) == 0) {
       throw new QuizCompletedAlreadyException(quizAssignmentId);
     }
-
-    quizAssignment.setStatus(QuizAssignmentStatus.IN_PROGRESS);
-    quizAssignmentRepository.save(quizAssignment);
+    aggregateVersions.increment(AggregateVersions.QUIZ_ASSIGNMENT, quizAssignmentId);
+    sessionRegistry.close(quizAssignmentId);
+    answerKeyIndex.loadQuiz(quizAssignment.getQuiz().getId());
   }
 
-  @CacheEvict(value = "quizAssignments", allEntries = true)
+  @RetryOnConflict
+  @Transactional
+  @CacheEvict(value = "quizAssignments", key = "#answerDTO.quizAssignmentId")
   public void answerQuestion(AnswerDTO answerDTO) {
-    QuizAssignment quizAssignment =
-        quizAssignmentRepository.findById(answerDTO.getQuizAssignmentId())
-            .orElseThrow(
-                () -> new QuizAssignmentNotFoundException(answerDTO.getQuizAssignmentId()));
+    QuizSession session = sessionRegistry.get(answerDTO.getQuizAssignmentId());
+    boolean correct = checkAnswer(session.quizId(), answerDTO.getQuestionId(),
+        answerDTO.getSelectedOption());
+    writeAnswers(answerDTO.getQuizAssignmentId(), session, List.of(new GradedAnswer(
+        answerDTO.getQuizAssignmentId(), answerDTO.getQuestionId(),
+        answerDTO.getSelectedOption(), correct)));
+  }
 
-    if (quizAssignment.getStatus() != QuizAssignmentStatus.IN_PROGRESS) {
-      throw new QuizNotInProgressException(answerDTO.getQuizAssignmentId());
+  @RetryOnConflict
+  @Transactional
+  @CacheEvict(value = "quizAssignments", key = "#quizAssignmentId")
+  public List<AnswerResultDTO> answerQuestions(Long quizAssignmentId,
+                                               AnswerSheetDTO answerSheetDTO) {
+    Map<Long, String> selectedOptions = new LinkedHashMap<>();
+    for (AnswerSheetItemDTO item : answerSheetDTO.getAnswers()) {
+      selectedOptions.put(item.getQuestionId(), item.getSelectedOption());
     }
 
-    Answer answer = answerRepository.findByQuizAssignmentIdAndQuestionId(
-        answerDTO.getQuizAssignmentId(), answerDTO.getQuestionId());
+    QuizSession session = sessionRegistry.get(quizAssignmentId);
+    List<GradedAnswer> gradedAnswers = new ArrayList<>();
+    List<AnswerResultDTO> results = new ArrayList<>();
+    selectedOptions.forEach((questionId, selectedOption) -> {
+      try {
+        gradedAnswers.add(new GradedAnswer(quizAssignmentId, questionId, selectedOption,
+            checkAnswer(session.quizId(), questionId, selectedOption)));
+        results.add(new AnswerResultDTO(questionId, true, null, null));
+      } catch (CustomException e) {
+        results.add(new AnswerResultDTO(questionId, false, e.getErrorCode().getCode(),
+            e.getMessage()));
+      }
+    });
+    writeAnswers(quizAssignmentId, session, gradedAnswers);
+    return results;
+  }
+
+  @RetryOnConflict
+  @Transactional
+  @CacheEvict(value = "quizAssignments", key = "#quizAssignmentId")
+  public void completeQuiz(Long quizAssignmentId) {
+    QuizAssignment quizAssignment = quizAssignmentRepository.findById(quizAssignmentId)
+        .orElseThrow(() -> new QuizAssignmentNotFoundException(quizAssignmentId));
+
+    if (complete(List.of(quizAssignmentId), OPEN_STATUSES,
+        quizAssignment.getQuiz().getQuestionCount()) == 0) {
+      throw new QuizCompletedAlreadyException(quizAssignmentId);
+    }
+    aggregateVersions.increment(AggregateVersions.QUIZ_ASSIGNMENT, quizAssignmentId);
+    aggregateVersions.increment(AggregateVersions.COMPLETED_QUIZZES,
+        quizAssignment.getStudent().getId());
+    sessionRegistry.close(quizAssignmentId);
+  }
 
-    if (answer == null) {
-      answer = new Answer();
-      answer.setQuizAssignment(quizAssignment);
+  @RetryOnConflict
+  @Transactional
+  @CacheEvict(value = "quizAssignments", allEntries = true)
+  public ClosedChunk completeOpenAssignments(Long quizId, long afterId, int limit,
+                                             int questionCount) {
+    List<Long> quizAssignmentIds =
+        quizAssignmentRepository.findOpenIdsByQuizId(quizId, afterId, limit);
+    int completed = 0;
+    if (!quizAssignmentIds.isEmpty()) {
+      completed = complete(quizAssignmentIds, OPEN_STATUSES, questionCount);
+      aggregateVersions.increment(AggregateVersions.QUIZ_ASSIGNMENT, quizAssignmentIds);
+      aggregateVersions.increment(AggregateVersions.COMPLETED_QUIZZES,
+          quizAssignmentRepository.findStudentIdsByIdIn(quizAssignmentIds));
+      sessionRegistry.close(quizAssignmentIds);
     }
+    return new ClosedChunk(quizAssignmentIds, completed);
+  }
 
-    Question question = new Question();
-    question.setId(answerDTO.getQuestionId());
+  @RetryOnConflict
+  @Transactional
+  @CacheEvict(value = "quizAssignments", key = "#quizAssignmentId")
+  public QuizAssignment beginGrading(Long quizAssignmentId) {
+    QuizAssignment quizAssignment = quizAssignmentRepository.findById(quizAssignmentId)
+        .orElseThrow(() -> new QuizAssignmentNotFoundException(quizAssignmentId));
 
-    answer.setSelectedOption(answerDTO.getSelectedOption());
-    answer.setCorrect(checkAnswer(answerDTO.getQuestionId(), answerDTO.getSelectedOption()));
-    answer.setQuestion(question);
+    answerWriteBuffer.close(List.of(quizAssignmentId));
+    if (quizAssignmentRepository.beginGrading(List.of(quizAssignmentId), OPEN_STATUSES,
+        QuizAssignmentStatus.GRADING, LocalDateTime.now()) == 0) {
+      throw new QuizCompletedAlreadyException(quizAssignmentId);
+    }
+    aggregateVersions.increment(AggregateVersions.QUIZ_ASSIGNMENT, quizAssignmentId);
+    sessionRegistry.close(quizAssignmentId);
+    return quizAssignment;
+  }
 
-    answerRepository.save(answer);
+  @RetryOnConflict
+  @Transactional
+  @CacheEvict(value = "quizAssignments", allEntries = true)
+  public void gradeQuizAssignments(Long quizId, List<Long> quizAssignmentIds) {
+    int questionCount = quizRepository.findById(quizId)
+        .map(Quiz::getQuestionCount)
+        .orElse(0);
+    complete(quizAssignmentIds, EnumSet.of(QuizAssignmentStatus.GRADING), questionCount);
+    aggregateVersions.increment(AggregateVersions.QUIZ_ASSIGNMENT, quizAssignmentIds);
+    aggregateVersions.increment(AggregateVersions.COMPLETED_QUIZZES,
+        quizAssignmentRepository.findStudentIdsByIdIn(quizAssignmentIds));
+    sessionRegistry.close(quizAssignmentIds);
   }
 
+  @RetryOnConflict
+  @Transactional
   @CacheEvict(value = "quizAssignments", allEntries = true)
-  public void completeQuiz(Long quizAssignmentId) {
-    QuizAssignment quizAssignment = quizAssignmentRepository.findById(quizAssignmentId)
-        .orElseThrow(() -> new QuizAssignmentNotFoundException(quizAssignmentId));
-    quizAssignment.setStatus(QuizAssignmentStatus.COMPLETED);
-    evaluateQuizScore(quizAssignment);
+  public void cancelGrading(List<Long> quizAssignmentIds) {
+    quizAssignmentRepository.restoreStatusBeforeGrading(quizAssignmentIds,
+        QuizAssignmentStatus.GRADING, QuizAssignmentStatus.IN_PROGRESS);
+    aggregateVersions.increment(AggregateVersions.QUIZ_ASSIGNMENT, quizAssignmentIds);
+    sessionRegistry.close(quizAssignmentIds);
+  }
+
+  public List<Long> findGradingIdsStartedBefore(LocalDateTime startedBefore) {
+    return quizAssignmentRepository.findGradingIdsStartedBefore(QuizAssignmentStatus.GRADING,
+        startedBefore);
+  }
+
+  // Rows are merged before the assignment is claimed, and the merge returns the answers it
+  // replaced, so the claim also applies the exact counter changes without a recount. Packed sheets
+  // are claimed first, since they read state the claim protects
+  private void writeAnswers(Long quizAssignmentId, QuizSession session,
+                            List<GradedAnswer> gradedAnswers) {
+    if (answerStorage == AnswerStorageMode.PACKED) {
+      claimInProgress(quizAssignmentId, 0, 0);
+      writePacked(load(quizAssignmentId), gradedAnswers);
+    } else if (answerWriteBuffer.isEnabled()) {
+      // No claim per click: the buffer only writes answers to assignments still at the session
+      // version, and rejects them while a status change is being made on this node
+      if (session.status() != QuizAssignmentStatus.IN_PROGRESS
+          || !answerWriteBuffer.add(quizAssignmentId, session.version(), gradedAnswers)) {
+        throw new QuizNotInProgressException(quizAssignmentId);
+      }
+    } else {
+      // Answers of an unknown assignment would fail on the foreign key instead
+      if (!existenceIndex.exists(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, quizAssignmentId)) {
+        throw new QuizAssignmentNotFoundException(quizAssignmentId);
+      }
+      List<Boolean> replaced = upsert(gradedAnswers);
+      int correct = 0;
+      for (GradedAnswer answer : gradedAnswers) {
+        correct += answer.correct() ? 1 : 0;
+      }
+      for (Boolean wasCorrect : replaced) {
+        correct -= Boolean.TRUE.equals(wasCorrect) ? 1 : 0;
+      }
+      claimInProgress(quizAssignmentId, gradedAnswers.size() - replaced.size(), correct);
+    }
+    aggregateVersions.incrementLater(AggregateVersions.QUIZ_ASSIGNMENT, quizAssignmentId);
+  }
+
+  private List<Boolean> upsert(List<GradedAnswer> gradedAnswers) {
+    if (gradedAnswers.size() != 1) {
+      return answerBatchRepository.upsertReturningPrevious(gradedAnswers);
+    }
+    GradedAnswer answer = gradedAnswers.get(0);
+    return answerRepository.upsert(answer.quizAssignmentId(), answer.questionId(),
+        answer.selectedOption(), answer.correct());
+  }
+
+  // The conditional update checks the status and write-locks the row, so answers and transitions
+  // of one assignment are applied one at a time on every node. A failed claim rolls back the
+  // answers already merged
+  private void claimInProgress(Long quizAssignmentId, int answered, int correct) {
+    if (quizAssignmentRepository.addAnswerCounts(quizAssignmentId,
+        QuizAssignmentStatus.IN_PROGRESS, answered, correct) == 0) {
+      if (!existenceIndex.exists(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, quizAssignmentId)) {
+        throw new QuizAssignmentNotFoundException(quizAssignmentId);
+      }
+      throw new QuizNotInProgressException(quizAssignmentId);
+    }
+  }
+
+  // Rows keep their counters current per answer and buffered answers are recounted when they
+  // are flushed, so scoring only reads the counters. Buffered answers are written and committed
+  // before the transition locks the rows, so a rollback here cannot lose them
+  private int complete(List<Long> quizAssignmentIds, Set<QuizAssignmentStatus> from,
+                       int questionCount) {
+    answerWriteBuffer.close(quizAssignmentIds);
+    int completed = quizAssignmentRepository.transition(quizAssignmentIds, from,
+        QuizAssignmentStatus.COMPLETED);
+    if (completed > 0) {
+      quizAssignmentRepository.scoreCompleted(quizAssignmentIds, questionCount);
+    }
+    return completed;
+  }
+
+  private void writePacked(QuizAssignment quizAssignment, List<GradedAnswer> gradedAnswers) {
+    PackedAnswerSheet sheet = PackedAnswerSheet.of(quizAssignment.getPackedAnswers(),
+        quizAssignment.getPackedCorrect());
+    for (GradedAnswer answer : gradedAnswers) {
+      sheet.set(answerKeyIndex.positionOf(answer.questionId()),
+          PackedAnswerSheet.encode(answer.selectedOption()), answer.correct());
+    }
+    quizAssignment.setPackedAnswers(sheet.answers());
+    quizAssignment.setPackedCorrect(sheet.correct());
+    quizAssignment.setAnsweredCount(sheet.answeredCount());
+    quizAssignment.setCorrectAnswerCount(sheet.correctCount());
     quizAssignmentRepository.save(quizAssignment);
   }
 
-  private void evaluateQuizScore(QuizAssignment quizAssignment) {
-    int correctAnswers =
-        (int) quizAssignment.getAnswers().stream().filter(Answer::isCorrect).count();
+  private List<Answer> unpackAnswers(QuizAssignment quizAssignment) {
+    PackedAnswerSheet sheet = PackedAnswerSheet.of(quizAssignment.getPackedAnswers(),
+        quizAssignment.getPackedCorrect());
+    List<Answer> answers = new ArrayList<>();
+    for (Question question : questionRepository.findByQuizId(quizAssignment.getQuiz().getId())) {
+      byte code = sheet.get(question.getPosition());
+      if (code != PackedAnswerSheet.UNANSWERED) {
+        answers.add(Answer.builder()
+            .quizAssignment(quizAssignment)
+            .question(question)
+            .selectedOption(PackedAnswerSheet.decode(code))
+            .isCorrect(sheet.isCorrect(question.getPosition()))
+            .build());
+      }
+    }
+    return answers;
+  }
 
-    quizAssignment.setCorrectAnswerCount(correctAnswers);
-    quizAssignment.setScore(
-        correctAnswers / quizAssignment.getQuiz().getQuestions().size() * 100);
+  private QuizAssignment load(Long quizAssignmentId) {
+    return quizAssignmentRepository.findById(quizAssignmentId)
+        .orElseThrow(() -> new QuizAssignmentNotFoundException(quizAssignmentId));
   }
 
-  private boolean checkAnswer(Long questionId, String selectedOption) {
-    Question question = questionRepository.findById(questionId)
-        .orElseThrow(() -> new QuestionNotFoundException(questionId));
+  // A question of another quiz would otherwise be graded and stored in that quiz's packed slot
+  private boolean checkAnswer(Long quizId, Long questionId, String selectedOption) {
+    if (!answerKeyIndex.belongsTo(questionId, quizId)) {
+      throw new QuestionNotInQuizException(questionId, quizId);
+    }
+    return answerKeyIndex.isCorrect(questionId, selectedOption);
+  }
 
-    return question.getCorrectAnswer().equals(selectedOption);
+  // The ids read as open, which the next chunk starts after, and how many of them this chunk
+  // completed; the rest were completed concurrently
+  public record ClosedChunk(List<Long> quizAssignmentIds, int completedCount) {
   }
 }
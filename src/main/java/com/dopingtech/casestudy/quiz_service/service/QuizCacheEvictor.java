@@ -0,0 +1,47 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import java.util.Collection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached quiz entries by key for writes that only learn the affected quiz while they run,
+ * such as moving a question or changing an option, and for assignments removed with their quiz
+ * or student.
+ */
+@Component
+public class QuizCacheEvictor {
+
+  static final String PAPER_CACHE_NAME = "quizPapers";
+
+  @Autowired
+  private CacheManager cacheManager;
+
+  // Questions, options and the compiled paper of a quiz
+  public void evictContent(Long quizId) {
+    evict("quizQuestions", quizId);
+    evict(PAPER_CACHE_NAME, quizId);
+  }
+
+  // The quiz view, which carries the question count
+  public void evictView(Long quizId) {
+    evict("quizzes", quizId);
+  }
+
+  // Assignment views and sessions
+  public void evictAssignments(Collection<Long> quizAssignmentIds) {
+    for (Long quizAssignmentId : quizAssignmentIds) {
+      evict("quizAssignments", quizAssignmentId);
+      evict(QuizSessionRegistry.CACHE_NAME, quizAssignmentId);
+    }
+  }
+
+  private void evict(String cacheName, Long key) {
+    Cache cache = cacheManager.getCache(cacheName);
+    if (cache != null && key != null) {
+      cache.evict(key);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import com.dopingtech.casestudy.quiz_service.exception.InvalidQuizDocumentException;
+import com.dopingtech.casestudy.quiz_service.model.dto.OptionDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuestionDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.repository.QuizRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks a whole quiz document in one pass: the field constraints, and the rules the database
+ * would otherwise reject one insert at a time (unique quiz name, question texts and option
+ * letters and texts). Every problem is reported at once, keyed by its path in the document.
+ */
+@Component
+public class QuizDocumentValidator {
+
+  @Autowired
+  private Validator validator;
+
+  @Autowired
+  private QuizRepository quizRepository;
+
+  public void validate(QuizDocumentDTO document) {
+    Map<String, String> errors = new LinkedHashMap<>();
+    for (ConstraintViolation<QuizDocumentDTO> violation : validator.validate(document)) {
+      errors.putIfAbsent(violation.getPropertyPath().toString(), violation.getMessage());
+    }
+
+    if (document.getName() != null && !document.getName().isBlank()
+        && quizRepository.existsByName(document.getName())) {
+      errors.putIfAbsent("name", "A quiz with this name already exists");
+    }
+    if (document.getQuestions() != null) {
+      Set<String> texts = new HashSet<>();
+      for (int i = 0; i < document.getQuestions().size(); i++) {
+        QuestionDocumentDTO question = document.getQuestions().get(i);
+        if (question == null) {
+          continue;
+        }
+        String path = "questions[" + i + "]";
+        if (question.getText() != null && !texts.add(question.getText())) {
+          errors.putIfAbsent(path + ".text", "Question text is already used in this quiz");
+        }
+        validateOptions(question, path, errors);
+      }
+    }
+
+    if (!errors.isEmpty()) {
+      throw new InvalidQuizDocumentException(errors);
+    }
+  }
+
+  private static void validateOptions(QuestionDocumentDTO question, String path,
+                                      Map<String, String> errors) {
+    List<OptionDocumentDTO> options = question.getOptions();
+    if (options == null || options.isEmpty()) {
+      return;
+    }
+    Set<String> letters = new HashSet<>();
+    Set<String> texts = new HashSet<>();
+    for (int j = 0; j < options.size(); j++) {
+      OptionDocumentDTO option = options.get(j);
+      if (option == null) {
+        continue;
+      }
+      String optionPath = path + ".options[" + j + "]";
+      if (option.getLetter() != null && !letters.add(option.getLetter())) {
+        errors.putIfAbsent(optionPath + ".letter", "Option letter is already used in this question");
+      }
+      if (option.getText() != null && !texts.add(option.getText())) {
+        errors.putIfAbsent(optionPath + ".text", "Option text is already used in this question");
+      }
+    }
+    if (question.getCorrectAnswer() != null && !letters.contains(question.getCorrectAnswer())) {
+      errors.putIfAbsent(path + ".correctAnswer", "Correct answer must be one of the option letters");
+    }
+  }
+}
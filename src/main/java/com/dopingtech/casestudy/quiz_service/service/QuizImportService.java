@@ -0,0 +1,70 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import com.dopingtech.casestudy.quiz_service.exception.CustomException;
+import com.dopingtech.casestudy.quiz_service.exception.ErrorCode;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizImportResultDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Imports a newline-delimited JSON file of quiz documents. Lines are read and imported one at a
+ * time, each quiz in its own transaction, so the file is never held in memory and a rejected
+ * quiz does not roll back the others.
+ */
+@Slf4j
+@Service
+public class QuizImportService {
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  public List<QuizImportResultDTO> importQuizzes(InputStream in) throws IOException {
+    ObjectReader reader = objectMapper.readerFor(QuizDocumentDTO.class);
+    List<QuizImportResultDTO> results = new ArrayList<>();
+    BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    int lineNumber = 0;
+    String line;
+    while ((line = lines.readLine()) != null) {
+      lineNumber++;
+      if (!line.isBlank()) {
+        results.add(importLine(reader, lineNumber, line));
+      }
+    }
+    long imported = results.stream().filter(result -> result.getQuizId() != null).count();
+    log.info("Imported {} of {} quizzes", imported, results.size());
+    return results;
+  }
+
+  private QuizImportResultDTO importLine(ObjectReader reader, int lineNumber, String line) {
+    try {
+      QuizDocumentDTO document = reader.readValue(line);
+      return new QuizImportResultDTO(lineNumber, quizService.importQuiz(document).getId(), null,
+          null);
+    } catch (JsonProcessingException e) {
+      return new QuizImportResultDTO(lineNumber, null, ErrorCode.INVALID_QUIZ_DOCUMENT.getCode(),
+          "Line is not a quiz document: " + e.getOriginalMessage());
+    } catch (CustomException e) {
+      return new QuizImportResultDTO(lineNumber, null, e.getErrorCode().getCode(),
+          e.getMessage());
+    } catch (DataIntegrityViolationException e) {
+      return new QuizImportResultDTO(lineNumber, null,
+          ErrorCode.DATA_INTEGRITY_VIOLATION.getCode(), e.getMostSpecificCause().getMessage());
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The answer-free questions and options of a quiz, rendered once as JSON and optionally gzipped.
+ * Each representation has a strong ETag derived from its content.
+ */
+public final class QuizPaper {
+
+  private final byte[] json;
+
+  private final byte[] gzippedJson;
+
+  private final String etag;
+
+  private QuizPaper(byte[] json, byte[] gzippedJson, String etag) {
+    this.json = json;
+    this.gzippedJson = gzippedJson;
+    this.etag = etag;
+  }
+
+  public static QuizPaper compile(byte[] json, boolean gzip) {
+    return new QuizPaper(json, gzip ? gzip(json) : null, digest(json));
+  }
+
+  public boolean hasGzip() {
+    return gzippedJson != null;
+  }
+
+  public byte[] getBody(boolean gzip) {
+    return gzip ? gzippedJson : json;
+  }
+
+  public String getEtag(boolean gzip) {
+    return "\"" + etag + (gzip ? "-gzip" : "") + "\"";
+  }
+
+  /**
+   * Whether an If-None-Match header value names this representation. Tags are compared weakly,
+   * as the header requires.
+   */
+  public boolean matches(String ifNoneMatch, boolean gzip) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    String current = getEtag(gzip);
+    return Arrays.stream(ifNoneMatch.split(","))
+        .map(String::trim)
+        .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+        .anyMatch(tag -> tag.equals("*") || tag.equals(current));
+  }
+
+  /**
+   * Whether the gzipped representation should be sent for an Accept-Encoding header value. A
+   * coding with {@code q=0} is refused; {@code *} covers gzip when gzip is not listed itself.
+   */
+  public boolean servesGzip(String acceptEncoding) {
+    if (!hasGzip() || acceptEncoding == null) {
+      return false;
+    }
+    double gzipQuality = -1;
+    double anyQuality = -1;
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parameters = coding.split(";");
+      String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+      if (name.equals("gzip") || name.equals("x-gzip")) {
+        gzipQuality = Math.max(gzipQuality, quality(parameters));
+      } else if (name.equals("*")) {
+        anyQuality = quality(parameters);
+      }
+    }
+    return gzipQuality >= 0 ? gzipQuality > 0 : anyQuality > 0;
+  }
+
+  // A malformed weight refuses the coding rather than accepting it at full weight
+  private static double quality(String[] parameters) {
+    for (int i = 1; i < parameters.length; i++) {
+      String parameter = parameters[i].trim();
+      if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+        try {
+          return Double.parseDouble(parameter.substring(2).trim());
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+
+  private static byte[] gzip(byte[] json) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      gzip.write(json);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static String digest(byte[] json) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+      return HexFormat.of().formatHex(hash, 0, 16);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -1,24 +1,45 @@
 package com.dopingtech.casestudy.quiz_service.service;
 
 import com.dopingtech.casestudy.quiz_service.exception.QuizNotFoundException;
+import com.dopingtech.casestudy.quiz_service.model.dto.CursorPageDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.OptionDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuestionDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuestionWithoutAnswerDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizCloseResultDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.QuizDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizDocumentDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.QuizInfoDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.StudentInfoDTO;
+import com.dopingtech.casestudy.quiz_service.model.entity.Option;
 import com.dopingtech.casestudy.quiz_service.model.entity.Question;
 import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
 import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
 import com.dopingtech.casestudy.quiz_service.model.entity.Student;
+import com.dopingtech.casestudy.quiz_service.model.projection.OptionView;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuestionView;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizView;
 import com.dopingtech.casestudy.quiz_service.repository.QuestionRepository;
 import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
 import com.dopingtech.casestudy.quiz_service.repository.QuizRepository;
 import com.dopingtech.casestudy.quiz_service.repository.StudentRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+@Slf4j
 @Service
 public class QuizService {
 
@@ -34,29 +55,59 @@ public class QuizService {
   @Autowired
   private StudentRepository studentRepository;
 
-  @Cacheable(value = "quizzes")
-  public List<QuizInfoDTO> findAll() {
-    List<Quiz> quizzes = quizRepository.findAll();
-    return quizzes.stream()
-        .map(quiz -> new QuizInfoDTO(quiz.getId(), quiz.getName()))
-        .collect(Collectors.toList());
+  @Autowired
+  private QuizAssignmentService quizAssignmentService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private AggregateVersions aggregateVersions;
+
+  @Autowired
+  private ExistenceIndex existenceIndex;
+
+  @Autowired
+  private CursorPagination cursorPagination;
+
+  @Autowired
+  private AnswerKeyIndex answerKeyIndex;
+
+  @Autowired
+  private QuizDocumentValidator quizDocumentValidator;
+
+  @Autowired
+  private QuizCacheEvictor quizCacheEvictor;
+
+  @Value("${quiz.close.chunk-size:500}")
+  private int closeChunkSize;
+
+  @Value("${quiz.paper.gzip:true}")
+  private boolean gzipPaper;
+
+  @Cacheable(value = "quizList", key = "#size ?: 0", condition = "#cursor == null", sync = true)
+  public CursorPageDTO<QuizInfoDTO> findPage(String cursor, Integer size) {
+    int pageSize = cursorPagination.pageSize(size);
+    List<QuizInfoDTO> rows = quizRepository.findInfoPage(cursorPagination.afterId(cursor),
+        Limit.of(pageSize + 1));
+    return cursorPagination.page(rows, pageSize, QuizInfoDTO::getId);
   }
 
-  @Cacheable(value = "quizzes", key = "#id")
-  public Quiz findById(Long id) {
-    return quizRepository.findById(id)
+  @Cacheable(value = "quizzes", key = "#id", sync = true)
+  public QuizView findById(Long id) {
+    return quizRepository.findViewById(id)
         .orElseThrow(() -> new QuizNotFoundException(id));
   }
 
   public List<QuizAssignment> findQuizAssignmentsByQuizId(Long quizId) {
-    if (!quizRepository.existsById(quizId)) {
+    if (!existenceIndex.exists(ExistenceIndex.Kind.QUIZ, quizId)) {
       throw new QuizNotFoundException(quizId);
     }
     return quizAssignmentRepository.findByQuizId(quizId);
   }
 
   public List<StudentInfoDTO> findStudentsByQuizId(Long quizId) {
-    if (!quizRepository.existsById(quizId)) {
+    if (!existenceIndex.exists(ExistenceIndex.Kind.QUIZ, quizId)) {
       throw new QuizNotFoundException(quizId);
     }
 
@@ -67,35 +118,163 @@ public class QuizService {
         .collect(Collectors.toList());
   }
 
-  public List<Question> findQuestionsByQuizId(Long quizId) {
-    if (!quizRepository.existsById(quizId)) {
+  @Cacheable(value = "quizQuestions", key = "#quizId", sync = true)
+  public List<QuestionView> findQuestionsByQuizId(Long quizId) {
+    if (!existenceIndex.exists(ExistenceIndex.Kind.QUIZ, quizId)) {
       throw new QuizNotFoundException(quizId);
     }
-    return questionRepository.findByQuizId(quizId);
+    Map<Long, List<OptionView>> optionsByQuestionId =
+        questionRepository.findOptionViewsByQuizId(quizId).stream()
+            .collect(Collectors.groupingBy(OptionView::questionId));
+    return questionRepository.findViewsByQuizId(quizId).stream()
+        .map(question -> question.withOptions(
+            optionsByQuestionId.getOrDefault(question.id(), List.of())))
+        .collect(Collectors.toList());
+  }
+
+  @Cacheable(value = QuizCacheEvictor.PAPER_CACHE_NAME, key = "#quizId", sync = true)
+  public QuizPaper findPaperByQuizId(Long quizId) {
+    if (!existenceIndex.exists(ExistenceIndex.Kind.QUIZ, quizId)) {
+      throw new QuizNotFoundException(quizId);
+    }
+    List<QuestionWithoutAnswerDTO> questions =
+        questionRepository.findWithOptionsByQuizId(quizId).stream()
+            .map(question -> QuestionWithoutAnswerDTO.builder()
+                .id(question.getId())
+                .text(question.getText())
+                .options(question.getOptions())
+                .quizId(quizId)
+                .build())
+            .collect(Collectors.toList());
+    try {
+      return QuizPaper.compile(objectMapper.writeValueAsBytes(questions), gzipPaper);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Quiz paper " + quizId + " could not be rendered", e);
+    }
   }
 
-  @CacheEvict(value = "quizzes", allEntries = true)
+  @Transactional
+  @CacheEvict(value = "quizList", allEntries = true)
   public Quiz createQuiz(QuizDTO quizDTO) {
     Quiz quiz = new Quiz();
     quiz.setName(quizDTO.getName());
-    return quizRepository.save(quiz);
+    aggregateVersions.increment(AggregateVersions.QUIZ_LIST);
+    Quiz savedQuiz = quizRepository.save(quiz);
+    existenceIndex.added(ExistenceIndex.Kind.QUIZ, savedQuiz.getId());
+    return savedQuiz;
   }
 
-  @CacheEvict(value = "quizzes", allEntries = true)
+  /**
+   * Creates a quiz with all of its questions and options in one transaction. The document is
+   * validated as a whole first, the quiz is saved once with its questions and options cascaded
+   * as batched inserts, and caches are invalidated once for the whole quiz.
+   */
+  @Transactional
+  @CacheEvict(value = "quizList", allEntries = true)
+  public Quiz importQuiz(QuizDocumentDTO quizDocumentDTO) {
+    quizDocumentValidator.validate(quizDocumentDTO);
+
+    Quiz quiz = new Quiz();
+    quiz.setName(quizDocumentDTO.getName());
+    List<Question> questions = new ArrayList<>();
+    for (QuestionDocumentDTO questionDocument : quizDocumentDTO.getQuestions()) {
+      Question question = new Question();
+      question.setText(questionDocument.getText());
+      question.setCorrectAnswer(questionDocument.getCorrectAnswer());
+      question.setQuiz(quiz);
+      question.setPosition(questions.size());
+      List<Option> options = new ArrayList<>();
+      if (questionDocument.getOptions() != null) {
+        for (OptionDocumentDTO optionDocument : questionDocument.getOptions()) {
+          Option option = new Option();
+          option.setText(optionDocument.getText());
+          option.setLetter(optionDocument.getLetter());
+          option.setQuestion(question);
+          options.add(option);
+        }
+      }
+      question.setOptions(options);
+      questions.add(question);
+    }
+    quiz.setQuestions(questions);
+    quiz.setQuestionCount(questions.size());
+    quiz.setNextQuestionPosition(questions.size());
+
+    aggregateVersions.increment(AggregateVersions.QUIZ_LIST);
+    Quiz savedQuiz = quizRepository.save(quiz);
+    existenceIndex.added(ExistenceIndex.Kind.QUIZ, savedQuiz.getId());
+    for (Question question : savedQuiz.getQuestions()) {
+      existenceIndex.added(ExistenceIndex.Kind.QUESTION, question.getId());
+      answerKeyIndex.added(question.getId(), savedQuiz.getId(), question.getPosition(),
+          question.getCorrectAnswer());
+    }
+    return savedQuiz;
+  }
+
+  @Transactional
+  @Caching(evict = {
+      @CacheEvict(value = "quizzes", key = "#id"),
+      @CacheEvict(value = {"quizList", "studentQuizzes"}, allEntries = true)
+  })
   public Quiz updateQuiz(Long id, QuizDTO quizDTO) {
     return quizRepository.findById(id)
         .map(existingQuiz -> {
           existingQuiz.setName(quizDTO.getName());
+          aggregateVersions.increment(AggregateVersions.QUIZ_LIST);
           return quizRepository.save(existingQuiz);
         })
         .orElseThrow(() -> new QuizNotFoundException(id));
   }
 
-  @CacheEvict(value = "quizzes", allEntries = true)
+  @Transactional
+  @Caching(evict = {
+      @CacheEvict(value = {"quizzes", "quizQuestions", "quizPapers"}, key = "#id"),
+      @CacheEvict(value = {"quizList", "studentQuizzes"}, allEntries = true)
+  })
   public void deleteQuiz(Long id) {
-    if (!quizRepository.existsById(id)) {
+    if (!existenceIndex.exists(ExistenceIndex.Kind.QUIZ, id)) {
       throw new QuizNotFoundException(id);
     }
+    // Read before the delete cascades to them
+    List<Long> questionIds = questionRepository.findIdsByQuizId(id);
+    List<Long> quizAssignmentIds = quizAssignmentRepository.findIdsByQuizId(id);
     quizRepository.deleteById(id);
+    existenceIndex.removed(ExistenceIndex.Kind.QUIZ, id);
+    existenceIndex.removed(ExistenceIndex.Kind.QUESTION, questionIds);
+    existenceIndex.removed(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, quizAssignmentIds);
+    answerKeyIndex.removeQuiz(id, questionIds);
+    quizCacheEvictor.evictAssignments(quizAssignmentIds);
+    // Also changes the completed quizzes of its students, which show quiz names
+    aggregateVersions.increment(AggregateVersions.QUIZ_LIST);
+    aggregateVersions.increment(AggregateVersions.QUIZ_ASSIGNMENT, quizAssignmentIds);
+  }
+
+  public QuizCloseResultDTO closeQuiz(Long id) {
+    Quiz quiz = quizRepository.findById(id)
+        .orElseThrow(() -> new QuizNotFoundException(id));
+
+    long startedAt = System.nanoTime();
+    int completedCount = 0;
+    int chunkCount = 0;
+    long afterId = 0;
+    while (true) {
+      QuizAssignmentService.ClosedChunk chunk = quizAssignmentService.completeOpenAssignments(id,
+          afterId, closeChunkSize, quiz.getQuestionCount());
+      List<Long> quizAssignmentIds = chunk.quizAssignmentIds();
+      if (quizAssignmentIds.isEmpty()) {
+        break;
+      }
+      completedCount += chunk.completedCount();
+      chunkCount++;
+      afterId = quizAssignmentIds.get(quizAssignmentIds.size() - 1);
+    }
+    long elapsedNanos = System.nanoTime() - startedAt;
+
+    double assignmentsPerSecond = elapsedNanos == 0 ? 0
+        : completedCount * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    log.info("Closed quiz {}: completed {} assignments in {} chunks, {} assignments/s", id,
+        completedCount, chunkCount, String.format("%.1f", assignmentsPerSecond));
+    return new QuizCloseResultDTO(id, completedCount, chunkCount,
+        TimeUnit.NANOSECONDS.toMillis(elapsedNanos), assignmentsPerSecond);
   }
 }
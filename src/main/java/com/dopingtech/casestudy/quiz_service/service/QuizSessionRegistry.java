@@ -0,0 +1,56 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import com.dopingtech.casestudy.quiz_service.exception.QuizAssignmentNotFoundException;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizSession;
+import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
+import java.util.Collection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sessions of quiz assignments by assignment id, held in the bounded {@code quizSessions} cache.
+ * A session is loaded by the first answer and closed by every status change, after its
+ * transaction commits and on every node through the cache invalidation log. Writes still check
+ * the status in the database, either with a conditional update or against the session version.
+ */
+@Component
+public class QuizSessionRegistry {
+
+  public static final String CACHE_NAME = "quizSessions";
+
+  @Autowired
+  private CacheManager cacheManager;
+
+  @Autowired
+  private QuizAssignmentRepository quizAssignmentRepository;
+
+  // Loading holds the key until the session is stored, so a close waits for a load in progress
+  // and then removes what it stored
+  public QuizSession get(Long quizAssignmentId) {
+    try {
+      return cache().get(quizAssignmentId, () ->
+          quizAssignmentRepository.findSessionById(quizAssignmentId)
+              .orElseThrow(() -> new QuizAssignmentNotFoundException(quizAssignmentId)));
+    } catch (Cache.ValueRetrievalException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  public void close(Long quizAssignmentId) {
+    cache().evict(quizAssignmentId);
+  }
+
+  public void close(Collection<Long> quizAssignmentIds) {
+    Cache cache = cache();
+    quizAssignmentIds.forEach(cache::evict);
+  }
+
+  private Cache cache() {
+    return cacheManager.getCache(CACHE_NAME);
+  }
+}
@@ -0,0 +1,180 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import com.dopingtech.casestudy.quiz_service.model.entity.Option;
+import com.dopingtech.casestudy.quiz_service.model.entity.Question;
+import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carries changes of the quiz, question and option second-level cache regions through the cache
+ * invalidation log. Hibernate keeps the regions of the node making a change current; other nodes
+ * evict the changed entity, the collections it belongs to and the cached query results.
+ *
+ * <p>Entity changes are only known when the session flushes. They join the evictions of their
+ * transaction when those are not written yet; changes flushed without any, or after they were
+ * written, are written by Hibernate just before the commit.
+ */
+@Component
+@ConditionalOnProperty(name = "quiz.cache.invalidation.enabled", havingValue = "true")
+public class SecondLevelCacheInvalidation
+    implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+  static final String QUIZ = "hibernate.quiz";
+
+  static final String QUESTION = "hibernate.question";
+
+  static final String OPTION = "hibernate.option";
+
+  private static final String QUIZ_QUESTIONS = Quiz.class.getName() + ".questions";
+
+  private static final String QUESTION_OPTIONS = Question.class.getName() + ".options";
+
+  // Evictions of the sessions flushed in a running transaction
+  private final Map<SharedSessionContractImplementor, CacheInvalidationLog.Batch> pending =
+      new ConcurrentHashMap<>();
+
+  @Autowired
+  private CacheInvalidationLog invalidationLog;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private SessionFactoryImplementor sessionFactory;
+
+  @PostConstruct
+  void init() {
+    sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    EventListenerRegistry listeners =
+        sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+    listeners.appendListeners(EventType.POST_INSERT, this);
+    listeners.appendListeners(EventType.POST_UPDATE, this);
+    listeners.appendListeners(EventType.POST_DELETE, this);
+    invalidationLog.register(QUIZ, this::evictQuiz);
+    invalidationLog.register(QUESTION, this::evictQuestion);
+    invalidationLog.register(OPTION, this::evictOption);
+  }
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    changed(event.getSession(), event.getEntity(), null);
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    changed(event.getSession(), event.getEntity(),
+        ownerOf(event.getPersister(), event.getOldState()));
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    changed(event.getSession(), event.getEntity(), null);
+  }
+
+  @Override
+  public boolean requiresPostCommitHandling(EntityPersister persister) {
+    return false;
+  }
+
+  // A question or option also changes the collection of its owner, before and after a move
+  private void changed(EventSource session, Object entity, Object previousOwner) {
+    if (entity instanceof Quiz quiz) {
+      record(session, QUIZ, quiz.getId());
+    } else if (entity instanceof Question question) {
+      record(session, QUESTION, question.getId());
+      record(session, QUIZ, idOf(question.getQuiz()));
+      record(session, QUIZ, idOf(previousOwner));
+    } else if (entity instanceof Option option) {
+      record(session, OPTION, option.getId());
+      record(session, QUESTION, idOf(option.getQuestion()));
+      record(session, QUESTION, idOf(previousOwner));
+    }
+  }
+
+  // A missing id would encode as a clear of the whole region
+  private void record(EventSource session, String name, Long id) {
+    if (id != null && !invalidationLog.join(name, id)) {
+      batchOf(session).add(name, CacheInvalidationLog.encode(id));
+    }
+  }
+
+  private CacheInvalidationLog.Batch batchOf(EventSource session) {
+    return pending.computeIfAbsent(session, key -> {
+      session.getActionQueue().registerProcess(flushed -> {
+        CacheInvalidationLog.Batch batch = pending.remove(flushed);
+        if (batch != null) {
+          invalidationLog.write(batch);
+        }
+      });
+      session.getActionQueue().registerProcess((success, completed) -> pending.remove(completed));
+      return new CacheInvalidationLog.Batch();
+    });
+  }
+
+  private static Object ownerOf(EntityPersister persister, Object[] state) {
+    if (state == null) {
+      return null;
+    }
+    String owner = persister.getMappedClass() == Question.class ? "quiz"
+        : persister.getMappedClass() == Option.class ? "question" : null;
+    return owner == null ? null : state[persister.getPropertyIndex(owner)];
+  }
+
+  private static Long idOf(Object owner) {
+    if (owner instanceof Quiz quiz) {
+      return quiz.getId();
+    }
+    if (owner instanceof Question question) {
+      return question.getId();
+    }
+    return null;
+  }
+
+  private void evictQuiz(Long id) {
+    if (id == null) {
+      sessionFactory.getCache().evictEntityData(Quiz.class);
+      sessionFactory.getCache().evictCollectionData(QUIZ_QUESTIONS);
+    } else {
+      sessionFactory.getCache().evictEntityData(Quiz.class, id);
+      sessionFactory.getCache().evictCollectionData(QUIZ_QUESTIONS, id);
+    }
+    sessionFactory.getCache().evictDefaultQueryRegion();
+  }
+
+  private void evictQuestion(Long id) {
+    if (id == null) {
+      sessionFactory.getCache().evictEntityData(Question.class);
+      sessionFactory.getCache().evictCollectionData(QUESTION_OPTIONS);
+    } else {
+      sessionFactory.getCache().evictEntityData(Question.class, id);
+      sessionFactory.getCache().evictCollectionData(QUESTION_OPTIONS, id);
+    }
+    sessionFactory.getCache().evictDefaultQueryRegion();
+  }
+
+  private void evictOption(Long id) {
+    if (id == null) {
+      sessionFactory.getCache().evictEntityData(Option.class);
+    } else {
+      sessionFactory.getCache().evictEntityData(Option.class, id);
+    }
+    sessionFactory.getCache().evictDefaultQueryRegion();
+  }
+}
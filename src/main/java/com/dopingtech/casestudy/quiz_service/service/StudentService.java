@@ -2,6 +2,7 @@ package com.dopingtech.casestudy.quiz_service.service;
 
 import com.dopingtech.casestudy.quiz_service.exception.StudentNotFoundException;
 import com.dopingtech.casestudy.quiz_service.model.dto.CompletedQuizDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.CursorPageDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.QuizInfoDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.StudentDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.StudentInfoDTO;
@@ -9,6 +10,7 @@ import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
 import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
 import com.dopingtech.casestudy.quiz_service.model.entity.Student;
 import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.model.projection.StudentView;
 import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
 import com.dopingtech.casestudy.quiz_service.repository.QuizRepository;
 import com.dopingtech.casestudy.quiz_service.repository.StudentRepository;
@@ -17,7 +19,10 @@ import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class StudentService {
@@ -31,28 +36,43 @@ public class StudentService {
   @Autowired
   private QuizAssignmentRepository quizAssignmentRepository;
 
-  @Cacheable(value = "students")
-  public List<StudentInfoDTO> findAll() {
-    return studentRepository.findAll().stream()
-        .map(student -> new StudentInfoDTO(student.getId(), student.getFirstName(),
-            student.getLastName(), student.getNumber()))
-        .collect(Collectors.toList());
+  @Autowired
+  private QuizCacheEvictor quizCacheEvictor;
+
+  @Autowired
+  private AggregateVersions aggregateVersions;
+
+  @Autowired
+  private ExistenceIndex existenceIndex;
+
+  @Autowired
+  private CursorPagination cursorPagination;
+
+  // Only the first page is cached; deeper pages are cheap index range reads
+  @Cacheable(value = "students", key = "#size ?: 0", condition = "#cursor == null", sync = true)
+  public CursorPageDTO<StudentInfoDTO> findPage(String cursor, Integer size) {
+    int pageSize = cursorPagination.pageSize(size);
+    List<StudentInfoDTO> rows = studentRepository.findInfoPage(cursorPagination.afterId(cursor),
+        Limit.of(pageSize + 1));
+    return cursorPagination.page(rows, pageSize, StudentInfoDTO::getId);
   }
 
-  public Student findById(Long id) {
-    return studentRepository.findById(id)
+  @Cacheable(value = "studentsById", key = "#id", sync = true)
+  public StudentView findById(Long id) {
+    return studentRepository.findViewById(id)
         .orElseThrow(() -> new StudentNotFoundException(id));
   }
 
   public List<QuizAssignment> findQuizAssignmentsByStudentId(Long studentId) {
-    if (!studentRepository.existsById(studentId)) {
+    if (!existenceIndex.exists(ExistenceIndex.Kind.STUDENT, studentId)) {
       throw new StudentNotFoundException(studentId);
     }
     return quizAssignmentRepository.findByStudentId(studentId);
   }
 
+  @Cacheable(value = "studentQuizzes", key = "#studentId", sync = true)
   public List<QuizInfoDTO> findQuizzesByStudentId(Long studentId) {
-    if (!studentRepository.existsById(studentId)) {
+    if (!existenceIndex.exists(ExistenceIndex.Kind.STUDENT, studentId)) {
       throw new StudentNotFoundException(studentId);
     }
 
@@ -63,17 +83,12 @@ public class StudentService {
   }
 
   public List<CompletedQuizDTO> getCompletedQuizzesByStudentId(Long studentId) {
-    if (!studentRepository.existsById(studentId)) {
+    if (!existenceIndex.exists(ExistenceIndex.Kind.STUDENT, studentId)) {
       throw new StudentNotFoundException(studentId);
     }
 
-    return quizAssignmentRepository.findByStudentId(studentId).stream()
-        .filter(quizAssignment -> quizAssignment.getStatus() == QuizAssignmentStatus.COMPLETED)
-        .map(quizAssignment -> new CompletedQuizDTO(
-            quizAssignment.getQuiz().getName(),
-            quizAssignment.getCorrectAnswerCount(),
-            quizAssignment.getScore()))
-        .collect(Collectors.toList());
+    return quizAssignmentRepository.findQuizResultsByStudentId(studentId,
+        QuizAssignmentStatus.COMPLETED);
   }
 
   @CacheEvict(value = "students", allEntries = true)
@@ -82,10 +97,15 @@ public class StudentService {
     student.setFirstName(studentDTO.getFirstName());
     student.setLastName(studentDTO.getLastName());
     student.setNumber(studentDTO.getNumber());
-    return studentRepository.save(student);
+    Student savedStudent = studentRepository.save(student);
+    existenceIndex.added(ExistenceIndex.Kind.STUDENT, savedStudent.getId());
+    return savedStudent;
   }
 
-  @CacheEvict(value = "students", allEntries = true)
+  @Caching(evict = {
+      @CacheEvict(value = "students", allEntries = true),
+      @CacheEvict(value = "studentsById", key = "#id")
+  })
   public Student updateStudent(Long id, StudentDTO studentDTO) {
     return studentRepository.findById(id)
         .map(existingStudent -> {
@@ -97,11 +117,22 @@ public class StudentService {
         .orElseThrow(() -> new StudentNotFoundException(id));
   }
 
-  @CacheEvict(value = "students", allEntries = true)
+  @Caching(evict = {
+      @CacheEvict(value = "students", allEntries = true),
+      @CacheEvict(value = {"studentsById", "studentQuizzes"}, key = "#id")
+  })
+  @Transactional
   public void deleteStudent(Long id) {
-    if (!studentRepository.existsById(id)) {
+    if (!existenceIndex.exists(ExistenceIndex.Kind.STUDENT, id)) {
       throw new StudentNotFoundException(id);
     }
+    // Read before the delete cascades to them
+    List<Long> quizAssignmentIds = quizAssignmentRepository.findIdsByStudentId(id);
     studentRepository.deleteById(id);
+    existenceIndex.removed(ExistenceIndex.Kind.STUDENT, id);
+    existenceIndex.removed(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, quizAssignmentIds);
+    quizCacheEvictor.evictAssignments(quizAssignmentIds);
+    aggregateVersions.increment(AggregateVersions.COMPLETED_QUIZZES, id);
+    aggregateVersions.increment(AggregateVersions.QUIZ_ASSIGNMENT, quizAssignmentIds);
   }
 }
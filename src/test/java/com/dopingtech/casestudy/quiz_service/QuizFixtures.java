@@ -0,0 +1,96 @@
+package com.dopingtech.casestudy.quiz_service;
+
+import com.dopingtech.casestudy.quiz_service.model.dto.AnswerDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuestionDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizAssignmentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.StudentDTO;
+import com.dopingtech.casestudy.quiz_service.service.QuestionService;
+import com.dopingtech.casestudy.quiz_service.service.QuizAssignmentService;
+import com.dopingtech.casestudy.quiz_service.service.QuizService;
+import com.dopingtech.casestudy.quiz_service.service.StudentService;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates quizzes, students and assignments through the services for integration tests. Quiz
+ * names and student numbers are unique, so each test passes its own.
+ */
+@Component
+public class QuizFixtures {
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private QuestionService questionService;
+
+  @Autowired
+  private StudentService studentService;
+
+  @Autowired
+  private QuizAssignmentService quizAssignmentService;
+
+  public Long createQuiz(String name) {
+    QuizDTO quizDTO = new QuizDTO();
+    quizDTO.setName(name);
+    return quizService.createQuiz(quizDTO).getId();
+  }
+
+  public Long createQuestion(Long quizId, String text) {
+    return createQuestion(quizId, text, "A");
+  }
+
+  public Long createQuestion(Long quizId, String text, String correctAnswer) {
+    return questionService.createQuestion(question(quizId, text, correctAnswer)).getId();
+  }
+
+  public static QuestionDTO question(Long quizId, String text, String correctAnswer) {
+    QuestionDTO questionDTO = new QuestionDTO();
+    questionDTO.setQuizId(quizId);
+    questionDTO.setText(text);
+    questionDTO.setCorrectAnswer(correctAnswer);
+    return questionDTO;
+  }
+
+  public Long createStudent(String number) {
+    StudentDTO studentDTO = new StudentDTO();
+    studentDTO.setFirstName("Test");
+    studentDTO.setLastName("Student");
+    studentDTO.setNumber(number);
+    return studentService.createStudent(studentDTO).getId();
+  }
+
+  public Long assign(Long studentId, Long quizId) {
+    QuizAssignmentDTO quizAssignmentDTO = new QuizAssignmentDTO();
+    quizAssignmentDTO.setStudentId(studentId);
+    quizAssignmentDTO.setQuizId(quizId);
+    return quizAssignmentService.createQuizAssignment(quizAssignmentDTO).getId();
+  }
+
+  public Long createAssignment(String studentNumber, Long quizId) {
+    return assign(createStudent(studentNumber), quizId);
+  }
+
+  public Long startQuiz(String studentNumber, Long quizId) {
+    Long quizAssignmentId = createAssignment(studentNumber, quizId);
+    quizAssignmentService.startQuiz(quizAssignmentId);
+    return quizAssignmentId;
+  }
+
+  // Answers every question with "A"
+  public Long startQuiz(String studentNumber, Long quizId, List<Long> questionIds) {
+    Long quizAssignmentId = startQuiz(studentNumber, quizId);
+    questionIds.forEach(questionId -> answer(quizAssignmentId, questionId, "A"));
+    return quizAssignmentId;
+  }
+
+  public void answer(Long quizAssignmentId, Long questionId, String selectedOption) {
+    AnswerDTO answerDTO = new AnswerDTO();
+    answerDTO.setQuizAssignmentId(quizAssignmentId);
+    answerDTO.setQuestionId(questionId);
+    answerDTO.setSelectedOption(selectedOption);
+    quizAssignmentService.answerQuestion(answerDTO);
+  }
+}
@@ -0,0 +1,104 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dopingtech.casestudy.quiz_service.model.entity.Question;
+import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
+import com.dopingtech.casestudy.quiz_service.service.CacheInvalidationLog;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.util.unit.DataSize;
+
+class CacheConfigTest {
+
+  @Test
+  public void specOf_shouldFallBackToDefaultsPerSetting() {
+    QuizCacheProperties properties = new QuizCacheProperties();
+    properties.getCaches().put("students",
+        new QuizCacheProperties.Spec(DataSize.ofKilobytes(64), null, Duration.ofMinutes(1)));
+
+    QuizCacheProperties.Spec spec = properties.specOf("students");
+
+    assertEquals(DataSize.ofKilobytes(64), spec.getMaximumWeight());
+    assertEquals(properties.getDefaults().getExpireAfterWrite(), spec.getExpireAfterWrite());
+    assertEquals(Duration.ofMinutes(1), spec.getExpireAfterAccess());
+    assertEquals(properties.getDefaults(), properties.specOf("quizzes"));
+  }
+
+  @Test
+  public void cacheManager_shouldCreateConfiguredAndDynamicCaches() {
+    QuizCacheProperties properties = new QuizCacheProperties();
+    properties.getCaches().put("students", new QuizCacheProperties.Spec());
+
+    CacheManager cacheManager = new CacheConfig().cacheManager(properties,
+        new StaticListableBeanFactory().getBeanProvider(CacheInvalidationLog.class));
+
+    assertTrue(cacheManager.getCacheNames().contains("students"));
+    cacheManager.getCache("quizzes").put(1L, "quiz");
+    assertEquals("quiz", cacheManager.getCache("quizzes").get(1L).get());
+  }
+
+  @Test
+  public void cacheManager_shouldReplicateEvictionsWhenInvalidationLogIsEnabled() {
+    StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    beanFactory.addBean("cacheInvalidationLog", Mockito.mock(CacheInvalidationLog.class));
+
+    CacheManager cacheManager = new CacheConfig().cacheManager(new QuizCacheProperties(),
+        beanFactory.getBeanProvider(CacheInvalidationLog.class));
+
+    assertInstanceOf(ReplicatedCache.class, cacheManager.getCache("quizzes"));
+  }
+
+  @Test
+  public void builder_shouldEvictByEstimatedBytes() {
+    Cache<Object, Object> cache = CacheConfig.builder(
+            new QuizCacheProperties.Spec(DataSize.ofKilobytes(8), null, null))
+        .executor(Runnable::run)
+        .build();
+
+    cache.put(1L, questions(200));
+    cache.cleanUp();
+
+    assertNull(cache.getIfPresent(1L));
+    assertEquals(1, cache.stats().evictionCount());
+  }
+
+  @Test
+  public void builder_shouldRecordHitsMissesAndLoads() {
+    Cache<Object, Object> cache = CacheConfig.builder(
+        new QuizCacheProperties.Spec(DataSize.ofMegabytes(1), null, null)).build();
+
+    cache.get(1L, key -> "loaded");
+    cache.getIfPresent(1L);
+
+    CacheStats stats = cache.stats();
+    assertEquals(1, stats.hitCount());
+    assertEquals(1, stats.missCount());
+    assertEquals(1, stats.loadSuccessCount());
+  }
+
+  private static List<Question> questions(int count) {
+    Quiz quiz = new Quiz();
+    quiz.setName("Weighed quiz");
+    List<Question> questions = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Question question = new Question();
+      question.setText("Question text number " + i);
+      question.setCorrectAnswer("A");
+      question.setQuiz(quiz);
+      questions.add(question);
+    }
+    quiz.setQuestions(questions);
+    return questions;
+  }
+}
@@ -0,0 +1,110 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizInfoDTO;
+import com.dopingtech.casestudy.quiz_service.model.entity.Question;
+import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
+import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
+import com.dopingtech.casestudy.quiz_service.model.entity.Student;
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuestionView;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizView;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CacheEntryWeigherTest {
+
+  @Test
+  public void estimate_shouldGrowWithListSize() {
+    List<QuizInfoDTO> small = quizInfos(10);
+    List<QuizInfoDTO> large = quizInfos(1000);
+
+    assertTrue(CacheEntryWeigher.estimate(large) > 50 * CacheEntryWeigher.estimate(small));
+  }
+
+  @Test
+  public void estimate_shouldCountLongerStringsAsHeavier() {
+    assertEquals(100, CacheEntryWeigher.estimate("x".repeat(200))
+        - CacheEntryWeigher.estimate("x".repeat(100)));
+  }
+
+  @Test
+  public void estimate_shouldVisitCyclicEntityGraphOnce() {
+    Quiz quiz = new Quiz();
+    quiz.setName("Cyclic quiz");
+    Question question = new Question();
+    question.setText("Question");
+    question.setQuiz(quiz);
+    quiz.setQuestions(new ArrayList<>(List.of(question)));
+
+    long withQuestion = CacheEntryWeigher.estimate(quiz);
+
+    assertEquals(withQuestion, CacheEntryWeigher.estimate(question));
+  }
+
+  @Test
+  public void estimate_cachedViewsShouldNotGrowWithAssignments() {
+    Quiz fewAssignments = quizWithAssignments(10);
+    Quiz manyAssignments = quizWithAssignments(300);
+    QuizView quizView = new QuizView(1L, manyAssignments.getName(), 10);
+    List<QuestionView> questionViews = manyAssignments.getQuestions().stream()
+        .map(question -> new QuestionView(question.getId(), question.getText(),
+            question.getCorrectAnswer(), question.getPosition()))
+        .toList();
+
+    // Questions refer back to their quiz, so a cached question list retains every assignment
+    assertTrue(CacheEntryWeigher.estimate(manyAssignments.getQuestions())
+        > 3 * CacheEntryWeigher.estimate(fewAssignments.getQuestions()));
+    assertTrue(CacheEntryWeigher.estimate(quizView) < 200);
+    assertTrue(CacheEntryWeigher.estimate(questionViews)
+        < CacheEntryWeigher.estimate(fewAssignments.getQuestions()));
+  }
+
+  @Test
+  public void weigh_shouldIncludeKeyAndValue() {
+    assertEquals(CacheEntryWeigher.estimate(1L) + CacheEntryWeigher.estimate("value"),
+        CacheEntryWeigher.weigh(1L, "value"));
+  }
+
+  private static Quiz quizWithAssignments(int count) {
+    Quiz quiz = new Quiz();
+    quiz.setId(1L);
+    quiz.setName("Weighed quiz");
+    quiz.setQuestions(new ArrayList<>());
+    quiz.setQuizAssignments(new ArrayList<>());
+    for (int i = 0; i < 10; i++) {
+      Question question = new Question();
+      question.setId((long) i);
+      question.setText("Question text number " + i);
+      question.setCorrectAnswer("A");
+      question.setPosition(i);
+      question.setQuiz(quiz);
+      quiz.getQuestions().add(question);
+    }
+    for (int i = 0; i < count; i++) {
+      Student student = new Student();
+      student.setId((long) i);
+      student.setFirstName("First");
+      student.setLastName("Last");
+      student.setNumber(String.valueOf(10000 + i));
+      QuizAssignment quizAssignment = new QuizAssignment();
+      quizAssignment.setId((long) i);
+      quizAssignment.setStudent(student);
+      quizAssignment.setQuiz(quiz);
+      quizAssignment.setStatus(QuizAssignmentStatus.ASSIGNED);
+      quiz.getQuizAssignments().add(quizAssignment);
+    }
+    return quiz;
+  }
+
+  private static List<QuizInfoDTO> quizInfos(int count) {
+    List<QuizInfoDTO> quizInfos = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      quizInfos.add(new QuizInfoDTO((long) i, "Quiz " + i));
+    }
+    return quizInfos;
+  }
+}
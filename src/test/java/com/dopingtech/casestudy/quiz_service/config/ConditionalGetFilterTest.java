@@ -0,0 +1,127 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.dopingtech.casestudy.quiz_service.service.AggregateVersions;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class ConditionalGetFilterTest {
+
+  private static final Instant UPDATED_AT = Instant.ofEpochSecond(1_700_000_000L);
+
+  @Mock
+  private AggregateVersions aggregateVersions;
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private ConditionalGetFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    filter = new ConditionalGetFilter();
+    ReflectionTestUtils.setField(filter, "aggregateVersions", aggregateVersions);
+    ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+    filter.registerMetrics();
+  }
+
+  @Test
+  public void keysOf_shouldMapPolledResourcesToTheirVersions() {
+    assertEquals(List.of(AggregateVersions.QUIZ_LIST), ConditionalGetFilter.keysOf("/quizzes"));
+    assertEquals(List.of("quizAssignment:7"),
+        ConditionalGetFilter.keysOf("/quiz-assignments/7"));
+    assertEquals(List.of("completedQuizzes:3", "quizList"),
+        ConditionalGetFilter.keysOf("/students/3/completed-quizzes"));
+    assertTrue(ConditionalGetFilter.keysOf("/quizzes/1/questions").isEmpty());
+  }
+
+  @Test
+  public void doFilter_withMatchingEtag_shouldAnswerNotModifiedWithoutCallingController()
+      throws ServletException, IOException {
+    stubQuizListVersion(36);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/quizzes");
+    request.setServletPath("/quizzes");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"10\"");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(request, response, chain);
+
+    assertEquals(304, response.getStatus());
+    assertNull(chain.getRequest());
+    assertEquals(1.0, meterRegistry.get("quiz.conditional-get.not-modified.ratio").gauge()
+        .value());
+  }
+
+  @Test
+  public void doFilter_withStaleEtag_shouldContinueWithCurrentEtag()
+      throws ServletException, IOException {
+    stubQuizListVersion(37);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/quizzes");
+    request.setServletPath("/quizzes");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"10\"");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(request, response, chain);
+
+    assertEquals(200, response.getStatus());
+    assertNotNull(chain.getRequest());
+    assertEquals("\"11\"", response.getHeader(HttpHeaders.ETAG));
+    assertEquals(UPDATED_AT.toEpochMilli(), response.getDateHeader(HttpHeaders.LAST_MODIFIED));
+  }
+
+  @Test
+  public void doFilter_withUnchangedIfModifiedSince_shouldAnswerNotModified()
+      throws ServletException, IOException {
+    stubQuizListVersion(36);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/quizzes");
+    request.setServletPath("/quizzes");
+    request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, UPDATED_AT.toEpochMilli());
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(request, response, new MockFilterChain());
+
+    assertEquals(304, response.getStatus());
+  }
+
+  @Test
+  public void doFilter_withMissingVersion_shouldContinueWithoutEtag()
+      throws ServletException, IOException {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/quiz-assignments/9");
+    request.setServletPath("/quiz-assignments/9");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"1\"");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(request, response, chain);
+
+    assertEquals(200, response.getStatus());
+    assertNotNull(chain.getRequest());
+    assertNull(response.getHeader(HttpHeaders.ETAG));
+  }
+
+  private void stubQuizListVersion(long version) {
+    when(aggregateVersions.current(AggregateVersions.QUIZ_LIST))
+        .thenReturn(new AggregateVersions.Snapshot(version, UPDATED_AT));
+  }
+}
@@ -0,0 +1,78 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class ConflictRetryAspectTest {
+
+  @Mock
+  private ProceedingJoinPoint joinPoint;
+
+  @Mock
+  private Signature signature;
+
+  private final ConflictRetryAspect aspect = new ConflictRetryAspect();
+
+  @BeforeEach
+  public void setUp() {
+    ReflectionTestUtils.setField(aspect, "maxAttempts", 3);
+    ReflectionTestUtils.setField(aspect, "initialBackoff", 1L);
+    ReflectionTestUtils.setField(aspect, "maxBackoff", 2L);
+  }
+
+  @Test
+  public void retry_shouldRetryOptimisticLockingFailures() throws Throwable {
+    when(joinPoint.getSignature()).thenReturn(signature);
+    when(joinPoint.proceed())
+        .thenThrow(new OptimisticLockingFailureException("stale"))
+        .thenReturn("done");
+
+    assertEquals("done", aspect.retry(joinPoint));
+    verify(joinPoint, times(2)).proceed();
+  }
+
+  @Test
+  public void retry_shouldGiveUpAfterMaxAttempts() throws Throwable {
+    when(joinPoint.getSignature()).thenReturn(signature);
+    when(joinPoint.proceed()).thenThrow(new OptimisticLockingFailureException("stale"));
+
+    assertThrows(OptimisticLockingFailureException.class, () -> aspect.retry(joinPoint));
+    verify(joinPoint, times(3)).proceed();
+  }
+
+  @Test
+  public void retry_shouldNotRetryOtherFailures() throws Throwable {
+    when(joinPoint.proceed()).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+    assertThrows(DataIntegrityViolationException.class, () -> aspect.retry(joinPoint));
+    verify(joinPoint, times(1)).proceed();
+  }
+
+  @Test
+  public void isConflict_shouldRecognizeH2ConcurrentUpdate() {
+    SQLException concurrentUpdate = new SQLException("Concurrent update", "90131", 90131);
+
+    assertTrue(ConflictRetryAspect.isConflict(
+        new UncategorizedSQLException("merge", "MERGE INTO answers", concurrentUpdate)));
+    assertFalse(ConflictRetryAspect.isConflict(new IllegalStateException("other")));
+  }
+}
@@ -0,0 +1,135 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+class RefreshingCacheTest {
+
+  private final AtomicLong time = new AtomicLong();
+
+  private final List<Runnable> refreshes = new ArrayList<>();
+
+  private Cache<Object, Object> nativeCache;
+
+  private RefreshingCache refreshingCache;
+
+  @BeforeEach
+  void setUp() {
+    nativeCache = Caffeine.newBuilder()
+        .expireAfterWrite(Duration.ofMinutes(10))
+        .ticker(time::get)
+        .executor(Runnable::run)
+        .build();
+    refreshingCache = refreshingCache(refreshes::add);
+  }
+
+  @Test
+  public void get_shouldLoadMissOnceAndServeFreshEntryFromCache() {
+    AtomicInteger loads = new AtomicInteger();
+
+    refreshingCache.get(1L, () -> "quiz-" + loads.incrementAndGet());
+    time.addAndGet(Duration.ofMinutes(1).toNanos());
+    String value = refreshingCache.get(1L, () -> "quiz-" + loads.incrementAndGet());
+
+    assertEquals("quiz-1", value);
+    assertEquals(1, loads.get());
+    assertEquals(0, refreshes.size());
+  }
+
+  @Test
+  public void get_shouldServeStaleEntryWhileReloadingIt() {
+    RefreshingCache cache = refreshingCache(Runnable::run);
+    cache.get(1L, () -> "old");
+    time.addAndGet(Duration.ofMinutes(6).toNanos());
+
+    String value = cache.get(1L, () -> "new");
+
+    assertEquals("old", value);
+    assertEquals("new", cache.get(1L).get());
+  }
+
+  @Test
+  public void get_shouldStartOneRefreshForConcurrentStaleReads() {
+    refreshingCache.get(1L, () -> "old");
+    time.addAndGet(Duration.ofMinutes(6).toNanos());
+
+    refreshingCache.get(1L, () -> "new");
+    refreshingCache.get(1L, () -> "newer");
+    refreshes.forEach(Runnable::run);
+
+    assertEquals(1, refreshes.size());
+    assertEquals("new", refreshingCache.get(1L).get());
+  }
+
+  @Test
+  public void get_shouldDiscardRefreshOfEvictedEntry() {
+    refreshingCache.get(1L, () -> "old");
+    time.addAndGet(Duration.ofMinutes(6).toNanos());
+    refreshingCache.get(1L, () -> "new");
+
+    refreshingCache.evict(1L);
+    refreshes.forEach(Runnable::run);
+
+    assertNull(refreshingCache.get(1L));
+  }
+
+  @Test
+  public void get_shouldKeepStaleEntryWhenRefreshFails() {
+    RefreshingCache cache = refreshingCache(Runnable::run);
+    cache.get(1L, () -> "old");
+    time.addAndGet(Duration.ofMinutes(6).toNanos());
+
+    cache.get(1L, () -> {
+      throw new IllegalStateException("database unavailable");
+    });
+
+    assertEquals("old", cache.get(1L).get());
+  }
+
+  @Test
+  public void get_shouldRetryRefreshRejectedByFullExecutor() {
+    AtomicInteger rejections = new AtomicInteger();
+    RefreshingCache cache = refreshingCache(task -> {
+      if (rejections.getAndIncrement() == 0) {
+        throw new RejectedExecutionException("refresh pool full");
+      }
+      task.run();
+    });
+    cache.get(1L, () -> "old");
+    time.addAndGet(Duration.ofMinutes(6).toNanos());
+
+    assertEquals("old", cache.get(1L, () -> "new"));
+    assertEquals("old", cache.get(1L).get());
+    cache.get(1L, () -> "new");
+
+    assertEquals("new", cache.get(1L).get());
+  }
+
+  @Test
+  public void constructor_shouldRequireExpireAfterWrite() {
+    Cache<Object, Object> unbounded = Caffeine.newBuilder().build();
+
+    assertThrows(IllegalStateException.class, () -> new RefreshingCache(
+        new CaffeineCache("quizzes", unbounded), unbounded, Duration.ofMinutes(5),
+        Runnable::run));
+  }
+
+  private RefreshingCache refreshingCache(Executor executor) {
+    return new RefreshingCache(new CaffeineCache("quizzes", nativeCache), nativeCache,
+        Duration.ofMinutes(5), executor);
+  }
+}
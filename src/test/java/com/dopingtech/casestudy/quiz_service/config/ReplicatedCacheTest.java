@@ -0,0 +1,74 @@
+package com.dopingtech.casestudy.quiz_service.config;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dopingtech.casestudy.quiz_service.service.CacheInvalidationLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicatedCacheTest {
+
+  @Mock
+  private Cache localCache;
+
+  @Mock
+  private CacheInvalidationLog invalidationLog;
+
+  private ReplicatedCache replicatedCache;
+
+  @BeforeEach
+  void setUp() {
+    replicatedCache = new ReplicatedCache(localCache, invalidationLog);
+  }
+
+  @Test
+  public void evict_shouldLogBeforeEvictingLocally() {
+    when(localCache.getName()).thenReturn("quizzes");
+
+    replicatedCache.evict(1L);
+
+    InOrder inOrder = Mockito.inOrder(invalidationLog, localCache);
+    inOrder.verify(invalidationLog).record("quizzes", 1L);
+    inOrder.verify(localCache).evict(1L);
+  }
+
+  @Test
+  public void clear_shouldLogWholeCacheInvalidation() {
+    when(localCache.getName()).thenReturn("quizList");
+
+    replicatedCache.clear();
+
+    verify(invalidationLog, times(1)).record("quizList", null);
+    verify(localCache, times(1)).clear();
+  }
+
+  @Test
+  public void evictLocally_shouldNotLog() {
+    replicatedCache.evictLocally(1L);
+    replicatedCache.clearLocally();
+
+    verify(localCache, times(1)).evict(1L);
+    verify(localCache, times(1)).clear();
+    verify(invalidationLog, never()).record(anyString(), any());
+  }
+
+  @Test
+  public void put_shouldNotLog() {
+    replicatedCache.put(1L, "quiz");
+
+    verify(localCache, times(1)).put(1L, "quiz");
+    verify(invalidationLog, never()).record(anyString(), any());
+  }
+}
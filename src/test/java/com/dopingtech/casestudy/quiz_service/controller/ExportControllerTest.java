@@ -0,0 +1,58 @@
+package com.dopingtech.casestudy.quiz_service.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.dopingtech.casestudy.quiz_service.model.dto.ExportFilterDTO;
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.service.ExportService;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@ExtendWith(MockitoExtension.class)
+public class ExportControllerTest {
+
+  @Mock
+  private ExportService exportService;
+
+  @InjectMocks
+  private ExportController exportController;
+
+  private final ExportFilterDTO filter = new ExportFilterDTO(1L, QuizAssignmentStatus.COMPLETED,
+      LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+
+  @Test
+  public void exportQuizAssignments_shouldReturnNdjsonWrittenByService() throws Exception {
+    ResponseEntity<StreamingResponseBody> response = exportController.exportQuizAssignments(filter);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    response.getBody().writeTo(out);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+    verify(exportService, times(1)).writeQuizAssignments(filter, out);
+  }
+
+  @Test
+  public void exportAnswers_shouldNotReadAnswersBeforeResponseIsWritten() throws Exception {
+    ResponseEntity<StreamingResponseBody> response = exportController.exportAnswers(filter);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    verify(exportService, never()).writeAnswers(filter, out);
+    response.getBody().writeTo(out);
+
+    assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+    verify(exportService, times(1)).writeAnswers(filter, out);
+  }
+}
@@ -1,9 +1,12 @@
 package com.dopingtech.casestudy.quiz_service.controller;
 
+import com.dopingtech.casestudy.quiz_service.model.dto.CursorPageDTO;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.dopingtech.casestudy.quiz_service.exception.QuizAssignmentNotFoundException;
@@ -12,9 +15,15 @@ import com.dopingtech.casestudy.quiz_service.exception.QuizNotFoundException;
 import com.dopingtech.casestudy.quiz_service.exception.QuizNotInProgressException;
 import com.dopingtech.casestudy.quiz_service.exception.StudentNotFoundException;
 import com.dopingtech.casestudy.quiz_service.model.dto.AnswerDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.AnswerResultDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.AnswerSheetDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.GradingJobDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.QuizAssignmentDTO;
 import com.dopingtech.casestudy.quiz_service.model.entity.Answer;
 import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizAssignmentView;
+import com.dopingtech.casestudy.quiz_service.service.GradingJobService;
 import com.dopingtech.casestudy.quiz_service.service.QuizAssignmentService;
 import java.util.Collections;
 import java.util.List;
@@ -33,6 +42,9 @@ public class QuizAssignmentControllerTest {
   @Mock
   private QuizAssignmentService quizAssignmentService;
 
+  @Mock
+  private GradingJobService gradingJobService;
+
   @InjectMocks
   private QuizAssignmentController quizAssignmentController;
 
@@ -53,10 +65,11 @@ public class QuizAssignmentControllerTest {
   @Test
   public void getAllQuizAssignments_ShouldReturnOK() {
     QuizAssignment assignment = new QuizAssignment();
-    when(quizAssignmentService.findAll()).thenReturn(Collections.singletonList(assignment));
+    when(quizAssignmentService.findPage(null, null))
+        .thenReturn(new CursorPageDTO<>(Collections.singletonList(assignment), null));
 
-    ResponseEntity<List<QuizAssignment>> response =
-        quizAssignmentController.getAllQuizAssignments();
+    ResponseEntity<CursorPageDTO<QuizAssignment>> response =
+        quizAssignmentController.getAllQuizAssignments(null, null);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
   }
@@ -64,12 +77,15 @@ public class QuizAssignmentControllerTest {
   @Test
   public void getAllQuizAssignments_ShouldReturnQuizAssignments() {
     QuizAssignment assignment = new QuizAssignment();
-    when(quizAssignmentService.findAll()).thenReturn(Collections.singletonList(assignment));
+    CursorPageDTO<QuizAssignment> page =
+        new CursorPageDTO<>(Collections.singletonList(assignment), "MQ");
+    when(quizAssignmentService.findPage(null, 1)).thenReturn(page);
 
-    ResponseEntity<List<QuizAssignment>> response =
-        quizAssignmentController.getAllQuizAssignments();
+    ResponseEntity<CursorPageDTO<QuizAssignment>> response =
+        quizAssignmentController.getAllQuizAssignments(null, 1);
 
-    assertEquals(Collections.singletonList(assignment), response.getBody());
+    assertEquals(Collections.singletonList(assignment), response.getBody().getItems());
+    assertEquals("MQ", response.getBody().getNextCursor());
   }
 
   @Test
@@ -111,10 +127,10 @@ public class QuizAssignmentControllerTest {
   @Test
   public void getQuizAssignmentById_ShouldReturnOK() {
     Long id = 1L;
-    QuizAssignment assignment = new QuizAssignment();
+    QuizAssignmentView assignment = view(id);
     when(quizAssignmentService.findById(id)).thenReturn(assignment);
 
-    ResponseEntity<QuizAssignment> response = quizAssignmentController.getQuizAssignmentById(id);
+    ResponseEntity<QuizAssignmentView> response = quizAssignmentController.getQuizAssignmentById(id);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
   }
@@ -122,10 +138,10 @@ public class QuizAssignmentControllerTest {
   @Test
   public void getQuizAssignmentById_ShouldReturnQuizAssignment() {
     Long id = 1L;
-    QuizAssignment assignment = new QuizAssignment();
+    QuizAssignmentView assignment = view(id);
     when(quizAssignmentService.findById(id)).thenReturn(assignment);
 
-    ResponseEntity<QuizAssignment> response = quizAssignmentController.getQuizAssignmentById(id);
+    ResponseEntity<QuizAssignmentView> response = quizAssignmentController.getQuizAssignmentById(id);
 
     assertEquals(assignment, response.getBody());
   }
@@ -258,12 +274,39 @@ public class QuizAssignmentControllerTest {
         () -> quizAssignmentController.answerQuestion(answerDTO).getBody());
   }
 
+  @Test
+  public void answerQuestions_ShouldReturnResults() {
+    Long quizAssignmentId = 1L;
+    AnswerSheetDTO answerSheetDTO = new AnswerSheetDTO();
+    List<AnswerResultDTO> results =
+        Collections.singletonList(new AnswerResultDTO(1L, true, null, null));
+    when(quizAssignmentService.answerQuestions(quizAssignmentId, answerSheetDTO)).thenReturn(
+        results);
+
+    ResponseEntity<List<AnswerResultDTO>> response =
+        quizAssignmentController.answerQuestions(quizAssignmentId, answerSheetDTO);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(results, response.getBody());
+  }
+
+  @Test
+  public void answerQuestions_shouldThrowQuizNotInProgressException() {
+    Long quizAssignmentId = 1L;
+    AnswerSheetDTO answerSheetDTO = new AnswerSheetDTO();
+    when(quizAssignmentService.answerQuestions(quizAssignmentId, answerSheetDTO)).thenThrow(
+        new QuizNotInProgressException(quizAssignmentId));
+
+    assertThrows(QuizNotInProgressException.class,
+        () -> quizAssignmentController.answerQuestions(quizAssignmentId, answerSheetDTO));
+  }
+
   @Test
   public void completeQuiz_ShouldReturnOk() {
     Long quizAssignmentId = 1L;
     doNothing().when(quizAssignmentService).completeQuiz(quizAssignmentId);
 
-    ResponseEntity<String> response = quizAssignmentController.completeQuiz(quizAssignmentId);
+    ResponseEntity<?> response = quizAssignmentController.completeQuiz(quizAssignmentId);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
   }
@@ -273,7 +316,7 @@ public class QuizAssignmentControllerTest {
     Long quizAssignmentId = 1L;
     doNothing().when(quizAssignmentService).completeQuiz(quizAssignmentId);
 
-    ResponseEntity<String> response = quizAssignmentController.completeQuiz(quizAssignmentId);
+    ResponseEntity<?> response = quizAssignmentController.completeQuiz(quizAssignmentId);
 
     assertEquals("Quiz completed successfully.", response.getBody());
   }
@@ -287,4 +330,21 @@ public class QuizAssignmentControllerTest {
     assertThrows(QuizAssignmentNotFoundException.class,
         () -> quizAssignmentController.completeQuiz(quizAssignmentId).getBody());
   }
+
+  @Test
+  public void completeQuiz_shouldReturnAcceptedGradingJobWhenAsyncGradingIsEnabled() {
+    GradingJobDTO gradingJob = GradingJobDTO.builder().id("job-1").quizId(1L).build();
+    when(gradingJobService.isEnabled()).thenReturn(true);
+    when(gradingJobService.submit(1L)).thenReturn(gradingJob);
+
+    ResponseEntity<?> response = quizAssignmentController.completeQuiz(1L);
+
+    assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+    assertEquals(gradingJob, response.getBody());
+    verify(quizAssignmentService, never()).completeQuiz(1L);
+  }
+
+  private static QuizAssignmentView view(Long id) {
+    return new QuizAssignmentView(id, 2L, 3L, QuizAssignmentStatus.ASSIGNED, 0L, 0, 0, 0, null);
+  }
 }
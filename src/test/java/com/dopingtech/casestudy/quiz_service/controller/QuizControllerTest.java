@@ -1,6 +1,9 @@
 package com.dopingtech.casestudy.quiz_service.controller;
 
+import com.dopingtech.casestudy.quiz_service.model.dto.CursorPageDTO;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -9,14 +12,23 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 
 import com.dopingtech.casestudy.quiz_service.exception.QuizNotFoundException;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizCloseResultDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.QuizDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizImportResultDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.QuizInfoDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.StudentInfoDTO;
-import com.dopingtech.casestudy.quiz_service.model.entity.Question;
 import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
 import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
 import com.dopingtech.casestudy.quiz_service.model.entity.Student;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuestionView;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizView;
+import com.dopingtech.casestudy.quiz_service.service.QuizImportService;
+import com.dopingtech.casestudy.quiz_service.service.QuizPaper;
 import com.dopingtech.casestudy.quiz_service.service.QuizService;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,6 +37,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -34,6 +47,9 @@ public class QuizControllerTest {
   @Mock
   private QuizService quizService;
 
+  @Mock
+  private QuizImportService quizImportService;
+
   @InjectMocks
   private QuizController quizController;
 
@@ -52,42 +68,44 @@ public class QuizControllerTest {
 
   @Test
   public void getAllQuizzes_shouldReturnOK() {
-    List<QuizInfoDTO> quizInfoDTOs =
-        Collections.singletonList(new QuizInfoDTO(quiz.getId(), quiz.getName()));
-    when(quizService.findAll()).thenReturn(quizInfoDTOs);
+    CursorPageDTO<QuizInfoDTO> page = new CursorPageDTO<>(
+        Collections.singletonList(new QuizInfoDTO(quiz.getId(), quiz.getName())), null);
+    when(quizService.findPage(null, null)).thenReturn(page);
 
-    ResponseEntity<List<QuizInfoDTO>> response = quizController.getAllQuizzes();
+    ResponseEntity<CursorPageDTO<QuizInfoDTO>> response = quizController.getAllQuizzes(null, null);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
   }
 
   @Test
-  public void getAllQuizzes_shouldReturnQuizzes() {
-    List<QuizInfoDTO> quizInfoDTOs =
-        Collections.singletonList(new QuizInfoDTO(quiz.getId(), quiz.getName()));
-    when(quizService.findAll()).thenReturn(quizInfoDTOs);
+  public void getAllQuizzes_shouldReturnRequestedPage() {
+    CursorPageDTO<QuizInfoDTO> page = new CursorPageDTO<>(
+        Collections.singletonList(new QuizInfoDTO(quiz.getId(), quiz.getName())), "Mg");
+    when(quizService.findPage("MQ", 1)).thenReturn(page);
 
-    ResponseEntity<List<QuizInfoDTO>> response = quizController.getAllQuizzes();
+    ResponseEntity<CursorPageDTO<QuizInfoDTO>> response = quizController.getAllQuizzes("MQ", 1);
 
-    assertEquals(quizInfoDTOs, response.getBody());
+    assertEquals(page, response.getBody());
   }
 
   @Test
   public void getQuizById_shouldReturnOK() {
-    when(quizService.findById(1L)).thenReturn(quiz);
+    QuizView quizView = new QuizView(1L, "Sample Quiz", 0);
+    when(quizService.findById(1L)).thenReturn(quizView);
 
-    ResponseEntity<Quiz> response = quizController.getQuizById(1L);
+    ResponseEntity<QuizView> response = quizController.getQuizById(1L);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
   }
 
   @Test
   public void getQuizById_shouldReturnQuiz() {
-    when(quizService.findById(1L)).thenReturn(quiz);
+    QuizView quizView = new QuizView(1L, "Sample Quiz", 0);
+    when(quizService.findById(1L)).thenReturn(quizView);
 
-    ResponseEntity<Quiz> response = quizController.getQuizById(1L);
+    ResponseEntity<QuizView> response = quizController.getQuizById(1L);
 
-    assertEquals(quiz, response.getBody());
+    assertEquals(quizView, response.getBody());
   }
 
   @Test
@@ -153,20 +171,22 @@ public class QuizControllerTest {
 
   @Test
   public void getQuestionsByQuizId_shouldReturnOK() {
-    List<Question> questions = Collections.singletonList(new Question());
+    List<QuestionView> questions =
+        Collections.singletonList(new QuestionView(1L, "Sample Question", "A", 0));
     when(quizService.findQuestionsByQuizId(1L)).thenReturn(questions);
 
-    ResponseEntity<List<Question>> response = quizController.getQuestionsByQuizId(1L);
+    ResponseEntity<List<QuestionView>> response = quizController.getQuestionsByQuizId(1L);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
   }
 
   @Test
   public void getQuestionsByQuizId_shouldReturnQuestions() {
-    List<Question> questions = Collections.singletonList(new Question());
+    List<QuestionView> questions =
+        Collections.singletonList(new QuestionView(1L, "Sample Question", "A", 0));
     when(quizService.findQuestionsByQuizId(1L)).thenReturn(questions);
 
-    ResponseEntity<List<Question>> response = quizController.getQuestionsByQuizId(1L);
+    ResponseEntity<List<QuestionView>> response = quizController.getQuestionsByQuizId(1L);
 
     assertEquals(questions, response.getBody());
   }
@@ -196,6 +216,29 @@ public class QuizControllerTest {
     assertEquals(quiz, response.getBody());
   }
 
+  @Test
+  public void importQuiz_shouldReturnCreatedQuiz() {
+    QuizDocumentDTO document = new QuizDocumentDTO("Sample Quiz", List.of());
+    when(quizService.importQuiz(document)).thenReturn(quiz);
+
+    ResponseEntity<Quiz> response = quizController.importQuiz(document);
+
+    assertEquals(HttpStatus.CREATED, response.getStatusCode());
+    assertEquals(quiz, response.getBody());
+  }
+
+  @Test
+  public void importQuizzes_shouldReturnResultOfEveryLine() throws Exception {
+    InputStream body = new ByteArrayInputStream(new byte[0]);
+    List<QuizImportResultDTO> results = List.of(new QuizImportResultDTO(1, 1L, null, null));
+    when(quizImportService.importQuizzes(body)).thenReturn(results);
+
+    ResponseEntity<List<QuizImportResultDTO>> response = quizController.importQuizzes(body);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(results, response.getBody());
+  }
+
   @Test
   public void updateQuiz_shouldReturnOK() {
     when(quizService.updateQuiz(eq(1L), any(QuizDTO.class))).thenReturn(quiz);
@@ -246,4 +289,63 @@ public class QuizControllerTest {
 
     assertThrows(QuizNotFoundException.class, () -> quizController.deleteQuiz(1L));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void closeQuiz_shouldReturnCloseResult() {
+    QuizCloseResultDTO result = new QuizCloseResultDTO(1L, 30, 1, 12, 2500.0);
+    when(quizService.closeQuiz(1L)).thenReturn(result);
+
+    ResponseEntity<QuizCloseResultDTO> response = quizController.closeQuiz(1L);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(result, response.getBody());
+  }
+
+  @Test
+  public void getQuizPaper_shouldReturnJsonWithEtag() {
+    QuizPaper paper = QuizPaper.compile("[]".getBytes(StandardCharsets.UTF_8), true);
+    when(quizService.findPaperByQuizId(1L)).thenReturn(paper);
+
+    ResponseEntity<byte[]> response = quizController.getQuizPaper(1L, null, null);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(paper.getEtag(false), response.getHeaders().getETag());
+    assertArrayEquals(paper.getBody(false), response.getBody());
+  }
+
+  @Test
+  public void getQuizPaper_shouldReturnGzippedPaperWhenAccepted() {
+    QuizPaper paper = QuizPaper.compile("[]".getBytes(StandardCharsets.UTF_8), true);
+    when(quizService.findPaperByQuizId(1L)).thenReturn(paper);
+
+    ResponseEntity<byte[]> response = quizController.getQuizPaper(1L, null, "gzip, deflate");
+
+    assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    assertEquals(paper.getEtag(true), response.getHeaders().getETag());
+    assertArrayEquals(paper.getBody(true), response.getBody());
+  }
+
+  @Test
+  public void getQuizPaper_shouldReturnPlainPaperWhenGzipIsRefused() {
+    QuizPaper paper = QuizPaper.compile("[]".getBytes(StandardCharsets.UTF_8), true);
+    when(quizService.findPaperByQuizId(1L)).thenReturn(paper);
+
+    ResponseEntity<byte[]> response = quizController.getQuizPaper(1L, null, "gzip;q=0, deflate");
+
+    assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeaders().getFirst(HttpHeaders.VARY));
+    assertArrayEquals(paper.getBody(false), response.getBody());
+  }
+
+  @Test
+  public void getQuizPaper_shouldReturnNotModifiedForMatchingEtag() {
+    QuizPaper paper = QuizPaper.compile("[]".getBytes(StandardCharsets.UTF_8), true);
+    when(quizService.findPaperByQuizId(1L)).thenReturn(paper);
+
+    ResponseEntity<byte[]> response =
+        quizController.getQuizPaper(1L, paper.getEtag(false), null);
+
+    assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+    assertNull(response.getBody());
+  }
+}
@@ -0,0 +1,100 @@
+package com.dopingtech.casestudy.quiz_service.controller;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.dopingtech.casestudy.quiz_service.QuizFixtures;
+import com.dopingtech.casestudy.quiz_service.service.AggregateVersions;
+import com.dopingtech.casestudy.quiz_service.service.QuizAssignmentService;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SqlStatementBudgetTest {
+
+  private static final int STUDENTS = 3;
+
+  private static final int QUESTIONS = 5;
+
+  @Autowired
+  private QuizFixtures fixtures;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private QuizAssignmentService quizAssignmentService;
+
+  @Autowired
+  private CacheManager cacheManager;
+
+  @Autowired
+  private AggregateVersions aggregateVersions;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Test
+  public void listingEndpoints_shouldStayWithinStatementBudget() throws Exception {
+    Long quizId = fixtures.createQuiz("Statement Budget Quiz");
+    List<Long> questionIds = new ArrayList<>();
+    for (int i = 0; i < QUESTIONS; i++) {
+      questionIds.add(fixtures.createQuestion(quizId, "Budget question " + i));
+    }
+    Long studentId = null;
+    for (int i = 0; i < STUDENTS; i++) {
+      studentId = fixtures.createStudent(String.valueOf(70000 + i));
+      Long quizAssignmentId = fixtures.assign(studentId, quizId);
+      quizAssignmentService.startQuiz(quizAssignmentId);
+      questionIds.forEach(questionId -> fixtures.answer(quizAssignmentId, questionId, "A"));
+      quizAssignmentService.completeQuiz(quizAssignmentId);
+    }
+
+    // Write the versions collected from the answers now, not while a request is measured
+    aggregateVersions.flush();
+
+    // Budgets hold for any number of assignments and answers; completed-quizzes and the quiz
+    // list may also re-read their conditional GET version
+    Map<String, Integer> budgets = new LinkedHashMap<>();
+    budgets.put("/students/" + studentId + "/completed-quizzes", 2);
+    budgets.put("/students/" + studentId + "/quiz-assignments", 1);
+    budgets.put("/students/" + studentId + "/quizzes", 1);
+    budgets.put("/quizzes/" + quizId + "/quiz-assignments", 1);
+    budgets.put("/quizzes/" + quizId + "/students", 1);
+    budgets.put("/quizzes/" + quizId + "/questions", 2);
+    budgets.put("/quiz-assignments?size=2", 2);
+    budgets.put("/students?size=2", 1);
+    budgets.put("/quizzes?size=2", 2);
+
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    List<String> overBudget = new ArrayList<>();
+    for (Map.Entry<String, Integer> budget : budgets.entrySet()) {
+      cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+      entityManagerFactory.getCache().evictAll();
+      statistics.clear();
+
+      mockMvc.perform(get(budget.getKey())).andExpect(status().isOk());
+
+      long statements = statistics.getPrepareStatementCount();
+      if (statements > budget.getValue()) {
+        overBudget.add(budget.getKey() + " ran " + statements + " statements, budget is "
+            + budget.getValue());
+      }
+    }
+
+    assertTrue(overBudget.isEmpty(), String.join("\n", overBudget));
+  }
+}
@@ -1,5 +1,6 @@
 package com.dopingtech.casestudy.quiz_service.controller;
 
+import com.dopingtech.casestudy.quiz_service.model.dto.CursorPageDTO;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
@@ -16,6 +17,7 @@ import com.dopingtech.casestudy.quiz_service.model.dto.StudentInfoDTO;
 import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
 import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
 import com.dopingtech.casestudy.quiz_service.model.entity.Student;
+import com.dopingtech.casestudy.quiz_service.model.projection.StudentView;
 import com.dopingtech.casestudy.quiz_service.service.StudentService;
 import java.util.Collections;
 import java.util.List;
@@ -61,42 +63,46 @@ public class StudentControllerTest {
 
   @Test
   public void getAllStudents_shouldReturnOK() {
-    List<StudentInfoDTO> students =
-        Collections.singletonList(new StudentInfoDTO(1L, "John", "Doe", "12345"));
-    when(studentService.findAll()).thenReturn(students);
+    CursorPageDTO<StudentInfoDTO> page = new CursorPageDTO<>(
+        Collections.singletonList(new StudentInfoDTO(1L, "John", "Doe", "12345")), null);
+    when(studentService.findPage(null, null)).thenReturn(page);
 
-    ResponseEntity<List<StudentInfoDTO>> response = studentController.getAllStudents();
+    ResponseEntity<CursorPageDTO<StudentInfoDTO>> response =
+        studentController.getAllStudents(null, null);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
   }
 
   @Test
-  public void getAllStudents_shouldReturnStudents() {
-    List<StudentInfoDTO> students =
-        Collections.singletonList(new StudentInfoDTO(1L, "John", "Doe", "12345"));
-    when(studentService.findAll()).thenReturn(students);
+  public void getAllStudents_shouldReturnRequestedPage() {
+    CursorPageDTO<StudentInfoDTO> page = new CursorPageDTO<>(
+        Collections.singletonList(new StudentInfoDTO(1L, "John", "Doe", "12345")), "MQ");
+    when(studentService.findPage(null, 1)).thenReturn(page);
 
-    ResponseEntity<List<StudentInfoDTO>> response = studentController.getAllStudents();
+    ResponseEntity<CursorPageDTO<StudentInfoDTO>> response =
+        studentController.getAllStudents(null, 1);
 
-    assertEquals(students, response.getBody());
+    assertEquals(page, response.getBody());
   }
 
   @Test
   public void getStudentById_shouldReturnOK() {
-    when(studentService.findById(1L)).thenReturn(student);
+    StudentView studentView = new StudentView(1L, "John", "Doe", "12345");
+    when(studentService.findById(1L)).thenReturn(studentView);
 
-    ResponseEntity<Student> response = studentController.getStudentById(1L);
+    ResponseEntity<StudentView> response = studentController.getStudentById(1L);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
   }
 
   @Test
   public void getStudentById_shouldReturnStudent() {
-    when(studentService.findById(1L)).thenReturn(student);
+    StudentView studentView = new StudentView(1L, "John", "Doe", "12345");
+    when(studentService.findById(1L)).thenReturn(studentView);
 
-    ResponseEntity<Student> response = studentController.getStudentById(1L);
+    ResponseEntity<StudentView> response = studentController.getStudentById(1L);
 
-    assertEquals(student, response.getBody());
+    assertEquals(studentView, response.getBody());
   }
 
   @Test
@@ -13,6 +13,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -122,6 +123,16 @@ class CustomExceptionHandlerTest {
     assertEquals(ErrorCode.DATA_INTEGRITY_VIOLATION.getCode(), responseBody.get("code"));
   }
 
+  @Test
+  public void handleConcurrencyFailureException_shouldReturnConflictWithErrorCode() {
+    ResponseEntity<Map<String, Object>> response =
+        customExceptionHandler.handleConcurrencyFailureException(
+            new OptimisticLockingFailureException("stale"));
+
+    assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    assertEquals(ErrorCode.CONCURRENT_UPDATE.getCode(), response.getBody().get("code"));
+  }
+
   @Test
   public void handleGenericException_shouldReturnInternalServerError() {
     Exception exception = new Exception("Generic error");
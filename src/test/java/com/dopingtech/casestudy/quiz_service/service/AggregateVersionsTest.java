@@ -0,0 +1,149 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dopingtech.casestudy.quiz_service.model.entity.AggregateVersion;
+import com.dopingtech.casestudy.quiz_service.repository.AggregateVersionRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class AggregateVersionsTest {
+
+  private static final String KEY = AggregateVersions.key(AggregateVersions.QUIZ_ASSIGNMENT, 1L);
+
+  @Mock
+  private AggregateVersionRepository aggregateVersionRepository;
+
+  @InjectMocks
+  private AggregateVersions aggregateVersions;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(aggregateVersions, "refreshInterval", 60000L);
+    ReflectionTestUtils.setField(aggregateVersions, "maxVersions", 1000L);
+    aggregateVersions.init();
+  }
+
+  @Test
+  public void current_shouldReadVersionOnceWithinRefreshInterval() {
+    when(aggregateVersionRepository.findById(KEY)).thenReturn(Optional.of(version(5)));
+
+    aggregateVersions.current(KEY);
+    AggregateVersions.Snapshot snapshot = aggregateVersions.current(KEY);
+
+    assertEquals(5, snapshot.version());
+    verify(aggregateVersionRepository, times(1)).findById(KEY);
+  }
+
+  @Test
+  public void current_shouldReturnNullWithoutWritingForMissingVersion() {
+    when(aggregateVersionRepository.findById(KEY)).thenReturn(Optional.empty());
+
+    assertNull(aggregateVersions.current(KEY));
+    assertNull(aggregateVersions.current(KEY));
+    verify(aggregateVersionRepository, times(2)).findById(KEY);
+    verify(aggregateVersionRepository, never()).increment(eq(KEY), anyLong(), any(Instant.class));
+    verify(aggregateVersionRepository, never())
+        .createIfAbsent(eq(KEY), anyLong(), any(Instant.class));
+  }
+
+  @Test
+  public void init_shouldCreateQuizListVersionOnly() {
+    verify(aggregateVersionRepository, times(1)).createIfAbsent(eq(AggregateVersions.QUIZ_LIST),
+        anyLong(), any(Instant.class));
+    verify(aggregateVersionRepository, never()).createIfAbsent(
+        eq(AggregateVersions.QUIZ_ASSIGNMENT), anyLong(), any(Instant.class));
+    verify(aggregateVersionRepository, never()).createIfAbsent(
+        eq(AggregateVersions.COMPLETED_QUIZZES), anyLong(), any(Instant.class));
+  }
+
+  @Test
+  public void incrementLater_shouldFoldUnwrittenIncrementsIntoVersion() {
+    when(aggregateVersionRepository.findById(KEY)).thenReturn(Optional.of(version(5)));
+    aggregateVersions.current(KEY);
+
+    aggregateVersions.incrementLater(AggregateVersions.QUIZ_ASSIGNMENT, 1L);
+    aggregateVersions.incrementLater(AggregateVersions.QUIZ_ASSIGNMENT, List.of(1L));
+
+    assertEquals(7, aggregateVersions.current(KEY).version());
+    verify(aggregateVersionRepository, never()).increment(eq(KEY), anyLong(), any(Instant.class));
+  }
+
+  @Test
+  public void flush_shouldWriteCollectedIncrementsOnce() {
+    when(aggregateVersionRepository.findById(KEY))
+        .thenReturn(Optional.of(version(5)))
+        .thenReturn(Optional.of(version(7)));
+    aggregateVersions.current(KEY);
+    aggregateVersions.incrementLater(AggregateVersions.QUIZ_ASSIGNMENT, 1L);
+    aggregateVersions.incrementLater(AggregateVersions.QUIZ_ASSIGNMENT, 1L);
+
+    aggregateVersions.flush();
+    aggregateVersions.flush();
+
+    verify(aggregateVersionRepository, times(1))
+        .incrementBy(eq(KEY), eq(2), anyLong(), any(Instant.class));
+    assertEquals(7, aggregateVersions.current(KEY).version());
+  }
+
+  @Test
+  public void flush_whenWriteFails_shouldKeepIncrementsForNextFlush() {
+    aggregateVersions.incrementLater(AggregateVersions.QUIZ_ASSIGNMENT, 1L);
+    when(aggregateVersionRepository.incrementBy(eq(KEY), eq(1), anyLong(), any(Instant.class)))
+        .thenThrow(new IllegalStateException("unavailable"))
+        .thenReturn(1);
+    long folded = aggregateVersions.current(KEY).version();
+
+    aggregateVersions.flush();
+    assertEquals(folded, aggregateVersions.current(KEY).version());
+    aggregateVersions.flush();
+
+    verify(aggregateVersionRepository, times(2))
+        .incrementBy(eq(KEY), eq(1), anyLong(), any(Instant.class));
+  }
+
+  @Test
+  public void flush_shouldCreateMissingCounterAtVersionServedBeforeFlush() {
+    when(aggregateVersionRepository.findById(KEY)).thenReturn(Optional.empty());
+    aggregateVersions.incrementLater(AggregateVersions.QUIZ_ASSIGNMENT, 1L);
+    long folded = aggregateVersions.current(KEY).version();
+
+    aggregateVersions.flush();
+
+    verify(aggregateVersionRepository, times(1))
+        .incrementBy(eq(KEY), eq(1), eq(folded), any(Instant.class));
+  }
+
+  @Test
+  public void increment_outsideTransaction_shouldDropInMemoryCopy() {
+    when(aggregateVersionRepository.findById(KEY))
+        .thenReturn(Optional.of(version(5)))
+        .thenReturn(Optional.of(version(6)));
+    aggregateVersions.current(KEY);
+
+    aggregateVersions.increment(AggregateVersions.QUIZ_ASSIGNMENT, 1L);
+
+    assertEquals(6, aggregateVersions.current(KEY).version());
+  }
+
+  private static AggregateVersion version(long version) {
+    return new AggregateVersion(KEY, version, Instant.ofEpochSecond(1_700_000_000L));
+  }
+}
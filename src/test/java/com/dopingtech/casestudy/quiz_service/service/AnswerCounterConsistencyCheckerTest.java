@@ -0,0 +1,63 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
+import com.dopingtech.casestudy.quiz_service.repository.QuizRepository;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class AnswerCounterConsistencyCheckerTest {
+
+  @Mock
+  private QuizAssignmentRepository quizAssignmentRepository;
+
+  @Mock
+  private QuizRepository quizRepository;
+
+  @Mock
+  private AggregateVersions aggregateVersions;
+
+  @InjectMocks
+  private AnswerCounterConsistencyChecker checker;
+
+  @Test
+  public void check_shouldRepairInconsistentCounters() {
+    ReflectionTestUtils.setField(checker, "repair", true);
+    when(quizAssignmentRepository.findIdsWithInconsistentAnswerCounts()).thenReturn(
+        List.of(1L, 2L));
+    when(quizRepository.findIdsWithInconsistentQuestionCount()).thenReturn(List.of(3L));
+
+    int inconsistent = checker.check();
+
+    assertEquals(3, inconsistent);
+    verify(quizAssignmentRepository, times(1)).recountAnswers(List.of(1L, 2L));
+    verify(quizRepository, times(1)).recountQuestions(List.of(3L));
+  }
+
+  @Test
+  public void check_shouldOnlyReportWhenRepairIsDisabled() {
+    ReflectionTestUtils.setField(checker, "repair", false);
+    when(quizAssignmentRepository.findIdsWithInconsistentAnswerCounts()).thenReturn(List.of(1L));
+    when(quizRepository.findIdsWithInconsistentQuestionCount()).thenReturn(
+        Collections.emptyList());
+
+    checker.check();
+
+    verify(quizAssignmentRepository, never()).recountAnswers(anyCollection());
+    verify(quizRepository, never()).recountQuestions(anyList());
+  }
+}
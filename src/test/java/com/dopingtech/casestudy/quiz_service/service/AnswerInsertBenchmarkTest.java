@@ -0,0 +1,172 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dopingtech.casestudy.quiz_service.model.entity.Answer;
+import com.dopingtech.casestudy.quiz_service.model.entity.Question;
+import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
+import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
+import com.dopingtech.casestudy.quiz_service.model.entity.Student;
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class AnswerInsertBenchmarkTest {
+
+  private static final int ASSIGNMENTS = 1_000;
+
+  private static final int QUESTIONS = 100;
+
+  // hibernate.jdbc.batch_size in application.properties
+  private static final int BATCH_SIZE = 50;
+
+  private static final String DELETE_ANSWERS = "DELETE FROM answers WHERE quiz_assignment_id IN "
+      + "(SELECT id FROM quiz_assignments WHERE quiz_id = ?)";
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private Long quizId;
+
+  private final List<Long> questionIds = new ArrayList<>();
+
+  private final List<Long> quizAssignmentIds = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update(DELETE_ANSWERS, quizId);
+    jdbcTemplate.update("DELETE FROM quiz_assignments WHERE quiz_id = ?", quizId);
+    jdbcTemplate.update("DELETE FROM question WHERE quiz_id = ?", quizId);
+    jdbcTemplate.update("DELETE FROM quiz WHERE id = ?", quizId);
+    jdbcTemplate.update("DELETE FROM student WHERE last_name = 'Batch'");
+  }
+
+  @Test
+  public void batchedInserts_shouldSendOneStatementPerBatch() {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.executeWithoutResult(status -> seed(10));
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    statistics.clear();
+    transaction.executeWithoutResult(status -> insertAnswers(BATCH_SIZE));
+
+    int answers = 10 * QUESTIONS;
+    assertEquals(answers, countAnswers());
+    assertTrue(statistics.getPrepareStatementCount() * 10 < answers,
+        statistics.getPrepareStatementCount() + " statements for " + answers + " answers");
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void batchedInserts_shouldSendFarFewerStatementsThanOneRowPerRoundTrip() {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.executeWithoutResult(status -> seed(ASSIGNMENTS));
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    statistics.clear();
+    long rowAtATime = timeNanos(() ->
+        transaction.executeWithoutResult(status -> insertAnswers(1)));
+    long rowAtATimeStatements = statistics.getPrepareStatementCount();
+    jdbcTemplate.update(DELETE_ANSWERS, quizId);
+
+    statistics.clear();
+    long batched = timeNanos(() ->
+        transaction.executeWithoutResult(status -> insertAnswers(BATCH_SIZE)));
+    long batchedStatements = statistics.getPrepareStatementCount();
+
+    assertEquals(ASSIGNMENTS * QUESTIONS, countAnswers());
+    String summary = "one row per round trip: " + perSecond(rowAtATime) + " inserts/s, "
+        + rowAtATimeStatements + " statements; batched: " + perSecond(batched)
+        + " inserts/s, " + batchedStatements + " statements";
+    assertTrue(batchedStatements * 10 < rowAtATimeStatements, summary);
+    assertTrue(batched < rowAtATime, summary);
+  }
+
+  private int countAnswers() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM answers WHERE quiz_assignment_id IN "
+        + "(SELECT id FROM quiz_assignments WHERE quiz_id = ?)", Integer.class, quizId);
+  }
+
+  private void seed(int assignments) {
+    Quiz quiz = Quiz.builder().name("Batch Insert Quiz").questionCount(QUESTIONS).build();
+    entityManager.persist(quiz);
+    quizId = quiz.getId();
+    for (int i = 0; i < QUESTIONS; i++) {
+      Question question = Question.builder()
+          .text("Batch question " + i)
+          .correctAnswer("A")
+          .quiz(quiz)
+          .position(i)
+          .build();
+      entityManager.persist(question);
+      questionIds.add(question.getId());
+    }
+    for (int i = 0; i < assignments; i++) {
+      Student student = Student.builder()
+          .firstName("Student " + i)
+          .lastName("Batch")
+          .number(String.format("9%06d", i))
+          .build();
+      entityManager.persist(student);
+      QuizAssignment quizAssignment = QuizAssignment.builder()
+          .student(student)
+          .quiz(quiz)
+          .status(QuizAssignmentStatus.ASSIGNED)
+          .build();
+      entityManager.persist(quizAssignment);
+      quizAssignmentIds.add(quizAssignment.getId());
+    }
+  }
+
+  // Flushing after every answer sends each insert on its own, as identity ids used to force
+  private void insertAnswers(int flushEvery) {
+    for (int i = 0; i < quizAssignmentIds.size() * QUESTIONS; i++) {
+      entityManager.persist(Answer.builder()
+          .quizAssignment(entityManager.getReference(QuizAssignment.class,
+              quizAssignmentIds.get(i / QUESTIONS)))
+          .question(entityManager.getReference(Question.class, questionIds.get(i % QUESTIONS)))
+          .selectedOption("A")
+          .isCorrect(true)
+          .build());
+      if ((i + 1) % flushEvery == 0) {
+        entityManager.flush();
+        entityManager.clear();
+      }
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  private static long timeNanos(Runnable insert) {
+    long startedAt = System.nanoTime();
+    insert.run();
+    return System.nanoTime() - startedAt;
+  }
+
+  private static long perSecond(long nanos) {
+    return ASSIGNMENTS * QUESTIONS * 1_000_000_000L / Math.max(nanos, 1);
+  }
+}
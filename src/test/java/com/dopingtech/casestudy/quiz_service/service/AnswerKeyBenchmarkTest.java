@@ -0,0 +1,139 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dopingtech.casestudy.quiz_service.model.dto.QuestionDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.entity.Question;
+import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class AnswerKeyBenchmarkTest {
+
+  private static final int QUESTIONS = 100;
+
+  private static final int ANSWERS = 20_000;
+
+  private static final List<String> LETTERS = List.of("A", "B", "C", "D", "E");
+
+  // How checkAnswer read the answer key before the index: the whole question from the database
+  private static final Map<String, Object> BYPASS_CACHE =
+      Map.of("jakarta.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS);
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private AnswerKeyIndex answerKeyIndex;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  public void answerKeyIndex_shouldGradeLikeQuestionsWithoutQueries() {
+    Quiz quiz = importQuiz("Answer Key Quiz");
+    answerKeyIndex.clear();
+    answerKeyIndex.loadQuiz(quiz.getId());
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    statistics.clear();
+    for (int i = 0; i < QUESTIONS * 3; i++) {
+      Question question = quiz.getQuestions().get(i % QUESTIONS);
+      assertEquals(question.getCorrectAnswer().equals(selectedOption(i)),
+          answerKeyIndex.isCorrect(question.getId(), selectedOption(i)));
+    }
+
+    assertEquals(0, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void answerKeyIndex_shouldGradeWithoutQueriesAndFasterThanLoadingQuestions() {
+    Quiz quiz = importQuiz("Answer Key Benchmark Quiz");
+    List<Long> questionIds = quiz.getQuestions().stream().map(Question::getId).toList();
+    answerKeyIndex.clear();
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    statistics.clear();
+    int[] correctByQuery = new int[1];
+    long byQuery = timeNanos(() -> transaction.executeWithoutResult(status -> {
+      for (int i = 0; i < ANSWERS; i++) {
+        Question question = entityManager.find(Question.class,
+            questionIds.get(i % QUESTIONS), BYPASS_CACHE);
+        if (question.getCorrectAnswer().equals(selectedOption(i))) {
+          correctByQuery[0]++;
+        }
+        entityManager.clear();
+      }
+    }));
+    long queryStatements = statistics.getPrepareStatementCount();
+
+    answerKeyIndex.loadQuiz(quiz.getId());
+    statistics.clear();
+    int[] correctByIndex = new int[1];
+    long byIndex = timeNanos(() -> {
+      for (int i = 0; i < ANSWERS; i++) {
+        if (answerKeyIndex.isCorrect(questionIds.get(i % QUESTIONS), selectedOption(i))) {
+          correctByIndex[0]++;
+        }
+      }
+    });
+    long indexStatements = statistics.getPrepareStatementCount();
+
+    String summary = "findById: " + byQuery / ANSWERS + " ns/answer, " + queryStatements
+        + " statements; answer key index: " + byIndex / ANSWERS + " ns/answer, "
+        + indexStatements + " statements";
+    assertEquals(correctByQuery[0], correctByIndex[0], summary);
+    assertEquals(0, indexStatements, summary);
+    assertTrue(queryStatements >= ANSWERS, summary);
+    assertTrue(byIndex * 10 < byQuery, summary);
+  }
+
+  private Quiz importQuiz(String name) {
+    QuizDocumentDTO document = new QuizDocumentDTO();
+    document.setName(name);
+    List<QuestionDocumentDTO> questions = new ArrayList<>();
+    for (int i = 0; i < QUESTIONS; i++) {
+      QuestionDocumentDTO question = new QuestionDocumentDTO();
+      question.setText("Answer key question " + i);
+      question.setCorrectAnswer(LETTERS.get(i % LETTERS.size()));
+      questions.add(question);
+    }
+    document.setQuestions(questions);
+    return quizService.importQuiz(document);
+  }
+
+  // Every third answer is correct
+  private static String selectedOption(int i) {
+    int question = i % QUESTIONS;
+    return LETTERS.get((question + (i % 3 == 0 ? 0 : 1)) % LETTERS.size());
+  }
+
+  private static long timeNanos(Runnable grading) {
+    long startedAt = System.nanoTime();
+    grading.run();
+    return System.nanoTime() - startedAt;
+  }
+}
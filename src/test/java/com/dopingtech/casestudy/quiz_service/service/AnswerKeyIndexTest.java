@@ -0,0 +1,191 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dopingtech.casestudy.quiz_service.exception.QuestionNotFoundException;
+import com.dopingtech.casestudy.quiz_service.model.projection.AnswerKeyView;
+import com.dopingtech.casestudy.quiz_service.repository.QuestionRepository;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class AnswerKeyIndexTest {
+
+  @Mock
+  private QuestionRepository questionRepository;
+
+  @InjectMocks
+  private AnswerKeyIndex answerKeyIndex;
+
+  @Test
+  public void isCorrect_shouldNotQueryRepositoryForKnownQuestion() {
+    answerKeyIndex.put(1L, 1L, 0, "C");
+
+    assertTrue(answerKeyIndex.isCorrect(1L, "C"));
+    assertFalse(answerKeyIndex.isCorrect(1L, "A"));
+    assertFalse(answerKeyIndex.isCorrect(1L, ""));
+    assertFalse(answerKeyIndex.isCorrect(1L, null));
+    verify(questionRepository, never()).findAnswerKeyById(anyLong());
+  }
+
+  @Test
+  public void isCorrect_shouldLoadMissingQuestionOnce() {
+    when(questionRepository.findAnswerKeyById(1L)).thenReturn(Optional.of(answerKey(1L, "B")));
+
+    assertTrue(answerKeyIndex.isCorrect(1L, "B"));
+    assertTrue(answerKeyIndex.isCorrect(1L, "B"));
+
+    verify(questionRepository, times(1)).findAnswerKeyById(1L);
+  }
+
+  @Test
+  public void isCorrect_shouldNotStoreLoadThatRacedCommittedChange() {
+    when(questionRepository.findAnswerKeyById(1L)).thenAnswer(invocation -> {
+      // Committed after the load read the old answer
+      answerKeyIndex.put(1L, 1L, 0, "C");
+      return Optional.of(answerKey(1L, "B"));
+    });
+
+    assertTrue(answerKeyIndex.isCorrect(1L, "B"));
+
+    assertTrue(answerKeyIndex.isCorrect(1L, "C"));
+    verify(questionRepository, times(1)).findAnswerKeyById(1L);
+  }
+
+  @Test
+  public void loadQuiz_shouldLoadAgainWhenChangeRacedLoad() {
+    when(questionRepository.findAnswerKeysByQuizId(1L)).thenAnswer(invocation -> {
+      answerKeyIndex.remove(2L);
+      return List.of(answerKey(1L, "A"), answerKey(2L, "E"));
+    }).thenReturn(List.of(answerKey(1L, "A")));
+
+    answerKeyIndex.loadQuiz(1L);
+    answerKeyIndex.loadQuiz(1L);
+
+    verify(questionRepository, times(2)).findAnswerKeysByQuizId(1L);
+    assertEquals(1, answerKeyIndex.size());
+  }
+
+  @Test
+  public void isCorrect_shouldThrowQuestionNotFoundException() {
+    when(questionRepository.findAnswerKeyById(1L)).thenReturn(Optional.empty());
+
+    assertThrows(QuestionNotFoundException.class, () -> answerKeyIndex.isCorrect(1L, "A"));
+  }
+
+  @Test
+  public void loadQuiz_shouldQueryAnswerKeysOncePerQuiz() {
+    when(questionRepository.findAnswerKeysByQuizId(1L)).thenReturn(
+        List.of(answerKey(1L, "A"), answerKey(2L, "E")));
+
+    answerKeyIndex.loadQuiz(1L);
+    answerKeyIndex.loadQuiz(1L);
+
+    verify(questionRepository, times(1)).findAnswerKeysByQuizId(1L);
+    assertTrue(answerKeyIndex.isCorrect(2L, "E"));
+  }
+
+  @Test
+  public void belongsTo_shouldCompareQuizOfQuestion() {
+    answerKeyIndex.put(1L, 1L, 0, "A");
+    when(questionRepository.findAnswerKeyById(2L)).thenReturn(Optional.of(answerKey(2L, "B")));
+
+    assertTrue(answerKeyIndex.belongsTo(1L, 1L));
+    assertFalse(answerKeyIndex.belongsTo(1L, 2L));
+    assertTrue(answerKeyIndex.belongsTo(2L, 1L));
+  }
+
+  @Test
+  public void remove_shouldDropQuestionFromIndex() {
+    when(questionRepository.findAnswerKeyById(1L)).thenReturn(Optional.empty());
+    answerKeyIndex.put(1L, 1L, 0, "A");
+
+    answerKeyIndex.remove(1L);
+
+    assertThrows(QuestionNotFoundException.class, () -> answerKeyIndex.isCorrect(1L, "A"));
+  }
+
+  @Test
+  public void put_shouldApplyOnlyAfterCommit() {
+    when(questionRepository.findAnswerKeyById(1L)).thenReturn(Optional.empty());
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      answerKeyIndex.put(1L, 1L, 0, "A");
+
+      assertThrows(QuestionNotFoundException.class, () -> answerKeyIndex.isCorrect(1L, "A"));
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    assertTrue(answerKeyIndex.isCorrect(1L, "A"));
+  }
+
+  @Test
+  public void removeQuiz_shouldDropAllQuestionsOfQuiz() {
+    when(questionRepository.findAnswerKeysByQuizId(1L)).thenReturn(
+        List.of(answerKey(1L, "A"), answerKey(2L, "E")));
+    answerKeyIndex.loadQuiz(1L);
+
+    answerKeyIndex.removeQuiz(1L, List.of(1L, 2L));
+
+    assertEquals(0, answerKeyIndex.size());
+    answerKeyIndex.loadQuiz(1L);
+    verify(questionRepository, times(2)).findAnswerKeysByQuizId(1L);
+  }
+
+  @Test
+  public void put_shouldKeepAllEntriesAcrossResizeAndRemoval() {
+    for (long id = 1; id <= 10_000; id++) {
+      answerKeyIndex.put(id, 1L, (int) id, AnswerKeyIndex.decode((byte) (id % 5 + 1)));
+    }
+    for (long id = 1; id <= 10_000; id += 2) {
+      answerKeyIndex.remove(id);
+    }
+
+    assertEquals(5_000, answerKeyIndex.size());
+    for (long id = 2; id <= 10_000; id += 2) {
+      assertEquals(id % 5 + 1, answerKeyIndex.correctAnswerCode(id));
+    }
+  }
+
+  private AnswerKeyView answerKey(Long id, String correctAnswer) {
+    return new AnswerKeyView() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public Long getQuizId() {
+        return 1L;
+      }
+
+      @Override
+      public int getPosition() {
+        return 0;
+      }
+
+      @Override
+      public String getCorrectAnswer() {
+        return correctAnswer;
+      }
+    };
+  }
+}
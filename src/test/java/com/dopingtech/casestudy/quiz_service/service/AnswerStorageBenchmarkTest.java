@@ -0,0 +1,196 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dopingtech.casestudy.quiz_service.model.entity.Question;
+import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
+import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
+import com.dopingtech.casestudy.quiz_service.model.entity.Student;
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.model.projection.GradedAnswer;
+import com.dopingtech.casestudy.quiz_service.repository.AnswerBatchRepository;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class AnswerStorageBenchmarkTest {
+
+  // Run with -Pbenchmark -Dbenchmark.assignments=1000000 for the full-size comparison
+  private static final int ASSIGNMENTS = Integer.getInteger("benchmark.assignments", 2_000);
+
+  private static final int QUESTIONS = 50;
+
+  private static final int READS = Math.min(ASSIGNMENTS, 1_000);
+
+  private static final List<String> LETTERS = List.of("A", "B", "C", "D", "E");
+
+  // hibernate.jdbc.batch_size in application.properties
+  private static final int BATCH_SIZE = 50;
+
+  // Id, assignment and question ids and the correctness flag of an answers row; the in-memory
+  // database reports no disk space, so sizes compare stored values without row or index overhead
+  private static final long ANSWER_ROW_BYTES = 3 * Long.BYTES + 1;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private AnswerBatchRepository answerBatchRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private Long quizId;
+
+  private final List<Long> questionIds = new ArrayList<>();
+
+  private final List<Long> quizAssignmentIds = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("DELETE FROM answers WHERE quiz_assignment_id IN "
+        + "(SELECT id FROM quiz_assignments WHERE quiz_id = ?)", quizId);
+    jdbcTemplate.update("DELETE FROM quiz_assignments WHERE quiz_id = ?", quizId);
+    jdbcTemplate.update("DELETE FROM question WHERE quiz_id = ?", quizId);
+    jdbcTemplate.update("DELETE FROM quiz WHERE id = ?", quizId);
+    jdbcTemplate.update("DELETE FROM student WHERE last_name = 'Storage'");
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void packedStorage_shouldBeSmallerAndFasterThanAnswerRows() {
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> seed());
+
+    long rowsWrite = timeNanos(() -> {
+      for (Long quizAssignmentId : quizAssignmentIds) {
+        answerBatchRepository.upsertAll(gradedAnswers(quizAssignmentId));
+      }
+    });
+    long rowsSpace = jdbcTemplate.queryForObject("SELECT COUNT(*) * ? + "
+        + "SUM(OCTET_LENGTH(selected_option)) FROM answers WHERE quiz_assignment_id IN "
+        + "(SELECT id FROM quiz_assignments WHERE quiz_id = ?)", Long.class, ANSWER_ROW_BYTES,
+        quizId);
+
+    long packedWrite = timeNanos(() -> {
+      for (Long quizAssignmentId : quizAssignmentIds) {
+        PackedAnswerSheet sheet = packedSheet();
+        jdbcTemplate.update("UPDATE quiz_assignments SET packed_answers = ?, packed_correct = ? "
+            + "WHERE id = ?", sheet.answers(), sheet.correct(), quizAssignmentId);
+      }
+    });
+    long packedSpace = jdbcTemplate.queryForObject("SELECT SUM(OCTET_LENGTH(packed_answers) + "
+        + "OCTET_LENGTH(packed_correct)) FROM quiz_assignments WHERE quiz_id = ?", Long.class,
+        quizId);
+
+    long rowsRead = timeNanos(() -> {
+      for (int i = 0; i < READS; i++) {
+        assertEquals(QUESTIONS, jdbcTemplate.queryForList("SELECT question_id, selected_option, "
+            + "is_correct FROM answers WHERE quiz_assignment_id = ?", readId(i)).size());
+      }
+    });
+    long packedRead = timeNanos(() -> {
+      for (int i = 0; i < READS; i++) {
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT packed_answers, packed_correct "
+            + "FROM quiz_assignments WHERE id = ?", readId(i));
+        PackedAnswerSheet sheet = PackedAnswerSheet.of((byte[]) row.get("PACKED_ANSWERS"),
+            (byte[]) row.get("PACKED_CORRECT"));
+        assertEquals(QUESTIONS, sheet.answeredCount());
+      }
+    });
+
+    String summary = ASSIGNMENTS + " assignments of " + QUESTIONS + " answers; rows: "
+        + perSecond(rowsWrite) + " sheets/s written, " + micros(rowsRead) + " us/read, "
+        + rowsSpace + " bytes stored; packed: " + perSecond(packedWrite) + " sheets/s written, "
+        + micros(packedRead) + " us/read, " + packedSpace + " bytes stored";
+    assertTrue(packedSpace < rowsSpace, summary);
+    assertTrue(packedWrite < rowsWrite, summary);
+    assertTrue(packedRead < rowsRead, summary);
+  }
+
+  private void seed() {
+    Quiz quiz = Quiz.builder().name("Answer Storage Quiz").questionCount(QUESTIONS)
+        .nextQuestionPosition(QUESTIONS).build();
+    entityManager.persist(quiz);
+    quizId = quiz.getId();
+    for (int i = 0; i < QUESTIONS; i++) {
+      Question question = Question.builder()
+          .text("Storage question " + i)
+          .correctAnswer("A")
+          .quiz(quiz)
+          .position(i)
+          .build();
+      entityManager.persist(question);
+      questionIds.add(question.getId());
+    }
+    for (int i = 0; i < ASSIGNMENTS; i++) {
+      Student student = Student.builder()
+          .firstName("Student " + i)
+          .lastName("Storage")
+          .number(String.format("8%07d", i))
+          .build();
+      entityManager.persist(student);
+      QuizAssignment quizAssignment = QuizAssignment.builder()
+          .student(student)
+          .quiz(entityManager.getReference(Quiz.class, quizId))
+          .status(QuizAssignmentStatus.IN_PROGRESS)
+          .build();
+      entityManager.persist(quizAssignment);
+      quizAssignmentIds.add(quizAssignment.getId());
+      if ((i + 1) % BATCH_SIZE == 0) {
+        entityManager.flush();
+        entityManager.clear();
+      }
+    }
+  }
+
+  private List<GradedAnswer> gradedAnswers(Long quizAssignmentId) {
+    List<GradedAnswer> answers = new ArrayList<>(QUESTIONS);
+    for (int i = 0; i < QUESTIONS; i++) {
+      String letter = LETTERS.get(i % LETTERS.size());
+      answers.add(new GradedAnswer(quizAssignmentId, questionIds.get(i), letter,
+          letter.equals("A")));
+    }
+    return answers;
+  }
+
+  private static PackedAnswerSheet packedSheet() {
+    PackedAnswerSheet sheet = PackedAnswerSheet.of(null, null);
+    for (int i = 0; i < QUESTIONS; i++) {
+      String letter = LETTERS.get(i % LETTERS.size());
+      sheet.set(i, PackedAnswerSheet.encode(letter), letter.equals("A"));
+    }
+    return sheet;
+  }
+
+  private Long readId(int i) {
+    return quizAssignmentIds.get((int) ((long) i * ASSIGNMENTS / READS));
+  }
+
+  private static long timeNanos(Runnable work) {
+    long startedAt = System.nanoTime();
+    work.run();
+    return System.nanoTime() - startedAt;
+  }
+
+  private static long perSecond(long nanos) {
+    return ASSIGNMENTS * 1_000_000_000L / Math.max(nanos, 1);
+  }
+
+  private static long micros(long nanos) {
+    return nanos / READS / 1_000;
+  }
+}
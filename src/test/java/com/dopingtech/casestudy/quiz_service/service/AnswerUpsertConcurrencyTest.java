@@ -0,0 +1,154 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.dopingtech.casestudy.quiz_service.QuizFixtures;
+import com.dopingtech.casestudy.quiz_service.exception.QuizNotInProgressException;
+import com.dopingtech.casestudy.quiz_service.model.entity.Answer;
+import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.repository.AnswerRepository;
+import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class AnswerUpsertConcurrencyTest {
+
+  private static final int THREADS = 16;
+
+  private static final int ROUNDS = 50;
+
+  @Autowired
+  private QuizFixtures fixtures;
+
+  @Autowired
+  private QuizAssignmentService quizAssignmentService;
+
+  @Autowired
+  private AnswerRepository answerRepository;
+
+  @Autowired
+  private QuizAssignmentRepository quizAssignmentRepository;
+
+  @Test
+  public void answerQuestion_sameQuestionFromManyThreads_shouldKeepSingleRow() throws Exception {
+    Long quizId = fixtures.createQuiz("Concurrency Quiz 1");
+    Long questionId = fixtures.createQuestion(quizId, "Same question", "A");
+    Long quizAssignmentId = fixtures.startQuiz("50001", quizId);
+
+    runConcurrently(thread -> () -> {
+      for (int round = 0; round < ROUNDS; round++) {
+        fixtures.answer(quizAssignmentId, questionId, (thread + round) % 2 == 0 ? "A" : "B");
+      }
+      return null;
+    });
+
+    List<Answer> answers = answerRepository.findByQuizAssignmentId(quizAssignmentId);
+    QuizAssignment quizAssignment = quizAssignmentRepository.findById(quizAssignmentId)
+        .orElseThrow();
+    assertEquals(1, answers.size());
+    assertEquals(1, quizAssignment.getAnsweredCount());
+    assertEquals(answers.get(0).isCorrect() ? 1 : 0, quizAssignment.getCorrectAnswerCount());
+  }
+
+  @Test
+  public void answerQuestion_differentQuestionsFromManyThreads_shouldNotLoseUpdates()
+      throws Exception {
+    Long quizId = fixtures.createQuiz("Concurrency Quiz 2");
+    List<Long> questionIds = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      questionIds.add(fixtures.createQuestion(quizId, "Question " + i, "C"));
+    }
+    Long quizAssignmentId = fixtures.startQuiz("50002", quizId);
+
+    runConcurrently(thread -> () -> {
+      for (int round = 0; round < ROUNDS; round++) {
+        fixtures.answer(quizAssignmentId, questionIds.get(thread), round == ROUNDS - 1 ? "C" : "D");
+      }
+      return null;
+    });
+
+    QuizAssignment quizAssignment = quizAssignmentRepository.findById(quizAssignmentId)
+        .orElseThrow();
+    assertEquals(THREADS, answerRepository.findByQuizAssignmentId(quizAssignmentId).size());
+    assertEquals(THREADS, quizAssignment.getAnsweredCount());
+    assertEquals(THREADS, quizAssignment.getCorrectAnswerCount());
+  }
+
+  @Test
+  public void answerQuestion_racingCompletion_shouldScoreEveryAcceptedAnswer() throws Exception {
+    Long quizId = fixtures.createQuiz("Concurrency Quiz 3");
+    List<Long> questionIds = new ArrayList<>();
+    for (int i = 0; i < THREADS * 4; i++) {
+      questionIds.add(fixtures.createQuestion(quizId, "Race question " + i, "B"));
+    }
+    Long quizAssignmentId = fixtures.startQuiz("50003", quizId);
+    Set<Long> acceptedQuestionIds = ConcurrentHashMap.newKeySet();
+    AtomicInteger rejected = new AtomicInteger();
+
+    runConcurrently(thread -> () -> {
+      if (thread == 0) {
+        Thread.sleep(20);
+        quizAssignmentService.completeQuiz(quizAssignmentId);
+        return null;
+      }
+      for (int i = thread - 1; i < questionIds.size(); i += THREADS - 1) {
+        try {
+          fixtures.answer(quizAssignmentId, questionIds.get(i), "B");
+          acceptedQuestionIds.add(questionIds.get(i));
+        } catch (QuizNotInProgressException e) {
+          rejected.incrementAndGet();
+        }
+      }
+      return null;
+    });
+
+    QuizAssignment quizAssignment = quizAssignmentRepository.findById(quizAssignmentId)
+        .orElseThrow();
+    assertEquals(QuizAssignmentStatus.COMPLETED, quizAssignment.getStatus());
+    assertEquals(questionIds.size(), acceptedQuestionIds.size() + rejected.get());
+    assertEquals(acceptedQuestionIds.size(),
+        answerRepository.findByQuizAssignmentId(quizAssignmentId).size());
+    assertEquals(acceptedQuestionIds.size(), quizAssignment.getCorrectAnswerCount());
+    assertEquals(acceptedQuestionIds.size() * 100.0 / questionIds.size(),
+        quizAssignment.getScore(), 1e-9);
+  }
+
+  private void runConcurrently(TaskFactory taskFactory) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int thread = 0; thread < THREADS; thread++) {
+        Callable<Void> task = taskFactory.create(thread);
+        futures.add(executor.submit(() -> {
+          start.await();
+          return task.call();
+        }));
+      }
+      start.countDown();
+      for (Future<Void> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private interface TaskFactory {
+    Callable<Void> create(int thread);
+  }
+}
@@ -0,0 +1,81 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.dopingtech.casestudy.quiz_service.QuizFixtures;
+import com.dopingtech.casestudy.quiz_service.exception.QuizNotInProgressException;
+import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest(properties = {
+    "quiz.answers.write-behind.enabled=true",
+    "quiz.answers.write-behind.flush-interval=3600000"
+})
+class AnswerWriteBehindTest {
+
+  @Autowired
+  private QuizFixtures fixtures;
+
+  @Autowired
+  private QuizAssignmentService quizAssignmentService;
+
+  @Autowired
+  private AnswerWriteBuffer answerWriteBuffer;
+
+  @Autowired
+  private QuizAssignmentRepository quizAssignmentRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  public void completeQuiz_shouldScoreBufferedAnswersAndRejectLaterOnes() {
+    Long quizId = fixtures.createQuiz("Write Behind Quiz 1");
+    Long firstId = fixtures.createQuestion(quizId, "First", "A");
+    Long secondId = fixtures.createQuestion(quizId, "Second", "B");
+    Long quizAssignmentId = fixtures.startQuiz("83000", quizId);
+
+    fixtures.answer(quizAssignmentId, firstId, "A");
+    fixtures.answer(quizAssignmentId, secondId, "C");
+    assertEquals(0, countAnswers(quizAssignmentId));
+
+    quizAssignmentService.completeQuiz(quizAssignmentId);
+
+    QuizAssignment completed = quizAssignmentRepository.findById(quizAssignmentId).orElseThrow();
+    assertEquals(QuizAssignmentStatus.COMPLETED, completed.getStatus());
+    assertEquals(2, completed.getAnsweredCount());
+    assertEquals(1, completed.getCorrectAnswerCount());
+    assertThrows(QuizNotInProgressException.class,
+        () -> fixtures.answer(quizAssignmentId, firstId, "B"));
+  }
+
+  @Test
+  public void flush_shouldDropAnswersAcceptedBeforeStatusChangedOnAnotherNode() {
+    Long quizId = fixtures.createQuiz("Write Behind Quiz 2");
+    Long firstId = fixtures.createQuestion(quizId, "First", "A");
+    Long secondId = fixtures.createQuestion(quizId, "Second", "A");
+    Long quizAssignmentId = fixtures.startQuiz("83001", quizId);
+    fixtures.answer(quizAssignmentId, firstId, "A");
+    answerWriteBuffer.flush();
+
+    // Completed by another node whose session close has not arrived yet
+    jdbcTemplate.update("UPDATE quiz_assignments SET status = 'COMPLETED', version = version + 1 "
+        + "WHERE id = ?", quizAssignmentId);
+    fixtures.answer(quizAssignmentId, secondId, "A");
+    answerWriteBuffer.flush();
+
+    assertEquals(1, countAnswers(quizAssignmentId));
+    assertEquals(0, answerWriteBuffer.depth());
+  }
+
+  private int countAnswers(Long quizAssignmentId) {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM answers WHERE quiz_assignment_id = ?",
+        Integer.class, quizAssignmentId);
+  }
+}
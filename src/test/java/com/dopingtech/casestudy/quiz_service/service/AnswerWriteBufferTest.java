@@ -0,0 +1,232 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.dopingtech.casestudy.quiz_service.model.projection.GradedAnswer;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizAssignmentVersion;
+import com.dopingtech.casestudy.quiz_service.repository.AnswerBatchRepository;
+import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class AnswerWriteBufferTest {
+
+  @Mock
+  private AnswerBatchRepository answerBatchRepository;
+
+  @Mock
+  private QuizAssignmentRepository quizAssignmentRepository;
+
+  @Mock
+  private AggregateVersions aggregateVersions;
+
+  @Mock
+  private QuizSessionRegistry sessionRegistry;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private AnswerWriteBuffer answerWriteBuffer;
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    answerWriteBuffer = new AnswerWriteBuffer();
+    ReflectionTestUtils.setField(answerWriteBuffer, "enabled", true);
+    ReflectionTestUtils.setField(answerWriteBuffer, "maxSize", 3);
+    ReflectionTestUtils.setField(answerWriteBuffer, "answerBatchRepository", answerBatchRepository);
+    ReflectionTestUtils.setField(answerWriteBuffer, "quizAssignmentRepository",
+        quizAssignmentRepository);
+    ReflectionTestUtils.setField(answerWriteBuffer, "aggregateVersions", aggregateVersions);
+    ReflectionTestUtils.setField(answerWriteBuffer, "sessionRegistry", sessionRegistry);
+    ReflectionTestUtils.setField(answerWriteBuffer, "transactionManager", transactionManager);
+    ReflectionTestUtils.setField(answerWriteBuffer, "meterRegistry", meterRegistry);
+    answerWriteBuffer.registerMetrics();
+    answerWriteBuffer.createWriteTransaction();
+    answerWriteBuffer.startExecutor();
+    lenient().when(transactionManager.getTransaction(any()))
+        .thenAnswer(invocation -> new SimpleTransactionStatus());
+    lenient().when(quizAssignmentRepository.lockVersionsByIdIn(anyCollection()))
+        .thenAnswer(invocation -> {
+          Collection<Long> ids = invocation.getArgument(0);
+          return ids.stream()
+              .map(id -> (QuizAssignmentVersion) new Version(id, versions.getOrDefault(id, 1L)))
+              .toList();
+        });
+  }
+
+  @AfterEach
+  public void tearDown() throws InterruptedException {
+    answerWriteBuffer.stopExecutor();
+  }
+
+  @Test
+  public void add_shouldKeepOnlyLatestAnswerPerQuestion() {
+    answerWriteBuffer.add(1L, 1L, List.of(new GradedAnswer(1L, 1L, "A", false)));
+    answerWriteBuffer.add(1L, 1L, List.of(new GradedAnswer(1L, 1L, "B", true)));
+
+    assertEquals(1, answerWriteBuffer.depth());
+    assertEquals(1.0, meterRegistry.get("quiz.answers.buffer.depth").gauge().value());
+
+    answerWriteBuffer.flush();
+
+    verify(answerBatchRepository, times(1)).upsertAll(
+        List.of(new GradedAnswer(1L, 1L, "B", true)));
+    assertEquals(0, answerWriteBuffer.depth());
+  }
+
+  @Test
+  public void add_shouldFlushOnFlushThreadWhenSizeThresholdIsReached() {
+    AtomicReference<String> flushThread = new AtomicReference<>();
+    doAnswer(invocation -> {
+      flushThread.set(Thread.currentThread().getName());
+      return null;
+    }).when(answerBatchRepository).upsertAll(anyCollection());
+
+    answerWriteBuffer.add(1L, 1L, List.of(new GradedAnswer(1L, 1L, "A", true)));
+    answerWriteBuffer.add(1L, 1L, List.of(new GradedAnswer(1L, 2L, "A", true)));
+    answerWriteBuffer.add(2L, 1L, List.of(new GradedAnswer(2L, 1L, "A", true)));
+
+    verify(answerBatchRepository, timeout(5000).times(1)).upsertAll(anyCollection());
+    verify(aggregateVersions, timeout(5000).times(1)).incrementLater(
+        eq(AggregateVersions.QUIZ_ASSIGNMENT), anyCollection());
+    assertTrue(flushThread.get().startsWith("answer-flush-"));
+    assertEquals(0, answerWriteBuffer.depth());
+    assertEquals(1, meterRegistry.get("quiz.answers.buffer.flush").timer().count());
+  }
+
+  @Test
+  public void flush_shouldOnlyWriteAnswersOfGivenAssignment() {
+    answerWriteBuffer.add(1L, 1L, List.of(new GradedAnswer(1L, 1L, "A", true)));
+    answerWriteBuffer.add(2L, 1L, List.of(new GradedAnswer(2L, 1L, "C", false)));
+
+    answerWriteBuffer.flush(1L);
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Collection<GradedAnswer>> captor = ArgumentCaptor.forClass(Collection.class);
+    verify(answerBatchRepository, times(1)).upsertAll(captor.capture());
+    assertEquals(List.of(new GradedAnswer(1L, 1L, "A", true)), List.copyOf(captor.getValue()));
+    assertEquals(1, answerWriteBuffer.depth());
+  }
+
+  @Test
+  public void flush_shouldRecountAnswersOfFlushedAssignments() {
+    answerWriteBuffer.add(1L, 1L, List.of(new GradedAnswer(1L, 1L, "A", true)));
+    answerWriteBuffer.add(2L, 1L, List.of(new GradedAnswer(2L, 1L, "C", false)));
+
+    answerWriteBuffer.flush();
+
+    verify(quizAssignmentRepository, times(1)).recountAnswers(Set.of(1L, 2L));
+  }
+
+  @Test
+  public void flush_shouldNotWriteWhenBufferIsEmpty() {
+    answerWriteBuffer.flush();
+
+    verify(answerBatchRepository, never()).upsertAll(anyCollection());
+  }
+
+  @Test
+  public void flush_shouldKeepAnswersWhenWriteFails() {
+    answerWriteBuffer.add(1L, 1L, List.of(new GradedAnswer(1L, 1L, "A", true)));
+    doThrow(new DataAccessResourceFailureException("down")).when(answerBatchRepository)
+        .upsertAll(anyCollection());
+
+    assertThrows(DataAccessResourceFailureException.class, () -> answerWriteBuffer.flush());
+
+    assertEquals(1, answerWriteBuffer.depth());
+  }
+
+  @Test
+  public void add_withNewerVersion_shouldDropAnswersOfOlderVersion() {
+    answerWriteBuffer.add(1L, 1L, List.of(new GradedAnswer(1L, 1L, "A", true)));
+    answerWriteBuffer.add(1L, 2L, List.of(new GradedAnswer(1L, 2L, "B", true)));
+
+    assertFalse(answerWriteBuffer.add(1L, 1L, List.of(new GradedAnswer(1L, 3L, "C", true))));
+    assertEquals(1, answerWriteBuffer.depth());
+  }
+
+  @Test
+  public void flush_shouldDropAnswersOfAssignmentsWhoseVersionChanged() {
+    versions.put(2L, 2L);
+    answerWriteBuffer.add(1L, 1L, List.of(new GradedAnswer(1L, 1L, "A", true)));
+    answerWriteBuffer.add(2L, 1L, List.of(new GradedAnswer(2L, 1L, "C", false)));
+
+    answerWriteBuffer.flush();
+
+    verify(answerBatchRepository, times(1)).upsertAll(
+        List.of(new GradedAnswer(1L, 1L, "A", true)));
+    verify(sessionRegistry, times(1)).close(List.of(2L));
+    assertEquals(1.0, meterRegistry.get("quiz.answers.buffer.dropped").counter().count());
+    assertEquals(0, answerWriteBuffer.depth());
+  }
+
+  @Test
+  public void close_shouldWriteAnswersAndRejectNewOnesUntilTransactionEnds() {
+    answerWriteBuffer.add(1L, 1L, List.of(new GradedAnswer(1L, 1L, "A", true)));
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      answerWriteBuffer.close(List.of(1L));
+
+      verify(answerBatchRepository, times(1)).upsertAll(
+          List.of(new GradedAnswer(1L, 1L, "A", true)));
+      assertFalse(answerWriteBuffer.add(1L, 1L, List.of(new GradedAnswer(1L, 2L, "B", true))));
+
+      TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+          synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    assertTrue(answerWriteBuffer.add(1L, 1L, List.of(new GradedAnswer(1L, 2L, "B", true))));
+  }
+
+  @Test
+  public void close_withoutTransaction_shouldReopenOnceAnswersAreWritten() {
+    answerWriteBuffer.add(1L, 1L, List.of(new GradedAnswer(1L, 1L, "A", true)));
+
+    answerWriteBuffer.close(List.of(1L));
+
+    verify(answerBatchRepository, times(1)).upsertAll(anyCollection());
+    assertTrue(answerWriteBuffer.add(1L, 1L, List.of(new GradedAnswer(1L, 2L, "B", true))));
+  }
+
+  private record Version(Long getId, Long getVersion) implements QuizAssignmentVersion {
+  }
+}
@@ -0,0 +1,167 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dopingtech.casestudy.quiz_service.QuizServiceApplication;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuestionDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizDTO;
+import com.dopingtech.casestudy.quiz_service.model.entity.Question;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Runs two application contexts against one shared database, as two nodes behind a load
+ * balancer would.
+ */
+class CacheInvalidationLogTest {
+
+  @Test
+  public void updateQuiz_onOneNode_shouldEvictCachedQuizOnOtherNodeAfterPoll() {
+    try (ConfigurableApplicationContext nodeA = startNode();
+         ConfigurableApplicationContext nodeB = startNode()) {
+      QuizService quizServiceA = nodeA.getBean(QuizService.class);
+      QuizService quizServiceB = nodeB.getBean(QuizService.class);
+      Long quizId = quizServiceA.createQuiz(quiz("Replicated quiz")).getId();
+      assertEquals("Replicated quiz", quizServiceB.findById(quizId).name());
+
+      JdbcTemplate jdbcTemplate = nodeA.getBean(JdbcTemplate.class);
+      long rowsBefore = countInvalidations(jdbcTemplate);
+      quizServiceA.updateQuiz(quizId, quiz("Renamed quiz"));
+      // Evicts quizzes, quizList and studentQuizzes in one transaction
+      assertEquals(rowsBefore + 1, countInvalidations(jdbcTemplate));
+      assertEquals("Replicated quiz", quizServiceB.findById(quizId).name());
+
+      assertTrue(nodeB.getBean(CacheInvalidationLog.class).poll() > 0);
+      assertEquals("Renamed quiz", quizServiceB.findById(quizId).name());
+      assertEquals(0, nodeA.getBean(CacheInvalidationLog.class).poll());
+      assertTrue(nodeB.getBean(MeterRegistry.class).get("quiz.cache.invalidation.lag").timer()
+          .count() > 0);
+    }
+  }
+
+  @Test
+  public void createQuestion_onOneNode_shouldEvictOnlyThatQuizOnOtherNode() {
+    try (ConfigurableApplicationContext nodeA = startNode();
+         ConfigurableApplicationContext nodeB = startNode()) {
+      QuizService quizServiceA = nodeA.getBean(QuizService.class);
+      QuizService quizServiceB = nodeB.getBean(QuizService.class);
+      Long changedQuizId = quizServiceA.createQuiz(quiz("Changed quiz")).getId();
+      Long otherQuizId = quizServiceA.createQuiz(quiz("Untouched quiz")).getId();
+      quizServiceB.findQuestionsByQuizId(changedQuizId);
+      quizServiceB.findQuestionsByQuizId(otherQuizId);
+
+      QuestionDTO questionDTO = new QuestionDTO();
+      questionDTO.setQuizId(changedQuizId);
+      questionDTO.setText("Replicated question");
+      questionDTO.setCorrectAnswer("A");
+      nodeA.getBean(QuestionService.class).createQuestion(questionDTO);
+      nodeB.getBean(CacheInvalidationLog.class).poll();
+
+      CacheManager cacheManagerB = nodeB.getBean(CacheManager.class);
+      assertNull(cacheManagerB.getCache("quizQuestions").get(changedQuizId));
+      assertEquals(1, quizServiceB.findQuestionsByQuizId(changedQuizId).size());
+      assertEquals(0, quizServiceB.findQuestionsByQuizId(otherQuizId).size());
+    }
+  }
+
+  @Test
+  public void updateQuestion_onOneNode_shouldEvictAnswerKeyOnOtherNode() {
+    try (ConfigurableApplicationContext nodeA = startNode();
+         ConfigurableApplicationContext nodeB = startNode()) {
+      Long quizId = nodeA.getBean(QuizService.class).createQuiz(quiz("Graded quiz")).getId();
+      QuestionDTO questionDTO = new QuestionDTO();
+      questionDTO.setQuizId(quizId);
+      questionDTO.setText("Replicated answer key");
+      questionDTO.setCorrectAnswer("A");
+      QuestionService questionServiceA = nodeA.getBean(QuestionService.class);
+      Long questionId = questionServiceA.createQuestion(questionDTO).getId();
+      AnswerKeyIndex answerKeyIndexB = nodeB.getBean(AnswerKeyIndex.class);
+      assertTrue(answerKeyIndexB.isCorrect(questionId, "A"));
+
+      questionDTO.setCorrectAnswer("B");
+      questionServiceA.updateQuestion(questionId, questionDTO);
+      nodeB.getBean(CacheInvalidationLog.class).poll();
+
+      assertTrue(answerKeyIndexB.isCorrect(questionId, "B"));
+    }
+  }
+
+  @Test
+  public void updateQuestion_onOneNode_shouldEvictSecondLevelCacheOnOtherNode() {
+    try (ConfigurableApplicationContext nodeA = startNode();
+         ConfigurableApplicationContext nodeB = startNode()) {
+      Long quizId = nodeA.getBean(QuizService.class).createQuiz(quiz("Cached entity quiz")).getId();
+      QuestionDTO questionDTO = new QuestionDTO();
+      questionDTO.setQuizId(quizId);
+      questionDTO.setText("Cached entity question");
+      questionDTO.setCorrectAnswer("A");
+      QuestionService questionServiceA = nodeA.getBean(QuestionService.class);
+      Long questionId = questionServiceA.createQuestion(questionDTO).getId();
+      QuestionService questionServiceB = nodeB.getBean(QuestionService.class);
+      assertEquals("A", questionServiceB.findById(questionId).getCorrectAnswer());
+      Cache secondLevelCacheB = nodeB.getBean(EntityManagerFactory.class).getCache();
+      assertTrue(secondLevelCacheB.contains(Question.class, questionId));
+
+      questionDTO.setText("Renamed entity question");
+      questionServiceA.updateQuestion(questionId, questionDTO);
+      nodeB.getBean(CacheInvalidationLog.class).poll();
+
+      assertFalse(secondLevelCacheB.contains(Question.class, questionId));
+      assertEquals("Renamed entity question", questionServiceB.findById(questionId).getText());
+    }
+  }
+
+  @Test
+  public void encode_shouldKeepIdKeysAndClearForOtherKeys() {
+    assertEquals("42", CacheInvalidationLog.encode(42L));
+    assertEquals(42L, CacheInvalidationLog.decode("42"));
+    assertNull(CacheInvalidationLog.encode("name"));
+    assertNull(CacheInvalidationLog.decode(null));
+  }
+
+  @Test
+  public void batch_shouldWriteEachEvictionOnceAndClearCacheBeyondKeyLimit() {
+    CacheInvalidationLog.Batch batch = new CacheInvalidationLog.Batch()
+        .add("quizzes", "1")
+        .add("quizzes", "1")
+        .add("quizList", null)
+        .add("quizList", "2");
+    assertEquals("quizzes\t1\nquizList\t\n", batch.encode());
+
+    CacheInvalidationLog.Batch large = new CacheInvalidationLog.Batch();
+    for (long id = 0; id <= CacheInvalidationLog.MAX_KEYS_PER_CACHE; id++) {
+      large.add("quizzes", Long.toString(id));
+    }
+    assertEquals("quizzes\t\n", large.add("quizzes", "0").encode());
+  }
+
+  private static long countInvalidations(JdbcTemplate jdbcTemplate) {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cache_invalidations", Long.class);
+  }
+
+  private static ConfigurableApplicationContext startNode() {
+    return new SpringApplicationBuilder(QuizServiceApplication.class)
+        .web(WebApplicationType.NONE)
+        // Command-line arguments, because application.properties overrides default properties
+        .run("--spring.datasource.url=jdbc:h2:mem:two-nodes;DB_CLOSE_DELAY=-1",
+            "--spring.jpa.hibernate.ddl-auto=update",
+            "--quiz.cache.invalidation.enabled=true",
+            "--quiz.cache.invalidation.poll-interval=3600000");
+  }
+
+  private static QuizDTO quiz(String name) {
+    QuizDTO quizDTO = new QuizDTO();
+    quizDTO.setName(name);
+    return quizDTO;
+  }
+}
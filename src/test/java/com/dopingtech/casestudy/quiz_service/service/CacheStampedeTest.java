@@ -0,0 +1,91 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.dopingtech.casestudy.quiz_service.QuizFixtures;
+import com.dopingtech.casestudy.quiz_service.repository.QuestionRepository;
+import com.dopingtech.casestudy.quiz_service.repository.QuizRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+@SpringBootTest
+class CacheStampedeTest {
+
+  private static final int STUDENTS = 200;
+
+  private static final int THREADS = 50;
+
+  @Autowired
+  private QuizFixtures fixtures;
+
+  @Autowired
+  private QuizService quizService;
+
+  @SpyBean
+  private QuizRepository quizRepository;
+
+  @SpyBean
+  private QuestionRepository questionRepository;
+
+  @Test
+  public void quizStart_shouldQueryOncePerKeyWhenAllStudentsMissTogether() throws Exception {
+    Long quizId = fixtures.createQuiz("Stampede Quiz");
+    for (int i = 0; i < 5; i++) {
+      fixtures.createQuestion(quizId, "Stampede question " + i);
+    }
+    // Slow queries keep the first load in flight while the other students arrive
+    doAnswer(slowly(quizRepository)).when(quizRepository).findViewById(quizId);
+    doAnswer(slowly(questionRepository)).when(questionRepository).findViewsByQuizId(quizId);
+    clearInvocations(quizRepository);
+    clearInvocations(questionRepository);
+
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int student = 0; student < STUDENTS; student++) {
+        results.add(executor.submit((Callable<Integer>) () -> {
+          start.await();
+          quizService.findById(quizId);
+          return quizService.findQuestionsByQuizId(quizId).size();
+        }));
+      }
+      start.countDown();
+      for (Future<Integer> result : results) {
+        assertEquals(5, result.get(30, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(quizRepository, times(1)).findViewById(quizId);
+    verify(questionRepository, times(1)).findViewsByQuizId(quizId);
+    verify(questionRepository, times(1)).findOptionViewsByQuizId(quizId);
+  }
+
+  // Repositories are interface proxies with no real method to call; the spy's default answer
+  // delegates to the repository it wraps
+  private static Answer<Object> slowly(Object spy) {
+    Answer<?> delegate = mockingDetails(spy).getMockCreationSettings().getDefaultAnswer();
+    return invocation -> {
+      Thread.sleep(100);
+      return delegate.answer(invocation);
+    };
+  }
+}
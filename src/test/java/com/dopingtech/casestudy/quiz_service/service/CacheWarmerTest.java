@@ -0,0 +1,92 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dopingtech.casestudy.quiz_service.exception.QuizNotFoundException;
+import com.dopingtech.casestudy.quiz_service.model.dto.CursorPageDTO;
+import com.dopingtech.casestudy.quiz_service.repository.QuizRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+
+  @Mock
+  private QuizRepository quizRepository;
+
+  @Mock
+  private QuizService quizService;
+
+  @Mock
+  private StudentService studentService;
+
+  @Mock
+  private AnswerKeyIndex answerKeyIndex;
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private CacheWarmer cacheWarmer;
+
+  @BeforeEach
+  void setUp() {
+    cacheWarmer = new CacheWarmer();
+    ReflectionTestUtils.setField(cacheWarmer, "threads", 2);
+    ReflectionTestUtils.setField(cacheWarmer, "timeBudget", 5000L);
+    ReflectionTestUtils.setField(cacheWarmer, "quizRepository", quizRepository);
+    ReflectionTestUtils.setField(cacheWarmer, "quizService", quizService);
+    ReflectionTestUtils.setField(cacheWarmer, "studentService", studentService);
+    ReflectionTestUtils.setField(cacheWarmer, "answerKeyIndex", answerKeyIndex);
+    ReflectionTestUtils.setField(cacheWarmer, "meterRegistry", meterRegistry);
+    cacheWarmer.registerMetrics();
+  }
+
+  @Test
+  public void warmUp_shouldLoadFirstPagesAndEveryActiveQuiz() {
+    when(quizRepository.findIdsWithAssignmentsIn(anyCollection())).thenReturn(List.of(1L, 2L));
+
+    assertEquals(10, cacheWarmer.warmUp());
+
+    verify(quizService, times(1)).findPage(null, null);
+    verify(studentService, times(1)).findPage(null, null);
+    for (Long quizId : List.of(1L, 2L)) {
+      verify(quizService, times(1)).findById(quizId);
+      verify(quizService, times(1)).findQuestionsByQuizId(quizId);
+      verify(quizService, times(1)).findPaperByQuizId(quizId);
+      verify(answerKeyIndex, times(1)).loadQuiz(quizId);
+    }
+    assertEquals(10.0, meterRegistry.get("quiz.cache.warm-up.entries").gauge().value());
+  }
+
+  @Test
+  public void warmUp_shouldSkipEntriesThatFail() {
+    when(quizRepository.findIdsWithAssignmentsIn(anyCollection())).thenReturn(List.of(1L));
+    when(quizService.findById(1L)).thenThrow(new QuizNotFoundException(1L));
+
+    assertEquals(5, cacheWarmer.warmUp());
+  }
+
+  @Test
+  public void warmUp_shouldStopWhenTimeBudgetRunsOut() {
+    ReflectionTestUtils.setField(cacheWarmer, "timeBudget", 100L);
+    CountDownLatch never = new CountDownLatch(1);
+    when(quizRepository.findIdsWithAssignmentsIn(anyCollection())).thenReturn(List.of());
+    when(studentService.findPage(null, null)).thenAnswer(invocation -> {
+      never.await();
+      return new CursorPageDTO<>(List.of(), null);
+    });
+
+    assertEquals(1, cacheWarmer.warmUp());
+  }
+}
@@ -0,0 +1,57 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.dopingtech.casestudy.quiz_service.exception.InvalidCursorException;
+import com.dopingtech.casestudy.quiz_service.model.dto.CursorPageDTO;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class CursorPaginationTest {
+
+  private CursorPagination cursorPagination;
+
+  @BeforeEach
+  void setUp() {
+    cursorPagination = new CursorPagination();
+    ReflectionTestUtils.setField(cursorPagination, "defaultSize", 50);
+    ReflectionTestUtils.setField(cursorPagination, "maxSize", 500);
+  }
+
+  @Test
+  public void pageSize_shouldUseDefaultAndStayWithinBounds() {
+    assertEquals(50, cursorPagination.pageSize(null));
+    assertEquals(20, cursorPagination.pageSize(20));
+    assertEquals(500, cursorPagination.pageSize(10000));
+    assertEquals(1, cursorPagination.pageSize(0));
+  }
+
+  @Test
+  public void afterId_shouldDecodeCursorOfId() {
+    assertEquals(0, cursorPagination.afterId(null));
+    assertEquals(123456789L, cursorPagination.afterId(cursorPagination.cursorOf(123456789L)));
+  }
+
+  @Test
+  public void afterId_shouldRejectCursorItDidNotIssue() {
+    assertThrows(InvalidCursorException.class, () -> cursorPagination.afterId("%%%"));
+    assertThrows(InvalidCursorException.class, () -> cursorPagination.afterId("YWJj"));
+    assertThrows(InvalidCursorException.class, () -> cursorPagination.afterId("LTE"));
+  }
+
+  @Test
+  public void page_shouldPointNextCursorAtLastItemOnlyWhenMoreRowsWereRead() {
+    CursorPageDTO<Long> full = cursorPagination.page(List.of(1L, 2L, 3L), 2, Function.identity());
+    CursorPageDTO<Long> last = cursorPagination.page(List.of(3L), 2, Function.identity());
+
+    assertEquals(List.of(1L, 2L), full.getItems());
+    assertEquals(2L, cursorPagination.afterId(full.getNextCursor()));
+    assertEquals(List.of(3L), last.getItems());
+    assertNull(last.getNextCursor());
+  }
+}
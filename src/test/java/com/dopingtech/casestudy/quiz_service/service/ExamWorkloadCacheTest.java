@@ -0,0 +1,95 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dopingtech.casestudy.quiz_service.QuizFixtures;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+@SpringBootTest
+class ExamWorkloadCacheTest {
+
+  private static final int STUDENTS = 20;
+
+  private static final int QUESTIONS = 10;
+
+  @Autowired
+  private QuizFixtures fixtures;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private QuizAssignmentService quizAssignmentService;
+
+  @Autowired
+  private CacheManager cacheManager;
+
+  private int hits;
+
+  private int misses;
+
+  @Test
+  public void examWorkload_shouldServeMostReadsFromCache() {
+    Long quizId = fixtures.createQuiz("Cache Workload Quiz");
+    List<Long> questionIds = new ArrayList<>();
+    for (int i = 0; i < QUESTIONS; i++) {
+      questionIds.add(fixtures.createQuestion(quizId, "Cache question " + i));
+    }
+    List<Long> quizAssignmentIds = new ArrayList<>();
+    for (int i = 0; i < STUDENTS; i++) {
+      quizAssignmentIds.add(fixtures.startQuiz(String.valueOf(60000 + i), quizId));
+    }
+
+    // Students answer in lockstep; after each click a student reloads the quiz, its questions
+    // and their own assignment three times
+    for (Long questionId : questionIds) {
+      for (Long quizAssignmentId : quizAssignmentIds) {
+        fixtures.answer(quizAssignmentId, questionId, "A");
+        for (int reload = 0; reload < 3; reload++) {
+          read("quizzes", quizId, () -> quizService.findById(quizId));
+          read("quizQuestions", quizId, () -> quizService.findQuestionsByQuizId(quizId));
+          read("quizAssignments", quizAssignmentId,
+              () -> quizAssignmentService.findById(quizAssignmentId));
+        }
+      }
+    }
+
+    double hitRatio = hits / (double) (hits + misses);
+    // Only the first quiz reads and the first assignment read after each answer can miss
+    assertTrue(hitRatio > 0.85, hits + " hits, " + misses + " misses");
+  }
+
+  @Test
+  public void answerQuestion_shouldEvictOnlyTheAnsweredAssignment() {
+    Long quizId = fixtures.createQuiz("Cache Eviction Quiz");
+    Long questionId = fixtures.createQuestion(quizId, "Eviction question");
+    Long answeredId = fixtures.startQuiz("61000", quizId);
+    Long otherId = fixtures.startQuiz("61001", quizId);
+    quizAssignmentService.findById(answeredId);
+    quizAssignmentService.findById(otherId);
+    quizService.findQuestionsByQuizId(quizId);
+
+    fixtures.answer(answeredId, questionId, "A");
+
+    assertNull(cacheManager.getCache("quizAssignments").get(answeredId));
+    assertNotNull(cacheManager.getCache("quizAssignments").get(otherId));
+    assertNotNull(cacheManager.getCache("quizQuestions").get(quizId));
+  }
+
+  private <T> T read(String cacheName, Long key, Supplier<T> loader) {
+    if (cacheManager.getCache(cacheName).get(key) != null) {
+      hits++;
+    } else {
+      misses++;
+    }
+    return loader.get();
+  }
+}
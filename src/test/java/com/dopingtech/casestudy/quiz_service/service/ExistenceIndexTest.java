@@ -0,0 +1,156 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dopingtech.casestudy.quiz_service.repository.QuestionRepository;
+import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
+import com.dopingtech.casestudy.quiz_service.repository.QuizRepository;
+import com.dopingtech.casestudy.quiz_service.repository.StudentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class ExistenceIndexTest {
+
+  @Mock
+  private StudentRepository studentRepository;
+
+  @Mock
+  private QuizRepository quizRepository;
+
+  @Mock
+  private QuestionRepository questionRepository;
+
+  @Mock
+  private QuizAssignmentRepository quizAssignmentRepository;
+
+  private ExistenceIndex existenceIndex;
+
+  @BeforeEach
+  void setUp() {
+    existenceIndex = new ExistenceIndex();
+    ReflectionTestUtils.setField(existenceIndex, "negativeTtl", 60000L);
+    ReflectionTestUtils.setField(existenceIndex, "negativeMaxSize", 100L);
+    ReflectionTestUtils.setField(existenceIndex, "studentRepository", studentRepository);
+    ReflectionTestUtils.setField(existenceIndex, "quizRepository", quizRepository);
+    ReflectionTestUtils.setField(existenceIndex, "questionRepository", questionRepository);
+    ReflectionTestUtils.setField(existenceIndex, "quizAssignmentRepository",
+        quizAssignmentRepository);
+    ReflectionTestUtils.setField(existenceIndex, "meterRegistry", new SimpleMeterRegistry());
+    existenceIndex.init();
+  }
+
+  @Test
+  public void exists_shouldAnswerLoadedIdsWithoutQuerying() {
+    when(quizRepository.findAllIds()).thenReturn(List.of(1L, 3L));
+
+    assertTrue(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 1L));
+    assertTrue(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 3L));
+    assertFalse(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, -1L));
+
+    verify(quizRepository, times(1)).findAllIds();
+    verify(quizRepository, never()).existsById(anyLong());
+  }
+
+  @Test
+  public void exists_shouldQueryClearBitBelowHighestLoadedId() {
+    // Committed on another node from its own id block after this node loaded
+    when(quizRepository.findAllIds()).thenReturn(List.of(1L, 51L));
+    when(quizRepository.existsById(2L)).thenReturn(true);
+
+    assertTrue(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 2L));
+    assertTrue(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 2L));
+
+    verify(quizRepository, times(1)).existsById(2L);
+  }
+
+  @Test
+  public void exists_shouldQueryUnknownIdsOnceAndRememberMisses() {
+    when(studentRepository.findAllIds()).thenReturn(List.of(1L));
+    when(studentRepository.existsById(5L)).thenReturn(true);
+    when(studentRepository.existsById(6L)).thenReturn(false);
+
+    assertTrue(existenceIndex.exists(ExistenceIndex.Kind.STUDENT, 5L));
+    assertTrue(existenceIndex.exists(ExistenceIndex.Kind.STUDENT, 5L));
+    assertFalse(existenceIndex.exists(ExistenceIndex.Kind.STUDENT, 6L));
+    assertFalse(existenceIndex.exists(ExistenceIndex.Kind.STUDENT, 6L));
+
+    verify(studentRepository, times(1)).existsById(5L);
+    verify(studentRepository, times(1)).existsById(6L);
+  }
+
+  @Test
+  public void addedAndRemoved_shouldUpdateIndex() {
+    when(questionRepository.findAllIds()).thenReturn(List.of(1L, 2L));
+
+    existenceIndex.added(ExistenceIndex.Kind.QUESTION, 3L);
+    existenceIndex.removed(ExistenceIndex.Kind.QUESTION, 2L);
+
+    assertTrue(existenceIndex.exists(ExistenceIndex.Kind.QUESTION, 3L));
+    assertFalse(existenceIndex.exists(ExistenceIndex.Kind.QUESTION, 2L));
+    verify(questionRepository, never()).existsById(2L);
+  }
+
+  @Test
+  public void added_shouldNotSetIdOfRolledBackCreate() {
+    when(questionRepository.findAllIds()).thenReturn(List.of(1L));
+    when(questionRepository.existsById(3L)).thenReturn(false);
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      existenceIndex.added(ExistenceIndex.Kind.QUESTION, 3L);
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(synchronization -> synchronization.afterCompletion(
+              TransactionSynchronization.STATUS_ROLLED_BACK));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    assertFalse(existenceIndex.exists(ExistenceIndex.Kind.QUESTION, 3L));
+  }
+
+  @Test
+  public void refresh_shouldKeepIdsChangedLocallyWhileLoading() {
+    when(quizAssignmentRepository.findAllIds())
+        .thenReturn(List.of(1L, 3L))
+        .thenAnswer(invocation -> {
+          // Committed here after the reload's query read its snapshot
+          existenceIndex.added(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, 4L);
+          existenceIndex.removed(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, 3L);
+          return List.of(1L, 2L, 3L);
+        });
+    existenceIndex.exists(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, 1L);
+
+    existenceIndex.refresh();
+
+    assertTrue(existenceIndex.exists(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, 2L));
+    assertTrue(existenceIndex.exists(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, 4L));
+    assertFalse(existenceIndex.exists(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, 3L));
+  }
+
+  @Test
+  public void refresh_shouldClearIdsDeletedOnOtherNodes() {
+    when(quizRepository.findAllIds())
+        .thenReturn(List.of(1L, 2L))
+        .thenReturn(List.of(1L));
+    assertTrue(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 2L));
+
+    existenceIndex.refresh();
+
+    assertFalse(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 2L));
+    verify(quizRepository, times(1)).existsById(2L);
+  }
+}
@@ -0,0 +1,86 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.dopingtech.casestudy.quiz_service.QuizFixtures;
+import com.dopingtech.casestudy.quiz_service.model.dto.ExportFilterDTO;
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class ExportQueryTest {
+
+  private static final int QUESTIONS = 4;
+
+  @Autowired
+  private QuizFixtures fixtures;
+
+  @Autowired
+  private ExportService exportService;
+
+  @Autowired
+  private QuizAssignmentService quizAssignmentService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Test
+  public void export_shouldApplyQuizStatusAndCompletionDateFilters() throws Exception {
+    Long quizId = fixtures.createQuiz("Export Quiz");
+    List<Long> questionIds = new ArrayList<>();
+    for (int i = 0; i < QUESTIONS; i++) {
+      questionIds.add(fixtures.createQuestion(quizId, "Export question " + i));
+    }
+    Long completedId = fixtures.startQuiz("80000", quizId, questionIds);
+    quizAssignmentService.completeQuiz(completedId);
+    fixtures.startQuiz("80001", quizId, questionIds);
+    LocalDate today = LocalDate.now();
+
+    List<JsonNode> completed = exportQuizAssignments(
+        new ExportFilterDTO(quizId, QuizAssignmentStatus.COMPLETED, today, today));
+    List<JsonNode> all = exportQuizAssignments(new ExportFilterDTO(quizId, null, null, null));
+    List<JsonNode> answers = exportAnswers(
+        new ExportFilterDTO(quizId, QuizAssignmentStatus.COMPLETED, null, null));
+    List<JsonNode> completedTomorrow = exportAnswers(
+        new ExportFilterDTO(quizId, null, today.plusDays(1), null));
+
+    assertEquals(1, completed.size());
+    assertEquals(completedId, completed.get(0).get("id").asLong());
+    assertEquals(QUESTIONS, completed.get(0).get("correctAnswerCount").asInt());
+    assertEquals(2, all.size());
+    assertEquals(QUESTIONS, answers.size());
+    answers.forEach(answer -> assertEquals(completedId, answer.get("quizAssignmentId").asLong()));
+    assertEquals(0, completedTomorrow.size());
+  }
+
+  private List<JsonNode> exportQuizAssignments(ExportFilterDTO filter) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    exportService.writeQuizAssignments(filter, out);
+    return lines(out);
+  }
+
+  private List<JsonNode> exportAnswers(ExportFilterDTO filter) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    exportService.writeAnswers(filter, out);
+    return lines(out);
+  }
+
+  private List<JsonNode> lines(ByteArrayOutputStream out) throws Exception {
+    List<JsonNode> lines = new ArrayList<>();
+    for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+      if (!line.isEmpty()) {
+        lines.add(objectMapper.readTree(line));
+      }
+    }
+    return lines;
+  }
+}
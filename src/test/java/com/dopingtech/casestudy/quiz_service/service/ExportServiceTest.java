@@ -0,0 +1,206 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dopingtech.casestudy.quiz_service.model.dto.ExportFilterDTO;
+import com.dopingtech.casestudy.quiz_service.model.enums.AnswerStorageMode;
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.model.projection.AnswerExportRow;
+import com.dopingtech.casestudy.quiz_service.model.projection.AnswerKeyView;
+import com.dopingtech.casestudy.quiz_service.model.projection.PackedSheetExportRow;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizAssignmentExportRow;
+import com.dopingtech.casestudy.quiz_service.repository.AnswerRepository;
+import com.dopingtech.casestudy.quiz_service.repository.QuestionRepository;
+import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+  private static final int ANSWERS = 1_000_000;
+
+  @Mock
+  private QuizAssignmentRepository quizAssignmentRepository;
+
+  @Mock
+  private AnswerRepository answerRepository;
+
+  @Mock
+  private QuestionRepository questionRepository;
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  @InjectMocks
+  private ExportService exportService;
+
+  @Test
+  public void writeQuizAssignments_shouldWriteOneJsonLinePerAssignment() throws Exception {
+    when(quizAssignmentRepository.streamForExport(null, null, null, null)).thenReturn(Stream.of(
+        new QuizAssignmentExportRow(1L, 10L, 100L, QuizAssignmentStatus.COMPLETED, 5, 4, 80.0,
+            LocalDateTime.of(2024, 1, 15, 10, 0)),
+        new QuizAssignmentExportRow(2L, 11L, 100L, QuizAssignmentStatus.IN_PROGRESS, 2, 1, 0.0,
+            null)));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long written = exportService.writeQuizAssignments(new ExportFilterDTO(), out);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, written);
+    assertEquals(2, lines.length);
+    JsonNode first = objectMapper.readTree(lines[0]);
+    assertEquals(1L, first.get("id").asLong());
+    assertEquals("COMPLETED", first.get("status").asText());
+    assertEquals(80.0, first.get("score").asDouble());
+    assertEquals(2L, objectMapper.readTree(lines[1]).get("id").asLong());
+  }
+
+  @Test
+  public void writeAnswers_shouldFilterOnWholeCompletionDays() throws Exception {
+    ExportFilterDTO filter = new ExportFilterDTO(100L, QuizAssignmentStatus.COMPLETED,
+        LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+    when(answerRepository.streamForExport(100L, QuizAssignmentStatus.COMPLETED,
+        LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0)))
+        .thenReturn(Stream.of(new AnswerExportRow(1L, 1L, 7L, "B", true)));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    exportService.writeAnswers(filter, out);
+
+    JsonNode answer = objectMapper.readTree(out.toString(StandardCharsets.UTF_8).trim());
+    assertEquals(7L, answer.get("questionId").asLong());
+    assertEquals("B", answer.get("selectedOption").asText());
+    assertTrue(answer.get("correct").asBoolean());
+  }
+
+  @Test
+  public void writeAnswers_shouldExpandPackedSheetsWhenStorageIsPacked() throws Exception {
+    ReflectionTestUtils.setField(exportService, "answerStorage", AnswerStorageMode.PACKED);
+    PackedAnswerSheet sheet = PackedAnswerSheet.of(null, null);
+    sheet.set(0, PackedAnswerSheet.encode("C"), true);
+    sheet.set(2, PackedAnswerSheet.encode(""), false);
+    when(quizAssignmentRepository.streamPackedSheetsForExport(null, null, null, null))
+        .thenReturn(Stream.of(
+            new PackedSheetExportRow(1L, 100L, sheet.answers(), sheet.correct()),
+            new PackedSheetExportRow(2L, 100L, sheet.answers(), sheet.correct())));
+    when(questionRepository.findAnswerKeysByQuizId(100L)).thenReturn(List.of(
+        question(7L, 0), question(8L, 1), question(9L, 2)));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long written = exportService.writeAnswers(new ExportFilterDTO(), out);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(4, written);
+    JsonNode first = objectMapper.readTree(lines[0]);
+    assertEquals(1L, first.get("quizAssignmentId").asLong());
+    assertEquals(7L, first.get("questionId").asLong());
+    assertEquals("C", first.get("selectedOption").asText());
+    assertTrue(first.get("correct").asBoolean());
+    JsonNode blank = objectMapper.readTree(lines[1]);
+    assertEquals(9L, blank.get("questionId").asLong());
+    assertEquals("", blank.get("selectedOption").asText());
+    assertEquals(2L, objectMapper.readTree(lines[3]).get("quizAssignmentId").asLong());
+    verify(questionRepository, times(1)).findAnswerKeysByQuizId(100L);
+    verify(answerRepository, never()).streamForExport(any(), any(), any(), any());
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void writeAnswers_shouldExportMillionAnswersInConstantMemory() throws Exception {
+    when(answerRepository.streamForExport(null, null, null, null)).thenReturn(
+        LongStream.rangeClosed(1, ANSWERS).mapToObj(id ->
+            new AnswerExportRow(id, id / 20 + 1, id % 20 + 1, "A", id % 2 == 0)));
+    HeapSamplingOutputStream out = new HeapSamplingOutputStream();
+
+    long written = exportService.writeAnswers(new ExportFilterDTO(), out);
+
+    long growth = out.lastHeap - out.firstHeap;
+    assertEquals(ANSWERS, written);
+    assertEquals(ANSWERS, out.lines);
+    // Holding the rows or the written output would retain well over 50 MB
+    assertTrue(growth < 16L * 1024 * 1024,
+        "Heap grew by " + growth / 1024 + " KB while writing " + out.bytes + " bytes");
+  }
+
+  private static AnswerKeyView question(Long id, int position) {
+    return new AnswerKeyView() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public Long getQuizId() {
+        return 100L;
+      }
+
+      @Override
+      public int getPosition() {
+        return position;
+      }
+
+      @Override
+      public String getCorrectAnswer() {
+        return "A";
+      }
+    };
+  }
+
+  // Discards the output, sampling the heap after the first and before the last line
+  private static class HeapSamplingOutputStream extends OutputStream {
+
+    private long lines;
+
+    private long bytes;
+
+    private long firstHeap;
+
+    private long lastHeap;
+
+    @Override
+    public void write(int b) {
+      bytes++;
+      if (b == '\n') {
+        lines++;
+        if (lines == 1) {
+          firstHeap = usedHeap();
+        } else if (lines == ANSWERS - 1) {
+          lastHeap = usedHeap();
+        }
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      bytes += len;
+    }
+
+    private static long usedHeap() {
+      System.gc();
+      return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dopingtech.casestudy.quiz_service.exception.GradingJobNotFoundException;
+import com.dopingtech.casestudy.quiz_service.exception.GradingQueueFullException;
+import com.dopingtech.casestudy.quiz_service.model.dto.GradingJobDTO;
+import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
+import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
+import com.dopingtech.casestudy.quiz_service.model.enums.GradingJobStatus;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class GradingJobServiceTest {
+
+  @Mock
+  private QuizAssignmentService quizAssignmentService;
+
+  @InjectMocks
+  private GradingJobService gradingJobService;
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @BeforeEach
+  public void setUp() {
+    ReflectionTestUtils.setField(gradingJobService, "poolSize", 1);
+    ReflectionTestUtils.setField(gradingJobService, "queueCapacity", 1);
+    gradingJobService.startExecutor();
+  }
+
+  @AfterEach
+  public void tearDown() throws InterruptedException {
+    release.countDown();
+    gradingJobService.stopExecutor();
+  }
+
+  @Test
+  public void submit_shouldBatchAssignmentsOfSameQuizIntoQueuedJob() {
+    blockWorker();
+    stubBeginGrading(1L, 1L);
+    stubBeginGrading(3L, 1L);
+
+    GradingJobDTO first = gradingJobService.submit(1L);
+    GradingJobDTO second = gradingJobService.submit(3L);
+    release.countDown();
+
+    assertEquals(first.getId(), second.getId());
+    assertEquals(List.of(1L, 3L), second.getQuizAssignmentIds());
+    verify(quizAssignmentService, timeout(5000)).gradeQuizAssignments(1L, List.of(1L, 3L));
+  }
+
+  @Test
+  public void submit_shouldCancelGradingWhenQueueIsFull() {
+    GradingJobDTO blocking = blockWorker();
+    stubBeginGrading(1L, 1L);
+    stubBeginGrading(4L, 3L);
+    gradingJobService.submit(1L);
+
+    assertThrows(GradingQueueFullException.class, () -> gradingJobService.submit(4L));
+
+    verify(quizAssignmentService).cancelGrading(List.of(4L));
+    assertNotEquals(GradingJobStatus.FAILED, gradingJobService.findById(blocking.getId())
+        .getStatus());
+  }
+
+  @Test
+  public void submit_shouldNotLetLaterRequestsJoinRejectedJob() {
+    blockWorker();
+    stubBeginGrading(1L, 1L);
+    stubBeginGrading(4L, 3L);
+    stubBeginGrading(5L, 3L);
+    gradingJobService.submit(1L);
+    assertThrows(GradingQueueFullException.class, () -> gradingJobService.submit(4L));
+    release.countDown();
+    verify(quizAssignmentService, timeout(5000)).gradeQuizAssignments(1L, List.of(1L));
+
+    GradingJobDTO job = gradingJobService.submit(5L);
+
+    assertEquals(List.of(5L), job.getQuizAssignmentIds());
+    verify(quizAssignmentService, timeout(5000)).gradeQuizAssignments(3L, List.of(5L));
+  }
+
+  @Test
+  public void releaseStaleAssignments_shouldRestoreAssignmentsWithoutUnfinishedJob() {
+    blockWorker();
+    when(quizAssignmentService.findGradingIdsStartedBefore(any(LocalDateTime.class)))
+        .thenReturn(List.of(2L, 5L));
+
+    assertEquals(1, gradingJobService.releaseStaleAssignments());
+
+    verify(quizAssignmentService).cancelGrading(List.of(5L));
+  }
+
+  @Test
+  public void releaseStaleAssignments_shouldDoNothingWithoutStaleAssignments() {
+    when(quizAssignmentService.findGradingIdsStartedBefore(any(LocalDateTime.class)))
+        .thenReturn(List.of());
+
+    assertEquals(0, gradingJobService.releaseStaleAssignments());
+
+    verify(quizAssignmentService, never()).cancelGrading(anyList());
+  }
+
+  @Test
+  public void findById_shouldReturnCompletedJob() {
+    stubBeginGrading(1L, 1L);
+
+    GradingJobDTO job = gradingJobService.submit(1L);
+
+    verify(quizAssignmentService, timeout(5000)).gradeQuizAssignments(1L, List.of(1L));
+    awaitStatus(job.getId(), GradingJobStatus.COMPLETED);
+  }
+
+  @Test
+  public void findById_shouldThrowGradingJobNotFoundException() {
+    assertThrows(GradingJobNotFoundException.class, () -> gradingJobService.findById("unknown"));
+  }
+
+  private GradingJobDTO blockWorker() {
+    stubBeginGrading(2L, 2L);
+    CountDownLatch started = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      started.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return null;
+    }).when(quizAssignmentService).gradeQuizAssignments(2L, List.of(2L));
+    GradingJobDTO job = gradingJobService.submit(2L);
+    try {
+      started.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return job;
+  }
+
+  private void stubBeginGrading(Long quizAssignmentId, Long quizId) {
+    Quiz quiz = new Quiz();
+    quiz.setId(quizId);
+    QuizAssignment quizAssignment = new QuizAssignment();
+    quizAssignment.setId(quizAssignmentId);
+    quizAssignment.setQuiz(quiz);
+    when(quizAssignmentService.beginGrading(quizAssignmentId)).thenReturn(quizAssignment);
+  }
+
+  private void awaitStatus(String id, GradingJobStatus status) {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (gradingJobService.findById(id).getStatus() != status
+        && System.currentTimeMillis() < deadline) {
+      Thread.onSpinWait();
+    }
+    assertEquals(status, gradingJobService.findById(id).getStatus());
+  }
+}
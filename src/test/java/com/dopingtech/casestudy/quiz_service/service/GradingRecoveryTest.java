@@ -0,0 +1,90 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dopingtech.casestudy.quiz_service.QuizFixtures;
+import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest
+class GradingRecoveryTest {
+
+  @Autowired
+  private QuizFixtures fixtures;
+
+  @Autowired
+  private QuizAssignmentService quizAssignmentService;
+
+  @Autowired
+  private GradingJobService gradingJobService;
+
+  @Autowired
+  private QuizAssignmentRepository quizAssignmentRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  public void cancelGrading_shouldRestoreStatusAssignmentHadBeforeGrading() {
+    Long quizId = fixtures.createQuiz("Grading Recovery Quiz 1");
+    Long assignedId = fixtures.createAssignment("81000", quizId);
+    Long inProgressId = fixtures.createAssignment("81001", quizId);
+    quizAssignmentService.startQuiz(inProgressId);
+    quizAssignmentService.beginGrading(assignedId);
+    quizAssignmentService.beginGrading(inProgressId);
+
+    quizAssignmentService.cancelGrading(List.of(assignedId, inProgressId));
+
+    assertEquals(QuizAssignmentStatus.ASSIGNED, statusOf(assignedId));
+    assertEquals(QuizAssignmentStatus.IN_PROGRESS, statusOf(inProgressId));
+    QuizAssignment restored = quizAssignmentRepository.findById(assignedId).orElseThrow();
+    assertNull(restored.getStatusBeforeGrading());
+    assertNull(restored.getGradingStartedAt());
+  }
+
+  @Test
+  public void gradeQuizAssignments_shouldClearGradingStateWhenCompleting() {
+    Long quizId = fixtures.createQuiz("Grading Recovery Quiz 3");
+    Long gradedId = fixtures.startQuiz("81004", quizId);
+    quizAssignmentService.beginGrading(gradedId);
+
+    quizAssignmentService.gradeQuizAssignments(quizId, List.of(gradedId));
+
+    QuizAssignment graded = quizAssignmentRepository.findById(gradedId).orElseThrow();
+    assertEquals(QuizAssignmentStatus.COMPLETED, graded.getStatus());
+    assertNull(graded.getStatusBeforeGrading());
+    assertNull(graded.getGradingStartedAt());
+  }
+
+  @Test
+  public void releaseStaleAssignments_shouldReopenAssignmentsLeftInGradingByLostJob() {
+    Long quizId = fixtures.createQuiz("Grading Recovery Quiz 2");
+    Long staleId = fixtures.createAssignment("81002", quizId);
+    Long recentId = fixtures.createAssignment("81003", quizId);
+    quizAssignmentService.startQuiz(staleId);
+    quizAssignmentService.startQuiz(recentId);
+    // Handed to jobs that never ran, as if their node had restarted
+    quizAssignmentService.beginGrading(staleId);
+    quizAssignmentService.beginGrading(recentId);
+    jdbcTemplate.update("UPDATE quiz_assignments SET grading_started_at = ? WHERE id = ?",
+        LocalDateTime.now().minusHours(1), staleId);
+
+    assertTrue(gradingJobService.releaseStaleAssignments() >= 1);
+
+    assertEquals(QuizAssignmentStatus.IN_PROGRESS, statusOf(staleId));
+    assertEquals(QuizAssignmentStatus.GRADING, statusOf(recentId));
+  }
+
+  private QuizAssignmentStatus statusOf(Long quizAssignmentId) {
+    return quizAssignmentRepository.findById(quizAssignmentId).orElseThrow().getStatus();
+  }
+}
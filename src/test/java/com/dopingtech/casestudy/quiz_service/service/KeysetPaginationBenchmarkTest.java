@@ -0,0 +1,102 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dopingtech.casestudy.quiz_service.model.dto.StudentInfoDTO;
+import com.dopingtech.casestudy.quiz_service.repository.StudentRepository;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest
+class KeysetPaginationBenchmarkTest {
+
+  private static final int PAGE_SIZE = 10;
+
+  private static final int DEEP_PAGE = 10_000;
+
+  private static final int STUDENTS = PAGE_SIZE * DEEP_PAGE;
+
+  private static final int WARM_UP = 200;
+
+  private static final int SAMPLES = 101;
+
+  @Autowired
+  private StudentRepository studentRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("DELETE FROM student WHERE last_name = 'Keyset'");
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void deepPage_shouldTakeAboutAsLongAsFirstPage() {
+    insertStudents();
+    List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM student ORDER BY id", Long.class);
+    long firstAfterId = 0;
+    long deepAfterId = ids.get(PAGE_SIZE * (DEEP_PAGE - 1) - 1);
+
+    long first = medianNanos(() -> studentRepository.findInfoPage(firstAfterId,
+        Limit.of(PAGE_SIZE + 1)));
+    long deep = medianNanos(() -> studentRepository.findInfoPage(deepAfterId,
+        Limit.of(PAGE_SIZE + 1)));
+    // The same page read with OFFSET, for comparison; it scans every row before the page
+    long offset = medianNanos(() -> jdbcTemplate.queryForList(
+        "SELECT id FROM student ORDER BY id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY", Long.class,
+        PAGE_SIZE * (DEEP_PAGE - 1), PAGE_SIZE + 1));
+
+    List<StudentInfoDTO> deepPage = studentRepository.findInfoPage(deepAfterId,
+        Limit.of(PAGE_SIZE + 1));
+    assertEquals(ids.get(PAGE_SIZE * (DEEP_PAGE - 1)), deepPage.get(0).getId());
+    String summary = "page 1: " + first / 1000 + " us, page " + DEEP_PAGE + ": " + deep / 1000
+        + " us, page " + DEEP_PAGE + " with OFFSET: " + offset / 1000 + " us";
+    assertTrue(deep <= Math.max(5 * first, first + 2_000_000), summary);
+  }
+
+  private void insertStudents() {
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO student (id, first_name, last_name, number) "
+            + "VALUES (NEXT VALUE FOR student_seq, ?, 'Keyset', ?)",
+        new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement statement, int i) throws SQLException {
+            statement.setString(1, "Student " + i);
+            statement.setString(2, String.format("8%08d", i));
+          }
+
+          @Override
+          public int getBatchSize() {
+            return STUDENTS;
+          }
+        });
+  }
+
+  private static long medianNanos(Supplier<?> query) {
+    for (int i = 0; i < WARM_UP; i++) {
+      query.get();
+    }
+    long[] samples = new long[SAMPLES];
+    for (int i = 0; i < SAMPLES; i++) {
+      long startedAt = System.nanoTime();
+      query.get();
+      samples[i] = System.nanoTime() - startedAt;
+    }
+    Arrays.sort(samples);
+    return samples[SAMPLES / 2];
+  }
+}
@@ -3,6 +3,7 @@ package com.dopingtech.casestudy.quiz_service.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -12,6 +13,7 @@ import com.dopingtech.casestudy.quiz_service.exception.QuestionNotFoundException
 import com.dopingtech.casestudy.quiz_service.model.dto.OptionDTO;
 import com.dopingtech.casestudy.quiz_service.model.entity.Option;
 import com.dopingtech.casestudy.quiz_service.model.entity.Question;
+import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
 import com.dopingtech.casestudy.quiz_service.repository.OptionRepository;
 import com.dopingtech.casestudy.quiz_service.repository.QuestionRepository;
 import java.util.Optional;
@@ -35,6 +37,9 @@ class OptionServiceTest {
   @Mock
   private QuestionRepository questionRepository;
 
+  @Mock
+  private QuizCacheEvictor quizCacheEvictor;
+
   private OptionDTO optionDTO;
   private Option option;
   private Question question;
@@ -45,8 +50,11 @@ class OptionServiceTest {
     optionDTO.setLetter("A");
     optionDTO.setText("Option Text");
     optionDTO.setQuestionId(1L);
+    Quiz quiz = new Quiz();
+    quiz.setId(1L);
     question = new Question();
     question.setId(1L);
+    question.setQuiz(quiz);
     option = new Option();
     option.setId(1L);
     option.setText(optionDTO.getText());
@@ -135,16 +143,26 @@ class OptionServiceTest {
 
   @Test
   public void deleteOption_shouldCallDeleteByIdMethodOnceWithGivenId() {
-    when(optionRepository.existsById(1L)).thenReturn(true);
+    when(optionRepository.findById(1L)).thenReturn(Optional.of(option));
 
     optionService.deleteOption(1L);
 
     verify(optionRepository, times(1)).deleteById(1L);
   }
 
+  @Test
+  public void deleteOption_shouldEvictContentOfQuizOnly() {
+    when(optionRepository.findById(1L)).thenReturn(Optional.of(option));
+
+    optionService.deleteOption(1L);
+
+    verify(quizCacheEvictor, times(1)).evictContent(1L);
+    verify(quizCacheEvictor, never()).evictView(any());
+  }
+
   @Test
   public void deleteOption_shouldThrowOptionNotFoundException() {
-    when(optionRepository.existsById(1L)).thenReturn(false);
+    when(optionRepository.findById(1L)).thenReturn(Optional.empty());
 
     assertThrows(OptionNotFoundException.class, () -> optionService.deleteOption(1L));
   }
@@ -0,0 +1,63 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PackedAnswerSheetTest {
+
+  @Test
+  public void set_shouldStoreAnswersAcrossByteBoundaries() {
+    PackedAnswerSheet sheet = PackedAnswerSheet.of(null, null);
+
+    for (int position = 0; position < 100; position++) {
+      sheet.set(position, (byte) (position % 6 + 1), position % 3 == 0);
+    }
+
+    for (int position = 0; position < 100; position++) {
+      assertEquals(position % 6 + 1, sheet.get(position));
+      assertEquals(position % 3 == 0, sheet.isCorrect(position));
+    }
+    assertEquals(100, sheet.answeredCount());
+    assertEquals(34, sheet.correctCount());
+    assertEquals(38, sheet.answers().length);
+  }
+
+  @Test
+  public void set_shouldOverwritePreviousAnswer() {
+    PackedAnswerSheet sheet = PackedAnswerSheet.of(null, null);
+    sheet.set(5, PackedAnswerSheet.encode("E"), true);
+
+    sheet.set(5, PackedAnswerSheet.encode("A"), false);
+
+    assertEquals("A", PackedAnswerSheet.decode(sheet.get(5)));
+    assertFalse(sheet.isCorrect(5));
+    assertEquals(1, sheet.answeredCount());
+    assertEquals(0, sheet.correctCount());
+  }
+
+  @Test
+  public void encode_shouldDistinguishBlankFromUnanswered() {
+    PackedAnswerSheet sheet = PackedAnswerSheet.of(null, null);
+    sheet.set(1, PackedAnswerSheet.encode(""), false);
+
+    assertEquals(PackedAnswerSheet.UNANSWERED, sheet.get(0));
+    assertEquals(PackedAnswerSheet.BLANK, sheet.get(1));
+    assertEquals("", PackedAnswerSheet.decode(sheet.get(1)));
+    assertEquals(1, sheet.answeredCount());
+  }
+
+  @Test
+  public void of_shouldRoundTripStoredBytes() {
+    PackedAnswerSheet sheet = PackedAnswerSheet.of(null, null);
+    sheet.set(7, PackedAnswerSheet.encode("C"), true);
+
+    PackedAnswerSheet restored = PackedAnswerSheet.of(sheet.answers(), sheet.correct());
+
+    assertEquals("C", PackedAnswerSheet.decode(restored.get(7)));
+    assertTrue(restored.isCorrect(7));
+    assertEquals(PackedAnswerSheet.UNANSWERED, restored.get(500));
+  }
+}
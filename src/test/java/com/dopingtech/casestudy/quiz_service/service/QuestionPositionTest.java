@@ -0,0 +1,68 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static com.dopingtech.casestudy.quiz_service.QuizFixtures.question;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.dopingtech.casestudy.quiz_service.QuizFixtures;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuestionDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuestionDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizDocumentDTO;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class QuestionPositionTest {
+
+  @Autowired
+  private QuizFixtures fixtures;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private QuestionService questionService;
+
+  @Test
+  public void createQuestion_shouldNotReusePositionOfDeletedLastQuestion() {
+    QuizDTO quizDTO = new QuizDTO();
+    quizDTO.setName("Position Quiz");
+    Long quizId = quizService.createQuiz(quizDTO).getId();
+    questionService.createQuestion(question(quizId, "First", "A"));
+    Long lastId = questionService.createQuestion(question(quizId, "Second", "A")).getId();
+
+    questionService.deleteQuestion(lastId);
+
+    assertEquals(2, questionService.createQuestion(question(quizId, "Third", "A")).getPosition());
+  }
+
+  @Test
+  public void createQuestion_shouldContinueAfterPositionsOfImportedQuiz() {
+    QuizDocumentDTO document = new QuizDocumentDTO();
+    document.setName("Imported Position Quiz");
+    document.setQuestions(List.of(documentQuestion("First"), documentQuestion("Second")));
+    Long quizId = quizService.importQuiz(document).getId();
+
+    assertEquals(2, questionService.createQuestion(question(quizId, "Third", "A")).getPosition());
+  }
+
+  @Test
+  public void updateQuestion_shouldTakeNewPositionInTargetQuiz() {
+    Long sourceQuizId = fixtures.createQuiz("Source Position Quiz");
+    Long targetQuizId = fixtures.createQuiz("Target Position Quiz");
+    Long movedId = fixtures.createQuestion(sourceQuizId, "Moved");
+    questionService.deleteQuestion(fixtures.createQuestion(targetQuizId, "Target"));
+
+    QuestionDTO moved = question(targetQuizId, "Moved", "A");
+    assertEquals(1, questionService.updateQuestion(movedId, moved).getPosition());
+  }
+
+  private static QuestionDocumentDTO documentQuestion(String text) {
+    QuestionDocumentDTO questionDocument = new QuestionDocumentDTO();
+    questionDocument.setText(text);
+    questionDocument.setCorrectAnswer("A");
+    return questionDocument;
+  }
+}
@@ -29,6 +29,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 class QuestionServiceTest {
 
+  @Mock
+  private ExistenceIndex existenceIndex;
+
   @InjectMocks
   private QuestionService questionService;
 
@@ -41,6 +44,12 @@ class QuestionServiceTest {
   @Mock
   private OptionRepository optionRepository;
 
+  @Mock
+  private AnswerKeyIndex answerKeyIndex;
+
+  @Mock
+  private QuizCacheEvictor quizCacheEvictor;
+
   private Question question;
   private QuestionDTO questionDTO;
   private Quiz quiz;
@@ -115,7 +124,7 @@ class QuestionServiceTest {
 
   @Test
   public void findOptionsByQuestionId_shouldReturnOptions() {
-    when(questionRepository.existsById(1L)).thenReturn(true);
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUESTION, 1L)).thenReturn(true);
     when(optionRepository.findByQuestionId(1L)).thenReturn(Collections.singletonList(option));
 
     List<Option> options = questionService.findOptionsByQuestionId(1L);
@@ -125,7 +134,7 @@ class QuestionServiceTest {
 
   @Test
   public void findOptionsByQuestionId_shouldCallFindByQuestionIdMethodOnce() {
-    when(questionRepository.existsById(1L)).thenReturn(true);
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUESTION, 1L)).thenReturn(true);
     when(optionRepository.findByQuestionId(1L)).thenReturn(Collections.singletonList(option));
 
     questionService.findOptionsByQuestionId(1L);
@@ -136,7 +145,7 @@ class QuestionServiceTest {
   @Test
   public void findOptionsByQuestionId_shouldThrowQuestionNotFoundException() {
     Long questionId = 1L;
-    when(questionRepository.existsById(questionId)).thenReturn(false);
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUESTION, questionId)).thenReturn(false);
 
     assertThrows(QuestionNotFoundException.class, () -> {
       questionService.findOptionsByQuestionId(questionId);
@@ -196,16 +205,100 @@ class QuestionServiceTest {
 
   @Test
   public void deleteQuestion_shouldCallDeleteByIdMethodOnce() {
-    when(questionRepository.existsById(1L)).thenReturn(true);
+    when(questionRepository.findById(1L)).thenReturn(Optional.of(question));
 
     questionService.deleteQuestion(1L);
 
     verify(questionRepository, times(1)).deleteById(1L);
   }
 
+  @Test
+  public void createQuestion_shouldPutCorrectAnswerIntoAnswerKeyIndex() {
+    when(quizRepository.findById(1L)).thenReturn(Optional.of(quiz));
+    when(questionRepository.save(any(Question.class))).thenReturn(question);
+
+    questionService.createQuestion(questionDTO);
+
+    verify(answerKeyIndex, times(1)).added(1L, 1L, 0, "A");
+  }
+
+  @Test
+  public void createQuestion_shouldAssignNextPositionInQuiz() {
+    when(quizRepository.findById(1L)).thenReturn(Optional.of(quiz));
+    when(quizRepository.allocateQuestionPosition(1L)).thenReturn(3);
+    when(questionRepository.save(any(Question.class))).thenAnswer(
+        invocation -> invocation.getArgument(0));
+
+    Question createdQuestion = questionService.createQuestion(questionDTO);
+
+    assertEquals(3, createdQuestion.getPosition());
+  }
+
+  @Test
+  public void deleteQuestion_shouldRemoveQuestionFromAnswerKeyIndex() {
+    when(questionRepository.findById(1L)).thenReturn(Optional.of(question));
+
+    questionService.deleteQuestion(1L);
+
+    verify(answerKeyIndex, times(1)).remove(1L);
+  }
+
+  @Test
+  public void createQuestion_shouldIncrementQuestionCountOfQuiz() {
+    when(quizRepository.findById(1L)).thenReturn(Optional.of(quiz));
+    when(questionRepository.save(any(Question.class))).thenReturn(question);
+
+    questionService.createQuestion(questionDTO);
+
+    verify(quizRepository, times(1)).addToQuestionCount(1L, 1);
+  }
+
+  @Test
+  public void updateQuestion_shouldMoveQuestionCountToNewQuiz() {
+    Quiz otherQuiz = new Quiz();
+    otherQuiz.setId(2L);
+    questionDTO.setQuizId(2L);
+    when(quizRepository.findById(2L)).thenReturn(Optional.of(otherQuiz));
+    when(questionRepository.findById(1L)).thenReturn(Optional.of(question));
+    when(questionRepository.save(any(Question.class))).thenReturn(question);
+
+    questionService.updateQuestion(1L, questionDTO);
+
+    verify(quizRepository, times(1)).addToQuestionCount(1L, -1);
+    verify(quizRepository, times(1)).addToQuestionCount(2L, 1);
+  }
+
+  @Test
+  public void updateQuestion_shouldEvictBothQuizzesByKey() {
+    Quiz otherQuiz = new Quiz();
+    otherQuiz.setId(2L);
+    questionDTO.setQuizId(2L);
+    when(quizRepository.findById(2L)).thenReturn(Optional.of(otherQuiz));
+    when(questionRepository.findById(1L)).thenReturn(Optional.of(question));
+    when(questionRepository.save(any(Question.class))).thenReturn(question);
+
+    questionService.updateQuestion(1L, questionDTO);
+
+    verify(quizCacheEvictor, times(1)).evictContent(1L);
+    verify(quizCacheEvictor, times(1)).evictContent(2L);
+    verify(quizCacheEvictor, times(1)).evictView(1L);
+    verify(quizCacheEvictor, times(1)).evictView(2L);
+  }
+
+  @Test
+  public void deleteQuestion_shouldDecrementQuestionCountOfQuiz() {
+    when(questionRepository.findById(1L)).thenReturn(Optional.of(question));
+
+    questionService.deleteQuestion(1L);
+
+    verify(quizRepository, times(1)).addToQuestionCount(1L, -1);
+    verify(quizCacheEvictor, times(1)).evictContent(1L);
+    verify(quizCacheEvictor, times(1)).evictView(1L);
+  }
+
   @Test
   public void deleteQuestion_NonExistingId_ThrowsException() {
-    when(questionRepository.existsById(1L)).thenReturn(false);
+    when(questionRepository.findById(1L)).thenReturn(Optional.empty());
 
     assertThrows(QuestionNotFoundException.class, () -> questionService.deleteQuestion(1L));
   }
@@ -1,41 +1,70 @@
 package com.dopingtech.casestudy.quiz_service.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.dopingtech.casestudy.quiz_service.exception.QuestionNotFoundException;
+import com.dopingtech.casestudy.quiz_service.exception.QuestionNotInQuizException;
 import com.dopingtech.casestudy.quiz_service.exception.QuizAssignmentNotFoundException;
 import com.dopingtech.casestudy.quiz_service.exception.QuizCompletedAlreadyException;
 import com.dopingtech.casestudy.quiz_service.exception.QuizNotFoundException;
 import com.dopingtech.casestudy.quiz_service.exception.QuizNotInProgressException;
 import com.dopingtech.casestudy.quiz_service.exception.StudentNotFoundException;
 import com.dopingtech.casestudy.quiz_service.model.dto.AnswerDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.AnswerResultDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.AnswerSheetDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.AnswerSheetItemDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.CursorPageDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.QuizAssignmentDTO;
 import com.dopingtech.casestudy.quiz_service.model.entity.Answer;
 import com.dopingtech.casestudy.quiz_service.model.entity.Question;
 import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
 import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
+import com.dopingtech.casestudy.quiz_service.model.entity.Student;
+import com.dopingtech.casestudy.quiz_service.model.enums.AnswerStorageMode;
 import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.model.projection.GradedAnswer;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizSession;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizAssignmentView;
+import com.dopingtech.casestudy.quiz_service.repository.AnswerBatchRepository;
 import com.dopingtech.casestudy.quiz_service.repository.AnswerRepository;
 import com.dopingtech.casestudy.quiz_service.repository.QuestionRepository;
 import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
 import com.dopingtech.casestudy.quiz_service.repository.QuizRepository;
 import com.dopingtech.casestudy.quiz_service.repository.StudentRepository;
-import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
 public class QuizAssignmentServiceTest {
@@ -47,7 +76,16 @@ public class QuizAssignmentServiceTest {
   private AnswerRepository answerRepository;
 
   @Mock
-  private QuestionRepository questionRepository;
+  private AnswerBatchRepository answerBatchRepository;
+
+  @Mock
+  private AnswerWriteBuffer answerWriteBuffer;
+
+  @Mock
+  private AnswerKeyIndex answerKeyIndex;
+
+  @Mock
+  private QuizSessionRegistry sessionRegistry;
 
   @Mock
   private StudentRepository studentRepository;
@@ -55,14 +93,37 @@ public class QuizAssignmentServiceTest {
   @Mock
   private QuizRepository quizRepository;
 
+  @Mock
+  private QuestionRepository questionRepository;
+
+  @Mock
+  private AggregateVersions aggregateVersions;
+
+  @Mock
+  private ExistenceIndex existenceIndex;
+
+  @Spy
+  private CursorPagination cursorPagination = new CursorPagination();
+
   @InjectMocks
   private QuizAssignmentService quizAssignmentService;
 
+  private static final Set<QuizAssignmentStatus> OPEN =
+      EnumSet.of(QuizAssignmentStatus.ASSIGNED, QuizAssignmentStatus.IN_PROGRESS);
+
+  private static final Set<QuizAssignmentStatus> IN_PROGRESS =
+      EnumSet.of(QuizAssignmentStatus.IN_PROGRESS);
+
+  private static final Set<QuizAssignmentStatus> GRADING =
+      EnumSet.of(QuizAssignmentStatus.GRADING);
+
   private QuizAssignmentDTO quizAssignmentDTO;
   private AnswerDTO answerDTO;
 
   @BeforeEach
   public void setUp() {
+    ReflectionTestUtils.setField(cursorPagination, "defaultSize", 50);
+    ReflectionTestUtils.setField(cursorPagination, "maxSize", 500);
     quizAssignmentDTO = new QuizAssignmentDTO();
     quizAssignmentDTO.setStudentId(1L);
     quizAssignmentDTO.setQuizId(1L);
@@ -71,34 +132,46 @@ public class QuizAssignmentServiceTest {
     answerDTO.setQuizAssignmentId(1L);
     answerDTO.setQuestionId(1L);
     answerDTO.setSelectedOption("A");
+
+    // Assignment 1 of quiz 1 is in progress, and its answers belong to quiz 1
+    lenient().when(sessionRegistry.get(1L))
+        .thenReturn(new QuizSession(1L, QuizAssignmentStatus.IN_PROGRESS, 3L));
+    lenient().when(answerKeyIndex.belongsTo(anyLong(), eq(1L))).thenReturn(true);
   }
 
 
   @Test
-  public void findAll_shouldReturnAllQuizAssignments() {
-    QuizAssignment assignment = new QuizAssignment();
-    when(quizAssignmentRepository.findAll()).thenReturn(Collections.singletonList(assignment));
-
-    List<QuizAssignment> assignments = quizAssignmentService.findAll();
-
-    assertEquals(Collections.singletonList(assignment), assignments);
+  public void findPage_shouldLoadAssignmentsOfIdPage() {
+    QuizAssignment first = new QuizAssignment();
+    first.setId(1L);
+    QuizAssignment second = new QuizAssignment();
+    second.setId(2L);
+    when(quizAssignmentRepository.findIdPage(0L, Limit.of(3))).thenReturn(List.of(1L, 2L, 3L));
+    when(quizAssignmentRepository.findByIdInOrderById(List.of(1L, 2L)))
+        .thenReturn(List.of(first, second));
+
+    CursorPageDTO<QuizAssignment> result = quizAssignmentService.findPage(null, 2);
+
+    assertEquals(List.of(first, second), result.getItems());
+    assertEquals(new CursorPagination().cursorOf(2L), result.getNextCursor());
   }
 
   @Test
-  public void findAll_shouldCallFindAllMethodOnce() {
-    QuizAssignment assignment = new QuizAssignment();
-    when(quizAssignmentRepository.findAll()).thenReturn(Collections.singletonList(assignment));
+  public void findPage_shouldNotLoadAssignmentsPastLastPage() {
+    when(quizAssignmentRepository.findIdPage(7L, Limit.of(51))).thenReturn(List.of());
 
-    quizAssignmentService.findAll();
+    CursorPageDTO<QuizAssignment> result =
+        quizAssignmentService.findPage(new CursorPagination().cursorOf(7L), null);
 
-    verify(quizAssignmentRepository, times(1)).findAll();
+    assertTrue(result.getItems().isEmpty());
+    verify(quizAssignmentRepository, never()).findByIdInOrderById(anyCollection());
   }
 
   @Test
   public void testFindAnswersByQuizAssignmentId_ShouldReturnAnswers() {
     Long quizAssignmentId = 1L;
     Answer answer = new Answer();
-    when(quizAssignmentRepository.existsById(quizAssignmentId)).thenReturn(true);
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, quizAssignmentId)).thenReturn(true);
     when(answerRepository.findByQuizAssignmentId(quizAssignmentId)).thenReturn(
         Collections.singletonList(answer));
 
@@ -123,7 +196,7 @@ public class QuizAssignmentServiceTest {
   public void findAnswersByQuizAssignmentId_shouldThrowQuizAssignmentNotFoundException() {
     Long quizAssignmentId = 1L;
 
-    when(quizAssignmentRepository.existsById(quizAssignmentId)).thenReturn(false);
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, quizAssignmentId)).thenReturn(false);
 
     assertThrows(QuizAssignmentNotFoundException.class, () -> {
       quizAssignmentService.findAnswersByQuizAssignmentId(quizAssignmentId);
@@ -133,29 +206,29 @@ public class QuizAssignmentServiceTest {
   @Test
   public void findById_shouldReturnQuizAssignment() {
     Long id = 1L;
-    QuizAssignment assignment = new QuizAssignment();
-    when(quizAssignmentRepository.findById(id)).thenReturn(Optional.of(assignment));
+    QuizAssignmentView assignment = view(id);
+    when(quizAssignmentRepository.findViewById(id)).thenReturn(Optional.of(assignment));
 
-    QuizAssignment result = quizAssignmentService.findById(id);
+    QuizAssignmentView result = quizAssignmentService.findById(id);
 
     assertEquals(assignment, result);
   }
 
   @Test
-  public void findById_shouldCallFindByIdMethodOnce() {
+  public void findById_shouldReadProjectionInsteadOfEntity() {
     Long id = 1L;
-    QuizAssignment assignment = new QuizAssignment();
-    when(quizAssignmentRepository.findById(id)).thenReturn(Optional.of(assignment));
+    when(quizAssignmentRepository.findViewById(id)).thenReturn(Optional.of(view(id)));
 
     quizAssignmentService.findById(id);
 
-    verify(quizAssignmentRepository, times(1)).findById(id);
+    verify(quizAssignmentRepository, times(1)).findViewById(id);
+    verify(quizAssignmentRepository, never()).findById(id);
   }
 
   @Test
   public void findById_shouldThrowQuizAssignmentNotFoundException() {
     Long id = 1L;
-    when(quizAssignmentRepository.findById(id)).thenReturn(Optional.empty());
+    when(quizAssignmentRepository.findViewById(id)).thenReturn(Optional.empty());
 
     assertThrows(QuizAssignmentNotFoundException.class, () -> quizAssignmentService.findById(id));
   }
@@ -165,8 +238,8 @@ public class QuizAssignmentServiceTest {
     QuizAssignment quizAssignment = new QuizAssignment();
     quizAssignment.setId(1L);
 
-    when(studentRepository.existsById(1L)).thenReturn(true);
-    when(quizRepository.existsById(1L)).thenReturn(true);
+    when(existenceIndex.exists(ExistenceIndex.Kind.STUDENT, 1L)).thenReturn(true);
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 1L)).thenReturn(true);
     when(quizAssignmentRepository.save(any(QuizAssignment.class))).thenReturn(quizAssignment);
 
     QuizAssignment createdAssignment =
@@ -177,8 +250,10 @@ public class QuizAssignmentServiceTest {
 
   @Test
   public void createQuizAssignment_shouldCallSavedMethodOnce() {
-    when(studentRepository.existsById(1L)).thenReturn(true);
-    when(quizRepository.existsById(1L)).thenReturn(true);
+    when(existenceIndex.exists(ExistenceIndex.Kind.STUDENT, 1L)).thenReturn(true);
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 1L)).thenReturn(true);
+    when(quizAssignmentRepository.save(any(QuizAssignment.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
 
     quizAssignmentService.createQuizAssignment(quizAssignmentDTO);
 
@@ -187,7 +262,7 @@ public class QuizAssignmentServiceTest {
 
   @Test
   public void createQuizAssignment_shouldThrowStudentNotFoundException() {
-    doReturn(false).when(studentRepository).existsById(1L);
+    doReturn(false).when(existenceIndex).exists(ExistenceIndex.Kind.STUDENT, 1L);
 
     assertThrows(StudentNotFoundException.class, () -> {
       quizAssignmentService.createQuizAssignment(quizAssignmentDTO);
@@ -196,8 +271,8 @@ public class QuizAssignmentServiceTest {
 
   @Test
   public void createQuizAssignment_shouldThrowQuizNotFoundException() {
-    doReturn(true).when(studentRepository).existsById(1L);
-    doReturn(false).when(quizRepository).existsById(1L);
+    doReturn(true).when(existenceIndex).exists(ExistenceIndex.Kind.STUDENT, 1L);
+    doReturn(false).when(existenceIndex).exists(ExistenceIndex.Kind.QUIZ, 1L);
 
     assertThrows(QuizNotFoundException.class, () -> {
       quizAssignmentService.createQuizAssignment(quizAssignmentDTO);
@@ -205,29 +280,43 @@ public class QuizAssignmentServiceTest {
   }
 
   @Test
-  public void startQuiz_ShouldUpdateStatusToInProgress() {
+  public void startQuiz_ShouldTransitionOpenAssignmentToInProgress() {
     Long quizAssignmentId = 1L;
-    QuizAssignment assignment = new QuizAssignment();
-    assignment.setStatus(QuizAssignmentStatus.ASSIGNED);
-
-    when(quizAssignmentRepository.findById(quizAssignmentId)).thenReturn(Optional.of(assignment));
+    when(quizAssignmentRepository.findById(quizAssignmentId)).thenReturn(
+        Optional.of(assignmentOfQuiz(1L, QuizAssignmentStatus.ASSIGNED)));
+    when(quizAssignmentRepository.transition(List.of(quizAssignmentId), OPEN,
+        QuizAssignmentStatus.IN_PROGRESS)).thenReturn(1);
 
     quizAssignmentService.startQuiz(quizAssignmentId);
 
-    assertEquals(QuizAssignmentStatus.IN_PROGRESS, assignment.getStatus());
+    verify(quizAssignmentRepository, times(1)).transition(List.of(quizAssignmentId), OPEN,
+        QuizAssignmentStatus.IN_PROGRESS);
   }
 
   @Test
-  public void startQuiz_shouldCallSavedMethodOnce() {
+  public void startQuiz_shouldNotSaveWholeEntity() {
     Long quizAssignmentId = 1L;
-    QuizAssignment assignment = new QuizAssignment();
-    assignment.setStatus(QuizAssignmentStatus.ASSIGNED);
+    when(quizAssignmentRepository.findById(quizAssignmentId)).thenReturn(
+        Optional.of(assignmentOfQuiz(1L, QuizAssignmentStatus.ASSIGNED)));
+    when(quizAssignmentRepository.transition(List.of(quizAssignmentId), OPEN,
+        QuizAssignmentStatus.IN_PROGRESS)).thenReturn(1);
 
-    when(quizAssignmentRepository.findById(quizAssignmentId)).thenReturn(Optional.of(assignment));
+    quizAssignmentService.startQuiz(quizAssignmentId);
+
+    verify(quizAssignmentRepository, never()).save(any(QuizAssignment.class));
+  }
+
+  @Test
+  public void startQuiz_shouldLoadAnswerKeyOfQuiz() {
+    Long quizAssignmentId = 1L;
+    when(quizAssignmentRepository.findById(quizAssignmentId)).thenReturn(
+        Optional.of(assignmentOfQuiz(2L, QuizAssignmentStatus.ASSIGNED)));
+    when(quizAssignmentRepository.transition(List.of(quizAssignmentId), OPEN,
+        QuizAssignmentStatus.IN_PROGRESS)).thenReturn(1);
 
     quizAssignmentService.startQuiz(quizAssignmentId);
 
-    verify(quizAssignmentRepository, times(1)).save(assignment);
+    verify(answerKeyIndex, times(1)).loadQuiz(2L);
   }
 
   @Test
@@ -243,100 +332,431 @@ public class QuizAssignmentServiceTest {
   @Test
   public void startQuiz_ShouldThrowQuizCompletedAlreadyException() {
     Long quizAssignmentId = 1L;
-    QuizAssignment completedAssignment = new QuizAssignment();
-    completedAssignment.setStatus(QuizAssignmentStatus.COMPLETED);
-
-    when(quizAssignmentRepository.findById(quizAssignmentId)).thenReturn(Optional.of(completedAssignment));
+    when(quizAssignmentRepository.findById(quizAssignmentId)).thenReturn(
+        Optional.of(assignmentOfQuiz(1L, QuizAssignmentStatus.COMPLETED)));
+    when(quizAssignmentRepository.transition(List.of(quizAssignmentId), OPEN,
+        QuizAssignmentStatus.IN_PROGRESS)).thenReturn(0);
 
     assertThrows(QuizCompletedAlreadyException.class, () -> {
       quizAssignmentService.startQuiz(quizAssignmentId);
     });
+    verify(answerKeyIndex, never()).loadQuiz(any());
+  }
+
+  @Test
+  public void answerQuestion_shouldUpsertAnswerInOneStatement() {
+    stubExists(1L);
+    stubClaim(1L, 1);
+    when(answerKeyIndex.isCorrect(1L, "A")).thenReturn(true);
+
+    quizAssignmentService.answerQuestion(answerDTO);
+
+    verify(answerRepository, times(1)).upsert(1L, 1L, "A", true);
+    verify(answerRepository, never()).save(any(Answer.class));
   }
 
   @Test
-  public void answerQuestion_shouldCallSavedMethodOnce() {
-    Question question = new Question();
-    question.setCorrectAnswer("A");
+  public void answerQuestion_shouldCountNewAnswerWhenClaimingAssignment() {
+    stubExists(1L);
+    stubClaim(1L, 1);
+    when(answerKeyIndex.isCorrect(1L, "A")).thenReturn(true);
 
+    quizAssignmentService.answerQuestion(answerDTO);
+
+    InOrder inOrder = inOrder(answerRepository, quizAssignmentRepository);
+    inOrder.verify(answerRepository).upsert(1L, 1L, "A", true);
+    inOrder.verify(quizAssignmentRepository).addAnswerCounts(1L,
+        QuizAssignmentStatus.IN_PROGRESS, 1, 1);
+    verify(quizAssignmentRepository, never()).recountAnswers(anyCollection());
+  }
+
+  @Test
+  public void answerQuestion_shouldApplyChangeOfReplacedAnswerWithoutRecount() {
+    stubExists(1L);
+    stubClaim(1L, 1);
+    when(answerKeyIndex.isCorrect(1L, "A")).thenReturn(false);
+    when(answerRepository.upsert(1L, 1L, "A", false)).thenReturn(List.of(true));
+
+    quizAssignmentService.answerQuestion(answerDTO);
+
+    verify(quizAssignmentRepository, times(1)).addAnswerCounts(1L,
+        QuizAssignmentStatus.IN_PROGRESS, 0, -1);
+    verify(quizAssignmentRepository, never()).recountAnswers(anyCollection());
+  }
+
+  @Test
+  public void answerQuestion_shouldPackAnswerIntoAssignmentWhenStorageIsPacked() {
+    ReflectionTestUtils.setField(quizAssignmentService, "answerStorage", AnswerStorageMode.PACKED);
     QuizAssignment quizAssignment = new QuizAssignment();
     quizAssignment.setStatus(QuizAssignmentStatus.IN_PROGRESS);
 
-    when(quizAssignmentRepository.findById(answerDTO.getQuizAssignmentId())).thenReturn(
-        Optional.of(quizAssignment));
-    when(answerRepository.findByQuizAssignmentIdAndQuestionId(1L, 1L)).thenReturn(null);
-    when(questionRepository.findById(1L)).thenReturn(Optional.of(question));
+    stubClaim(1L, 1);
+    when(quizAssignmentRepository.findById(1L)).thenReturn(Optional.of(quizAssignment));
+    when(answerKeyIndex.isCorrect(1L, "A")).thenReturn(true);
+    when(answerKeyIndex.positionOf(1L)).thenReturn(2);
 
     quizAssignmentService.answerQuestion(answerDTO);
 
-    verify(answerRepository, times(1)).save(any(Answer.class));
+    PackedAnswerSheet sheet = PackedAnswerSheet.of(quizAssignment.getPackedAnswers(),
+        quizAssignment.getPackedCorrect());
+    assertEquals(PackedAnswerSheet.encode("A"), sheet.get(2));
+    assertTrue(sheet.isCorrect(2));
+    assertEquals(1, quizAssignment.getAnsweredCount());
+    assertEquals(1, quizAssignment.getCorrectAnswerCount());
+    verify(quizAssignmentRepository, times(1)).save(quizAssignment);
+    verify(answerRepository, never()).upsert(any(), any(), any(), anyBoolean());
+    verify(quizAssignmentRepository, never()).recountAnswers(anyCollection());
+  }
+
+  @Test
+  public void findAnswersByQuizAssignmentId_shouldUnpackAnswersWhenStorageIsPacked() {
+    ReflectionTestUtils.setField(quizAssignmentService, "answerStorage", AnswerStorageMode.PACKED);
+    Quiz quiz = new Quiz();
+    quiz.setId(1L);
+    Question answered = new Question();
+    answered.setId(1L);
+    answered.setPosition(0);
+    Question unanswered = new Question();
+    unanswered.setId(2L);
+    unanswered.setPosition(1);
+    PackedAnswerSheet sheet = PackedAnswerSheet.of(null, null);
+    sheet.set(0, PackedAnswerSheet.encode("B"), false);
+    QuizAssignment quizAssignment = new QuizAssignment();
+    quizAssignment.setQuiz(quiz);
+    quizAssignment.setPackedAnswers(sheet.answers());
+    quizAssignment.setPackedCorrect(sheet.correct());
+
+    when(quizAssignmentRepository.findById(1L)).thenReturn(Optional.of(quizAssignment));
+    when(questionRepository.findByQuizId(1L)).thenReturn(List.of(answered, unanswered));
+
+    List<Answer> answers = quizAssignmentService.findAnswersByQuizAssignmentId(1L);
+
+    assertEquals(1, answers.size());
+    assertEquals(answered, answers.get(0).getQuestion());
+    assertEquals("B", answers.get(0).getSelectedOption());
+    assertFalse(answers.get(0).isCorrect());
+  }
+
+  @Test
+  public void answerQuestion_shouldBufferAnswerAtSessionVersionWithoutClaim() {
+    when(answerWriteBuffer.isEnabled()).thenReturn(true);
+    when(answerWriteBuffer.add(eq(1L), eq(3L), any())).thenReturn(true);
+    when(answerKeyIndex.isCorrect(1L, "A")).thenReturn(true);
+
+    quizAssignmentService.answerQuestion(answerDTO);
+
+    verify(answerWriteBuffer, times(1)).add(1L, 3L, List.of(new GradedAnswer(1L, 1L, "A", true)));
+    verify(quizAssignmentRepository, never()).addAnswerCounts(any(), any(), anyInt(), anyInt());
+    verify(answerRepository, never()).upsert(any(), any(), any(), anyBoolean());
+  }
+
+  @Test
+  public void answerQuestion_withBufferClosedByCompletion_shouldReject() {
+    when(answerWriteBuffer.isEnabled()).thenReturn(true);
+    when(answerWriteBuffer.add(eq(1L), eq(3L), any())).thenReturn(false);
+
+    assertThrows(QuizNotInProgressException.class,
+        () -> quizAssignmentService.answerQuestion(answerDTO));
+  }
+
+  @Test
+  public void answerQuestion_withBufferAndSessionNotInProgress_shouldRejectWithoutWriting() {
+    when(answerWriteBuffer.isEnabled()).thenReturn(true);
+    when(sessionRegistry.get(1L))
+        .thenReturn(new QuizSession(1L, QuizAssignmentStatus.COMPLETED, 4L));
+
+    assertThrows(QuizNotInProgressException.class,
+        () -> quizAssignmentService.answerQuestion(answerDTO));
+    verify(quizAssignmentRepository, never()).addAnswerCounts(any(), any(), anyInt(), anyInt());
+    verify(answerWriteBuffer, never()).add(any(), anyLong(), any());
   }
 
   @Test
   public void answerQuestion_shouldThrowQuizAssignmentNotFoundException() {
-    when(quizAssignmentRepository.findById(1L)).thenReturn(Optional.empty());
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, 1L)).thenReturn(false);
+
+    assertThrows(QuizAssignmentNotFoundException.class,
+        () -> quizAssignmentService.answerQuestion(answerDTO));
+    verify(answerRepository, never()).upsert(any(), any(), any(), anyBoolean());
+  }
+
+  @Test
+  public void answerQuestion_shouldThrowQuizAssignmentNotFoundExceptionForUnknownQuiz() {
+    when(sessionRegistry.get(1L)).thenThrow(new QuizAssignmentNotFoundException(1L));
 
     assertThrows(QuizAssignmentNotFoundException.class,
         () -> quizAssignmentService.answerQuestion(answerDTO));
+    verify(answerKeyIndex, never()).isCorrect(any(), any());
+  }
+
+  @Test
+  public void answerQuestion_shouldRejectQuestionOfAnotherQuiz() {
+    when(answerKeyIndex.belongsTo(1L, 1L)).thenReturn(false);
+
+    assertThrows(QuestionNotInQuizException.class,
+        () -> quizAssignmentService.answerQuestion(answerDTO));
+    verify(answerRepository, never()).upsert(any(), any(), any(), anyBoolean());
+    verify(quizAssignmentRepository, never()).addAnswerCounts(any(), any(), anyInt(), anyInt());
   }
 
   @Test
   public void answerQuestion_shouldThrowQuizNotInProgressException() {
+    stubExists(1L);
+    stubClaim(1L, 0);
+
+    assertThrows(QuizNotInProgressException.class,
+        () -> quizAssignmentService.answerQuestion(answerDTO));
+  }
+
+  @Test
+  public void answerQuestions_shouldUpsertGradedAnswersInOneBatch() {
+    AnswerSheetDTO answerSheetDTO = new AnswerSheetDTO();
+    answerSheetDTO.setAnswers(List.of(new AnswerSheetItemDTO(1L, "A"),
+        new AnswerSheetItemDTO(2L, "B"), new AnswerSheetItemDTO(1L, "C")));
+
+    stubExists(1L);
+    stubClaim(1L, 1);
+    when(answerKeyIndex.isCorrect(1L, "C")).thenReturn(true);
+    when(answerKeyIndex.isCorrect(2L, "B")).thenReturn(false);
+    when(answerBatchRepository.upsertReturningPrevious(anyCollection())).thenReturn(
+        List.of(false));
+
+    List<AnswerResultDTO> results = quizAssignmentService.answerQuestions(1L, answerSheetDTO);
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<GradedAnswer>> captor = ArgumentCaptor.forClass(List.class);
+    verify(answerBatchRepository, times(1)).upsertReturningPrevious(captor.capture());
+    assertEquals(List.of(new GradedAnswer(1L, 1L, "C", true), new GradedAnswer(1L, 2L, "B", false)),
+        captor.getValue());
+    assertEquals(2, results.size());
+    verify(quizAssignmentRepository, times(1)).addAnswerCounts(1L,
+        QuizAssignmentStatus.IN_PROGRESS, 1, 1);
+    verify(quizAssignmentRepository, never()).recountAnswers(anyCollection());
+  }
+
+  @Test
+  public void answerQuestions_shouldReportFailedItems() {
+    AnswerSheetDTO answerSheetDTO = new AnswerSheetDTO();
+    answerSheetDTO.setAnswers(List.of(new AnswerSheetItemDTO(1L, "A"),
+        new AnswerSheetItemDTO(2L, "B")));
+
+    stubExists(1L);
+    stubClaim(1L, 1);
+    when(answerKeyIndex.isCorrect(1L, "A")).thenReturn(true);
+    when(answerKeyIndex.isCorrect(2L, "B")).thenThrow(new QuestionNotFoundException(2L));
+
+    List<AnswerResultDTO> results = quizAssignmentService.answerQuestions(1L, answerSheetDTO);
+
+    assertTrue(results.get(0).isSaved());
+    assertFalse(results.get(1).isSaved());
+    assertEquals(1003, results.get(1).getCode().intValue());
+  }
+
+  @Test
+  public void answerQuestions_shouldReportQuestionOfAnotherQuizWithoutPackingIt() {
+    ReflectionTestUtils.setField(quizAssignmentService, "answerStorage", AnswerStorageMode.PACKED);
+    AnswerSheetDTO answerSheetDTO = new AnswerSheetDTO();
+    answerSheetDTO.setAnswers(List.of(new AnswerSheetItemDTO(1L, "A"),
+        new AnswerSheetItemDTO(9L, "B")));
     QuizAssignment quizAssignment = new QuizAssignment();
-    quizAssignment.setStatus(QuizAssignmentStatus.COMPLETED);
 
+    stubClaim(1L, 1);
     when(quizAssignmentRepository.findById(1L)).thenReturn(Optional.of(quizAssignment));
+    when(answerKeyIndex.belongsTo(9L, 1L)).thenReturn(false);
+    when(answerKeyIndex.isCorrect(1L, "A")).thenReturn(true);
+    when(answerKeyIndex.positionOf(1L)).thenReturn(0);
+
+    List<AnswerResultDTO> results = quizAssignmentService.answerQuestions(1L, answerSheetDTO);
+
+    assertTrue(results.get(0).isSaved());
+    assertFalse(results.get(1).isSaved());
+    assertEquals(1015, results.get(1).getCode().intValue());
+    assertEquals(1, quizAssignment.getAnsweredCount());
+    verify(answerKeyIndex, never()).positionOf(9L);
+  }
+
+  @Test
+  public void answerQuestions_shouldThrowQuizNotInProgressException() {
+    AnswerSheetDTO answerSheetDTO = new AnswerSheetDTO();
+    answerSheetDTO.setAnswers(List.of());
+    stubExists(1L);
+    stubClaim(1L, 0);
 
     assertThrows(QuizNotInProgressException.class,
-        () -> quizAssignmentService.answerQuestion(answerDTO));
+        () -> quizAssignmentService.answerQuestions(1L, answerSheetDTO));
   }
 
   @Test
-  public void completeQuiz_ShouldUpdateStatusToCompleted() {
+  public void completeOpenAssignments_shouldTransitionAndScoreChunk() {
+    when(quizAssignmentRepository.findOpenIdsByQuizId(1L, 0L, 100)).thenReturn(List.of(1L, 2L));
+    when(quizAssignmentRepository.transition(List.of(1L, 2L), OPEN,
+        QuizAssignmentStatus.COMPLETED)).thenReturn(1);
+
+    QuizAssignmentService.ClosedChunk chunk =
+        quizAssignmentService.completeOpenAssignments(1L, 0L, 100, 5);
+
+    assertEquals(List.of(1L, 2L), chunk.quizAssignmentIds());
+    assertEquals(1, chunk.completedCount());
+    InOrder inOrder = inOrder(answerWriteBuffer, quizAssignmentRepository);
+    inOrder.verify(answerWriteBuffer).close(List.of(1L, 2L));
+    inOrder.verify(quizAssignmentRepository).transition(List.of(1L, 2L), OPEN,
+        QuizAssignmentStatus.COMPLETED);
+    inOrder.verify(quizAssignmentRepository).scoreCompleted(List.of(1L, 2L), 5);
+    verify(quizAssignmentRepository, never()).recountAnswers(anyCollection());
+  }
+
+  @Test
+  public void completeOpenAssignments_shouldSkipWritesWhenNothingIsOpen() {
+    when(quizAssignmentRepository.findOpenIdsByQuizId(1L, 7L, 100)).thenReturn(List.of());
+
+    assertTrue(quizAssignmentService.completeOpenAssignments(1L, 7L, 100, 5)
+        .quizAssignmentIds().isEmpty());
+
+    verify(quizAssignmentRepository, never()).scoreCompleted(anyCollection(), anyInt());
+  }
+
+  @Test
+  public void beginGrading_shouldTransitionOpenAssignmentToGrading() {
+    QuizAssignment assignment = assignmentOfQuiz(1L, QuizAssignmentStatus.IN_PROGRESS);
+    when(quizAssignmentRepository.findById(1L)).thenReturn(Optional.of(assignment));
+    when(quizAssignmentRepository.beginGrading(eq(List.of(1L)), eq(OPEN),
+        eq(QuizAssignmentStatus.GRADING), any(LocalDateTime.class))).thenReturn(1);
+
+    assertEquals(assignment, quizAssignmentService.beginGrading(1L));
+    InOrder inOrder = inOrder(answerWriteBuffer, quizAssignmentRepository);
+    inOrder.verify(answerWriteBuffer).close(List.of(1L));
+    inOrder.verify(quizAssignmentRepository).beginGrading(eq(List.of(1L)), eq(OPEN),
+        eq(QuizAssignmentStatus.GRADING), any(LocalDateTime.class));
+  }
+
+  @Test
+  public void beginGrading_shouldThrowQuizCompletedAlreadyException() {
+    when(quizAssignmentRepository.findById(1L)).thenReturn(
+        Optional.of(assignmentOfQuiz(1L, QuizAssignmentStatus.GRADING)));
+    when(quizAssignmentRepository.beginGrading(eq(List.of(1L)), eq(OPEN),
+        eq(QuizAssignmentStatus.GRADING), any(LocalDateTime.class))).thenReturn(0);
+
+    assertThrows(QuizCompletedAlreadyException.class,
+        () -> quizAssignmentService.beginGrading(1L));
+  }
+
+  @Test
+  public void gradeQuizAssignments_shouldCompleteAndScoreGradingAssignmentsTogether() {
     Quiz quiz = new Quiz();
+    quiz.setQuestionCount(4);
+    when(quizRepository.findById(1L)).thenReturn(Optional.of(quiz));
+    when(quizAssignmentRepository.transition(List.of(1L, 2L, 3L), GRADING,
+        QuizAssignmentStatus.COMPLETED)).thenReturn(2);
+
+    quizAssignmentService.gradeQuizAssignments(1L, List.of(1L, 2L, 3L));
 
-    Question question = new Question();
+    verify(answerWriteBuffer, times(1)).close(List.of(1L, 2L, 3L));
+    verify(quizAssignmentRepository, times(1)).scoreCompleted(List.of(1L, 2L, 3L), 4);
+  }
 
-    List<Question> questions = new ArrayList<>();
-    questions.add(question);
+  @Test
+  public void gradeQuizAssignments_shouldIncrementCompletedQuizzesOfGradedStudentsOnly() {
+    when(quizRepository.findById(1L)).thenReturn(Optional.of(new Quiz()));
+    when(quizAssignmentRepository.findStudentIdsByIdIn(List.of(1L, 2L)))
+        .thenReturn(List.of(7L, 8L));
+
+    quizAssignmentService.gradeQuizAssignments(1L, List.of(1L, 2L));
+
+    verify(aggregateVersions, times(1)).increment(AggregateVersions.QUIZ_ASSIGNMENT,
+        List.of(1L, 2L));
+    verify(aggregateVersions, times(1)).increment(AggregateVersions.COMPLETED_QUIZZES,
+        List.of(7L, 8L));
+    verify(aggregateVersions, never()).increment(AggregateVersions.COMPLETED_QUIZZES);
+  }
 
-    quiz.setQuestions(questions);
+  @Test
+  public void cancelGrading_shouldRestoreStatusBeforeGrading() {
+    quizAssignmentService.cancelGrading(List.of(1L));
 
-    Long quizAssignmentId = 1L;
-    QuizAssignment assignment = new QuizAssignment();
-    assignment.setStatus(QuizAssignmentStatus.IN_PROGRESS);
-    assignment.setAnswers(new ArrayList<>());
-    assignment.setQuiz(quiz);
+    verify(quizAssignmentRepository, times(1)).restoreStatusBeforeGrading(List.of(1L),
+        QuizAssignmentStatus.GRADING, QuizAssignmentStatus.IN_PROGRESS);
+    verify(sessionRegistry, times(1)).close(List.of(1L));
+  }
 
-    when(quizAssignmentRepository.findById(quizAssignmentId)).thenReturn(Optional.of(assignment));
+  @Test
+  public void completeQuiz_ShouldTransitionOpenAssignmentToCompleted() {
+    Long quizAssignmentId = 1L;
+    when(quizAssignmentRepository.findById(quizAssignmentId)).thenReturn(
+        Optional.of(assignmentOfQuiz(1L, QuizAssignmentStatus.IN_PROGRESS)));
+    when(quizAssignmentRepository.transition(List.of(quizAssignmentId), OPEN,
+        QuizAssignmentStatus.COMPLETED)).thenReturn(1);
 
     quizAssignmentService.completeQuiz(quizAssignmentId);
 
-    assertEquals(QuizAssignmentStatus.COMPLETED, assignment.getStatus());
+    verify(quizAssignmentRepository, never()).save(any(QuizAssignment.class));
   }
 
   @Test
-  public void completeQuiz_shouldCallSavedMethodOnce() {
-    Quiz quiz = new Quiz();
+  public void completeQuiz_shouldWriteBufferedAnswersBeforeTransition() {
+    Long quizAssignmentId = 1L;
+    when(quizAssignmentRepository.findById(quizAssignmentId)).thenReturn(
+        Optional.of(assignmentOfQuiz(1L, QuizAssignmentStatus.IN_PROGRESS)));
+    when(quizAssignmentRepository.transition(List.of(quizAssignmentId), OPEN,
+        QuizAssignmentStatus.COMPLETED)).thenReturn(1);
 
-    Question question = new Question();
+    quizAssignmentService.completeQuiz(quizAssignmentId);
 
-    List<Question> questions = new ArrayList<>();
-    questions.add(question);
+    InOrder inOrder = inOrder(answerWriteBuffer, quizAssignmentRepository);
+    inOrder.verify(answerWriteBuffer).close(List.of(quizAssignmentId));
+    inOrder.verify(quizAssignmentRepository).transition(List.of(quizAssignmentId), OPEN,
+        QuizAssignmentStatus.COMPLETED);
+    inOrder.verify(quizAssignmentRepository).scoreCompleted(List.of(quizAssignmentId), 0);
+  }
 
-    quiz.setQuestions(questions);
+  @Test
+  public void completeQuiz_shouldScoreFromCountersWithoutLoadingCollections() {
+    Quiz quiz = new Quiz();
+    quiz.setQuestionCount(4);
 
     Long quizAssignmentId = 1L;
     QuizAssignment assignment = new QuizAssignment();
     assignment.setStatus(QuizAssignmentStatus.IN_PROGRESS);
-    assignment.setAnswers(new ArrayList<>());
     assignment.setQuiz(quiz);
+    assignment.setStudent(new Student());
 
     when(quizAssignmentRepository.findById(quizAssignmentId)).thenReturn(Optional.of(assignment));
+    when(quizAssignmentRepository.transition(List.of(quizAssignmentId), OPEN,
+        QuizAssignmentStatus.COMPLETED)).thenReturn(1);
 
     quizAssignmentService.completeQuiz(quizAssignmentId);
 
-    assertEquals(QuizAssignmentStatus.COMPLETED, assignment.getStatus());
-    verify(quizAssignmentRepository, times(1)).save(assignment);
+    verify(quizAssignmentRepository, times(1)).scoreCompleted(List.of(quizAssignmentId), 4);
+    verify(quizAssignmentRepository, never()).recountAnswers(anyCollection());
+  }
+
+  @Test
+  public void completeQuiz_shouldIncrementAssignmentAndCompletedQuizzesVersions() {
+    Long quizAssignmentId = 1L;
+    when(quizAssignmentRepository.findById(quizAssignmentId)).thenReturn(
+        Optional.of(assignmentOfQuiz(1L, QuizAssignmentStatus.IN_PROGRESS)));
+    when(quizAssignmentRepository.transition(List.of(quizAssignmentId), OPEN,
+        QuizAssignmentStatus.COMPLETED)).thenReturn(1);
+
+    quizAssignmentService.completeQuiz(quizAssignmentId);
+
+    verify(aggregateVersions, times(1)).increment(AggregateVersions.QUIZ_ASSIGNMENT,
+        quizAssignmentId);
+    verify(aggregateVersions, times(1)).increment(AggregateVersions.COMPLETED_QUIZZES, 1L);
+    verify(sessionRegistry, times(1)).close(quizAssignmentId);
+  }
+
+  @Test
+  public void completeQuiz_shouldThrowQuizCompletedAlreadyException() {
+    Long quizAssignmentId = 1L;
+    when(quizAssignmentRepository.findById(quizAssignmentId)).thenReturn(
+        Optional.of(assignmentOfQuiz(1L, QuizAssignmentStatus.COMPLETED)));
+    when(quizAssignmentRepository.transition(List.of(quizAssignmentId), OPEN,
+        QuizAssignmentStatus.COMPLETED)).thenReturn(0);
+
+    assertThrows(QuizCompletedAlreadyException.class,
+        () -> quizAssignmentService.completeQuiz(quizAssignmentId));
+    verify(quizAssignmentRepository, never()).scoreCompleted(anyCollection(), anyInt());
+    verify(aggregateVersions, never()).increment(AggregateVersions.COMPLETED_QUIZZES, 1L);
   }
 
   @Test
@@ -347,4 +767,32 @@ public class QuizAssignmentServiceTest {
     assertThrows(QuizAssignmentNotFoundException.class,
         () -> quizAssignmentService.completeQuiz(quizAssignmentId));
   }
-}
\ No newline at end of file
+
+  private static QuizAssignmentView view(Long id) {
+    return new QuizAssignmentView(id, 2L, 3L, QuizAssignmentStatus.IN_PROGRESS, 0L, 1, 1, 0,
+        null);
+  }
+
+  private void stubClaim(Long quizAssignmentId, int updated) {
+    when(quizAssignmentRepository.addAnswerCounts(eq(quizAssignmentId),
+        eq(QuizAssignmentStatus.IN_PROGRESS), anyInt(), anyInt())).thenReturn(updated);
+  }
+
+  private void stubExists(Long quizAssignmentId) {
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, quizAssignmentId))
+        .thenReturn(true);
+  }
+
+
+  private QuizAssignment assignmentOfQuiz(Long quizId, QuizAssignmentStatus status) {
+    Quiz quiz = new Quiz();
+    quiz.setId(quizId);
+    Student student = new Student();
+    student.setId(1L);
+    QuizAssignment assignment = new QuizAssignment();
+    assignment.setStatus(status);
+    assignment.setQuiz(quiz);
+    assignment.setStudent(student);
+    return assignment;
+  }
+}
@@ -0,0 +1,89 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import com.dopingtech.casestudy.quiz_service.exception.ErrorCode;
+import com.dopingtech.casestudy.quiz_service.exception.InvalidQuizDocumentException;
+import com.dopingtech.casestudy.quiz_service.model.dto.OptionDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuestionDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.repository.QuizRepository;
+import jakarta.validation.Validation;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class QuizDocumentValidatorTest {
+
+  @Mock
+  private QuizRepository quizRepository;
+
+  @InjectMocks
+  private QuizDocumentValidator quizDocumentValidator;
+
+  @BeforeEach
+  public void setUp() {
+    ReflectionTestUtils.setField(quizDocumentValidator, "validator",
+        Validation.buildDefaultValidatorFactory().getValidator());
+  }
+
+  @Test
+  public void validate_shouldAcceptCompleteDocument() {
+    when(quizRepository.existsByName("New Quiz")).thenReturn(false);
+
+    assertDoesNotThrow(() -> quizDocumentValidator.validate(new QuizDocumentDTO("New Quiz",
+        List.of(question("First", "A"), question("Second", "B"),
+            new QuestionDocumentDTO("Without options", "C", null)))));
+  }
+
+  @Test
+  public void validate_shouldReportEveryProblemAtOnce() {
+    when(quizRepository.existsByName("Taken Quiz")).thenReturn(true);
+    QuizDocumentDTO document = new QuizDocumentDTO("Taken Quiz", List.of(
+        question("Same text", "A"),
+        question("Same text", "B"),
+        new QuestionDocumentDTO("", "F", null),
+        new QuestionDocumentDTO("Missing answer letter", "C", List.of(
+            new OptionDocumentDTO("One", "A"), new OptionDocumentDTO("Two", "A")))));
+
+    InvalidQuizDocumentException exception = assertThrows(InvalidQuizDocumentException.class,
+        () -> quizDocumentValidator.validate(document));
+
+    Map<String, String> errors = exception.getErrors();
+    assertEquals(ErrorCode.INVALID_QUIZ_DOCUMENT, exception.getErrorCode());
+    assertEquals("A quiz with this name already exists", errors.get("name"));
+    assertEquals("Question text is already used in this quiz", errors.get("questions[1].text"));
+    assertEquals("Question text is required", errors.get("questions[2].text"));
+    assertEquals("Correct answer must be one of A, B, C, D, E",
+        errors.get("questions[2].correctAnswer"));
+    assertEquals("Option letter is already used in this question",
+        errors.get("questions[3].options[1].letter"));
+    assertEquals("Correct answer must be one of the option letters",
+        errors.get("questions[3].correctAnswer"));
+    assertEquals(6, errors.size());
+  }
+
+  @Test
+  public void validate_shouldRejectQuizWithoutQuestions() {
+    InvalidQuizDocumentException exception = assertThrows(InvalidQuizDocumentException.class,
+        () -> quizDocumentValidator.validate(new QuizDocumentDTO(" ", List.of())));
+
+    assertEquals(Map.of("name", "Quiz name is required",
+        "questions", "A quiz must have between 1 and 1000 questions"), exception.getErrors());
+  }
+
+  private static QuestionDocumentDTO question(String text, String correctAnswer) {
+    return new QuestionDocumentDTO(text, correctAnswer, List.of(
+        new OptionDocumentDTO("Option A", "A"), new OptionDocumentDTO("Option B", "B")));
+  }
+}
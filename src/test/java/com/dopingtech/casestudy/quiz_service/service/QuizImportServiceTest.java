@@ -0,0 +1,72 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dopingtech.casestudy.quiz_service.exception.ErrorCode;
+import com.dopingtech.casestudy.quiz_service.exception.InvalidQuizDocumentException;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizImportResultDTO;
+import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class QuizImportServiceTest {
+
+  @Mock
+  private QuizService quizService;
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @InjectMocks
+  private QuizImportService quizImportService;
+
+  @Test
+  public void importQuizzes_shouldImportEachLineAndReportItsResult() throws Exception {
+    Quiz quiz = new Quiz();
+    quiz.setId(3L);
+    when(quizService.importQuiz(argThat(document -> document != null
+        && "Valid".equals(document.getName())))).thenReturn(quiz);
+    when(quizService.importQuiz(argThat(document -> document != null
+        && "Invalid".equals(document.getName()))))
+        .thenThrow(new InvalidQuizDocumentException(Map.of("questions", "Too few")));
+    String file = String.join("\n",
+        "{\"name\":\"Valid\",\"questions\":[{\"text\":\"Q\",\"correctAnswer\":\"A\"}]}",
+        "",
+        "{\"name\":\"Broken\",",
+        "{\"name\":\"Invalid\",\"questions\":[]}");
+
+    List<QuizImportResultDTO> results = quizImportService.importQuizzes(
+        new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)));
+
+    assertEquals(3, results.size());
+    assertEquals(1, results.get(0).getLine());
+    assertEquals(3L, results.get(0).getQuizId());
+    assertNull(results.get(0).getCode());
+    assertEquals(3, results.get(1).getLine());
+    assertNull(results.get(1).getQuizId());
+    assertEquals(ErrorCode.INVALID_QUIZ_DOCUMENT.getCode(), results.get(1).getCode());
+    assertTrue(results.get(1).getError().startsWith("Line is not a quiz document"));
+    assertEquals(4, results.get(2).getLine());
+    assertEquals(ErrorCode.INVALID_QUIZ_DOCUMENT.getCode(), results.get(2).getCode());
+    assertEquals("questions: Too few", results.get(2).getError());
+    verify(quizService, times(2)).importQuiz(any(QuizDocumentDTO.class));
+  }
+}
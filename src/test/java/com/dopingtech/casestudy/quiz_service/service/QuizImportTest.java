@@ -0,0 +1,96 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dopingtech.casestudy.quiz_service.exception.ErrorCode;
+import com.dopingtech.casestudy.quiz_service.exception.InvalidQuizDocumentException;
+import com.dopingtech.casestudy.quiz_service.model.dto.OptionDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuestionDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizImportResultDTO;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuestionView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class QuizImportTest {
+
+  private static final int QUESTIONS = 50;
+
+  private static final List<String> LETTERS = List.of("A", "B", "C", "D", "E");
+
+  // The quiz, 50 questions and 250 options take 301 inserts one row at a time
+  private static final int STATEMENT_BUDGET = 30;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private QuizImportService quizImportService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Test
+  public void importQuiz_shouldInsertWholeQuizInBatches() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    Long quizId = quizService.importQuiz(document("Imported Quiz")).getId();
+
+    long statements = statistics.getPrepareStatementCount();
+    assertTrue(statements <= STATEMENT_BUDGET, statements + " statements");
+    List<QuestionView> questions = quizService.findQuestionsByQuizId(quizId);
+    assertEquals(QUESTIONS, questions.size());
+    assertEquals(QUESTIONS, quizService.findById(quizId).questionCount());
+    questions.forEach(question -> assertEquals(LETTERS.size(), question.options().size()));
+    assertThrows(InvalidQuizDocumentException.class,
+        () -> quizService.importQuiz(document("Imported Quiz")));
+  }
+
+  @Test
+  public void importQuizzes_shouldImportValidLinesAndReportInvalidOnes() throws Exception {
+    String file = objectMapper.writeValueAsString(document("First Imported Quiz")) + "\n"
+        + objectMapper.writeValueAsString(new QuizDocumentDTO("Empty Imported Quiz", List.of()))
+        + "\n" + objectMapper.writeValueAsString(document("Second Imported Quiz")) + "\n";
+
+    List<QuizImportResultDTO> results = quizImportService.importQuizzes(
+        new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)));
+
+    assertEquals(3, results.size());
+    assertEquals(QUESTIONS,
+        quizService.findQuestionsByQuizId(results.get(0).getQuizId()).size());
+    assertNull(results.get(1).getQuizId());
+    assertEquals(ErrorCode.INVALID_QUIZ_DOCUMENT.getCode(), results.get(1).getCode());
+    assertEquals(QUESTIONS,
+        quizService.findQuestionsByQuizId(results.get(2).getQuizId()).size());
+  }
+
+  private static QuizDocumentDTO document(String name) {
+    List<QuestionDocumentDTO> questions = new ArrayList<>();
+    for (int i = 0; i < QUESTIONS; i++) {
+      List<OptionDocumentDTO> options = new ArrayList<>();
+      for (String letter : LETTERS) {
+        options.add(new OptionDocumentDTO("Option " + letter + " of question " + i, letter));
+      }
+      questions.add(new QuestionDocumentDTO("Question " + i, LETTERS.get(i % LETTERS.size()),
+          options));
+    }
+    return new QuizDocumentDTO(name, questions);
+  }
+}
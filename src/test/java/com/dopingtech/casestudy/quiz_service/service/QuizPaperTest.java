@@ -0,0 +1,76 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+class QuizPaperTest {
+
+  private static final byte[] JSON = "[{\"id\":1,\"text\":\"Question\"}]"
+      .getBytes(StandardCharsets.UTF_8);
+
+  @Test
+  public void compile_shouldGzipTheSameJson() throws IOException {
+    QuizPaper paper = QuizPaper.compile(JSON, true);
+
+    try (GZIPInputStream gzip = new GZIPInputStream(
+        new ByteArrayInputStream(paper.getBody(true)))) {
+      assertArrayEquals(JSON, gzip.readAllBytes());
+    }
+    assertArrayEquals(JSON, paper.getBody(false));
+  }
+
+  @Test
+  public void compile_withoutGzip_shouldOnlyKeepJson() {
+    QuizPaper paper = QuizPaper.compile(JSON, false);
+
+    assertFalse(paper.hasGzip());
+    assertNull(paper.getBody(true));
+  }
+
+  @Test
+  public void getEtag_shouldDependOnContentAndEncoding() {
+    QuizPaper paper = QuizPaper.compile(JSON, true);
+
+    assertEquals(paper.getEtag(false), QuizPaper.compile(JSON.clone(), false).getEtag(false));
+    assertNotEquals(paper.getEtag(false), paper.getEtag(true));
+    assertNotEquals(paper.getEtag(false),
+        QuizPaper.compile("[]".getBytes(StandardCharsets.UTF_8), false).getEtag(false));
+  }
+
+  @Test
+  public void matches_shouldAcceptListsWeakTagsAndWildcard() {
+    QuizPaper paper = QuizPaper.compile(JSON, true);
+    String etag = paper.getEtag(false);
+
+    assertTrue(paper.matches(etag, false));
+    assertTrue(paper.matches("\"other\", W/" + etag, false));
+    assertTrue(paper.matches("*", false));
+    assertFalse(paper.matches(etag, true));
+    assertFalse(paper.matches(null, false));
+  }
+
+  @Test
+  public void servesGzip_shouldFollowCodingsAndQualityValues() {
+    QuizPaper paper = QuizPaper.compile(JSON, true);
+
+    assertTrue(paper.servesGzip("gzip, deflate"));
+    assertTrue(paper.servesGzip("deflate, GZIP;q=0.5"));
+    assertTrue(paper.servesGzip("br, *"));
+    assertFalse(paper.servesGzip("gzip;q=0, deflate"));
+    assertFalse(paper.servesGzip("*;q=0.8, gzip;q=0"));
+    assertFalse(paper.servesGzip("identity, *;q=0"));
+    assertFalse(paper.servesGzip("gzipx, br"));
+    assertFalse(paper.servesGzip(null));
+    assertFalse(QuizPaper.compile(JSON, false).servesGzip("gzip"));
+  }
+}
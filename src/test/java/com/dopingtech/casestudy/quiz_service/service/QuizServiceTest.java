@@ -1,33 +1,54 @@
 package com.dopingtech.casestudy.quiz_service.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.dopingtech.casestudy.quiz_service.exception.InvalidQuizDocumentException;
 import com.dopingtech.casestudy.quiz_service.exception.QuizNotFoundException;
+import com.dopingtech.casestudy.quiz_service.model.dto.CursorPageDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.OptionDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuestionDocumentDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizCloseResultDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.QuizDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizDocumentDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.QuizInfoDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.StudentInfoDTO;
+import com.dopingtech.casestudy.quiz_service.model.entity.Option;
 import com.dopingtech.casestudy.quiz_service.model.entity.Question;
 import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
 import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
 import com.dopingtech.casestudy.quiz_service.model.entity.Student;
+import com.dopingtech.casestudy.quiz_service.model.projection.OptionView;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuestionView;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizView;
 import com.dopingtech.casestudy.quiz_service.repository.QuestionRepository;
 import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
 import com.dopingtech.casestudy.quiz_service.repository.QuizRepository;
 import com.dopingtech.casestudy.quiz_service.repository.StudentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
 class QuizServiceTest {
@@ -44,15 +65,40 @@ class QuizServiceTest {
   @Mock
   private StudentRepository studentRepository;
 
+  @Mock
+  private QuizAssignmentService quizAssignmentService;
+
+  @Mock
+  private AggregateVersions aggregateVersions;
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @Mock
+  private ExistenceIndex existenceIndex;
+
+  @Spy
+  private CursorPagination cursorPagination = new CursorPagination();
+
+  @Mock
+  private AnswerKeyIndex answerKeyIndex;
+
+  @Mock
+  private QuizCacheEvictor quizCacheEvictor;
+
+  @Mock
+  private QuizDocumentValidator quizDocumentValidator;
+
   @InjectMocks
   private QuizService quizService;
 
   private Quiz quiz;
   private QuizAssignment quizAssignment;
-  private Question question;
 
   @BeforeEach
   public void setUp() {
+    ReflectionTestUtils.setField(cursorPagination, "defaultSize", 50);
+    ReflectionTestUtils.setField(cursorPagination, "maxSize", 500);
     quiz = new Quiz();
     quiz.setId(1L);
     quiz.setName("Sample Quiz");
@@ -61,45 +107,54 @@ class QuizServiceTest {
   }
 
   @Test
-  public void findAll_shouldReturnAllQuizzes() {
-    List<Quiz> quizzes = Collections.singletonList(quiz);
-    when(quizRepository.findAll()).thenReturn(quizzes);
+  public void findPage_shouldReturnFirstPageWithoutNextCursor() {
+    QuizInfoDTO quizInfo = new QuizInfoDTO(quiz.getId(), quiz.getName());
+    when(quizRepository.findInfoPage(0L, Limit.of(51))).thenReturn(List.of(quizInfo));
 
-    List<QuizInfoDTO> result = quizService.findAll();
+    CursorPageDTO<QuizInfoDTO> result = quizService.findPage(null, null);
 
-    assertEquals(quizzes.get(0).getId(), result.get(0).getId());
+    assertEquals(List.of(quizInfo), result.getItems());
+    assertNull(result.getNextCursor());
   }
 
   @Test
-  public void findAll_shouldCallFindAllMethodOnce() {
-    when(quizRepository.findAll()).thenReturn(Collections.singletonList(quiz));
-
-    quizService.findAll();
-
-    verify(quizRepository, times(1)).findAll();
+  public void findPage_shouldContinueAfterLastIdOfPreviousPage() {
+    List<QuizInfoDTO> quizzes = List.of(new QuizInfoDTO(1L, "First"),
+        new QuizInfoDTO(2L, "Second"), new QuizInfoDTO(3L, "Third"));
+    when(quizRepository.findInfoPage(0L, Limit.of(3))).thenReturn(quizzes);
+    when(quizRepository.findInfoPage(2L, Limit.of(3))).thenReturn(quizzes.subList(2, 3));
+
+    CursorPageDTO<QuizInfoDTO> first = quizService.findPage(null, 2);
+    CursorPageDTO<QuizInfoDTO> second = quizService.findPage(first.getNextCursor(), 2);
+
+    assertEquals(quizzes.subList(0, 2), first.getItems());
+    assertEquals(quizzes.subList(2, 3), second.getItems());
+    assertNull(second.getNextCursor());
   }
 
   @Test
   public void findById_shouldReturnQuiz() {
-    when(quizRepository.findById(1L)).thenReturn(Optional.of(quiz));
+    when(quizRepository.findViewById(1L))
+        .thenReturn(Optional.of(new QuizView(1L, "Sample Quiz", 0)));
 
-    Quiz foundQuiz = quizService.findById(1L);
+    QuizView foundQuiz = quizService.findById(1L);
 
-    assertEquals(quiz.getName(), foundQuiz.getName());
+    assertEquals(quiz.getName(), foundQuiz.name());
   }
 
   @Test
-  public void findById_shouldCallFindByIdMethodOnce() {
-    when(quizRepository.findById(1L)).thenReturn(Optional.of(quiz));
+  public void findById_shouldCallFindViewByIdMethodOnce() {
+    when(quizRepository.findViewById(1L))
+        .thenReturn(Optional.of(new QuizView(1L, "Sample Quiz", 0)));
 
     quizService.findById(1L);
 
-    verify(quizRepository, times(1)).findById(1L);
+    verify(quizRepository, times(1)).findViewById(1L);
   }
 
   @Test
   public void findById_shouldThrowQuizNotFoundException() {
-    when(quizRepository.findById(1L)).thenReturn(Optional.empty());
+    when(quizRepository.findViewById(1L)).thenReturn(Optional.empty());
 
     assertThrows(QuizNotFoundException.class, () -> quizService.findById(1L));
   }
@@ -108,7 +163,7 @@ class QuizServiceTest {
   public void findQuizAssignmentsByQuizId_shouldReturnAssignments() {
     when(quizAssignmentRepository.findByQuizId(1L)).thenReturn(
         Collections.singletonList(quizAssignment));
-    when(quizRepository.existsById(1L)).thenReturn(true);
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 1L)).thenReturn(true);
 
     List<QuizAssignment> assignments = quizService.findQuizAssignmentsByQuizId(1L);
 
@@ -120,7 +175,7 @@ class QuizServiceTest {
   public void findQuizAssignmentsByQuizId_shouldCallFindByQuizIdMethodOnce() {
     when(quizAssignmentRepository.findByQuizId(1L)).thenReturn(
         Collections.singletonList(quizAssignment));
-    when(quizRepository.existsById(1L)).thenReturn(true);
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 1L)).thenReturn(true);
 
     quizService.findQuizAssignmentsByQuizId(1L);
 
@@ -130,7 +185,7 @@ class QuizServiceTest {
   @Test
   public void findQuizAssignmentsByQuizId_shouldThrowQuizNotFoundException() {
     Long quizId = 1L;
-    when(quizRepository.existsById(quizId)).thenReturn(false);
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, quizId)).thenReturn(false);
 
     assertThrows(QuizNotFoundException.class,
         () -> quizService.findQuizAssignmentsByQuizId(quizId));
@@ -144,7 +199,7 @@ class QuizServiceTest {
     student.setLastName("Last Name");
     student.setNumber("1234");
 
-    when(quizRepository.existsById(student.getId())).thenReturn(true);
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, student.getId())).thenReturn(true);
     when(studentRepository.findByQuizAssignmentsQuizId(1L)).thenReturn(List.of(student));
 
     List<StudentInfoDTO> students = quizService.findStudentsByQuizId(1L);
@@ -160,7 +215,7 @@ class QuizServiceTest {
     student.setLastName("Last Name");
     student.setNumber("1234");
 
-    when(quizRepository.existsById(student.getId())).thenReturn(true);
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, student.getId())).thenReturn(true);
     when(studentRepository.findByQuizAssignmentsQuizId(1L)).thenReturn(List.of(student));
 
     quizService.findStudentsByQuizId(1L);
@@ -171,39 +226,71 @@ class QuizServiceTest {
   @Test
   public void findStudentsByQuizId_shouldThrowQuizNotFoundException() {
     Long quizId = 1L;
-    when(quizRepository.existsById(quizId)).thenReturn(false);
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, quizId)).thenReturn(false);
 
     assertThrows(QuizNotFoundException.class, () -> quizService.findStudentsByQuizId(quizId));
   }
 
   @Test
-  public void findQuestionsByQuizId_shouldReturnQuestions() {
-    when(questionRepository.findByQuizId(1L)).thenReturn(Collections.singletonList(question));
-    when(quizRepository.existsById(1L)).thenReturn(true);
-
-    List<Question> questions = quizService.findQuestionsByQuizId(1L);
-
-    assertEquals(Collections.singletonList(question), questions);
+  public void findQuestionsByQuizId_shouldReturnQuestionsWithTheirOptions() {
+    when(questionRepository.findViewsByQuizId(1L)).thenReturn(List.of(
+        new QuestionView(1L, "First", "A", 0), new QuestionView(2L, "Second", "B", 1)));
+    when(questionRepository.findOptionViewsByQuizId(1L)).thenReturn(List.of(
+        new OptionView(10L, 1L, "A", "Yes"), new OptionView(11L, 1L, "B", "No")));
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 1L)).thenReturn(true);
+
+    List<QuestionView> questions = quizService.findQuestionsByQuizId(1L);
+
+    assertEquals(2, questions.size());
+    assertEquals(List.of("A", "B"),
+        questions.get(0).options().stream().map(OptionView::letter).toList());
+    assertEquals(List.of(), questions.get(1).options());
   }
 
   @Test
-  public void findQuestionsByQuizId_shouldCallFindByQuizIdMethodOnce() {
-    when(questionRepository.findByQuizId(1L)).thenReturn(Collections.singletonList(question));
-    when(quizRepository.existsById(1L)).thenReturn(true);
+  public void findQuestionsByQuizId_shouldCallProjectionQueriesOnce() {
+    when(questionRepository.findViewsByQuizId(1L)).thenReturn(List.of());
+    when(questionRepository.findOptionViewsByQuizId(1L)).thenReturn(List.of());
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 1L)).thenReturn(true);
 
     quizService.findQuestionsByQuizId(1L);
 
-    verify(questionRepository, times(1)).findByQuizId(1L);
+    verify(questionRepository, times(1)).findViewsByQuizId(1L);
+    verify(questionRepository, times(1)).findOptionViewsByQuizId(1L);
   }
 
   @Test
   public void findQuestionsByQuizId_shouldThrowQuizNotFoundException() {
     Long quizId = 1L;
-    when(quizRepository.existsById(quizId)).thenReturn(false);
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, quizId)).thenReturn(false);
 
     assertThrows(QuizNotFoundException.class, () -> quizService.findQuestionsByQuizId(quizId));
   }
 
+  @Test
+  public void findPaperByQuizId_shouldRenderQuestionsWithoutCorrectAnswers() {
+    Question paperQuestion = Question.builder().id(1L).text("Sample Question")
+        .correctAnswer("B").quiz(quiz).build();
+    paperQuestion.setOptions(List.of(
+        Option.builder().id(1L).letter("A").text("First").question(paperQuestion).build()));
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 1L)).thenReturn(true);
+    when(questionRepository.findWithOptionsByQuizId(1L)).thenReturn(List.of(paperQuestion));
+
+    QuizPaper paper = quizService.findPaperByQuizId(1L);
+
+    String json = new String(paper.getBody(false), StandardCharsets.UTF_8);
+    assertEquals("[{\"id\":1,\"text\":\"Sample Question\",\"options\":"
+        + "[{\"id\":1,\"text\":\"First\",\"letter\":\"A\"}],\"quizId\":1}]", json);
+    assertFalse(json.contains("correctAnswer"));
+  }
+
+  @Test
+  public void findPaperByQuizId_shouldThrowQuizNotFoundException() {
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 1L)).thenReturn(false);
+
+    assertThrows(QuizNotFoundException.class, () -> quizService.findPaperByQuizId(1L));
+  }
+
   @Test
   public void createQuiz_shouldReturnCreatedQuiz() {
     QuizDTO quizDTO = new QuizDTO();
@@ -228,6 +315,50 @@ class QuizServiceTest {
     verify(quizRepository, times(1)).save(any(Quiz.class));
   }
 
+  @Test
+  public void importQuiz_shouldSaveWholeQuizOnce() {
+    QuizDocumentDTO document = new QuizDocumentDTO("Imported Quiz", List.of(
+        new QuestionDocumentDTO("First question", "B", List.of(
+            new OptionDocumentDTO("Option A", "A"), new OptionDocumentDTO("Option B", "B"))),
+        new QuestionDocumentDTO("Second question", "A", null)));
+    when(quizRepository.save(any(Quiz.class))).thenAnswer(invocation -> {
+      Quiz saved = invocation.getArgument(0);
+      saved.setId(7L);
+      for (int i = 0; i < saved.getQuestions().size(); i++) {
+        saved.getQuestions().get(i).setId(20L + i);
+      }
+      return saved;
+    });
+
+    Quiz importedQuiz = quizService.importQuiz(document);
+
+    verify(quizRepository, times(1)).save(any(Quiz.class));
+    assertEquals("Imported Quiz", importedQuiz.getName());
+    assertEquals(2, importedQuiz.getQuestionCount());
+    Question first = importedQuiz.getQuestions().get(0);
+    assertEquals(0, first.getPosition());
+    assertEquals(importedQuiz, first.getQuiz());
+    assertEquals(List.of("A", "B"), first.getOptions().stream().map(Option::getLetter).toList());
+    assertEquals(first, first.getOptions().get(1).getQuestion());
+    assertEquals(1, importedQuiz.getQuestions().get(1).getPosition());
+    assertTrue(importedQuiz.getQuestions().get(1).getOptions().isEmpty());
+    verify(existenceIndex, times(1)).added(ExistenceIndex.Kind.QUIZ, 7L);
+    verify(existenceIndex, times(1)).added(ExistenceIndex.Kind.QUESTION, 21L);
+    verify(answerKeyIndex, times(1)).added(20L, 7L, 0, "B");
+    verify(aggregateVersions, times(1)).increment(AggregateVersions.QUIZ_LIST);
+  }
+
+  @Test
+  public void importQuiz_shouldNotSaveInvalidDocument() {
+    QuizDocumentDTO document = new QuizDocumentDTO("Imported Quiz", List.of());
+    doThrow(new InvalidQuizDocumentException(Map.of("questions", "Too few")))
+        .when(quizDocumentValidator).validate(document);
+
+    assertThrows(InvalidQuizDocumentException.class, () -> quizService.importQuiz(document));
+
+    verify(quizRepository, never()).save(any(Quiz.class));
+  }
+
   @Test
   public void updateQuiz_shouldReturnUpdatedQuiz() {
     QuizDTO quizDTO = new QuizDTO();
@@ -254,6 +385,19 @@ class QuizServiceTest {
     verify(quizRepository, times(1)).save(any(Quiz.class));
   }
 
+  @Test
+  public void updateQuiz_shouldIncrementQuizListVersion() {
+    QuizDTO quizDTO = new QuizDTO();
+    quizDTO.setName("Updated Quiz");
+
+    when(quizRepository.findById(1L)).thenReturn(Optional.of(quiz));
+    when(quizRepository.save(any(Quiz.class))).thenReturn(quiz);
+
+    quizService.updateQuiz(1L, quizDTO);
+
+    verify(aggregateVersions, times(1)).increment(AggregateVersions.QUIZ_LIST);
+  }
+
   @Test
   public void updateQuiz_shouldThrowQuizNotFoundException() {
     QuizDTO quizDTO = new QuizDTO();
@@ -267,17 +411,59 @@ class QuizServiceTest {
 
   @Test
   public void deleteQuiz_shouldCallDeleteByIdMethodOnce() {
-    when(quizRepository.existsById(1L)).thenReturn(true);
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 1L)).thenReturn(true);
 
     quizService.deleteQuiz(1L);
 
     verify(quizRepository, times(1)).deleteById(1L);
   }
 
+  @Test
+  public void deleteQuiz_shouldRemoveCascadedQuestionsAndAssignmentsFromIndexes() {
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 1L)).thenReturn(true);
+    when(questionRepository.findIdsByQuizId(1L)).thenReturn(List.of(2L, 3L));
+    when(quizAssignmentRepository.findIdsByQuizId(1L)).thenReturn(List.of(4L));
+
+    quizService.deleteQuiz(1L);
+
+    verify(existenceIndex, times(1)).removed(ExistenceIndex.Kind.QUIZ, 1L);
+    verify(existenceIndex, times(1)).removed(ExistenceIndex.Kind.QUESTION, List.of(2L, 3L));
+    verify(existenceIndex, times(1)).removed(ExistenceIndex.Kind.QUIZ_ASSIGNMENT, List.of(4L));
+    verify(answerKeyIndex, times(1)).removeQuiz(1L, List.of(2L, 3L));
+    verify(quizCacheEvictor, times(1)).evictAssignments(List.of(4L));
+  }
+
   @Test
   public void deleteQuiz_shouldThrowQuizNotFoundException() {
-    when(quizRepository.existsById(1L)).thenReturn(false);
+    when(existenceIndex.exists(ExistenceIndex.Kind.QUIZ, 1L)).thenReturn(false);
 
     assertThrows(QuizNotFoundException.class, () -> quizService.deleteQuiz(1L));
   }
+
+  @Test
+  public void closeQuiz_shouldCompleteAssignmentsChunkByChunk() {
+    ReflectionTestUtils.setField(quizService, "closeChunkSize", 2);
+    quiz.setQuestionCount(10);
+    when(quizRepository.findById(1L)).thenReturn(Optional.of(quiz));
+    when(quizAssignmentService.completeOpenAssignments(1L, 0L, 2, 10)).thenReturn(
+        new QuizAssignmentService.ClosedChunk(List.of(3L, 5L), 2));
+    // One of these was completed by its student in the meantime
+    when(quizAssignmentService.completeOpenAssignments(1L, 5L, 2, 10)).thenReturn(
+        new QuizAssignmentService.ClosedChunk(List.of(8L, 9L), 1));
+    when(quizAssignmentService.completeOpenAssignments(1L, 9L, 2, 10)).thenReturn(
+        new QuizAssignmentService.ClosedChunk(List.of(), 0));
+
+    QuizCloseResultDTO result = quizService.closeQuiz(1L);
+
+    assertEquals(quiz.getId(), result.getQuizId());
+    assertEquals(3, result.getCompletedCount());
+    assertEquals(2, result.getChunkCount());
+  }
+
+  @Test
+  public void closeQuiz_shouldThrowQuizNotFoundException() {
+    when(quizRepository.findById(1L)).thenReturn(Optional.empty());
+
+    assertThrows(QuizNotFoundException.class, () -> quizService.closeQuiz(1L));
+  }
 }
@@ -0,0 +1,70 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dopingtech.casestudy.quiz_service.exception.QuizAssignmentNotFoundException;
+import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.model.projection.QuizSession;
+import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class QuizSessionRegistryTest {
+
+  @Mock
+  private QuizAssignmentRepository quizAssignmentRepository;
+
+  @InjectMocks
+  private QuizSessionRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(registry, "cacheManager", new CaffeineCacheManager());
+  }
+
+  @Test
+  public void get_shouldLoadSessionOnce() {
+    when(quizAssignmentRepository.findSessionById(1L)).thenReturn(
+        Optional.of(new QuizSession(7L, QuizAssignmentStatus.IN_PROGRESS, 2L)));
+
+    registry.get(1L);
+    QuizSession session = registry.get(1L);
+
+    assertEquals(7L, session.quizId());
+    assertEquals(QuizAssignmentStatus.IN_PROGRESS, session.status());
+    verify(quizAssignmentRepository, times(1)).findSessionById(1L);
+  }
+
+  @Test
+  public void get_shouldThrowQuizAssignmentNotFoundExceptionForUnknownAssignment() {
+    when(quizAssignmentRepository.findSessionById(1L)).thenReturn(Optional.empty());
+
+    assertThrows(QuizAssignmentNotFoundException.class, () -> registry.get(1L));
+  }
+
+  @Test
+  public void close_shouldReloadSessionWithItsNewStatus() {
+    when(quizAssignmentRepository.findSessionById(1L))
+        .thenReturn(Optional.of(new QuizSession(7L, QuizAssignmentStatus.IN_PROGRESS, 2L)))
+        .thenReturn(Optional.of(new QuizSession(7L, QuizAssignmentStatus.COMPLETED, 3L)));
+    registry.get(1L);
+
+    registry.close(List.of(1L));
+
+    assertEquals(QuizAssignmentStatus.COMPLETED, registry.get(1L).status());
+    assertEquals(3L, registry.get(1L).version());
+  }
+}
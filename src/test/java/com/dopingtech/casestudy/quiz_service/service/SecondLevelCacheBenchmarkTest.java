@@ -0,0 +1,105 @@
+package com.dopingtech.casestudy.quiz_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dopingtech.casestudy.quiz_service.model.dto.OptionDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuestionDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.QuizDTO;
+import com.dopingtech.casestudy.quiz_service.model.entity.Option;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class SecondLevelCacheBenchmarkTest {
+
+  private static final int QUESTIONS = 10;
+
+  private static final int PAGE_LOADS = 50;
+
+  @Autowired
+  private QuizService quizService;
+
+  @Autowired
+  private QuestionService questionService;
+
+  @Autowired
+  private OptionService optionService;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Test
+  @Tag("benchmark")
+  public void examPages_shouldBeServedFromSecondLevelCacheAfterFirstLoad() {
+    List<Long> questionIds = createQuiz("Second Level Cache Quiz");
+    entityManagerFactory.getCache().evictAll();
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    for (int load = 0; load < PAGE_LOADS; load++) {
+      for (Long questionId : questionIds) {
+        questionService.findById(questionId);
+        List<Option> options = questionService.findOptionsByQuestionId(questionId);
+        assertEquals(4, options.size());
+      }
+    }
+
+    long statements = statistics.getPrepareStatementCount();
+    long hits = statistics.getSecondLevelCacheHitCount();
+    long misses = statistics.getSecondLevelCacheMissCount();
+    long queryHits = statistics.getQueryCacheHitCount();
+    String summary = statements + " statements, " + hits + " entity hits, " + misses
+        + " entity misses, " + queryHits + " query cache hits";
+    // Without the cache every page load runs one question and one option query per question
+    assertTrue(statements <= 2L * QUESTIONS, summary);
+    assertTrue(hits / (double) (hits + misses) > 0.95, summary);
+    assertTrue(queryHits >= (PAGE_LOADS - 1L) * QUESTIONS, summary);
+  }
+
+  @Test
+  public void updateOption_shouldBeVisibleThroughQueryCache() {
+    List<Long> questionIds = createQuiz("Second Level Cache Update Quiz");
+    Long questionId = questionIds.get(0);
+    Option option = questionService.findOptionsByQuestionId(questionId).get(0);
+
+    OptionDTO optionDTO = new OptionDTO();
+    optionDTO.setQuestionId(questionId);
+    optionDTO.setLetter(option.getLetter());
+    optionDTO.setText("Updated option");
+    optionService.updateOption(option.getId(), optionDTO);
+
+    assertTrue(questionService.findOptionsByQuestionId(questionId).stream()
+        .anyMatch(cached -> cached.getText().equals("Updated option")));
+  }
+
+  private List<Long> createQuiz(String name) {
+    QuizDTO quizDTO = new QuizDTO();
+    quizDTO.setName(name);
+    Long quizId = quizService.createQuiz(quizDTO).getId();
+    List<Long> questionIds = new ArrayList<>();
+    for (int i = 0; i < QUESTIONS; i++) {
+      QuestionDTO questionDTO = new QuestionDTO();
+      questionDTO.setQuizId(quizId);
+      questionDTO.setText(name + " question " + i);
+      questionDTO.setCorrectAnswer("A");
+      Long questionId = questionService.createQuestion(questionDTO).getId();
+      for (String letter : List.of("A", "B", "C", "D")) {
+        OptionDTO optionDTO = new OptionDTO();
+        optionDTO.setQuestionId(questionId);
+        optionDTO.setLetter(letter);
+        optionDTO.setText("Option " + letter);
+        optionService.createOption(optionDTO);
+      }
+      questionIds.add(questionId);
+    }
+    return questionIds;
+  }
+}
@@ -8,8 +8,10 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.dopingtech.casestudy.quiz_service.exception.InvalidCursorException;
 import com.dopingtech.casestudy.quiz_service.exception.StudentNotFoundException;
 import com.dopingtech.casestudy.quiz_service.model.dto.CompletedQuizDTO;
+import com.dopingtech.casestudy.quiz_service.model.dto.CursorPageDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.QuizInfoDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.StudentDTO;
 import com.dopingtech.casestudy.quiz_service.model.dto.StudentInfoDTO;
@@ -17,6 +19,7 @@ import com.dopingtech.casestudy.quiz_service.model.entity.Quiz;
 import com.dopingtech.casestudy.quiz_service.model.entity.QuizAssignment;
 import com.dopingtech.casestudy.quiz_service.model.entity.Student;
 import com.dopingtech.casestudy.quiz_service.model.enums.QuizAssignmentStatus;
+import com.dopingtech.casestudy.quiz_service.model.projection.StudentView;
 import com.dopingtech.casestudy.quiz_service.repository.QuizAssignmentRepository;
 import com.dopingtech.casestudy.quiz_service.repository.QuizRepository;
 import com.dopingtech.casestudy.quiz_service.repository.StudentRepository;
@@ -29,7 +32,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
 public class StudentServiceTest {
@@ -43,6 +49,18 @@ public class StudentServiceTest {
   @Mock
   private QuizAssignmentRepository quizAssignmentRepository;
 
+  @Mock
+  private AggregateVersions aggregateVersions;
+
+  @Mock
+  private ExistenceIndex existenceIndex;
+
+  @Mock
+  private QuizCacheEvictor quizCacheEvictor;
+
+  @Spy
+  private CursorPagination cursorPagination = new CursorPagination();
+
   @InjectMocks
   private StudentService studentService;
 
@@ -51,6 +69,8 @@ public class StudentServiceTest {
 
   @BeforeEach
   public void setUp() {
+    ReflectionTestUtils.setField(cursorPagination, "defaultSize", 50);
+    ReflectionTestUtils.setField(cursorPagination, "maxSize", 500);
     student = new Student();
     student.setId(1L);
     student.setFirstName("John");
@@ -64,47 +84,54 @@ public class StudentServiceTest {
   }
 
   @Test
-  public void findAll_shouldReturnStudentInfoDTOs() {
-    List<Student> students = Collections.singletonList(student);
-    when(studentRepository.findAll()).thenReturn(students);
+  public void findPage_shouldReturnNextCursorWhenMoreStudentsExist() {
+    StudentInfoDTO first = new StudentInfoDTO(1L, "John", "Doe", "12345");
+    StudentInfoDTO second = new StudentInfoDTO(2L, "Jane", "Doe", "12346");
+    when(studentRepository.findInfoPage(0L, Limit.of(2))).thenReturn(List.of(first, second));
 
-    List<StudentInfoDTO> result = studentService.findAll();
+    CursorPageDTO<StudentInfoDTO> result = studentService.findPage(null, 1);
 
-    assertEquals(students.get(0).getId(), result.get(0).getId());
+    assertEquals(List.of(first), result.getItems());
+    assertEquals(new CursorPagination().cursorOf(1L), result.getNextCursor());
   }
 
-
   @Test
-  public void findAll_shouldCallFindAllMethodOnce() {
-    List<Student> students = Collections.singletonList(student);
-    when(studentRepository.findAll()).thenReturn(students);
+  public void findPage_shouldCapPageSize() {
+    when(studentRepository.findInfoPage(0L, Limit.of(501))).thenReturn(List.of());
 
-    studentService.findAll();
+    studentService.findPage(null, 100000);
 
-    verify(studentRepository, times(1)).findAll();
+    verify(studentRepository, times(1)).findInfoPage(0L, Limit.of(501));
+  }
+
+  @Test
+  public void findPage_shouldRejectInvalidCursor() {
+    assertThrows(InvalidCursorException.class, () -> studentService.findPage("not-a-cursor", 10));
   }
 
   @Test
   public void findById_shouldReturnStudent() {
-    when(studentRepository.findById(1L)).thenReturn(Optional.of(student));
+    StudentView studentView = new StudentView(1L, "John", "Doe", "12345");
+    when(studentRepository.findViewById(1L)).thenReturn(Optional.of(studentView));
 
-    Student result = studentService.findById(1L);
+    StudentView result = studentService.findById(1L);
 
-    assertEquals(student, result);
+    assertEquals(studentView, result);
   }
 
   @Test
-  public void findById_shouldCallFindByIdMethodOnce() {
-    when(studentRepository.findById(1L)).thenReturn(Optional.of(student));
+  public void findById_shouldCallFindViewByIdMethodOnce() {
+    when(studentRepository.findViewById(1L))
+        .thenReturn(Optional.of(new StudentView(1L, "John", "Doe", "12345")));
 
     studentService.findById(1L);
 
-    verify(studentRepository, times(1)).findById(1L);
+    verify(studentRepository, times(1)).findViewById(1L);
   }
 
   @Test
   public void findById_shouldThrowStudentNotFoundException() {
-    when(studentRepository.findById(1L)).thenReturn(Optional.empty());
+    when(studentRepository.findViewById(1L)).thenReturn(Optional.empty());
 
     assertThrows(StudentNotFoundException.class, () -> studentService.findById(1L));
   }
@@ -118,7 +145,7 @@ public class StudentServiceTest {
     List<QuizAssignment> quizAssignments = new ArrayList<>();
     quizAssignments.add(assignment);
 
-    when(studentRepository.existsById(student.getId())).thenReturn(true);
+    when(existenceIndex.exists(ExistenceIndex.Kind.STUDENT, student.getId())).thenReturn(true);
     when(quizAssignmentRepository.findByStudentId(1L)).thenReturn(List.of(assignment));
 
     List<QuizAssignment> result = studentService.findQuizAssignmentsByStudentId(1L);
@@ -128,7 +155,7 @@ public class StudentServiceTest {
 
   @Test
   public void findQuizAssignmentsByStudentId_shouldThrowStudentNotFoundException() {
-    when(studentRepository.existsById(1L)).thenReturn(false);
+    when(existenceIndex.exists(ExistenceIndex.Kind.STUDENT, 1L)).thenReturn(false);
 
     assertThrows(StudentNotFoundException.class, () -> {
       studentService.findQuizAssignmentsByStudentId(1L);
@@ -141,7 +168,7 @@ public class StudentServiceTest {
     quiz.setId(1L);
     quiz.setName("Sample Quiz");
 
-    when(studentRepository.existsById(student.getId())).thenReturn(true);
+    when(existenceIndex.exists(ExistenceIndex.Kind.STUDENT, student.getId())).thenReturn(true);
     when(quizRepository.findByQuizAssignmentsStudentId(1L)).thenReturn(List.of(quiz));
 
     List<QuizInfoDTO> quizzes = studentService.findQuizzesByStudentId(1L);
@@ -155,7 +182,7 @@ public class StudentServiceTest {
     quiz.setId(1L);
     quiz.setName("Sample Quiz");
 
-    when(studentRepository.existsById(student.getId())).thenReturn(true);
+    when(existenceIndex.exists(ExistenceIndex.Kind.STUDENT, student.getId())).thenReturn(true);
     when(quizRepository.findByQuizAssignmentsStudentId(1L)).thenReturn(List.of(quiz));
 
     studentService.findQuizzesByStudentId(1L);
@@ -167,7 +194,7 @@ public class StudentServiceTest {
   public void findQuizzesByStudentId_shouldThrowStudentNotFoundException() {
     Long studentId = 1L;
 
-    when(studentRepository.existsById(studentId)).thenReturn(false);
+    when(existenceIndex.exists(ExistenceIndex.Kind.STUDENT, studentId)).thenReturn(false);
 
     assertThrows(StudentNotFoundException.class, () -> {
       studentService.findQuizzesByStudentId(studentId);
@@ -176,30 +203,22 @@ public class StudentServiceTest {
 
   @Test
   public void getCompletedQuizzesByStudentId_shouldReturnCompletedQuizzes() {
-    Quiz quiz = new Quiz();
-    quiz.setId(1L);
-    quiz.setName("Sample Quiz");
-
-    QuizAssignment assignment = new QuizAssignment();
-    assignment.setId(1L);
-    assignment.setStatus(QuizAssignmentStatus.COMPLETED);
-    assignment.setQuiz(quiz);
-
-    List<QuizAssignment> quizAssignments = new ArrayList<>();
-    quizAssignments.add(assignment);
+    CompletedQuizDTO completedQuiz = new CompletedQuizDTO("Sample Quiz", 8, 80.0);
 
-    when(studentRepository.existsById(1L)).thenReturn(true);
-    when(quizAssignmentRepository.findByStudentId(1L))
-        .thenReturn(Collections.singletonList(assignment));
+    when(existenceIndex.exists(ExistenceIndex.Kind.STUDENT, 1L)).thenReturn(true);
+    when(quizAssignmentRepository.findQuizResultsByStudentId(1L, QuizAssignmentStatus.COMPLETED))
+        .thenReturn(Collections.singletonList(completedQuiz));
 
     List<CompletedQuizDTO> result = studentService.getCompletedQuizzesByStudentId(1L);
 
-    assertEquals(quizAssignments.get(0).getQuiz().getName(), result.get(0).getQuizName());
+    assertEquals("Sample Quiz", result.get(0).getQuizName());
+    assertEquals(8, result.get(0).getCorrectAnswerCount());
+    assertEquals(80.0, result.get(0).getScore());
   }
 
   @Test
   public void getCompletedQuizzesByStudentId_shouldThrowStudentNotFoundException() {
-    when(studentRepository.existsById(1L)).thenReturn(false);
+    when(existenceIndex.exists(ExistenceIndex.Kind.STUDENT, 1L)).thenReturn(false);
 
     assertThrows(StudentNotFoundException.class, () -> {
       studentService.getCompletedQuizzesByStudentId(1L);
@@ -266,7 +285,7 @@ public class StudentServiceTest {
 
   @Test
   public void deleteStudent_shouldCallDeleteByIdMethodOnce() {
-    when(studentRepository.existsById(1L)).thenReturn(true);
+    when(existenceIndex.exists(ExistenceIndex.Kind.STUDENT, 1L)).thenReturn(true);
     doNothing().when(studentRepository).deleteById(1L);
 
     studentService.deleteStudent(1L);
@@ -274,9 +293,22 @@ public class StudentServiceTest {
     verify(studentRepository).deleteById(1L);
   }
 
+  @Test
+  public void deleteStudent_shouldRemoveCascadedAssignmentsFromIndex() {
+    when(existenceIndex.exists(ExistenceIndex.Kind.STUDENT, 1L)).thenReturn(true);
+    when(quizAssignmentRepository.findIdsByStudentId(1L)).thenReturn(List.of(2L, 3L));
+
+    studentService.deleteStudent(1L);
+
+    verify(existenceIndex, times(1)).removed(ExistenceIndex.Kind.STUDENT, 1L);
+    verify(existenceIndex, times(1)).removed(ExistenceIndex.Kind.QUIZ_ASSIGNMENT,
+        List.of(2L, 3L));
+    verify(quizCacheEvictor, times(1)).evictAssignments(List.of(2L, 3L));
+  }
+
   @Test
   public void deleteStudent_shouldThrowStudentNotFoundException() {
-    when(studentRepository.existsById(1L)).thenReturn(false);
+    when(existenceIndex.exists(ExistenceIndex.Kind.STUDENT, 1L)).thenReturn(false);
 
     assertThrows(StudentNotFoundException.class, () -> studentService.deleteStudent(1L));
   }